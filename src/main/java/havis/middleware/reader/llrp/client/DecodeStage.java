@@ -0,0 +1,227 @@
+package havis.middleware.reader.llrp.client;
+
+import havis.llrpservice.data.message.Message;
+import havis.middleware.reader.llrp.util.ByteBufferPool;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that deserializes the frames of a connection on a worker pool shared
+ * by all connections. The receiving thread only copies each frame and
+ * submits it, the decoded messages pass a reorder buffer and are delivered in
+ * the order of their receipt. Delivery runs on a thread of the stage, the
+ * workers only decode. A delivery waiting for a full event queue therefore
+ * holds back the frames of its connection only, not the workers of all
+ * connections. The delivering thread terminates while the stage is idle.
+ */
+class DecodeStage {
+	private final static Logger log = Logger.getLogger(DecodeStage.class.getName());
+
+	/**
+	 * The number of frames decoded or awaiting delivery per connection
+	 */
+	final static int DEFAULT_CAPACITY = 256;
+
+	private final static ExecutorService workers;
+	private final static AtomicInteger deliverers = new AtomicInteger();
+
+	static {
+		int threads = Runtime.getRuntime().availableProcessors();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable task) {
+						Thread thread = new Thread(task, "LLRPClient decoder " + count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+		workers = executor;
+	}
+
+	/**
+	 * Interface of the decoding and delivering client.
+	 */
+	interface Decoder {
+		/**
+		 * Decodes the message in <paramref name="frame"/>, called on a worker.
+		 */
+		Message decode(ByteBuffer frame) throws Exception;
+
+		/**
+		 * Computes the content key of <paramref name="message"/> from the
+		 * decoded <paramref name="frame"/>, called on a worker.
+		 */
+		long contentKey(Message message, ByteBuffer frame);
+
+		/**
+		 * Delivers <paramref name="message"/>, called in order of receipt on
+		 * the delivering thread. May block.
+		 */
+		void deliver(Message message, long contentKey);
+
+		/**
+		 * Reports the failure of decoding a frame, called in order of receipt
+		 * on the delivering thread.
+		 */
+		void failed(Exception cause);
+	}
+
+	private final Decoder decoder;
+	private final Slot[] slots;
+	private final int mask;
+	private final Semaphore permits;
+	private final AtomicInteger wip = new AtomicInteger();
+	private final ExecutorService delivery;
+
+	private final Runnable drainTask = new Runnable() {
+		@Override
+		public void run() {
+			drain();
+		}
+	};
+
+	// accessed by the receiving thread only
+	private long submitted = 0;
+	// accessed by the delivering thread only
+	private long delivered = 0;
+
+	/**
+	 * Creates a new stage.
+	 *
+	 * @param decoder
+	 *            The client decoding and delivering the messages
+	 * @param capacity
+	 *            The maximum number of frames in the stage, rounded up to a
+	 *            power of two
+	 */
+	DecodeStage(Decoder decoder, int capacity) {
+		if (capacity < 1 || capacity > 1 << 16)
+			throw new IllegalArgumentException("Invalid capacity " + capacity);
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		this.decoder = decoder;
+		this.slots = new Slot[size];
+		for (int i = 0; i < size; i++) {
+			this.slots[i] = new Slot();
+		}
+		this.mask = size - 1;
+		this.permits = new Semaphore(size);
+		final String name = "LLRPClient deliverer " + deliverers.incrementAndGet();
+		ThreadPoolExecutor delivery = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		delivery.allowCoreThreadTimeOut(true);
+		this.delivery = delivery;
+	}
+
+	/**
+	 * @return the number of frames decoded or awaiting delivery
+	 */
+	int getPending() {
+		return this.slots.length - this.permits.availablePermits();
+	}
+
+	/**
+	 * Copies <paramref name="frame"/> and submits it for decoding, called by
+	 * the receiving thread. Waits while the stage is full. The receiving
+	 * thread of a NIOConnection is the inbound thread of the connection, not
+	 * the shared reactor, the reactor stops reading the connection while the
+	 * inbound thread waits.
+	 *
+	 * @param frame
+	 *            The frame between position and limit
+	 * @throws InterruptedException
+	 *             if interrupted while waiting, the frame is discarded
+	 */
+	void submit(ByteBuffer frame) throws InterruptedException {
+		this.permits.acquire();
+		final long sequence = this.submitted++;
+		final ByteBuffer copy = ByteBufferPool.HEAP.acquire(frame.remaining());
+		copy.put(frame.duplicate());
+		copy.flip();
+		workers.execute(new Runnable() {
+			@Override
+			public void run() {
+				decode(sequence, copy);
+			}
+		});
+	}
+
+	private void decode(long sequence, ByteBuffer frame) {
+		Slot slot = this.slots[(int) (sequence & this.mask)];
+		try {
+			Message message = this.decoder.decode(frame);
+			slot.message = message;
+			slot.contentKey = this.decoder.contentKey(message, frame);
+		} catch (Exception e) {
+			slot.error = e;
+		} finally {
+			ByteBufferPool.HEAP.release(frame);
+		}
+		slot.done = true;
+		// the worker hands over without waiting for the delivery
+		if (this.wip.getAndIncrement() == 0)
+			this.delivery.execute(this.drainTask);
+	}
+
+	/**
+	 * Delivers the completed messages in order until the next one is still
+	 * being decoded, runs on the delivering thread. Messages completed
+	 * meanwhile are delivered by the running drain.
+	 */
+	private void drain() {
+		do {
+			Slot slot = this.slots[(int) (this.delivered & this.mask)];
+			while (slot.done) {
+				Message message = slot.message;
+				long contentKey = slot.contentKey;
+				Exception error = slot.error;
+				slot.message = null;
+				slot.error = null;
+				slot.done = false;
+				this.delivered++;
+				this.permits.release();
+
+				try {
+					if (error != null)
+						this.decoder.failed(error);
+					else
+						this.decoder.deliver(message, contentKey);
+				} catch (RuntimeException e) {
+					log.log(Level.SEVERE, "Failed to deliver message", e);
+				}
+				slot = this.slots[(int) (this.delivered & this.mask)];
+			}
+		} while (this.wip.decrementAndGet() != 0);
+	}
+
+	/**
+	 * Class that represents a place in the reorder buffer.
+	 */
+	private static final class Slot {
+		private Message message;
+		private long contentKey;
+		private Exception error;
+		// written last by the decoding worker, read first by the deliverer
+		private volatile boolean done;
+	}
+}
@@ -0,0 +1,58 @@
+package havis.middleware.reader.llrp.client;
+
+import havis.llrpservice.data.message.MessageHeader;
+import havis.llrpservice.data.message.ROAccessReport;
+import havis.middleware.reader.llrp.service.event.LazyMessage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Class that carries the encoded RO_ACCESS_REPORT through the event queue.
+ * Only the header is decoded on receipt, the body is decoded on first access
+ * of a listener.
+ */
+class EncodedROAccessReport extends ROAccessReport implements LazyMessage {
+	private byte[] frame;
+	private volatile ROAccessReport report;
+
+	/**
+	 * Creates a new encoded report.
+	 *
+	 * @param header
+	 *            The decoded message header
+	 * @param frame
+	 *            The frame of the report, the remaining bytes are copied
+	 */
+	EncodedROAccessReport(MessageHeader header, ByteBuffer frame) {
+		super(header);
+		this.frame = new byte[frame.remaining()];
+		frame.duplicate().get(this.frame);
+	}
+
+	/**
+	 * @return Indicator if the body was decoded
+	 */
+	boolean isDecoded() {
+		return this.report != null;
+	}
+
+	@Override
+	public ROAccessReport decode() {
+		ROAccessReport report = this.report;
+		if (report == null) {
+			synchronized (this) {
+				report = this.report;
+				if (report == null) {
+					try {
+						report = (ROAccessReport) LLRPClient.deserialize(ByteBuffer.wrap(this.frame));
+					} catch (Exception e) {
+						throw new IllegalStateException("Failed to deserialize RO_ACCESS_REPORT: " + e.toString(), e);
+					}
+					this.report = report;
+					this.frame = null;
+				}
+			}
+		}
+		return report;
+	}
+}
@@ -1,250 +1,736 @@
-package havis.middleware.reader.llrp.client;
-
-import havis.llrpservice.data.message.Message;
-import havis.llrpservice.data.message.MessageHeader;
-import havis.llrpservice.data.message.parameter.serializer.InvalidParameterTypeException;
-import havis.llrpservice.data.message.serializer.ByteBufferSerializer;
-import havis.llrpservice.data.message.serializer.InvalidMessageTypeException;
-import havis.middleware.reader.llrp.connection.Connection;
-import havis.middleware.reader.llrp.connection.TCPConnection;
-import havis.middleware.reader.llrp.service.LLRPMessageHandler;
-
-import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.ClosedByInterruptException;
-import java.nio.channels.ClosedChannelException;
-
-/**
- * Class that represents a client to handle incoming and outgoing
- *
- * @see Message
- */
-public class LLRPClient {
-	Connection connection;
-	private LLRPConnection llrpConnection;
-	private Thread retrieveThread;
-	private boolean isDisposed = false;
-	private boolean retrieveLoop = false;
-	private LLRPMessageHandler handler;
-
-	/**
-	 * Creates a new LLRP client
-	 *
-	 * @param handler the message handler to use
-	 */
-	public LLRPClient(LLRPMessageHandler handler) {
-		this.handler = handler;
-	}
-
-	/**
-	 * @return the LLRP connection properties
-	 */
-	public LLRPConnection getLlrpConnection() {
-		return llrpConnection;
-	}
-
-	/**
-	 * Method to establish the connection to a LLRP reader.
-	 * 
-	 * @param llrpConnection
-	 *            The object that provide all connection informations
-	 * @return Indicator if the connection was successfully established or not
-	 */
-	public boolean openConnection(LLRPConnection llrpConnection) {
-		synchronized (this) {
-			try {
-				this.llrpConnection = llrpConnection;
-				if (!(this.connection != null && this.connection.isConnected())) {
-					switch (llrpConnection.getConnectionType()) {
-					case TCP:
-						this.connection = new TCPConnection(llrpConnection.getHost(), llrpConnection.getPort(), llrpConnection.getTimeout(),
-								(int) (llrpConnection.getConnectionProperties().getKeepalive() * 1.1));
-						break;
-					default:
-						return false;
-					}
-					if (!this.connection.openConnection())
-						return false;
-					this.retrieveLoop = true;
-					this.retrieveThread = new Thread(new Runnable() {
-						@Override
-						public void run() {
-							retrieveMessageLoop();
-						}
-					}, "LLRPClient retrieveMessageLoop() for " + llrpConnection.getHost() + ":" + llrpConnection.getPort());
-					this.retrieveThread.start();
-					return true;
-				} else
-					return false;
-			} catch (Exception exc) {
-				return false;
-			}
-		}
-	}
-
-	/**
-	 * Method to disconnect form the llrp reader.
-	 *
-	 * @throws IOException
-	 */
-	public void closeConnection() {
-		synchronized (this) {
-			this.retrieveLoop = false;
-
-			if (this.retrieveThread != null) {
-				this.retrieveThread.interrupt();
-			}
-
-			if (this.connection != null) {
-				this.connection.closeConnection();
-			}
-		}
-	}
-
-	/**
-	 * Method to send a LLRP message to the llrp reader.
-	 *
-	 * @param message
-	 *            The message to be send
-	 * @throws IOException
-	 * @throws InvalidParameterTypeException
-	 * @throws InvalidMessageTypeException
-	 */
-	public void sendMessage(Message message) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
-		synchronized (this) {
-			ByteBufferSerializer serializer = new ByteBufferSerializer();
-			ByteBuffer data = ByteBuffer.allocate((int) serializer.getLength(message));
-
-			serializer.serialize(message, data);
-
-			this.connection.sendMessage(data);
-		}
-	}
-
-	/**
-	 * Loop method for the client thread where incomming bits are translated
-	 * into LLRP messages. This method uses the <see cref="LLRPMessageHandler"/>
-	 * to send the incomming responses to the related requestor. Furthermore the
-	 * method triggers events for all unrequested messages from the LLRP reader.
-	 */
-	private void retrieveMessageLoop() {
-		try {
-			boolean lastWasError = false;
-			while (this.retrieveLoop) {
-				try {
-					ByteBuffer header = this.connection.retrieveMessage(ByteBufferSerializer.MESSAGE_HEADER_LENGTH, this.connection.getKeepalive());
-					ByteBufferSerializer serializer = new ByteBufferSerializer();
-
-					MessageHeader msgHeader = serializer.deserializeMessageHeader(header);
-					ByteBuffer body;
-
-					if (msgHeader.getMessageLength() > 10) {
-						body = this.connection.retrieveMessage((int) msgHeader.getMessageLength() - ByteBufferSerializer.MESSAGE_HEADER_LENGTH, this.connection.getTimeout());
-					} else {
-						body = ByteBuffer.allocate(0);
-					}
-
-					Message message = serializer.deserializeMessage(msgHeader, body);
-					delegateEventsAndReports(message);
-
-					lastWasError = false;
-				} catch (ClosedByInterruptException e) {
-					// nothing to do, we have been interrupted (retrieveLoop is most likely false)
-				} catch (ClosedChannelException e) {
-					if (lastWasError)
-						break; // end loop
-					else {
-						if (this.handler != null) {
-							this.handler.notifyNoDataReceived();
-						}
-					}
-				} catch (IOException e) {
-					lastWasError = true;
-					if (this.handler != null) {
-						this.handler.notifyNoDataReceived();
-					}
-				}
-			}
-		} catch (InterruptedException e) {
-			// nothing to do
-		} catch (Exception e) {
-			if (this.handler != null) {
-				this.handler.notifyNoDataReceived();
-			}
-		}
-	}
-
-	private void delegateEventsAndReports(Message message) {
-		switch (message.getMessageHeader().getMessageType()) {
-		case GET_SUPPORTED_VERSION_RESPONSE:
-		case SET_PROTOCOL_VERSION_RESPONSE:
-		case GET_READER_CAPABILITIES_RESPONSE:
-		case ADD_ROSPEC_RESPONSE:
-		case DELETE_ROSPEC_RESPONSE:
-		case START_ROSPEC_RESPONSE:
-		case STOP_ROSPEC_RESPONSE:
-		case ENABLE_ROSPEC_RESPONSE:
-		case DISABLE_ROSPEC_RESPONSE:
-		case GET_ROSPECS_RESPONSE:
-		case ADD_ACCESSSPEC_RESPONSE:
-		case DELETE_ACCESSSPEC_RESPONSE:
-		case ENABLE_ACCESSSPEC_RESPONSE:
-		case DISABLE_ACCESSSPEC_RESPONSE:
-		case GET_ACCESSSPECS_RESPONSE:
-		case GET_READER_CONFIG_RESPONSE:
-		case SET_READER_CONFIG_RESPONSE:
-		case CLOSE_CONNECTION_RESPONSE:
-		case ERROR_MESSAGE:
-			if (this.handler != null)
-				this.handler.notifyResponse(message);
-			break;
-		case RO_ACCESS_REPORT:
-		case CLIENT_REQUEST_OP:
-		case KEEPALIVE:
-		case READER_EVENT_NOTIFICATION:
-			if (this.handler != null)
-				this.handler.notifyEvent(message);
-			break;
-		default:
-			break;
-		}
-	}
-
-	/**
-	 * Disposes this instance.
-	 *
-	 * @throws IOException
-	 */
-	public void dispose() throws IOException {
-		dispose(true);
-	}
-
-	/**
-	 * Disposes this instance. According to <paramref name="disposing"/> also
-	 * managed resources will be disposed.
-	 *
-	 * @param disposing
-	 *            Indicator if also managed resources should be dispoed.
-	 * @throws IOException
-	 */
-	protected void dispose(boolean disposing) throws IOException {
-		if (!this.isDisposed) {
-			if (disposing) {
-				if (this.connection != null) {
-					this.connection.dispose();
-				}
-			}
-
-			if (this.retrieveThread != null) {
-				if (this.retrieveThread.isAlive()) {
-					this.retrieveLoop = false;
-				}
-			}
-
-			this.retrieveThread = null;
-			this.connection = null;
-			this.handler = null;
-			this.isDisposed = true;
-		}
-	}
-}
+package havis.middleware.reader.llrp.client;
+
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.MessageHeader;
+import havis.llrpservice.data.message.MessageTypes.MessageType;
+import havis.llrpservice.data.message.ROAccessReport;
+import havis.llrpservice.data.message.parameter.serializer.InvalidParameterTypeException;
+import havis.llrpservice.data.message.serializer.ByteBufferSerializer;
+import havis.llrpservice.data.message.serializer.InvalidMessageTypeException;
+import havis.middleware.reader.llrp.connection.Connection;
+import havis.middleware.reader.llrp.connection.FrameHandler;
+import havis.middleware.reader.llrp.connection.LLRPFrameDecoder;
+import havis.middleware.reader.llrp.connection.NIOConnection;
+import havis.middleware.reader.llrp.connection.PullConnection;
+import havis.middleware.reader.llrp.connection.TCPConnection;
+import havis.middleware.reader.llrp.service.LLRPMessageHandler;
+import havis.middleware.reader.llrp.service.ReportSubscription;
+import havis.middleware.reader.llrp.util.ByteBufferPool;
+import havis.middleware.reader.llrp.util.IDGenerator;
+import havis.middleware.reader.llrp.util.ThreadMode;
+import havis.middleware.reader.llrp.util.Threads;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that represents a client to handle incoming and outgoing
+ *
+ * @see Message
+ */
+public class LLRPClient {
+	Connection connection;
+	private LLRPConnection llrpConnection;
+	private Thread retrieveThread;
+	private boolean isDisposed = false;
+	private boolean retrieveLoop = false;
+	private LLRPMessageHandler handler;
+	private final IDGenerator idGenerator = new IDGenerator();
+
+	private final static Logger log = Logger.getLogger(LLRPClient.class.getName());
+
+	private final static int UTC_TIMESTAMP_TYPE = 128;
+	private final static int UPTIME_TYPE = 129;
+	private final static int KEEPALIVE_TYPE = 62;
+	private final static int KEEPALIVE_ACK_TYPE = 72;
+	private final static int RO_ACCESS_REPORT_TYPE = 61;
+	private final static int GET_REPORT_TYPE = 60;
+	private final static int TAG_REPORT_DATA_TYPE = 240;
+
+	/**
+	 * Minimum length of RO_ACCESS_REPORT messages decoded on first access
+	 * instead of on receipt
+	 */
+	final static int LAZY_DECODE_LENGTH = 1024;
+
+	/**
+	 * KEEPALIVE_ACK message, version and message ID are patched per
+	 * KEEPALIVE
+	 */
+	private final static MessageTemplate KEEPALIVE_ACK = new MessageTemplate(new byte[] { 0x00, (byte) KEEPALIVE_ACK_TYPE, 0, 0, 0,
+			(byte) ByteBufferSerializer.MESSAGE_HEADER_LENGTH, 0, 0, 0, 0 });
+
+	/**
+	 * GET_REPORT message, version and message ID are patched per request
+	 */
+	private final static MessageTemplate GET_REPORT = new MessageTemplate(new byte[] { 0x00, (byte) GET_REPORT_TYPE, 0, 0, 0,
+			(byte) ByteBufferSerializer.MESSAGE_HEADER_LENGTH, 0, 0, 0, 0 });
+
+	/**
+	 * Version bits of the last received message, LLRP 1.1 until the first
+	 * message was received
+	 */
+	private volatile byte versionBits = 2 << 2;
+
+	private volatile boolean keepaliveAutoAck = false;
+	private volatile DecodeStage decodeStage;
+	private volatile ThreadMode threadMode = ThreadMode.PLATFORM;
+
+	/**
+	 * Cursor over the TagReportData of the current report, used by the
+	 * receiving thread only
+	 */
+	private final TagReportCursor tagReportCursor = new TagReportCursor();
+
+	/**
+	 * Handler for the frames split by the <see cref="LLRPFrameDecoder"/>
+	 */
+	private final FrameHandler frameHandler = new FrameHandler() {
+		@Override
+		public void frameReceived(ByteBuffer frame) {
+			try {
+				LLRPMessageHandler handler = LLRPClient.this.handler;
+				int type = messageType(frame);
+				versionBits = (byte) (frame.get(frame.position()) & 0x1C);
+				if (keepaliveAutoAck && type == KEEPALIVE_TYPE) {
+					sendKeepaliveAck(frame);
+				}
+				if (type == RO_ACCESS_REPORT_TYPE) {
+					selectReports(frame);
+					if (handler != null) {
+						handler.notifyTagReports(frame, tagReportCursor);
+						handler.notifyReportReceived(frame, tagReportCursor);
+					}
+				}
+
+				// route on the header, frames nobody consumes are not decoded
+				MessageType messageType = MessageTypeCodes.get(type);
+				if (messageType == null || handler == null || !handler.isConsumed(messageType, messageID(frame))) {
+					return;
+				}
+
+				DecodeStage decodeStage = LLRPClient.this.decodeStage;
+				if (decodeStage != null) {
+					decodeStage.submit(frame);
+					return;
+				}
+				Message message = decoder.decode(frame);
+				delegateEventsAndReports(message, decoder.contentKey(message, frame));
+			} catch (InterruptedException e) {
+				// the connection is closing, the frame is discarded
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				log.log(Level.SEVERE, "Failed to deserialize message: " + e.toString());
+				receiveFailed(new IOException(e.toString()));
+			}
+		}
+
+		@Override
+		public void receiveFailed(IOException cause) {
+			LLRPMessageHandler handler = LLRPClient.this.handler;
+			if (handler != null) {
+				handler.notifyNoDataReceived();
+			}
+		}
+	};
+
+	/**
+	 * Decoder of the received frames, called by the receiving thread or by
+	 * the workers and the delivering thread of the <see cref="DecodeStage"/>
+	 */
+	private final DecodeStage.Decoder decoder = new DecodeStage.Decoder() {
+		@Override
+		public Message decode(ByteBuffer frame) throws Exception {
+			if (messageType(frame) == RO_ACCESS_REPORT_TYPE && frame.remaining() >= LAZY_DECODE_LENGTH)
+				return new EncodedROAccessReport(deserializeHeader(frame), frame);
+			return deserialize(frame);
+		}
+
+		@Override
+		public long contentKey(Message message, ByteBuffer frame) {
+			return message.getMessageHeader().getMessageType() == MessageType.READER_EVENT_NOTIFICATION ? notificationKey(frame) : 0;
+		}
+
+		@Override
+		public void deliver(Message message, long contentKey) {
+			delegateEventsAndReports(message, contentKey);
+		}
+
+		@Override
+		public void failed(Exception cause) {
+			log.log(Level.SEVERE, "Failed to deserialize message: " + cause.toString());
+			frameHandler.receiveFailed(new IOException(cause.toString()));
+		}
+	};
+
+	/**
+	 * Creates a new LLRP client
+	 *
+	 * @param handler the message handler to use
+	 */
+	public LLRPClient(LLRPMessageHandler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Generates the ID of the next message sent by this client. IDs are unique
+	 * per client until the 32-bit range wraps.
+	 *
+	 * @return the next message ID
+	 */
+	public long getNextMessageID() {
+		return this.idGenerator.nextID();
+	}
+
+	/**
+	 * Enables deserializing the received frames on a worker pool shared by
+	 * all clients. The receiving thread then only splits the frames, the
+	 * messages are delivered in the order of their receipt. Should be set
+	 * before the connection is opened.
+	 *
+	 * @param parallelDecoding
+	 *            Indicator if frames are deserialized in parallel
+	 */
+	public void setParallelDecoding(boolean parallelDecoding) {
+		if (parallelDecoding == (this.decodeStage != null))
+			return;
+		this.decodeStage = parallelDecoding ? new DecodeStage(this.decoder, DecodeStage.DEFAULT_CAPACITY) : null;
+	}
+
+	/**
+	 * @return Indicator if frames are deserialized in parallel
+	 */
+	public boolean isParallelDecoding() {
+		return this.decodeStage != null;
+	}
+
+	/**
+	 * Sets the kind of thread running the receive loop of the next opened
+	 * TCP connection. NIO connections are read by the shared reactor threads,
+	 * their frames are handled on a thread of the connection.
+	 *
+	 * @param threadMode
+	 *            The thread mode
+	 */
+	public void setThreadMode(ThreadMode threadMode) {
+		this.threadMode = threadMode;
+	}
+
+	/**
+	 * @return the kind of thread running the receive loop
+	 */
+	public ThreadMode getThreadMode() {
+		return this.threadMode;
+	}
+
+	/**
+	 * Enables answering each KEEPALIVE with a KEEPALIVE_ACK immediately on
+	 * the receiving thread. The KEEPALIVE is delivered as event anyway.
+	 *
+	 * @param keepaliveAutoAck
+	 *            Indicator if KEEPALIVE messages are acknowledged
+	 *            automatically
+	 */
+	public void setKeepaliveAutoAck(boolean keepaliveAutoAck) {
+		this.keepaliveAutoAck = keepaliveAutoAck;
+	}
+
+	/**
+	 * @return Indicator if KEEPALIVE messages are acknowledged automatically
+	 */
+	public boolean isKeepaliveAutoAck() {
+		return this.keepaliveAutoAck;
+	}
+
+	/**
+	 * @return the LLRP connection properties
+	 */
+	public LLRPConnection getLlrpConnection() {
+		return llrpConnection;
+	}
+
+	/**
+	 * Method to establish the connection to a LLRP reader.
+	 * 
+	 * @param llrpConnection
+	 *            The object that provide all connection informations
+	 * @return Indicator if the connection was successfully established or not
+	 */
+	public boolean openConnection(LLRPConnection llrpConnection) {
+		synchronized (this) {
+			try {
+				this.llrpConnection = llrpConnection;
+				if (!(this.connection != null && this.connection.isConnected())) {
+					switch (llrpConnection.getConnectionType()) {
+					case TCP:
+						this.connection = new TCPConnection(llrpConnection.getHost(), llrpConnection.getPort(), llrpConnection.getTimeout(),
+								(int) (llrpConnection.getConnectionProperties().getKeepalive() * 1.1));
+						break;
+					case NIO:
+						this.connection = new NIOConnection(llrpConnection.getHost(), llrpConnection.getPort(), llrpConnection.getTimeout(),
+								(int) (llrpConnection.getConnectionProperties().getKeepalive() * 1.1), this.frameHandler);
+						break;
+					default:
+						return false;
+					}
+					if (!this.connection.openConnection())
+						return false;
+					if (!(this.connection instanceof PullConnection)) {
+						// frames are pushed by the connection, no thread needed
+						return true;
+					}
+					final PullConnection connection = (PullConnection) this.connection;
+					this.retrieveLoop = true;
+					this.retrieveThread = Threads.newThread(this.threadMode, "LLRPClient retrieveMessageLoop() for " + llrpConnection.getHost() + ":"
+							+ llrpConnection.getPort(), new Runnable() {
+						@Override
+						public void run() {
+							retrieveMessageLoop(connection);
+						}
+					});
+					this.retrieveThread.start();
+					return true;
+				} else
+					return false;
+			} catch (Exception exc) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Method to disconnect form the llrp reader.
+	 *
+	 * @throws IOException
+	 */
+	public void closeConnection() {
+		synchronized (this) {
+			this.retrieveLoop = false;
+
+			if (this.retrieveThread != null) {
+				this.retrieveThread.interrupt();
+			}
+
+			if (this.connection != null) {
+				this.connection.closeConnection();
+			}
+		}
+	}
+
+	/**
+	 * Method to send a LLRP message to the llrp reader. Waits until the
+	 * message was written.
+	 *
+	 * @param message
+	 *            The message to be send
+	 * @throws IOException
+	 * @throws InvalidParameterTypeException
+	 * @throws InvalidMessageTypeException
+	 */
+	public void sendMessage(Message message) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
+		ByteBuffer data = serialize(message);
+		try {
+			this.connection.sendMessage(data);
+		} finally {
+			ByteBufferPool.HEAP.release(data);
+		}
+	}
+
+	/**
+	 * Method to queue a LLRP message for sending to the llrp reader without
+	 * waiting for the socket.
+	 *
+	 * @param message
+	 *            The message to be send
+	 * @return The future which is completed as soon as the message was
+	 *         written or exceptionally if writing failed
+	 * @throws InvalidParameterTypeException
+	 * @throws InvalidMessageTypeException
+	 */
+	public CompletableFuture<Void> sendMessageAsync(Message message) throws InvalidMessageTypeException, InvalidParameterTypeException {
+		final ByteBuffer data = serialize(message);
+		return this.connection.enqueueMessage(data).whenComplete(new BiConsumer<Void, Throwable>() {
+			@Override
+			public void accept(Void result, Throwable error) {
+				ByteBufferPool.HEAP.release(data);
+			}
+		});
+	}
+
+	/**
+	 * Queues the pre-serialized KEEPALIVE_ACK with version and message ID of
+	 * the KEEPALIVE in <paramref name="keepalive"/>.
+	 */
+	private void sendKeepaliveAck(ByteBuffer keepalive) {
+		int position = keepalive.position();
+		enqueue(KEEPALIVE_ACK, keepalive.get(position), keepalive.getInt(position + 6) & 0xFFFFFFFFL).whenComplete(new BiConsumer<Void, Throwable>() {
+			@Override
+			public void accept(Void result, Throwable error) {
+				if (error != null) {
+					log.log(Level.FINE, "Failed to send KEEPALIVE_ACK: " + error);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Queues the pre-serialized GET_REPORT with the version of the last
+	 * received message and a new message ID.
+	 *
+	 * @return The future which is completed as soon as the message was
+	 *         written or exceptionally if writing failed
+	 */
+	public CompletableFuture<Void> sendGetReport() {
+		return enqueue(GET_REPORT, this.versionBits, getNextMessageID());
+	}
+
+	/**
+	 * Queues the message of <paramref name="template"/> with <paramref
+	 * name="id"/>. The serialized bytes are copied, no message is
+	 * serialized.
+	 *
+	 * @param template
+	 *            The template
+	 * @param id
+	 *            The message ID
+	 * @return The future which is completed as soon as the message was
+	 *         written or exceptionally if writing failed
+	 */
+	public CompletableFuture<Void> sendTemplateAsync(MessageTemplate template, long id) {
+		Connection connection = this.connection;
+		if (connection == null)
+			return notConnected();
+		final ByteBuffer data = ByteBufferPool.HEAP.acquire(template.getLength());
+		template.put(data, id);
+		return enqueue(connection, data);
+	}
+
+	/**
+	 * Queues the message of <paramref name="template"/> with the version of
+	 * <paramref name="versionBits"/> and <paramref name="id"/>.
+	 */
+	private CompletableFuture<Void> enqueue(MessageTemplate template, byte versionBits, long id) {
+		Connection connection = this.connection;
+		if (connection == null)
+			return notConnected();
+		final ByteBuffer data = ByteBufferPool.HEAP.acquire(template.getLength());
+		template.put(data, versionBits, id);
+		return enqueue(connection, data);
+	}
+
+	private static CompletableFuture<Void> enqueue(Connection connection, final ByteBuffer data) {
+		return connection.enqueueMessage(data).whenComplete(new BiConsumer<Void, Throwable>() {
+			@Override
+			public void accept(Void result, Throwable error) {
+				ByteBufferPool.HEAP.release(data);
+			}
+		});
+	}
+
+	private static CompletableFuture<Void> notConnected() {
+		CompletableFuture<Void> future = new CompletableFuture<Void>();
+		future.completeExceptionally(new IOException("Not connected"));
+		return future;
+	}
+
+	/**
+	 * Deserializes the message in <paramref name="frame"/>, the position of
+	 * the frame is moved to the message body.
+	 */
+	static Message deserialize(ByteBuffer frame) throws Exception {
+		ByteBufferSerializer serializer = new ByteBufferSerializer();
+		ByteBuffer header = frame.duplicate();
+		header.limit(header.position() + ByteBufferSerializer.MESSAGE_HEADER_LENGTH);
+		MessageHeader msgHeader = serializer.deserializeMessageHeader(header);
+
+		frame.position(frame.position() + ByteBufferSerializer.MESSAGE_HEADER_LENGTH);
+		return serializer.deserializeMessage(msgHeader, frame.slice());
+	}
+
+	/**
+	 * Deserializes the header of the message in <paramref name="frame"/>, the
+	 * position of the frame is not moved.
+	 */
+	private static MessageHeader deserializeHeader(ByteBuffer frame) throws Exception {
+		ByteBuffer header = frame.duplicate();
+		header.limit(header.position() + ByteBufferSerializer.MESSAGE_HEADER_LENGTH);
+		return new ByteBufferSerializer().deserializeMessageHeader(header);
+	}
+
+	/**
+	 * Evaluates the filters of the report subscriptions once per TagReportData
+	 * of the RO_ACCESS_REPORT in <paramref name="frame"/> and delivers a
+	 * report with the matching TagReportData to each subscription.
+	 */
+	private void selectReports(ByteBuffer frame) throws Exception {
+		LLRPMessageHandler handler = this.handler;
+		if (handler == null)
+			return;
+		List<ReportSubscription> subscriptions = handler.getReportSubscriptions();
+		if (subscriptions.isEmpty())
+			return;
+
+		ReportSubscription[] selected = subscriptions.toArray(new ReportSubscription[subscriptions.size()]);
+		ByteBuffer[] reports = new ByteBuffer[selected.length];
+		int start = frame.position();
+		int end = frame.limit();
+		try {
+			int offset = start + ByteBufferSerializer.MESSAGE_HEADER_LENGTH;
+			while (offset + 4 <= end) {
+				int type = frame.getShort(offset) & 0x3FF;
+				int length = frame.getShort(offset + 2) & 0xFFFF;
+				if (length < 4 || offset + length > end)
+					break;
+				if (type == TAG_REPORT_DATA_TYPE && this.tagReportCursor.read(frame, offset + 4, offset + length)) {
+					for (int i = 0; i < selected.length; i++) {
+						if (selected[i].getFilter().matches(this.tagReportCursor, frame)) {
+							if (reports[i] == null) {
+								reports[i] = ByteBufferPool.HEAP.acquire(end - start);
+								reports[i].put(range(frame, start, start + ByteBufferSerializer.MESSAGE_HEADER_LENGTH));
+							}
+							reports[i].put(range(frame, offset, offset + length));
+						}
+					}
+				}
+				offset += length;
+			}
+
+			for (int i = 0; i < selected.length; i++) {
+				if (reports[i] != null) {
+					reports[i].putInt(2, reports[i].position());
+					reports[i].flip();
+					handler.notifyReport(selected[i], (ROAccessReport) deserialize(reports[i]));
+				}
+			}
+		} finally {
+			for (ByteBuffer report : reports) {
+				if (report != null)
+					ByteBufferPool.HEAP.release(report);
+			}
+		}
+	}
+
+	private static ByteBuffer range(ByteBuffer buffer, int from, int to) {
+		ByteBuffer range = buffer.duplicate();
+		range.limit(to);
+		range.position(from);
+		return range;
+	}
+
+	/**
+	 * Puts the KEEPALIVE_ACK answering the KEEPALIVE in <paramref
+	 * name="keepalive"/> into <paramref name="ack"/>.
+	 */
+	static void putKeepaliveAck(ByteBuffer keepalive, ByteBuffer ack) {
+		int position = keepalive.position();
+		KEEPALIVE_ACK.put(ack, keepalive.get(position), keepalive.getInt(position + 6) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Puts a GET_REPORT with <paramref name="versionBits"/> and <paramref
+	 * name="id"/> into <paramref name="request"/>.
+	 */
+	static void putGetReport(byte versionBits, long id, ByteBuffer request) {
+		GET_REPORT.put(request, versionBits, id);
+	}
+
+	/**
+	 * @return the ID of the message in <paramref name="frame"/>
+	 */
+	private static long messageID(ByteBuffer frame) {
+		return frame.getInt(frame.position() + 6) & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * @return the type of the message in <paramref name="frame"/>
+	 */
+	private static int messageType(ByteBuffer frame) {
+		int position = frame.position();
+		return ((frame.get(position) & 0x03) << 8) | (frame.get(position + 1) & 0xFF);
+	}
+
+	private ByteBuffer serialize(Message message) throws InvalidMessageTypeException, InvalidParameterTypeException {
+		ByteBufferSerializer serializer = new ByteBufferSerializer();
+		ByteBuffer data = ByteBufferPool.HEAP.acquire((int) serializer.getLength(message));
+		try {
+			serializer.serialize(message, data);
+			return data;
+		} catch (InvalidMessageTypeException | InvalidParameterTypeException | RuntimeException e) {
+			ByteBufferPool.HEAP.release(data);
+			throw e;
+		}
+	}
+
+	/**
+	 * Loop method for the client thread where incomming bits are translated
+	 * into LLRP messages. All available bytes are read at once and split into
+	 * frames by the <see cref="LLRPFrameDecoder"/>, partial frames are kept
+	 * until the next read. This method uses the <see
+	 * cref="LLRPMessageHandler"/> to send the incomming responses to the
+	 * related requestor. Furthermore the method triggers events for all
+	 * unrequested messages from the LLRP reader.
+	 *
+	 * @param connection
+	 *            The connection to read from
+	 */
+	private void retrieveMessageLoop(PullConnection connection) {
+		LLRPFrameDecoder decoder = new LLRPFrameDecoder(this.frameHandler);
+		try {
+			boolean lastWasError = false;
+			while (this.retrieveLoop) {
+				try {
+					connection.retrieveFrames(decoder, connection.getKeepalive());
+
+					lastWasError = false;
+				} catch (ClosedByInterruptException e) {
+					// nothing to do, we have been interrupted (retrieveLoop is most likely false)
+				} catch (ClosedChannelException e) {
+					if (lastWasError)
+						break; // end loop
+					else {
+						if (this.handler != null) {
+							this.handler.notifyNoDataReceived();
+						}
+					}
+				} catch (EOFException e) {
+					// the reader closed the connection, report it immediately
+					if (this.handler != null) {
+						this.handler.notifyNoDataReceived();
+					}
+					break;
+				} catch (IOException e) {
+					lastWasError = true;
+					if (this.handler != null) {
+						this.handler.notifyNoDataReceived();
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			// nothing to do
+		} catch (Exception e) {
+			if (this.handler != null) {
+				this.handler.notifyNoDataReceived();
+			}
+		} finally {
+			decoder.release();
+		}
+	}
+
+	private void delegateEventsAndReports(Message message, long contentKey) {
+		switch (message.getMessageHeader().getMessageType()) {
+		case GET_SUPPORTED_VERSION_RESPONSE:
+		case SET_PROTOCOL_VERSION_RESPONSE:
+		case GET_READER_CAPABILITIES_RESPONSE:
+		case ADD_ROSPEC_RESPONSE:
+		case DELETE_ROSPEC_RESPONSE:
+		case START_ROSPEC_RESPONSE:
+		case STOP_ROSPEC_RESPONSE:
+		case ENABLE_ROSPEC_RESPONSE:
+		case DISABLE_ROSPEC_RESPONSE:
+		case GET_ROSPECS_RESPONSE:
+		case ADD_ACCESSSPEC_RESPONSE:
+		case DELETE_ACCESSSPEC_RESPONSE:
+		case ENABLE_ACCESSSPEC_RESPONSE:
+		case DISABLE_ACCESSSPEC_RESPONSE:
+		case GET_ACCESSSPECS_RESPONSE:
+		case GET_READER_CONFIG_RESPONSE:
+		case SET_READER_CONFIG_RESPONSE:
+		case CLOSE_CONNECTION_RESPONSE:
+		case ERROR_MESSAGE:
+			if (this.handler != null)
+				this.handler.notifyResponse(message);
+			break;
+		case RO_ACCESS_REPORT:
+		case CLIENT_REQUEST_OP:
+		case KEEPALIVE:
+		case READER_EVENT_NOTIFICATION:
+			if (this.handler != null)
+				this.handler.notifyEvent(message, contentKey);
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Computes a 64-bit FNV-1a hash of a READER_EVENT_NOTIFICATION message
+	 * body, skipping the leading UTCTimestamp or Uptime parameter of the
+	 * ReaderEventNotificationData. Repeated notifications of the same event
+	 * get the same key.
+	 *
+	 * @param body
+	 *            The message body from its position to its limit
+	 * @return the key, never 0
+	 */
+	static long notificationKey(ByteBuffer body) {
+		int start = body.position();
+		int end = body.limit();
+		int skipFrom = end;
+		int skipTo = end;
+		// the timestamp follows the TLV header of ReaderEventNotificationData
+		int offset = start + 4;
+		if (end - offset >= 4) {
+			int type = body.getShort(offset) & 0x3FF;
+			int length = body.getShort(offset + 2) & 0xFFFF;
+			if ((type == UTC_TIMESTAMP_TYPE || type == UPTIME_TYPE) && length >= 4 && offset + length <= end) {
+				skipFrom = offset;
+				skipTo = offset + length;
+			}
+		}
+
+		long hash = 0xCBF29CE484222325L;
+		for (int i = start; i < end; i++) {
+			if (i == skipFrom)
+				i = skipTo;
+			if (i < end)
+				hash = (hash ^ (body.get(i) & 0xFF)) * 0x100000001B3L;
+		}
+		return hash == 0 ? 1 : hash;
+	}
+
+	/**
+	 * Disposes this instance.
+	 *
+	 * @throws IOException
+	 */
+	public void dispose() throws IOException {
+		dispose(true);
+	}
+
+	/**
+	 * Disposes this instance. According to <paramref name="disposing"/> also
+	 * managed resources will be disposed.
+	 *
+	 * @param disposing
+	 *            Indicator if also managed resources should be dispoed.
+	 * @throws IOException
+	 */
+	protected void dispose(boolean disposing) throws IOException {
+		if (!this.isDisposed) {
+			if (disposing) {
+				if (this.connection != null) {
+					this.connection.dispose();
+				}
+			}
+
+			if (this.retrieveThread != null) {
+				if (this.retrieveThread.isAlive()) {
+					this.retrieveLoop = false;
+				}
+			}
+
+			this.retrieveThread = null;
+			this.connection = null;
+			this.handler = null;
+			this.isDisposed = true;
+		}
+	}
+}
@@ -1,12 +1,16 @@
-package havis.middleware.reader.llrp.client;
-
-/**
- * Enumeration that provides all supported connection types for <see
- * cref="LLRPConnection"/>.
- */
-public enum LLRPConnectionType {
-	/**
-	 * TCP connection type
-	 */
-	TCP,
-}
+package havis.middleware.reader.llrp.client;
+
+/**
+ * Enumeration that provides all supported connection types for <see
+ * cref="LLRPConnection"/>.
+ */
+public enum LLRPConnectionType {
+	/**
+	 * TCP connection type
+	 */
+	TCP,
+	/**
+	 * TCP connection served by the shared non-blocking reactor threads
+	 */
+	NIO,
+}
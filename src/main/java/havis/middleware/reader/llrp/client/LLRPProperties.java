@@ -1,61 +1,342 @@
-package havis.middleware.reader.llrp.client;
-
-/**
- * Class that represents a set of properties for LLRP reader connector.
- */
-public class LLRPProperties {
-	private int keepalive = 30000;
-	private int inventoryAttempts = 3;
-
-	/**
-	 * Gets the keepalive interval after which no new messages from the reader
-	 * cause the sending of an keepalive message. The defaultz value is 30000
-	 * milli seconds.
-	 * 
-	 * @return keepalive
-	 */
-	public int getKeepalive() {
-		return this.keepalive;
-	}
-
-	public void setKeepalive(int keepalive) {
-		this.keepalive = keepalive;
-	}
-
-	/**
-	 * Sets the number of inventory attempts to find the tag to execute
-	 * operation on. The dafault value is 3.
-	 * 
-	 * @param inventoryAttempts
-	 *            To set
-	 */
-	public void setInventoryAttempts(int inventoryAttempts) {
-		this.inventoryAttempts = inventoryAttempts;
-	}
-
-	/**
-	 * Returns the number of inventory attempts to find the tag to execute
-	 * operation on. The dafault value is 3.
-	 * 
-	 * @return inventoryAttempts
-	 */
-	public int getInventoryAttempts() {
-		return this.inventoryAttempts;
-	}
-
-	/**
-	 * Static class that hold all property names for LLRP reader connector.
-	 */
-	public static class PropertyName {
-		/**
-		 * Describe the keepalive timeout value.
-		 */
-		public static final String Keepalive = havis.middleware.ale.reader.Prefix.Connector
-				+ "Keepalive";
-		/**
-		 * Describe the inventory attempty value.
-		 */
-		public static final String InventoryAttempts = havis.middleware.ale.reader.Prefix.Connector
-				+ "InventoryAttempts";
-	}
-}
+package havis.middleware.reader.llrp.client;
+
+import havis.middleware.reader.llrp.service.EventOverflowPolicy;
+import havis.middleware.reader.llrp.service.LLRPMessageHandler;
+import havis.middleware.reader.llrp.util.ThreadMode;
+import havis.middleware.reader.llrp.util.WaitStrategy;
+
+/**
+ * Class that represents a set of properties for LLRP reader connector.
+ */
+public class LLRPProperties {
+	private int keepalive = 30000;
+	private int inventoryAttempts = 3;
+	private int maxPendingRequests = 1;
+	private int eventQueueCapacity = LLRPMessageHandler.DEFAULT_EVENT_QUEUE_CAPACITY;
+	private WaitStrategy eventWaitStrategy = WaitStrategy.PARK;
+	private EventOverflowPolicy eventOverflowPolicy = EventOverflowPolicy.DROP_OLDEST_REPORT;
+	private boolean keepaliveAutoAck = false;
+	private ThreadMode threadMode = ThreadMode.PLATFORM;
+	private int replayCapacity = 0;
+	private long replayMaxAge = 0;
+	private boolean eventCoalescing = false;
+	private boolean parallelDecoding = false;
+
+	/**
+	 * Gets the keepalive interval after which no new messages from the reader
+	 * cause the sending of an keepalive message. The defaultz value is 30000
+	 * milli seconds.
+	 * 
+	 * @return keepalive
+	 */
+	public int getKeepalive() {
+		return this.keepalive;
+	}
+
+	public void setKeepalive(int keepalive) {
+		this.keepalive = keepalive;
+	}
+
+	/**
+	 * Sets the number of inventory attempts to find the tag to execute
+	 * operation on. The dafault value is 3.
+	 * 
+	 * @param inventoryAttempts
+	 *            To set
+	 */
+	public void setInventoryAttempts(int inventoryAttempts) {
+		this.inventoryAttempts = inventoryAttempts;
+	}
+
+	/**
+	 * Returns the number of inventory attempts to find the tag to execute
+	 * operation on. The dafault value is 3.
+	 * 
+	 * @return inventoryAttempts
+	 */
+	public int getInventoryAttempts() {
+		return this.inventoryAttempts;
+	}
+
+	/**
+	 * Sets the maximum number of requests sent to the reader without waiting
+	 * for their responses. The default value is 1.
+	 * 
+	 * @param maxPendingRequests
+	 *            To set
+	 */
+	public void setMaxPendingRequests(int maxPendingRequests) {
+		this.maxPendingRequests = maxPendingRequests;
+	}
+
+	/**
+	 * Returns the maximum number of requests sent to the reader without
+	 * waiting for their responses. The default value is 1.
+	 * 
+	 * @return maxPendingRequests
+	 */
+	public int getMaxPendingRequests() {
+		return this.maxPendingRequests;
+	}
+
+	/**
+	 * Sets the maximum number of events received from the reader and not yet
+	 * dispatched, per priority lane. The default value is 1024.
+	 * 
+	 * @param eventQueueCapacity
+	 *            To set
+	 */
+	public void setEventQueueCapacity(int eventQueueCapacity) {
+		this.eventQueueCapacity = eventQueueCapacity;
+	}
+
+	/**
+	 * Returns the maximum number of events received from the reader and not
+	 * yet dispatched, per priority lane. The default value is 1024.
+	 * 
+	 * @return eventQueueCapacity
+	 */
+	public int getEventQueueCapacity() {
+		return this.eventQueueCapacity;
+	}
+
+	/**
+	 * Sets the strategy of the receiving and the dispatching thread waiting
+	 * for each other. The default value is PARK.
+	 * 
+	 * @param eventWaitStrategy
+	 *            To set
+	 */
+	public void setEventWaitStrategy(WaitStrategy eventWaitStrategy) {
+		this.eventWaitStrategy = eventWaitStrategy;
+	}
+
+	/**
+	 * Returns the strategy of the receiving and the dispatching thread waiting
+	 * for each other. The default value is PARK.
+	 * 
+	 * @return eventWaitStrategy
+	 */
+	public WaitStrategy getEventWaitStrategy() {
+		return this.eventWaitStrategy;
+	}
+
+	/**
+	 * Sets the policy applied if the event queue is full. The default value
+	 * is DROP_OLDEST_REPORT. With BLOCK no report is lost, but a slow listener
+	 * stops the responses and keepalives from being read.
+	 * 
+	 * @param eventOverflowPolicy
+	 *            To set
+	 */
+	public void setEventOverflowPolicy(EventOverflowPolicy eventOverflowPolicy) {
+		this.eventOverflowPolicy = eventOverflowPolicy;
+	}
+
+	/**
+	 * Returns the policy applied if the event queue is full. The default value
+	 * is DROP_OLDEST_REPORT.
+	 * 
+	 * @return eventOverflowPolicy
+	 */
+	public EventOverflowPolicy getEventOverflowPolicy() {
+		return this.eventOverflowPolicy;
+	}
+
+	/**
+	 * Sets if a KEEPALIVE or READER_EVENT_NOTIFICATION is dropped while an
+	 * equal event is still queued. The default value is false.
+	 * 
+	 * @param eventCoalescing
+	 *            To set
+	 */
+	public void setEventCoalescing(boolean eventCoalescing) {
+		this.eventCoalescing = eventCoalescing;
+	}
+
+	/**
+	 * Returns if a KEEPALIVE or READER_EVENT_NOTIFICATION is dropped while an
+	 * equal event is still queued. The default value is false.
+	 * 
+	 * @return eventCoalescing
+	 */
+	public boolean isEventCoalescing() {
+		return this.eventCoalescing;
+	}
+
+	/**
+	 * Sets if a KEEPALIVE is answered with a KEEPALIVE_ACK on the receiving
+	 * thread. The default value is false.
+	 * 
+	 * @param keepaliveAutoAck
+	 *            To set
+	 */
+	public void setKeepaliveAutoAck(boolean keepaliveAutoAck) {
+		this.keepaliveAutoAck = keepaliveAutoAck;
+	}
+
+	/**
+	 * Returns if a KEEPALIVE is answered with a KEEPALIVE_ACK on the receiving
+	 * thread. The default value is false.
+	 * 
+	 * @return keepaliveAutoAck
+	 */
+	public boolean isKeepaliveAutoAck() {
+		return this.keepaliveAutoAck;
+	}
+
+	/**
+	 * Sets the kind of threads running the receive loop and the event
+	 * dispatch. The default value is PLATFORM.
+	 * 
+	 * @param threadMode
+	 *            To set
+	 */
+	public void setThreadMode(ThreadMode threadMode) {
+		this.threadMode = threadMode;
+	}
+
+	/**
+	 * Returns the kind of threads running the receive loop and the event
+	 * dispatch. The default value is PLATFORM.
+	 * 
+	 * @return threadMode
+	 */
+	public ThreadMode getThreadMode() {
+		return this.threadMode;
+	}
+
+	/**
+	 * Sets the number of RO_ACCESS_REPORT and READER_EVENT_NOTIFICATION
+	 * events kept per type for listeners attaching later. The default value
+	 * is 0, no events are kept.
+	 * 
+	 * @param replayCapacity
+	 *            To set
+	 */
+	public void setReplayCapacity(int replayCapacity) {
+		this.replayCapacity = replayCapacity;
+	}
+
+	/**
+	 * Returns the number of RO_ACCESS_REPORT and READER_EVENT_NOTIFICATION
+	 * events kept per type for listeners attaching later. The default value
+	 * is 0, no events are kept.
+	 * 
+	 * @return replayCapacity
+	 */
+	public int getReplayCapacity() {
+		return this.replayCapacity;
+	}
+
+	/**
+	 * Sets the maximum age in milliseconds of replayed events. The default
+	 * value is 0, events of any age are replayed.
+	 * 
+	 * @param replayMaxAge
+	 *            To set
+	 */
+	public void setReplayMaxAge(long replayMaxAge) {
+		this.replayMaxAge = replayMaxAge;
+	}
+
+	/**
+	 * Returns the maximum age in milliseconds of replayed events. The
+	 * default value is 0, events of any age are replayed.
+	 * 
+	 * @return replayMaxAge
+	 */
+	public long getReplayMaxAge() {
+		return this.replayMaxAge;
+	}
+
+	/**
+	 * Sets if the received frames are deserialized on a shared worker pool.
+	 * The default value is false.
+	 * 
+	 * @param parallelDecoding
+	 *            To set
+	 */
+	public void setParallelDecoding(boolean parallelDecoding) {
+		this.parallelDecoding = parallelDecoding;
+	}
+
+	/**
+	 * Returns if the received frames are deserialized on a shared worker
+	 * pool. The default value is false.
+	 * 
+	 * @return parallelDecoding
+	 */
+	public boolean isParallelDecoding() {
+		return this.parallelDecoding;
+	}
+
+	/**
+	 * Static class that hold all property names for LLRP reader connector.
+	 */
+	public static class PropertyName {
+		/**
+		 * Describe the keepalive timeout value.
+		 */
+		public static final String Keepalive = havis.middleware.ale.reader.Prefix.Connector
+				+ "Keepalive";
+		/**
+		 * Describe the inventory attempty value.
+		 */
+		public static final String InventoryAttempts = havis.middleware.ale.reader.Prefix.Connector
+				+ "InventoryAttempts";
+		/**
+		 * Describe the maximum number of pending requests.
+		 */
+		public static final String MaxPendingRequests = havis.middleware.ale.reader.Prefix.Connector
+				+ "MaxPendingRequests";
+		/**
+		 * Describe the maximum number of queued events.
+		 */
+		public static final String EventQueueCapacity = havis.middleware.ale.reader.Prefix.Connector
+				+ "EventQueueCapacity";
+		/**
+		 * Describe the wait strategy of the event queue, one of BUSY_SPIN,
+		 * YIELD or PARK.
+		 */
+		public static final String EventWaitStrategy = havis.middleware.ale.reader.Prefix.Connector
+				+ "EventWaitStrategy";
+		/**
+		 * Describe the policy of a full event queue, one of BLOCK or
+		 * DROP_OLDEST_REPORT (default).
+		 */
+		public static final String EventOverflowPolicy = havis.middleware.ale.reader.Prefix.Connector
+				+ "EventOverflowPolicy";
+		/**
+		 * Describe if redundant events are coalesced, true or false.
+		 */
+		public static final String EventCoalescing = havis.middleware.ale.reader.Prefix.Connector
+				+ "EventCoalescing";
+		/**
+		 * Describe if a KEEPALIVE is acknowledged on the receiving thread,
+		 * true or false.
+		 */
+		public static final String KeepaliveAutoAck = havis.middleware.ale.reader.Prefix.Connector
+				+ "KeepaliveAutoAck";
+		/**
+		 * Describe the kind of threads, one of PLATFORM or VIRTUAL.
+		 */
+		public static final String ThreadMode = havis.middleware.ale.reader.Prefix.Connector
+				+ "ThreadMode";
+		/**
+		 * Describe the number of events kept per type for replay.
+		 */
+		public static final String ReplayCapacity = havis.middleware.ale.reader.Prefix.Connector
+				+ "ReplayCapacity";
+		/**
+		 * Describe the maximum age of replayed events in milliseconds.
+		 */
+		public static final String ReplayMaxAge = havis.middleware.ale.reader.Prefix.Connector
+				+ "ReplayMaxAge";
+		/**
+		 * Describe if frames are deserialized in parallel, true or false.
+		 */
+		public static final String ParallelDecoding = havis.middleware.ale.reader.Prefix.Connector
+				+ "ParallelDecoding";
+	}
+}
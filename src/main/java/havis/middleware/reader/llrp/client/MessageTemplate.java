@@ -0,0 +1,88 @@
+package havis.middleware.reader.llrp.client;
+
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.parameter.serializer.InvalidParameterTypeException;
+import havis.llrpservice.data.message.serializer.ByteBufferSerializer;
+import havis.llrpservice.data.message.serializer.InvalidMessageTypeException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Class that represents a message serialized once and sent repeatedly. Each
+ * send copies the serialized bytes and patches the message ID in place, e.g.
+ * for START_ROSPEC and STOP_ROSPEC of a fixed ROSpecID or the same ACCESSSPEC
+ * added for each tag. The message ID of the serialized message is ignored.
+ */
+public final class MessageTemplate {
+	private final static int VERSION_BITS = 0x1C;
+	private final static int ID_OFFSET = 6;
+
+	private final byte[] bytes;
+
+	/**
+	 * Creates a new template by serializing <paramref name="message"/>. Later
+	 * changes of the message do not affect the template.
+	 *
+	 * @param message
+	 *            The message
+	 * @throws InvalidMessageTypeException
+	 * @throws InvalidParameterTypeException
+	 */
+	public MessageTemplate(Message message) throws InvalidMessageTypeException, InvalidParameterTypeException {
+		ByteBufferSerializer serializer = new ByteBufferSerializer();
+		ByteBuffer data = ByteBuffer.allocate((int) serializer.getLength(message));
+		serializer.serialize(message, data);
+		this.bytes = Arrays.copyOf(data.array(), data.position());
+	}
+
+	/**
+	 * Creates a new template of the serialized message in <paramref
+	 * name="bytes"/>.
+	 */
+	MessageTemplate(byte[] bytes) {
+		if (bytes.length < ByteBufferSerializer.MESSAGE_HEADER_LENGTH)
+			throw new IllegalArgumentException("Message of " + bytes.length + " bytes is shorter than its header");
+		this.bytes = bytes.clone();
+	}
+
+	/**
+	 * @return the length of the message in bytes
+	 */
+	public int getLength() {
+		return this.bytes.length;
+	}
+
+	/**
+	 * @return the message type field of the header
+	 */
+	public int getMessageType() {
+		return ((this.bytes[0] & 0x03) << 8) | (this.bytes[1] & 0xFF);
+	}
+
+	/**
+	 * Puts the message with <paramref name="id"/> into <paramref
+	 * name="target"/>.
+	 *
+	 * @param target
+	 *            The target buffer with at least <see cref="getLength"/>
+	 *            bytes remaining
+	 * @param id
+	 *            The message ID
+	 */
+	public void put(ByteBuffer target, long id) {
+		int start = target.position();
+		target.put(this.bytes);
+		target.putInt(start + ID_OFFSET, (int) id);
+	}
+
+	/**
+	 * Puts the message with the version of <paramref name="versionBits"/> and
+	 * <paramref name="id"/> into <paramref name="target"/>.
+	 */
+	void put(ByteBuffer target, byte versionBits, long id) {
+		int start = target.position();
+		put(target, id);
+		target.put(start, (byte) ((this.bytes[0] & ~VERSION_BITS) | (versionBits & VERSION_BITS)));
+	}
+}
@@ -0,0 +1,47 @@
+package havis.middleware.reader.llrp.client;
+
+import havis.llrpservice.data.message.MessageTypes.MessageType;
+
+/**
+ * Class that maps the message type field of the LLRP header to the types
+ * received by the client.
+ */
+class MessageTypeCodes {
+	private final static MessageType[] types = new MessageType[1024];
+
+	static {
+		types[4] = MessageType.CLOSE_CONNECTION_RESPONSE;
+		types[11] = MessageType.GET_READER_CAPABILITIES_RESPONSE;
+		types[12] = MessageType.GET_READER_CONFIG_RESPONSE;
+		types[13] = MessageType.SET_READER_CONFIG_RESPONSE;
+		types[30] = MessageType.ADD_ROSPEC_RESPONSE;
+		types[31] = MessageType.DELETE_ROSPEC_RESPONSE;
+		types[32] = MessageType.START_ROSPEC_RESPONSE;
+		types[33] = MessageType.STOP_ROSPEC_RESPONSE;
+		types[34] = MessageType.ENABLE_ROSPEC_RESPONSE;
+		types[35] = MessageType.DISABLE_ROSPEC_RESPONSE;
+		types[36] = MessageType.GET_ROSPECS_RESPONSE;
+		types[45] = MessageType.CLIENT_REQUEST_OP;
+		types[50] = MessageType.ADD_ACCESSSPEC_RESPONSE;
+		types[51] = MessageType.DELETE_ACCESSSPEC_RESPONSE;
+		types[52] = MessageType.ENABLE_ACCESSSPEC_RESPONSE;
+		types[53] = MessageType.DISABLE_ACCESSSPEC_RESPONSE;
+		types[54] = MessageType.GET_ACCESSSPECS_RESPONSE;
+		types[56] = MessageType.GET_SUPPORTED_VERSION_RESPONSE;
+		types[57] = MessageType.SET_PROTOCOL_VERSION_RESPONSE;
+		types[61] = MessageType.RO_ACCESS_REPORT;
+		types[62] = MessageType.KEEPALIVE;
+		types[63] = MessageType.READER_EVENT_NOTIFICATION;
+		types[100] = MessageType.ERROR_MESSAGE;
+	}
+
+	/**
+	 * @param code
+	 *            The message type field between 0 and 1023
+	 * @return The message type or null if the client does not process
+	 *         messages of <paramref name="code"/>
+	 */
+	static MessageType get(int code) {
+		return types[code & 0x3FF];
+	}
+}
@@ -0,0 +1,132 @@
+package havis.middleware.reader.llrp.client;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Class that represents a declarative filter over the TagReportData of a
+ * RO_ACCESS_REPORT. A TagReportData matches if it matches all conditions set.
+ * A condition on a field which the reader does not report, e.g. because the
+ * ROReportSpec excludes it, never matches.
+ */
+public class ReportFilter {
+	private long roSpecID = -1;
+	private long accessSpecID = -1;
+	private int antennaID = -1;
+	private byte[] epcValue;
+	private byte[] epcMask;
+
+	/**
+	 * Sets the ROSpecID the TagReportData must refer to.
+	 *
+	 * @param roSpecID
+	 *            The ROSpecID or -1 to accept any
+	 */
+	public void setRoSpecID(long roSpecID) {
+		this.roSpecID = roSpecID;
+	}
+
+	/**
+	 * @return the ROSpecID the TagReportData must refer to, -1 for any
+	 */
+	public long getRoSpecID() {
+		return this.roSpecID;
+	}
+
+	/**
+	 * Sets the AccessSpecID the TagReportData must refer to.
+	 *
+	 * @param accessSpecID
+	 *            The AccessSpecID or -1 to accept any
+	 */
+	public void setAccessSpecID(long accessSpecID) {
+		this.accessSpecID = accessSpecID;
+	}
+
+	/**
+	 * @return the AccessSpecID the TagReportData must refer to, -1 for any
+	 */
+	public long getAccessSpecID() {
+		return this.accessSpecID;
+	}
+
+	/**
+	 * Sets the ID of the antenna the tag must be seen by.
+	 *
+	 * @param antennaID
+	 *            The antenna ID or -1 to accept any
+	 */
+	public void setAntennaID(int antennaID) {
+		this.antennaID = antennaID;
+	}
+
+	/**
+	 * @return the ID of the antenna the tag must be seen by, -1 for any
+	 */
+	public int getAntennaID() {
+		return this.antennaID;
+	}
+
+	/**
+	 * Sets the value the leading bytes of the EPC must have within <paramref
+	 * name="mask"/>.
+	 *
+	 * @param value
+	 *            The value or null to accept any EPC
+	 * @param mask
+	 *            The mask of the same length as <paramref name="value"/> or
+	 *            null to compare all bits
+	 */
+	public void setEpc(byte[] value, byte[] mask) {
+		if (value == null) {
+			this.epcValue = null;
+			this.epcMask = null;
+			return;
+		}
+		if (mask == null) {
+			mask = new byte[value.length];
+			Arrays.fill(mask, (byte) 0xFF);
+		} else if (mask.length != value.length) {
+			throw new IllegalArgumentException("Length of EPC mask " + mask.length + " differs from length of EPC value " + value.length);
+		}
+		this.epcValue = value.clone();
+		this.epcMask = mask.clone();
+	}
+
+	/**
+	 * @return the value the leading bytes of the EPC must have, null for any
+	 */
+	public byte[] getEpcValue() {
+		return this.epcValue == null ? null : this.epcValue.clone();
+	}
+
+	/**
+	 * @return the mask of the EPC value, null for any
+	 */
+	public byte[] getEpcMask() {
+		return this.epcMask == null ? null : this.epcMask.clone();
+	}
+
+	/**
+	 * Indicates if the TagReportData read into <paramref name="tag"/> from
+	 * <paramref name="buffer"/> matches.
+	 */
+	boolean matches(TagReportCursor tag, ByteBuffer buffer) {
+		if (this.roSpecID >= 0 && tag.roSpecID != this.roSpecID)
+			return false;
+		if (this.accessSpecID >= 0 && tag.accessSpecID != this.accessSpecID)
+			return false;
+		if (this.antennaID >= 0 && tag.antennaID != this.antennaID)
+			return false;
+		byte[] value = this.epcValue;
+		if (value != null) {
+			if (tag.epcOffset < 0 || tag.epcLength < value.length)
+				return false;
+			for (int i = 0; i < value.length; i++) {
+				if (((buffer.get(tag.epcOffset + i) ^ value[i]) & this.epcMask[i]) != 0)
+					return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,303 @@
+package havis.middleware.reader.llrp.client;
+
+import havis.llrpservice.data.message.serializer.ByteBufferSerializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Class that represents a flyweight cursor over the TagReportData parameters
+ * of a serialized RO_ACCESS_REPORT. The fields are read directly from the
+ * buffer without creating parameter objects, the EPC is referenced by its
+ * offset within the buffer. Instances are reused for each parameter and each
+ * report, a cursor passed to a listener is valid during the call only.
+ */
+public final class TagReportCursor {
+	private final static int TAG_REPORT_DATA_TYPE = 240;
+	private final static int EPC_DATA_TYPE = 241;
+	private final static int ANTENNA_ID_TYPE = 1;
+	private final static int FIRST_SEEN_UTC_TYPE = 2;
+	private final static int FIRST_SEEN_UPTIME_TYPE = 3;
+	private final static int LAST_SEEN_UTC_TYPE = 4;
+	private final static int LAST_SEEN_UPTIME_TYPE = 5;
+	private final static int PEAK_RSSI_TYPE = 6;
+	private final static int CHANNEL_INDEX_TYPE = 7;
+	private final static int TAG_SEEN_COUNT_TYPE = 8;
+	private final static int RO_SPEC_ID_TYPE = 9;
+	private final static int EPC_96_TYPE = 13;
+	private final static int ACCESS_SPEC_ID_TYPE = 16;
+
+	/**
+	 * Value of <see cref="getPeakRSSI"/> if the reader did not report the
+	 * peak RSSI
+	 */
+	public final static int NO_RSSI = Integer.MIN_VALUE;
+
+	/**
+	 * Value lengths of the TV parameters by type, -1 for unknown types
+	 */
+	private final static int[] TV_LENGTHS = new int[] { -1, 2, 8, 8, 8, 8, 1, 2, 2, 4, 2, 2, 2, 12, 2, 2, 4, 2, 4, 2, 2 };
+
+	private ByteBuffer buffer;
+	private int next;
+	private int end;
+
+	long roSpecID;
+	long accessSpecID;
+	int antennaID;
+	int epcOffset;
+	int epcLength;
+	private int peakRSSI;
+	private int channelIndex;
+	private int tagSeenCount;
+	private long firstSeen;
+	private boolean firstSeenUptime;
+	private long lastSeen;
+	private boolean lastSeenUptime;
+
+	/**
+	 * Positions the cursor before the first TagReportData of the
+	 * RO_ACCESS_REPORT in <paramref name="frame"/>. The buffer is not copied
+	 * and must not change while the cursor is used.
+	 *
+	 * @param frame
+	 *            The frame of the message between position and limit
+	 */
+	public void reset(ByteBuffer frame) {
+		this.buffer = frame;
+		this.next = frame.position() + ByteBufferSerializer.MESSAGE_HEADER_LENGTH;
+		this.end = frame.limit();
+		read(frame, this.next, this.next);
+	}
+
+	/**
+	 * Moves the cursor to the next TagReportData, malformed parameters are
+	 * skipped.
+	 *
+	 * @return Indicator if the cursor points to a TagReportData, false if no
+	 *         further TagReportData exists
+	 */
+	public boolean next() {
+		while (this.next + 4 <= this.end) {
+			int offset = this.next;
+			int type = this.buffer.getShort(offset) & 0x3FF;
+			int length = this.buffer.getShort(offset + 2) & 0xFFFF;
+			if (length < 4 || offset + length > this.end) {
+				this.next = this.end;
+				return false;
+			}
+			this.next = offset + length;
+			if (type == TAG_REPORT_DATA_TYPE && read(this.buffer, offset + 4, offset + length))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return the buffer of the report
+	 */
+	public ByteBuffer getBuffer() {
+		return this.buffer;
+	}
+
+	/**
+	 * @return the length of the EPC in bytes, 0 if the reader did not report
+	 *         the EPC
+	 */
+	public int getEpcLength() {
+		return this.epcLength;
+	}
+
+	/**
+	 * @return the offset of the EPC within <see cref="getBuffer"/>, -1 if the
+	 *         reader did not report the EPC
+	 */
+	public int getEpcOffset() {
+		return this.epcOffset;
+	}
+
+	/**
+	 * Returns the byte of the EPC at <paramref name="index"/>.
+	 *
+	 * @param index
+	 *            The index between 0 and <see cref="getEpcLength"/>
+	 * @return The EPC byte
+	 */
+	public byte getEpcByte(int index) {
+		if (index < 0 || index >= this.epcLength)
+			throw new IndexOutOfBoundsException("Index " + index + " exceeds the EPC length " + this.epcLength);
+		return this.buffer.get(this.epcOffset + index);
+	}
+
+	/**
+	 * Copies the EPC to <paramref name="destination"/>.
+	 *
+	 * @param destination
+	 *            The destination
+	 * @param offset
+	 *            The offset within <paramref name="destination"/>
+	 * @return The number of copied bytes
+	 */
+	public int getEpc(byte[] destination, int offset) {
+		for (int i = 0; i < this.epcLength; i++) {
+			destination[offset + i] = this.buffer.get(this.epcOffset + i);
+		}
+		return this.epcLength;
+	}
+
+	/**
+	 * @return the antenna ID, -1 if not reported
+	 */
+	public int getAntennaID() {
+		return this.antennaID;
+	}
+
+	/**
+	 * @return the peak RSSI in dBm, <see cref="NO_RSSI"/> if not reported
+	 */
+	public int getPeakRSSI() {
+		return this.peakRSSI;
+	}
+
+	/**
+	 * @return the channel index, -1 if not reported
+	 */
+	public int getChannelIndex() {
+		return this.channelIndex;
+	}
+
+	/**
+	 * @return the tag seen count, -1 if not reported
+	 */
+	public int getTagSeenCount() {
+		return this.tagSeenCount;
+	}
+
+	/**
+	 * @return the ROSpecID, -1 if not reported
+	 */
+	public long getRoSpecID() {
+		return this.roSpecID;
+	}
+
+	/**
+	 * @return the AccessSpecID, -1 if not reported
+	 */
+	public long getAccessSpecID() {
+		return this.accessSpecID;
+	}
+
+	/**
+	 * @return the first seen timestamp in microseconds, since 1970 in UTC or
+	 *         since the reader started if <see cref="isFirstSeenUptime"/>, -1
+	 *         if not reported
+	 */
+	public long getFirstSeenTimestamp() {
+		return this.firstSeen;
+	}
+
+	/**
+	 * @return Indicator if the first seen timestamp is an uptime
+	 */
+	public boolean isFirstSeenUptime() {
+		return this.firstSeenUptime;
+	}
+
+	/**
+	 * @return the last seen timestamp in microseconds, since 1970 in UTC or
+	 *         since the reader started if <see cref="isLastSeenUptime"/>, -1
+	 *         if not reported
+	 */
+	public long getLastSeenTimestamp() {
+		return this.lastSeen;
+	}
+
+	/**
+	 * @return Indicator if the last seen timestamp is an uptime
+	 */
+	public boolean isLastSeenUptime() {
+		return this.lastSeenUptime;
+	}
+
+	/**
+	 * Reads the fields of the TagReportData parameter body between <paramref
+	 * name="offset"/> and <paramref name="end"/>. Absent fields are set to -1.
+	 *
+	 * @return Indicator if the parameter was well-formed
+	 */
+	boolean read(ByteBuffer buffer, int offset, int end) {
+		this.buffer = buffer;
+		this.roSpecID = -1;
+		this.accessSpecID = -1;
+		this.antennaID = -1;
+		this.epcOffset = -1;
+		this.epcLength = 0;
+		this.peakRSSI = NO_RSSI;
+		this.channelIndex = -1;
+		this.tagSeenCount = -1;
+		this.firstSeen = -1;
+		this.firstSeenUptime = false;
+		this.lastSeen = -1;
+		this.lastSeenUptime = false;
+
+		while (offset < end) {
+			int first = buffer.get(offset) & 0xFF;
+			if ((first & 0x80) != 0) {
+				int type = first & 0x7F;
+				int length = type < TV_LENGTHS.length ? TV_LENGTHS[type] : -1;
+				if (length < 0 || offset + 1 + length > end)
+					return false;
+				switch (type) {
+				case ANTENNA_ID_TYPE:
+					this.antennaID = buffer.getShort(offset + 1) & 0xFFFF;
+					break;
+				case FIRST_SEEN_UTC_TYPE:
+				case FIRST_SEEN_UPTIME_TYPE:
+					this.firstSeen = buffer.getLong(offset + 1);
+					this.firstSeenUptime = type == FIRST_SEEN_UPTIME_TYPE;
+					break;
+				case LAST_SEEN_UTC_TYPE:
+				case LAST_SEEN_UPTIME_TYPE:
+					this.lastSeen = buffer.getLong(offset + 1);
+					this.lastSeenUptime = type == LAST_SEEN_UPTIME_TYPE;
+					break;
+				case PEAK_RSSI_TYPE:
+					this.peakRSSI = buffer.get(offset + 1);
+					break;
+				case CHANNEL_INDEX_TYPE:
+					this.channelIndex = buffer.getShort(offset + 1) & 0xFFFF;
+					break;
+				case TAG_SEEN_COUNT_TYPE:
+					this.tagSeenCount = buffer.getShort(offset + 1) & 0xFFFF;
+					break;
+				case RO_SPEC_ID_TYPE:
+					this.roSpecID = buffer.getInt(offset + 1) & 0xFFFFFFFFL;
+					break;
+				case ACCESS_SPEC_ID_TYPE:
+					this.accessSpecID = buffer.getInt(offset + 1) & 0xFFFFFFFFL;
+					break;
+				case EPC_96_TYPE:
+					this.epcOffset = offset + 1;
+					this.epcLength = 12;
+					break;
+				default:
+					break;
+				}
+				offset += 1 + length;
+			} else {
+				if (offset + 4 > end)
+					return false;
+				int type = buffer.getShort(offset) & 0x3FF;
+				int length = buffer.getShort(offset + 2) & 0xFFFF;
+				if (length < 4 || offset + length > end)
+					return false;
+				if (type == EPC_DATA_TYPE && length >= 6) {
+					int bits = buffer.getShort(offset + 4) & 0xFFFF;
+					this.epcOffset = offset + 6;
+					this.epcLength = Math.min((bits + 7) / 8, length - 6);
+				}
+				offset += length;
+			}
+		}
+		return true;
+	}
+}
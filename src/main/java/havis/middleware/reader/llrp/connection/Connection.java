@@ -1,75 +1,80 @@
-package havis.middleware.reader.llrp.connection;
-
-import java.io.IOException;
-import java.nio.ByteBuffer;
-
-/**
- * Interface that defines operations and properties for connection
- * implementations. This interface extends the <see cref="IDisposable"/>
- * interface.
- */
-public interface Connection {
-	/**
-	 * Retrieves the connection timeout value.
-	 *
-	 * @return timeout
-	 */
-	int getTimeout();
-
-	/**
-	 * Retrieves the timespan after which reader should send keepalive.
-	 *
-	 * @return keepalive
-	 */
-	int getKeepalive();
-
-	/**
-	 * Retrieves the connection state.
-	 *
-	 * @return connected
-	 */
-	boolean isConnected();
-
-	/**
-	 * Method to establish the connection.
-	 *
-	 * @return Indicator if the connection was successfully established or not
-	 */
-	boolean openConnection();
-
-	/**
-	 * Method to disconnect.
-	 *
-	 * @throws IOException
-	 */
-	void closeConnection();
-
-	/**
-	 * Method to read a number of bytes according to <paramref name="size"/>.
-	 *
-	 * @param size
-	 *            Number of bytes to read.
-	 * @param timeout
-	 *            The timeout in milliseconds
-	 * @return Returns the requested byte array.
-	 * @throws IOException
-	 * @throws InterruptedException
-	 */
-	ByteBuffer retrieveMessage(int size, int timeout) throws IOException, InterruptedException;
-
-	/**
-	 * Method to send messages as byte array to the server.
-	 *
-	 * @param data
-	 *            The messages to be send
-	 * @throws IOException
-	 */
-	void sendMessage(ByteBuffer data) throws IOException;
-
-	/**
-	 * Disposes this instance.
-	 *
-	 * @throws IOException
-	 */
-	void dispose() throws IOException;
-}
+package havis.middleware.reader.llrp.connection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface that defines operations and properties for connection
+ * implementations. This interface extends the <see cref="IDisposable"/>
+ * interface. Connections whose received data is read by the caller implement
+ * the <see cref="PullConnection"/> interface.
+ */
+public interface Connection {
+	/**
+	 * Retrieves the connection timeout value.
+	 *
+	 * @return timeout
+	 */
+	int getTimeout();
+
+	/**
+	 * Retrieves the timespan after which reader should send keepalive.
+	 *
+	 * @return keepalive
+	 */
+	int getKeepalive();
+
+	/**
+	 * Retrieves the connection state.
+	 *
+	 * @return connected
+	 */
+	boolean isConnected();
+
+	/**
+	 * Method to establish the connection.
+	 *
+	 * @return Indicator if the connection was successfully established or not
+	 */
+	boolean openConnection();
+
+	/**
+	 * Method to disconnect.
+	 *
+	 * @throws IOException
+	 */
+	void closeConnection();
+
+	/**
+	 * Method to send messages as byte array to the server.
+	 *
+	 * @param data
+	 *            The messages to be send between the start of the buffer and
+	 *            its position, the buffer is flipped by the connection
+	 * @throws IOException
+	 *             if writing failed or did not complete within the timeout of
+	 *             the connection, the connection is closed in the latter case
+	 */
+	void sendMessage(ByteBuffer data) throws IOException;
+
+	/**
+	 * Method to queue messages for sending to the server without waiting for
+	 * the socket. Queued messages are written in order.
+	 *
+	 * @param data
+	 *            The messages to be send between the start of the buffer and
+	 *            its position, the buffer is flipped by the connection and
+	 *            must not be modified until the returned future is completed
+	 * @return The future which is completed as soon as the messages were
+	 *         written or exceptionally if writing failed
+	 */
+	CompletableFuture<Void> enqueueMessage(ByteBuffer data);
+
+	/**
+	 * Disposes this instance.
+	 *
+	 * @throws IOException
+	 */
+	void dispose() throws IOException;
+}
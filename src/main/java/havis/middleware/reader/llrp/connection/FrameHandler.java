@@ -0,0 +1,29 @@
+package havis.middleware.reader.llrp.connection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Interface that defines the callbacks of a connection which pushes received
+ * LLRP frames to its owner instead of being polled.
+ */
+public interface FrameHandler {
+	/**
+	 * Called for each complete LLRP frame. The buffer contains the message
+	 * header followed by the message body and is only valid for the duration
+	 * of the call.
+	 *
+	 * @param frame
+	 *            The received frame
+	 */
+	void frameReceived(ByteBuffer frame);
+
+	/**
+	 * Called if no data was received within the keepalive timespan or the
+	 * connection failed.
+	 *
+	 * @param cause
+	 *            The reason of the failure
+	 */
+	void receiveFailed(IOException cause);
+}
@@ -0,0 +1,193 @@
+package havis.middleware.reader.llrp.connection;
+
+import havis.middleware.reader.llrp.util.ByteBufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that passes the frames split by the <see cref="Reactor"/> to the <see
+ * cref="FrameHandler"/> of a <see cref="NIOConnection"/> on a thread of the
+ * connection. The reactor only copies each frame and queues it, so a handler
+ * which blocks holds back its own connection only, not all connections of the
+ * reactor. Frames and failures are passed on in the order of their receipt.
+ * If the handler falls behind and the stage is full, the connection stops
+ * reading from the socket until half of the queued frames were handled, so
+ * the reader is pushed back by TCP flow control. The delivering thread
+ * terminates while the stage is idle.
+ */
+class InboundStage implements FrameHandler {
+	private final static Logger log = Logger.getLogger(InboundStage.class.getName());
+
+	/**
+	 * The number of queued frames at which reading is suspended
+	 */
+	final static int DEFAULT_CAPACITY = 256;
+
+	private final static AtomicInteger instances = new AtomicInteger();
+
+	private final FrameHandler handler;
+	// received frames and failures
+	private final Queue<Object> queue = new ConcurrentLinkedQueue<Object>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicInteger wip = new AtomicInteger();
+	private final AtomicBoolean suspended = new AtomicBoolean();
+	private final int capacity;
+	private final Runnable resume;
+	private final ExecutorService delivery;
+	private volatile boolean closed;
+
+	private final Runnable drainTask = new Runnable() {
+		@Override
+		public void run() {
+			drain();
+		}
+	};
+
+	/**
+	 * Creates a new stage.
+	 *
+	 * @param handler
+	 *            The handler called on the delivering thread
+	 * @param capacity
+	 *            The number of queued frames at which reading is suspended
+	 * @param resume
+	 *            The task resuming the reading, called on the delivering
+	 *            thread
+	 */
+	InboundStage(FrameHandler handler, int capacity, Runnable resume) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Invalid capacity " + capacity);
+		this.handler = handler;
+		this.capacity = capacity;
+		this.resume = resume;
+		final String name = "NIOConnection inbound " + instances.incrementAndGet();
+		ThreadPoolExecutor delivery = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		delivery.allowCoreThreadTimeOut(true);
+		this.delivery = delivery;
+	}
+
+	/**
+	 * Copies <paramref name="frame"/> and queues it, called by the reactor.
+	 * Never waits.
+	 *
+	 * @param frame
+	 *            The frame between position and limit
+	 */
+	@Override
+	public void frameReceived(ByteBuffer frame) {
+		ByteBuffer copy = ByteBufferPool.HEAP.acquire(frame.remaining());
+		copy.put(frame.duplicate());
+		copy.flip();
+		enqueue(copy);
+	}
+
+	/**
+	 * Queues the failure behind the frames received before. Never waits.
+	 *
+	 * @param cause
+	 *            The reason of the failure
+	 */
+	@Override
+	public void receiveFailed(IOException cause) {
+		enqueue(cause);
+	}
+
+	/**
+	 * Discards the queued frames and all frames received afterwards, i.e.
+	 * after the connection was closed.
+	 */
+	void close() {
+		this.closed = true;
+		schedule();
+	}
+
+	/**
+	 * @return the number of queued frames and failures
+	 */
+	int getPending() {
+		return this.pending.get();
+	}
+
+	/**
+	 * @return Indicator if reading is suspended
+	 */
+	boolean isSuspended() {
+		return this.suspended.get();
+	}
+
+	/**
+	 * Suspends reading if the stage is full, called by the reactor after
+	 * reading.
+	 *
+	 * @return Indicator if reading is suspended
+	 */
+	boolean suspendIfFull() {
+		if (this.pending.get() < this.capacity)
+			return false;
+		this.suspended.set(true);
+		// the deliverer might have drained the stage without seeing the flag
+		return !(this.pending.get() <= this.capacity / 2 && this.suspended.compareAndSet(true, false));
+	}
+
+	private void enqueue(Object item) {
+		this.pending.incrementAndGet();
+		this.queue.offer(item);
+		schedule();
+	}
+
+	private void schedule() {
+		if (this.wip.getAndIncrement() == 0)
+			this.delivery.execute(this.drainTask);
+	}
+
+	/**
+	 * Passes the queued items to the handler, runs on the delivering thread.
+	 * Items queued meanwhile are passed on by the running drain.
+	 */
+	private void drain() {
+		do {
+			Object item;
+			while ((item = this.queue.poll()) != null) {
+				if (item instanceof ByteBuffer) {
+					ByteBuffer frame = (ByteBuffer) item;
+					try {
+						if (!this.closed)
+							this.handler.frameReceived(frame);
+					} catch (RuntimeException e) {
+						log.log(Level.SEVERE, "Failed to handle frame", e);
+					} finally {
+						ByteBufferPool.HEAP.release(frame);
+					}
+				} else if (!this.closed) {
+					try {
+						this.handler.receiveFailed((IOException) item);
+					} catch (RuntimeException e) {
+						log.log(Level.SEVERE, "Failed to handle receive failure", e);
+					}
+				}
+				if (this.pending.decrementAndGet() <= this.capacity / 2 && this.suspended.get() && this.suspended.compareAndSet(true, false)) {
+					this.resume.run();
+				}
+			}
+		} while (this.wip.decrementAndGet() != 0);
+	}
+}
@@ -0,0 +1,136 @@
+package havis.middleware.reader.llrp.connection;
+
+import havis.middleware.reader.llrp.util.ByteBufferPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Class that splits a byte stream into LLRP frames. Each read transfers all
+ * available bytes into one reusable receive buffer and passes every complete
+ * frame it contains to the <see cref="FrameHandler"/>. Incomplete frames are
+ * carried over to the next read. Frames exceeding the receive buffer are
+ * assembled in a dedicated buffer. All buffers are borrowed from the <see
+ * cref="ByteBufferPool"/>, the receive buffer is returned by {@link #release()}.
+ */
+public class LLRPFrameDecoder {
+	/**
+	 * Length of the LLRP message header
+	 */
+	public static final int HEADER_LENGTH = 10;
+	private static final int LENGTH_OFFSET = 2;
+	private static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
+
+	private final FrameHandler handler;
+	private ByteBuffer buffer;
+	private ByteBuffer frame;
+
+	/**
+	 * Creates a new decoder with the default receive buffer size.
+	 *
+	 * @param handler
+	 *            The handler for decoded frames
+	 */
+	public LLRPFrameDecoder(FrameHandler handler) {
+		this(handler, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates a new decoder.
+	 *
+	 * @param handler
+	 *            The handler for decoded frames
+	 * @param bufferSize
+	 *            The size of the receive buffer
+	 */
+	public LLRPFrameDecoder(FrameHandler handler, int bufferSize) {
+		if (bufferSize < HEADER_LENGTH)
+			throw new IllegalArgumentException("Buffer size must not be less than " + HEADER_LENGTH);
+		this.handler = handler;
+		this.buffer = ByteBufferPool.DIRECT.acquire(bufferSize);
+	}
+
+	/**
+	 * Reads the available bytes from the channel with a single read call and
+	 * passes all completed frames to the handler.
+	 *
+	 * @param channel
+	 *            The channel to read from
+	 * @return The number of bytes read, possibly zero, or -1 if the channel
+	 *         has reached end-of-stream
+	 * @throws IOException
+	 *             if reading fails or an invalid frame was received
+	 */
+	public int read(ReadableByteChannel channel) throws IOException {
+		if (this.frame != null) {
+			int received = channel.read(this.frame);
+			if (!this.frame.hasRemaining()) {
+				ByteBuffer complete = this.frame;
+				this.frame = null;
+				complete.flip();
+				try {
+					this.handler.frameReceived(complete);
+				} finally {
+					ByteBufferPool.HEAP.release(complete);
+				}
+			}
+			return received;
+		}
+
+		int received = channel.read(this.buffer);
+		if (received > 0) {
+			decode();
+		}
+		return received;
+	}
+
+	/**
+	 * Discards all buffered bytes, i.e. after reconnecting.
+	 */
+	public void reset() {
+		this.buffer.clear();
+		ByteBufferPool.HEAP.release(this.frame);
+		this.frame = null;
+	}
+
+	/**
+	 * Returns the buffers of this decoder to the pool. The decoder must not be
+	 * used afterwards.
+	 */
+	public void release() {
+		ByteBufferPool.HEAP.release(this.frame);
+		this.frame = null;
+		ByteBufferPool.DIRECT.release(this.buffer);
+		this.buffer = null;
+	}
+
+	private void decode() throws IOException {
+		this.buffer.flip();
+		try {
+			while (this.buffer.remaining() >= HEADER_LENGTH) {
+				int start = this.buffer.position();
+				int length = this.buffer.getInt(start + LENGTH_OFFSET);
+				if (length < HEADER_LENGTH) {
+					this.buffer.position(this.buffer.limit());
+					throw new IOException("Invalid message length " + (length & 0xFFFFFFFFL) + " received.");
+				}
+
+				if (this.buffer.remaining() < length) {
+					if (length > this.buffer.capacity()) {
+						this.frame = ByteBufferPool.HEAP.acquire(length);
+						this.frame.put(this.buffer);
+					}
+					break;
+				}
+
+				ByteBuffer complete = this.buffer.duplicate();
+				complete.limit(start + length);
+				this.buffer.position(start + length);
+				this.handler.frameReceived(complete);
+			}
+		} finally {
+			this.buffer.compact();
+		}
+	}
+}
@@ -0,0 +1,297 @@
+package havis.middleware.reader.llrp.connection;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that represents a non-blocking TCP connection. Instead of a thread per
+ * connection, the readiness events of the socket are served by a shared <see
+ * cref="Reactor"/> which reads the available bytes into the <see
+ * cref="LLRPFrameDecoder"/> of the connection. Queued outgoing messages are
+ * written by the reactor as well, as long as the socket accepts data. The
+ * reactor never calls the <see cref="FrameHandler"/>, the complete frames are
+ * handed to the <see cref="InboundStage"/> of the connection which pushes them
+ * to the handler on its own thread. While the stage is full, the reactor
+ * stops reading from the socket instead of waiting for the handler. As the
+ * received frames are pushed, this connection does not implement the <see
+ * cref="PullConnection"/> interface.
+ */
+public class NIOConnection extends SocketConnection {
+	private final static Logger log = Logger.getLogger(NIOConnection.class.getName());
+
+	private final FrameHandler handler;
+	private Reactor reactor;
+	private volatile SelectionKey key;
+
+	private LLRPFrameDecoder decoder;
+	private volatile InboundStage inbound;
+	private volatile long lastReceived;
+	// accessed by the reactor thread only, zero if not waiting to write
+	private long writeDeadline;
+	// accessed by the reactor thread only
+	private boolean writing;
+
+	private final Runnable flushTask = new Runnable() {
+		@Override
+		public void run() {
+			write();
+		}
+	};
+
+	private final Runnable resumeTask = new Runnable() {
+		@Override
+		public void run() {
+			SelectionKey key = NIOConnection.this.key;
+			if (key != null && key.isValid())
+				updateInterest(key);
+		}
+	};
+
+	/**
+	 * Initializes a new instance of the
+	 * havis.middleware.llrp.Connection.NIOConnection class.
+	 *
+	 * @param host
+	 *            The host of the TCP server
+	 * @param port
+	 *            The TCP port for this connection
+	 * @param timeout
+	 *            The TCP timeout value for this connection
+	 * @param keepalive
+	 *            The TCP keepalive value for this connection
+	 * @param handler
+	 *            The handler for received frames
+	 */
+	public NIOConnection(String host, int port, int timeout, int keepalive, FrameHandler handler) {
+		super(host, port, timeout, keepalive);
+		this.handler = handler;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see havis.middleware.reader.llrp.connection.SocketConnection#openConnection()
+	 */
+	@Override
+	public boolean openConnection() {
+		if (!connect())
+			return false;
+
+		final SocketChannel channel = getChannel();
+		try {
+			channel.configureBlocking(false);
+			this.reactor = Reactor.next();
+			this.inbound = new InboundStage(this.handler, InboundStage.DEFAULT_CAPACITY, new Runnable() {
+				@Override
+				public void run() {
+					reactor.execute(resumeTask);
+				}
+			});
+			this.decoder = new LLRPFrameDecoder(this.inbound);
+			this.lastReceived = System.currentTimeMillis();
+			this.reactor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						key = channel.register(reactor.getSelector(), SelectionKey.OP_READ, NIOConnection.this);
+					} catch (ClosedChannelException e) {
+						log.log(Level.FINE, "Connection to \"" + getRemoteAddress() + "\" closed before registration");
+					}
+				}
+			});
+			return true;
+		} catch (IOException e) {
+			log.log(Level.FINE, "Failed to register connection to \"" + getRemoteAddress() + "\": " + e.toString());
+			super.closeConnection();
+			return false;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see havis.middleware.reader.llrp.connection.SocketConnection#closeConnection()
+	 */
+	@Override
+	public void closeConnection() {
+		SelectionKey key = this.key;
+		if (key != null) {
+			key.cancel();
+			this.key = null;
+		}
+		InboundStage inbound = this.inbound;
+		if (inbound != null) {
+			// frames not yet handled belong to the closed connection
+			inbound.close();
+		}
+		final LLRPFrameDecoder decoder = this.decoder;
+		if (decoder != null) {
+			this.decoder = null;
+			// the reactor might still be reading into the decoder
+			this.reactor.execute(new Runnable() {
+				@Override
+				public void run() {
+					decoder.release();
+				}
+			});
+		}
+		super.closeConnection();
+		if (this.reactor != null) {
+			// fails the messages still queued, even if the reactor waits for
+			// write readiness of the cancelled key
+			this.reactor.execute(this.flushTask);
+		}
+	}
+
+	/**
+	 * Schedules the reactor to write the queued messages.
+	 */
+	@Override
+	protected void flush() {
+		if (this.reactor == null) {
+			super.flush();
+		} else if (getOutboundQueue().startFlush()) {
+			this.reactor.execute(this.flushTask);
+		}
+	}
+
+	/**
+	 * @return the number of received frames not yet handled
+	 */
+	int getPending() {
+		InboundStage inbound = this.inbound;
+		return inbound != null ? inbound.getPending() : 0;
+	}
+
+	/**
+	 * Called by the reactor if the channel is ready.
+	 *
+	 * @param key
+	 *            The selection key of the channel
+	 */
+	void handleReady(SelectionKey key) {
+		try {
+			if (key.isReadable()) {
+				read(key);
+			}
+			if (key.isValid() && key.isWritable()) {
+				write();
+			}
+		} catch (IOException e) {
+			log.log(Level.FINE, "Failed to read from \"" + getRemoteAddress() + "\": " + e.toString());
+			fail(e);
+		}
+	}
+
+	/**
+	 * Closes the channel on the reactor thread after a failure, releases the
+	 * decoder and fails the queued messages before the handler is notified
+	 * behind the frames received before.
+	 *
+	 * @param cause
+	 *            The cause of the failure
+	 */
+	private void fail(IOException cause) {
+		SelectionKey key = this.key;
+		if (key != null) {
+			key.cancel();
+			this.key = null;
+		}
+		try {
+			getChannel().close();
+		} catch (IOException e) {
+			log.log(Level.FINE, "Failed to close connection to \"" + getRemoteAddress() + "\": " + e.toString());
+		}
+		LLRPFrameDecoder decoder = this.decoder;
+		if (decoder != null) {
+			this.decoder = null;
+			decoder.release();
+		}
+		// the key is cancelled, the queued messages are failed
+		write();
+		this.inbound.receiveFailed(cause);
+	}
+
+	/**
+	 * Called by the reactor to check whether data was received within the
+	 * keepalive timespan and whether the socket accepted the queued messages
+	 * within the timeout. A connection whose messages cannot be written is
+	 * failed.
+	 *
+	 * @param now
+	 *            The current time in milliseconds
+	 */
+	void checkIdle(long now) {
+		if (this.writeDeadline != 0 && now - this.writeDeadline >= 0) {
+			fail(new IOException("Unable to write data to stream within " + getTimeout() + "ms."));
+			return;
+		}
+		if (this.inbound.isSuspended()) {
+			// data is available, but not read until the handler caught up
+			this.lastReceived = now;
+		} else if (now - this.lastReceived >= getKeepalive()) {
+			this.lastReceived = now;
+			this.inbound.receiveFailed(new IOException("No data received from stream within " + getKeepalive() + "ms."));
+		}
+	}
+
+	/**
+	 * Writes the queued messages on the reactor thread. Registers for write
+	 * readiness while the socket does not accept more data, the socket has to
+	 * accept more data within the timeout.
+	 */
+	private void write() {
+		OutboundQueue outbound = getOutboundQueue();
+		do {
+			SelectionKey key = this.key;
+			this.writeDeadline = 0;
+			try {
+				if (key == null || !key.isValid())
+					throw new ClosedChannelException();
+				if (!outbound.flush(getChannel())) {
+					this.writing = true;
+					updateInterest(key);
+					// restarted whenever the socket accepted data
+					if (getTimeout() > 0)
+						this.writeDeadline = System.currentTimeMillis() + getTimeout();
+					return;
+				}
+				this.writing = false;
+				updateInterest(key);
+			} catch (IOException e) {
+				log.log(Level.FINE, "Failed to write to \"" + getRemoteAddress() + "\": " + e.toString());
+				outbound.fail(e);
+			}
+		} while (outbound.endFlush());
+	}
+
+	private void read(SelectionKey key) throws IOException {
+		LLRPFrameDecoder decoder = this.decoder;
+		if (decoder == null)
+			return;
+		int received = decoder.read(getChannel());
+		if (received == -1) {
+			throw new EOFException("Connection closed by peer.");
+		} else if (received > 0) {
+			this.lastReceived = System.currentTimeMillis();
+			if (this.inbound.suspendIfFull() && key.isValid())
+				updateInterest(key);
+		}
+	}
+
+	/**
+	 * Updates the interest of the key on the reactor thread. Reading is
+	 * suspended while the inbound stage is full, writing is awaited while the
+	 * socket does not accept the queued messages.
+	 */
+	private void updateInterest(SelectionKey key) {
+		int ops = (this.inbound.isSuspended() ? 0 : SelectionKey.OP_READ) | (this.writing ? SelectionKey.OP_WRITE : 0);
+		if (key.interestOps() != ops)
+			key.interestOps(ops);
+	}
+}
@@ -0,0 +1,154 @@
+package havis.middleware.reader.llrp.connection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Class that represents the outbound queue of a connection. Any thread may add
+ * messages, but only the thread which owns the flush, see
+ * {@link #startFlush()}, writes them. Several queued messages are written with
+ * a single gathering write, partially written messages are continued by the
+ * next flush.
+ */
+class OutboundQueue {
+	private static final int MAX_GATHER = 64;
+
+	private final Queue<Write> pending = new ConcurrentLinkedQueue<Write>();
+	private final AtomicBoolean flushing = new AtomicBoolean();
+
+	// in-flight messages, accessed by the owner of the flush only
+	private final ByteBuffer[] buffers = new ByteBuffer[MAX_GATHER];
+	private final Write[] writes = new Write[MAX_GATHER];
+	private int first = 0;
+	private int count = 0;
+
+	/**
+	 * Adds a message to the queue.
+	 *
+	 * @param data
+	 *            The message ready to be written, the buffer must not be
+	 *            modified until the returned future is completed
+	 * @return The future which is completed as soon as the message was
+	 *         completely written
+	 */
+	CompletableFuture<Void> add(ByteBuffer data) {
+		Write write = new Write(data);
+		this.pending.add(write);
+		return write.future;
+	}
+
+	/**
+	 * Tries to become the owner of the flush.
+	 *
+	 * @return Indicator if the current thread owns the flush now
+	 */
+	boolean startFlush() {
+		return this.flushing.compareAndSet(false, true);
+	}
+
+	/**
+	 * Gives up the ownership of the flush. If messages were added meanwhile,
+	 * the ownership is taken again.
+	 *
+	 * @return Indicator if the current thread still owns the flush and has to
+	 *         flush again
+	 */
+	boolean endFlush() {
+		this.flushing.set(false);
+		return !this.pending.isEmpty() && startFlush();
+	}
+
+	/**
+	 * Writes the queued messages until the queue is empty or the channel does
+	 * not accept more data. Must be called by the owner of the flush only.
+	 *
+	 * @param channel
+	 *            The channel to write to
+	 * @return Indicator if all messages were written, false if the channel is
+	 *         not ready to accept more data
+	 * @throws IOException
+	 *             if writing failed
+	 */
+	boolean flush(GatheringByteChannel channel) throws IOException {
+		while (true) {
+			fill();
+			if (this.count == 0)
+				return true;
+
+			long written;
+			if (this.count == 1)
+				written = channel.write(this.buffers[this.first]);
+			else
+				written = channel.write(this.buffers, this.first, this.count);
+
+			while (this.count > 0 && !this.buffers[this.first].hasRemaining()) {
+				Write write = this.writes[this.first];
+				this.buffers[this.first] = null;
+				this.writes[this.first] = null;
+				this.first++;
+				this.count--;
+				write.future.complete(null);
+			}
+
+			if (written == 0 && this.count > 0)
+				return false;
+		}
+	}
+
+	/**
+	 * Fails all queued messages. Must be called by the owner of the flush
+	 * only.
+	 *
+	 * @param cause
+	 *            The cause of the failure
+	 */
+	void fail(IOException cause) {
+		for (int i = this.first; i < this.first + this.count; i++) {
+			this.writes[i].future.completeExceptionally(cause);
+			this.buffers[i] = null;
+			this.writes[i] = null;
+		}
+		this.first = 0;
+		this.count = 0;
+
+		Write write;
+		while ((write = this.pending.poll()) != null) {
+			write.future.completeExceptionally(cause);
+		}
+	}
+
+	private void fill() {
+		if (this.count == 0) {
+			this.first = 0;
+		} else if (this.first + this.count == MAX_GATHER && this.first > 0) {
+			System.arraycopy(this.buffers, this.first, this.buffers, 0, this.count);
+			System.arraycopy(this.writes, this.first, this.writes, 0, this.count);
+			for (int i = this.count; i < this.first + this.count; i++) {
+				this.buffers[i] = null;
+				this.writes[i] = null;
+			}
+			this.first = 0;
+		}
+
+		Write write;
+		while (this.first + this.count < MAX_GATHER && (write = this.pending.poll()) != null) {
+			this.buffers[this.first + this.count] = write.data;
+			this.writes[this.first + this.count] = write;
+			this.count++;
+		}
+	}
+
+	private static class Write {
+		private final ByteBuffer data;
+		private final CompletableFuture<Void> future = new CompletableFuture<Void>();
+
+		private Write(ByteBuffer data) {
+			this.data = data;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package havis.middleware.reader.llrp.connection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Interface of connections whose received data is read by the caller. This
+ * interface extends the <see cref="Connection"/> interface. Connections which
+ * pass the received frames to a <see cref="FrameHandler"/> on their own do not
+ * implement it.
+ */
+public interface PullConnection extends Connection {
+	/**
+	 * Method to read a number of bytes according to <paramref name="size"/>.
+	 *
+	 * @param size
+	 *            Number of bytes to read.
+	 * @param timeout
+	 *            The timeout in milliseconds
+	 * @return Returns the requested byte array.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	ByteBuffer retrieveMessage(int size, int timeout) throws IOException, InterruptedException;
+
+	/**
+	 * Method to read all available bytes into the <paramref name="decoder"/>,
+	 * which passes the completed frames to its handler.
+	 *
+	 * @param decoder
+	 *            The frame decoder of the receiver
+	 * @param timeout
+	 *            The timeout in milliseconds
+	 * @return The number of bytes read
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	int retrieveFrames(LLRPFrameDecoder decoder, int timeout) throws IOException, InterruptedException;
+}
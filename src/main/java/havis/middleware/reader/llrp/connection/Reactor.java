@@ -0,0 +1,120 @@
+package havis.middleware.reader.llrp.connection;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that represents a selector thread which serves the readiness events of
+ * many <see cref="NIOConnection"/> instances. A small pool of reactors, one
+ * per available processor, is shared by all connections of the JVM.
+ */
+class Reactor implements Runnable {
+	private static final int SELECT_TIMEOUT_MS = 100;
+
+	private final static Logger log = Logger.getLogger(Reactor.class.getName());
+
+	private static Reactor[] reactors;
+	private static int nextReactor = 0;
+
+	private final Selector selector;
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+	private final Thread thread;
+
+	/**
+	 * Returns the next reactor of the shared pool in round robin order. The
+	 * pool is created on first use.
+	 *
+	 * @return The reactor
+	 * @throws IOException
+	 *             if the selector could not be opened
+	 */
+	static synchronized Reactor next() throws IOException {
+		if (reactors == null) {
+			Reactor[] pool = new Reactor[Runtime.getRuntime().availableProcessors()];
+			for (int i = 0; i < pool.length; i++) {
+				pool[i] = new Reactor("LLRP Reactor " + i);
+			}
+			reactors = pool;
+		}
+		Reactor reactor = reactors[nextReactor];
+		nextReactor = (nextReactor + 1) % reactors.length;
+		return reactor;
+	}
+
+	private Reactor(String name) throws IOException {
+		this.selector = Selector.open();
+		this.thread = new Thread(this, name);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * @return the selector of this reactor
+	 */
+	Selector getSelector() {
+		return this.selector;
+	}
+
+	/**
+	 * @return Indicator if the current thread is the reactor thread
+	 */
+	boolean inReactor() {
+		return Thread.currentThread() == this.thread;
+	}
+
+	/**
+	 * Runs the task on the reactor thread. Selector registrations must be
+	 * done this way.
+	 *
+	 * @param task
+	 *            The task to run
+	 */
+	void execute(Runnable task) {
+		this.tasks.add(task);
+		if (!inReactor()) {
+			this.selector.wakeup();
+		}
+	}
+
+	@Override
+	public void run() {
+		long lastIdleCheck = System.currentTimeMillis();
+		while (true) {
+			try {
+				this.selector.select(SELECT_TIMEOUT_MS);
+
+				Runnable task;
+				while ((task = this.tasks.poll()) != null) {
+					task.run();
+				}
+
+				Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (key.isValid()) {
+						((NIOConnection) key.attachment()).handleReady(key);
+					}
+				}
+
+				long now = System.currentTimeMillis();
+				if (now - lastIdleCheck >= SELECT_TIMEOUT_MS) {
+					lastIdleCheck = now;
+					for (SelectionKey key : this.selector.keys()) {
+						if (key.isValid()) {
+							((NIOConnection) key.attachment()).checkIdle(now);
+						}
+					}
+				}
+			} catch (Throwable e) {
+				log.log(Level.SEVERE, "Reactor loop failed: " + e.toString());
+			}
+		}
+	}
+}
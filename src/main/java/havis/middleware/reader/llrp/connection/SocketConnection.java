@@ -0,0 +1,328 @@
+package havis.middleware.reader.llrp.connection;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Base class of the TCP connections. This class implements the <see
+ * cref="Connection"/> interface. It establishes the socket connection and
+ * sends the outgoing messages, receiving is up to the subclasses. Outgoing
+ * messages are queued, the sending thread which finds the queue idle writes
+ * all queued messages while the others return immediately.
+ */
+public abstract class SocketConnection implements Connection {
+	private static final int DISCONNECT_DELAY_MS = 100;
+	private static final int MAX_CONNECTION_ATTEMPTS = 3;
+	private static final int CONNECTION_RETRY_DELAY_MS = 1000;
+	private static final String CONNECTION_REFUSED_MESSAGE = "Connection refused";
+
+	private boolean isDisposed = false;
+	private int port;
+	private String hostname;
+	private SocketChannel client;
+	private int timeout;
+	private int keepalive;
+	private boolean isConnected;
+	private volatile Selector writeSelector;
+	private final OutboundQueue outbound = new OutboundQueue();
+
+	private final static Logger log = Logger.getLogger(SocketConnection.class.getName());
+
+	/**
+	 * Initializes a new instance of the
+	 * havis.middleware.llrp.Connection.SocketConnection class.
+	 *
+	 * @param host
+	 *            The host of the TCP server
+	 * @param port
+	 *            The TCP port for this connection
+	 * @param timeout
+	 *            The TCP timeout value for this connection
+	 * @param keepalive
+	 *            The TCP keepalive value for this connection
+	 */
+	protected SocketConnection(String host, int port, int timeout, int keepalive) {
+		this.hostname = host;
+		this.port = port;
+		this.timeout = timeout;
+		this.keepalive = keepalive;
+		this.isConnected = false;
+	}
+
+	/**
+	 * Retrieves the connection timeout value.
+	 */
+	@Override
+	public int getTimeout() {
+		return this.timeout;
+	}
+
+	/**
+	 * Retrieves the timespan after which reader should send keepalive
+	 */
+	@Override
+	public int getKeepalive() {
+		return this.keepalive;
+	}
+
+	/**
+	 * Retrieves the connection state.
+	 */
+	@Override
+	public boolean isConnected() {
+		return this.isConnected;
+	}
+
+	/**
+	 * Establishes the socket connection, retrying refused connection attempts.
+	 *
+	 * @return Indicator if the connection was successfully established or not
+	 */
+	protected boolean connect() {
+		log.log(Level.FINE, "Attempting connection to \"" + this.hostname + ":" + this.port + "\"");
+		try {
+			if (this.client == null || !this.client.isConnected()) {
+				int connectionAttempts = 0;
+				while (true) {
+					try {
+						this.client = SocketChannel.open();
+						this.client.socket().connect(new InetSocketAddress(this.hostname, this.port), this.timeout);
+						log.log(Level.FINE, "Successfully opened connection to \"" + this.hostname + ":" + this.port + "\"");
+						break;
+					} catch (ConnectException e) {
+						log.log(Level.FINE, "Failed to open connection to \"" + this.hostname + ":" + this.port + "\": " + e.toString());
+						if (!CONNECTION_REFUSED_MESSAGE.equals(e.getMessage()) || ++connectionAttempts == MAX_CONNECTION_ATTEMPTS) {
+							throw e;
+						}
+						Thread.sleep(CONNECTION_RETRY_DELAY_MS);
+					}
+				}
+
+				this.isConnected = true;
+			}
+
+			return this.isConnected;
+		} catch (Exception exc) {
+			log.log(Level.FINE, "Failed to open connection to \"" + this.hostname + ":" + this.port + "\": " + exc.toString());
+			return false;
+		}
+	}
+
+	/**
+	 * @return the underlying socket channel
+	 */
+	protected SocketChannel getChannel() {
+		return this.client;
+	}
+
+	/**
+	 * @return the remote address as "host:port"
+	 */
+	protected String getRemoteAddress() {
+		return this.hostname + ":" + this.port;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * havis.middleware.reader.llrp.connection.IConnection#closeConnection()
+	 */
+	@Override
+	public void closeConnection() {
+		// closing the selector wakes up threads waiting for the socket
+		Selector writeSelector = this.writeSelector;
+		this.writeSelector = null;
+		closeSelector(writeSelector);
+		try {
+			this.client.close();
+			// TODO: sleeping to avoid connection refusal on reconnect
+			Thread.sleep(DISCONNECT_DELAY_MS);
+		} catch (IOException e) {
+			log.log(Level.FINE, "Failed to close connection to \"" + this.hostname + ":" + this.port + "\": " + e.toString());
+		} catch (InterruptedException e) {
+			log.log(Level.FINE, "Failed to close connection to \"" + this.hostname + ":" + this.port + "\": " + e.toString());
+		}
+		this.isConnected = false;
+		// fails the messages still queued
+		flush();
+	}
+
+	/**
+	 * Closes <paramref name="selector"/>, which wakes up the threads waiting
+	 * on it.
+	 */
+	protected void closeSelector(Selector selector) {
+		if (selector != null) {
+			try {
+				selector.close();
+			} catch (IOException e) {
+				log.log(Level.FINE, "Failed to close selector of \"" + this.hostname + ":" + this.port + "\": " + e.toString());
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * havis.middleware.reader.llrp.connection.IConnection#sendMessage(java.
+	 * nio.ByteBuffer)
+	 */
+	@Override
+	public void sendMessage(ByteBuffer data) throws IOException {
+		CompletableFuture<Void> future = enqueueMessage(data);
+		// the buffer belongs to the queue until the write completed
+		long deadline = System.currentTimeMillis() + this.timeout;
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					if (this.timeout > 0)
+						future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+					else
+						future.get();
+					return;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (TimeoutException e) {
+					log.log(Level.FINE, "Failed to write to \"" + this.hostname + ":" + this.port + "\" within " + this.timeout + "ms");
+					// a partially written message cannot be taken back, closing
+					// the connection fails the queued messages
+					closeConnection();
+					awaitCompletion(future);
+					throw new IOException("Unable to write data to stream within " + this.timeout + "ms.");
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException)
+						throw (IOException) e.getCause();
+					throw new IOException(e.getCause());
+				}
+			}
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits until the queue released the message of <paramref
+	 * name="future"/>, used after the connection was closed.
+	 */
+	private static void awaitCompletion(CompletableFuture<Void> future) {
+		try {
+			future.join();
+		} catch (CompletionException | CancellationException e) {
+			// failed by closing the connection
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * havis.middleware.reader.llrp.connection.IConnection#enqueueMessage(java
+	 * .nio.ByteBuffer)
+	 */
+	@Override
+	public CompletableFuture<Void> enqueueMessage(ByteBuffer data) {
+		data.flip();
+		CompletableFuture<Void> future = this.outbound.add(data);
+		flush();
+		return future;
+	}
+
+	/**
+	 * @return the queue of outgoing messages
+	 */
+	OutboundQueue getOutboundQueue() {
+		return this.outbound;
+	}
+
+	/**
+	 * Writes the queued messages if no other thread does, waits while the
+	 * send buffer of the socket is full. After the connection was closed, the
+	 * queued messages are failed.
+	 */
+	protected void flush() {
+		if (!this.outbound.startFlush())
+			return;
+		do {
+			try {
+				SocketChannel client = this.client;
+				if (client == null)
+					throw new ClosedChannelException();
+				while (!this.outbound.flush(client)) {
+					awaitWritable();
+				}
+			} catch (IOException e) {
+				log.log(Level.FINE, "Failed to write to \"" + this.hostname + ":" + this.port + "\": " + e.toString());
+				this.outbound.fail(e);
+			}
+		} while (this.outbound.endFlush());
+	}
+
+	/**
+	 * Waits until the socket accepts more data, used if the send buffer of
+	 * the socket is full.
+	 */
+	private void awaitWritable() throws IOException {
+		try {
+			Selector selector = this.writeSelector;
+			if (selector == null) {
+				selector = Selector.open();
+				this.writeSelector = selector;
+				this.client.register(selector, SelectionKey.OP_WRITE);
+			}
+			if (selector.select(this.timeout) == 0) {
+				throw new IOException("Unable to write data to stream within " + this.timeout + "ms.");
+			}
+			selector.selectedKeys().clear();
+		} catch (ClosedSelectorException e) {
+			throw new ClosedChannelException();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see havis.middleware.reader.llrp.connection.IConnection#dispose()
+	 */
+	@Override
+	public void dispose() throws IOException {
+		dispose(true);
+	}
+
+	/**
+	 * Disposes this instance. According to <paramref name="disposing"/> also
+	 * managed resources will be disposed.
+	 *
+	 * @param disposing
+	 *            Indicator if also managed resources should be dispoed.
+	 * @throws IOException
+	 */
+	protected void dispose(boolean disposing) throws IOException {
+		if (!this.isDisposed) {
+			if (disposing) {
+				if (this.isConnected)
+					this.closeConnection();
+			}
+			this.client = null;
+			this.isDisposed = true;
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.ClientRequestOP;
+import havis.llrpservice.data.message.ClientRequestOPResponse;
+
+/**
+ * Interface for a handler answering CLIENT_REQUEST_OP messages on the
+ * receiving thread. The handler must not block, since no further messages of
+ * the connection are received while it runs.
+ */
+public interface ClientRequestOpHandler {
+	/**
+	 * Builds the response to <paramref name="request"/>.
+	 * 
+	 * @param request
+	 *            The request of the reader
+	 * @return The response which is sent immediately, or null to deliver the
+	 *         request as event instead
+	 */
+	ClientRequestOPResponse handle(ClientRequestOP request);
+}
@@ -0,0 +1,417 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.MessageTypes.MessageType;
+import havis.middleware.reader.llrp.util.RingBuffer;
+import havis.middleware.reader.llrp.util.ThreadMode;
+import havis.middleware.reader.llrp.util.Threads;
+import havis.middleware.reader.llrp.util.WaitStrategy;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjLongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that dispatches the events received from the reader on a consumer
+ * thread. Events are passed through preallocated <see cref="RingBuffer"/>s,
+ * one per <see cref="EventLane"/>, the receiving thread is the only producer.
+ * The consumer always dispatches queued control events ahead of reports. If
+ * the report lane is full, the <see cref="EventOverflowPolicy"/> applies, if
+ * the control lane is full, the producer waits. Producer and consumer wait
+ * according to the <see cref="WaitStrategy"/>. A consumer thread terminated by
+ * an error is replaced automatically.
+ *
+ * With coalescing enabled, a KEEPALIVE is dropped while another one is still
+ * queued, and a READER_EVENT_NOTIFICATION is dropped while one with the same
+ * content key is still queued.
+ */
+class EventDispatcher {
+	private final static Logger log = Logger.getLogger(EventDispatcher.class.getName());
+
+	private final Lane control;
+	private final Lane reports;
+	private final WaitStrategy waitStrategy;
+	private final ObjLongConsumer<Message> consumer;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+	private volatile boolean disposed = false;
+	private volatile String name;
+	private volatile ThreadMode threadMode = ThreadMode.PLATFORM;
+	private volatile Thread consumerThread;
+	private volatile Thread producerThread;
+	private volatile boolean consumerParked = false;
+	private volatile boolean producerParked = false;
+
+	private volatile EventOverflowPolicy overflowPolicy = EventOverflowPolicy.DROP_OLDEST_REPORT;
+	private volatile boolean coalescing = false;
+	private final AtomicLong published = new AtomicLong();
+	private final AtomicLong dispatched = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong coalescedCount = new AtomicLong();
+
+	// control lane sequences and content key of the last published
+	// coalescable events, accessed by the producer only
+	private long lastKeepalive = -1;
+	private long lastNotification = -1;
+	private long lastNotificationKey = 0;
+
+	/**
+	 * Creates a new dispatcher.
+	 *
+	 * @param capacity
+	 *            The maximum number of queued events per lane
+	 * @param waitStrategy
+	 *            The strategy of waiting producer and consumer
+	 * @param consumer
+	 *            The consumer of the events and their sequence numbers
+	 */
+	EventDispatcher(int capacity, WaitStrategy waitStrategy, ObjLongConsumer<Message> consumer) {
+		this.control = new Lane(capacity);
+		this.reports = new Lane(capacity);
+		this.waitStrategy = waitStrategy;
+		this.consumer = consumer;
+	}
+
+	/**
+	 * @return the strategy of waiting producer and consumer
+	 */
+	WaitStrategy getWaitStrategy() {
+		return this.waitStrategy;
+	}
+
+	/**
+	 * @param overflowPolicy
+	 *            The policy if the report lane is full
+	 */
+	void setOverflowPolicy(EventOverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * @return the policy if the report lane is full
+	 */
+	EventOverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+	/**
+	 * @param coalescing
+	 *            Indicator if redundant events are coalesced
+	 */
+	void setCoalescing(boolean coalescing) {
+		this.coalescing = coalescing;
+	}
+
+	/**
+	 * @return Indicator if redundant events are coalesced
+	 */
+	boolean isCoalescing() {
+		return this.coalescing;
+	}
+
+	/**
+	 * @return the number of events dropped because the report lane was full
+	 */
+	long getDroppedCount() {
+		return this.droppedCount.get();
+	}
+
+	/**
+	 * @return the number of events dropped by coalescing
+	 */
+	long getCoalescedCount() {
+		return this.coalescedCount.get();
+	}
+
+	/**
+	 * @return the maximum number of queued events per lane
+	 */
+	int getCapacity() {
+		return this.reports.events.getCapacity();
+	}
+
+	/**
+	 * @return the sequence of the next published event
+	 */
+	long getPublishedSequence() {
+		return this.published.get();
+	}
+
+	/**
+	 * Sets the sequence of the next published event. Must be called before
+	 * the first event is published.
+	 *
+	 * @param sequence
+	 *            The sequence
+	 */
+	void setPublishedSequence(long sequence) {
+		this.published.set(sequence);
+	}
+
+	/**
+	 * @return the number of dispatched events
+	 */
+	long getDispatchedCount() {
+		return this.dispatched.get();
+	}
+
+	/**
+	 * @param lane
+	 *            The lane
+	 * @return the number of queued events of <paramref name="lane"/>
+	 */
+	int getQueued(EventLane lane) {
+		return lane(lane).events.size();
+	}
+
+	/**
+	 * @param lane
+	 *            The lane
+	 * @return the queueing delay of the last dispatched event of <paramref
+	 *         name="lane"/> in nanoseconds
+	 */
+	long getDelay(EventLane lane) {
+		return lane(lane).lastDelay;
+	}
+
+	/**
+	 * @param lane
+	 *            The lane
+	 * @return the average queueing delay of the events of <paramref
+	 *         name="lane"/> in nanoseconds
+	 */
+	long getAverageDelay(EventLane lane) {
+		Lane l = lane(lane);
+		long count = l.count;
+		return count == 0 ? 0 : l.totalDelay / count;
+	}
+
+	/**
+	 * @param lane
+	 *            The lane
+	 * @return the maximum queueing delay of the events of <paramref
+	 *         name="lane"/> in nanoseconds
+	 */
+	long getMaxDelay(EventLane lane) {
+		return lane(lane).maxDelay;
+	}
+
+	/**
+	 * @return Indicator if the consumer thread is running
+	 */
+	boolean isRunning() {
+		return this.running.get();
+	}
+
+	/**
+	 * Starts the consumer thread unless it is running.
+	 *
+	 * @param name
+	 *            The name of the consumer thread
+	 * @param threadMode
+	 *            The kind of the consumer thread
+	 */
+	void start(String name, ThreadMode threadMode) {
+		this.name = name;
+		this.threadMode = threadMode;
+		if (!this.disposed && this.running.compareAndSet(false, true)) {
+			Thread thread = Threads.newThread(threadMode, name, new Runnable() {
+				@Override
+				public void run() {
+					consume();
+				}
+			});
+			this.consumerThread = thread;
+			thread.start();
+		}
+	}
+
+	/**
+	 * Publishes an event. Must be called by the producer only.
+	 *
+	 * @param event
+	 *            The event
+	 * @param contentKey
+	 *            The key of the event content used for coalescing, 0 if
+	 *            unknown
+	 * @return The sequence of the event or -1 if it was coalesced or the
+	 *         dispatcher was disposed
+	 */
+	long publish(Message event, long contentKey) {
+		MessageType type = event.getMessageHeader().getMessageType();
+		if (this.coalescing && coalesce(type, contentKey)) {
+			this.coalescedCount.incrementAndGet();
+			return -1;
+		}
+
+		Lane lane = type == MessageType.RO_ACCESS_REPORT ? this.reports : this.control;
+		long sequence = this.published.get();
+		long laneSequence;
+		int counter = 0;
+		while ((laneSequence = lane.offer(event, sequence)) < 0) {
+			if (this.disposed)
+				return -1;
+			if (lane == this.reports && this.overflowPolicy == EventOverflowPolicy.DROP_OLDEST_REPORT && lane.events.poll() != null) {
+				this.droppedCount.incrementAndGet();
+				continue;
+			}
+			if (this.waitStrategy.parks(counter)) {
+				this.producerThread = Thread.currentThread();
+				this.producerParked = true;
+				laneSequence = lane.offer(event, sequence);
+				if (laneSequence < 0) {
+					counter = this.waitStrategy.idle(counter);
+				}
+				this.producerParked = false;
+				if (laneSequence >= 0)
+					break;
+			} else {
+				counter = this.waitStrategy.idle(counter);
+			}
+		}
+		this.published.lazySet(sequence + 1);
+
+		if (type == MessageType.KEEPALIVE) {
+			this.lastKeepalive = laneSequence;
+		} else if (type == MessageType.READER_EVENT_NOTIFICATION) {
+			this.lastNotification = laneSequence;
+			this.lastNotificationKey = contentKey;
+		}
+
+		if (this.consumerParked) {
+			this.waitStrategy.wakeUp(this.consumerThread);
+		}
+		return sequence;
+	}
+
+	/**
+	 * Indicates if an event of <paramref name="type"/> is redundant because
+	 * an equal one is still queued.
+	 */
+	private boolean coalesce(MessageType type, long contentKey) {
+		long consumed = this.control.events.getConsumedSequence();
+		switch (type) {
+		case KEEPALIVE:
+			return this.lastKeepalive >= consumed;
+		case READER_EVENT_NOTIFICATION:
+			return contentKey != 0 && this.lastNotification >= consumed && this.lastNotificationKey == contentKey;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Stops the consumer thread, queued events are not dispatched.
+	 */
+	void dispose() {
+		this.disposed = true;
+		this.waitStrategy.wakeUp(this.consumerThread);
+		this.waitStrategy.wakeUp(this.producerThread);
+	}
+
+	private Lane lane(EventLane lane) {
+		return lane == EventLane.CONTROL ? this.control : this.reports;
+	}
+
+	private void consume() {
+		boolean failed = true;
+		try {
+			int counter = 0;
+			while (!this.disposed) {
+				if (dispatchNext(this.control) || dispatchNext(this.reports)) {
+					counter = 0;
+				} else if (this.waitStrategy.parks(counter)) {
+					this.consumerParked = true;
+					if (this.control.events.isEmpty() && this.reports.events.isEmpty() && !this.disposed) {
+						counter = this.waitStrategy.idle(counter);
+					}
+					this.consumerParked = false;
+				} else {
+					counter = this.waitStrategy.idle(counter);
+				}
+			}
+			failed = false;
+		} finally {
+			this.running.set(false);
+			if (failed && !this.disposed) {
+				log.log(Level.SEVERE, "Event dispatcher '" + this.name + "' terminated unexpectedly, restarting");
+				start(this.name, this.threadMode);
+			}
+		}
+	}
+
+	/**
+	 * Dispatches the next event of <paramref name="lane"/>.
+	 *
+	 * @return Indicator if the lane was not empty
+	 */
+	private boolean dispatchNext(Lane lane) {
+		long laneSequence = lane.events.getConsumedSequence();
+		if (laneSequence >= lane.events.getPublishedSequence())
+			return false;
+		// read before taking the event, the slot may be reused afterwards
+		int index = (int) laneSequence & lane.mask;
+		long sequence = lane.sequences[index];
+		long enqueued = lane.enqueued[index];
+		Message event = lane.events.poll(laneSequence);
+		if (event == null)
+			return true; // dropped by the producer
+
+		if (this.producerParked) {
+			this.waitStrategy.wakeUp(this.producerThread);
+		}
+		lane.record(System.nanoTime() - enqueued);
+		this.dispatched.lazySet(this.dispatched.get() + 1);
+		try {
+			this.consumer.accept(event, sequence);
+		} catch (Exception e) {
+			log.log(Level.SEVERE, "Failed to dispatch event " + sequence, e);
+		}
+		return true;
+	}
+
+	/**
+	 * Class that represents a priority lane with the connection sequence and
+	 * enqueue time of each queued event.
+	 */
+	private static final class Lane {
+		private final RingBuffer<Message> events;
+		private final int mask;
+		// written by the producer before publishing the event
+		private final long[] sequences;
+		private final long[] enqueued;
+
+		// written by the consumer only
+		private volatile long lastDelay;
+		private volatile long maxDelay;
+		private volatile long totalDelay;
+		private volatile long count;
+
+		private Lane(int capacity) {
+			this.events = new RingBuffer<Message>(capacity);
+			this.mask = this.events.getCapacity() - 1;
+			this.sequences = new long[this.events.getCapacity()];
+			this.enqueued = new long[this.events.getCapacity()];
+		}
+
+		private long offer(Message event, long sequence) {
+			long laneSequence = this.events.getPublishedSequence();
+			if (laneSequence - this.events.getConsumedSequence() >= this.events.getCapacity())
+				return -1;
+			int index = (int) laneSequence & this.mask;
+			this.sequences[index] = sequence;
+			this.enqueued[index] = System.nanoTime();
+			return this.events.offer(event);
+		}
+
+		private void record(long delay) {
+			this.lastDelay = delay;
+			if (delay > this.maxDelay)
+				this.maxDelay = delay;
+			this.totalDelay += delay;
+			this.count++;
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package havis.middleware.reader.llrp.service;
+
+/**
+ * Enumeration that provides the priority lanes of the event queue. Events of
+ * the control lane are always dispatched ahead of queued reports.
+ */
+public enum EventLane {
+	/**
+	 * CLIENT_REQUEST_OP, READER_EVENT_NOTIFICATION and KEEPALIVE messages
+	 */
+	CONTROL,
+	/**
+	 * RO_ACCESS_REPORT messages
+	 */
+	REPORT,
+}
@@ -0,0 +1,22 @@
+package havis.middleware.reader.llrp.service;
+
+/**
+ * Enumeration that provides the policies applied if the report lane of the
+ * event queue of a connection is full. If the control lane is full, the
+ * receiving thread always waits. The default is <see
+ * cref="DROP_OLDEST_REPORT"/>, as the receiving thread also reads the
+ * responses and keepalives of the connection.
+ */
+public enum EventOverflowPolicy {
+	/**
+	 * The receiving thread waits for the dispatcher, this pushes back on the
+	 * reader connection. No report is lost, but a slow listener delays the
+	 * responses and keepalives, so requests might time out
+	 */
+	BLOCK,
+	/**
+	 * The oldest queued RO_ACCESS_REPORT is dropped to make room, the drops
+	 * are counted
+	 */
+	DROP_OLDEST_REPORT,
+}
@@ -0,0 +1,154 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.MessageTypes.MessageType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Class that keeps the last dispatched RO_ACCESS_REPORT and
+ * READER_EVENT_NOTIFICATION events with their sequence numbers, each type in
+ * a preallocated ring of fixed size. Events older than the maximum age are
+ * not replayed. The dispatching thread records and delivers each event while
+ * holding the lock, a subscriber replaying and attaching under the same lock
+ * therefore neither misses nor receives an event twice.
+ */
+class EventReplayBuffer {
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Ring reports;
+	private final Ring notifications;
+	private final long maxAge;
+
+	/**
+	 * Creates a new replay buffer.
+	 *
+	 * @param capacity
+	 *            The number of events kept per type
+	 * @param maxAge
+	 *            The maximum age of replayed events in milliseconds, 0 for
+	 *            any age
+	 */
+	EventReplayBuffer(int capacity, long maxAge) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Invalid replay capacity " + capacity);
+		if (maxAge < 0)
+			throw new IllegalArgumentException("Invalid replay age " + maxAge);
+		this.reports = new Ring(capacity);
+		this.notifications = new Ring(capacity);
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * @return the number of events kept per type
+	 */
+	int getCapacity() {
+		return this.reports.events.length;
+	}
+
+	/**
+	 * @return the maximum age of replayed events in milliseconds, 0 for any
+	 *         age
+	 */
+	long getMaxAge() {
+		return this.maxAge;
+	}
+
+	void lock() {
+		this.lock.lock();
+	}
+
+	void unlock() {
+		this.lock.unlock();
+	}
+
+	/**
+	 * Records an event if its type is kept. Must be called with the lock
+	 * held.
+	 *
+	 * @param event
+	 *            The event
+	 * @param sequence
+	 *            The sequence number of the event
+	 */
+	void record(Message event, long sequence) {
+		Ring ring = ring(event.getMessageHeader().getMessageType());
+		if (ring != null)
+			ring.add(event, sequence, System.nanoTime());
+	}
+
+	/**
+	 * Replays the kept events of <paramref name="type"/> from <paramref
+	 * name="fromSequence"/> on and runs <paramref name="attach"/> afterwards,
+	 * both while holding the lock.
+	 *
+	 * @param type
+	 *            The type of the events
+	 * @param fromSequence
+	 *            The sequence number of the first event to replay
+	 * @param consumer
+	 *            The consumer of the events and their sequence numbers
+	 * @param attach
+	 *            The operation attaching the listener to the live events
+	 * @return The number of replayed events
+	 */
+	int replay(MessageType type, long fromSequence, ObjLongConsumer<Message> consumer, Runnable attach) {
+		Ring ring = ring(type);
+		if (ring == null)
+			throw new IllegalArgumentException("Events of type " + type + " are not kept");
+		this.lock.lock();
+		try {
+			int count = 0;
+			long now = System.nanoTime();
+			long maxAge = TimeUnit.MILLISECONDS.toNanos(this.maxAge);
+			int capacity = ring.events.length;
+			for (long i = Math.max(0, ring.count - capacity); i < ring.count; i++) {
+				int index = (int) (i % capacity);
+				if (ring.sequences[index] < fromSequence || (maxAge > 0 && now - ring.times[index] > maxAge))
+					continue;
+				consumer.accept(ring.events[index], ring.sequences[index]);
+				count++;
+			}
+			attach.run();
+			return count;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private Ring ring(MessageType type) {
+		switch (type) {
+		case RO_ACCESS_REPORT:
+			return this.reports;
+		case READER_EVENT_NOTIFICATION:
+			return this.notifications;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Class that represents the kept events of a type.
+	 */
+	private static final class Ring {
+		private final Message[] events;
+		private final long[] sequences;
+		private final long[] times;
+		private long count;
+
+		private Ring(int capacity) {
+			this.events = new Message[capacity];
+			this.sequences = new long[capacity];
+			this.times = new long[capacity];
+		}
+
+		private void add(Message event, long sequence, long time) {
+			int index = (int) (this.count % this.events.length);
+			this.events[index] = event;
+			this.sequences[index] = sequence;
+			this.times[index] = time;
+			this.count++;
+		}
+	}
+}
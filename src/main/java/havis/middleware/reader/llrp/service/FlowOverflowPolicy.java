@@ -0,0 +1,25 @@
+package havis.middleware.reader.llrp.service;
+
+/**
+ * Enumeration of the policies applied to a report if the buffer of a
+ * subscriber without demand is full.
+ */
+public enum FlowOverflowPolicy {
+	/**
+	 * The event thread waits until the subscriber requested more reports.
+	 * Further events queue up and finally the connection is no longer read.
+	 */
+	BLOCK,
+	/**
+	 * The oldest buffered report is dropped
+	 */
+	DROP_OLDEST,
+	/**
+	 * The new report is dropped
+	 */
+	DROP_NEWEST,
+	/**
+	 * The subscription fails
+	 */
+	ERROR
+}
@@ -1,257 +1,1067 @@
-package havis.middleware.reader.llrp.service;
-
-import havis.llrpservice.data.message.ClientRequestOP;
-import havis.llrpservice.data.message.Keepalive;
-import havis.llrpservice.data.message.Message;
-import havis.llrpservice.data.message.ROAccessReport;
-import havis.llrpservice.data.message.ReaderEventNotification;
-import havis.llrpservice.data.message.parameter.serializer.InvalidParameterTypeException;
-import havis.llrpservice.data.message.serializer.InvalidMessageTypeException;
-import havis.middleware.reader.llrp.client.LLRPClient;
-import havis.middleware.reader.llrp.service.event.LLRPEventArgs;
-import havis.middleware.reader.llrp.util.LLRPReturnContainerUtil;
-import havis.middleware.utils.threading.Pipeline;
-
-import java.io.IOException;
-import java.util.EventObject;
-import java.util.HashMap;
-import java.util.Map;
-
-/**
- * Class that provides mechanisms to handle all messages send to or
- * received from a <see cref="LLRPClient"/>.
- */
-public class LLRPMessageHandler implements Runnable {
-	/**
-	 * List of all waiting objects
-	 */
-	private Map<Long, LLRPSyncObject> waitingList;
-	private LLRPClient client;
-	private LLRPService service;
-	private Object syncWaitingList = new Object();
-	private Thread eventThread;
-	private Pipeline<Message> eventPipe = new Pipeline<Message>();
-	private boolean isDisposed = false;
-
-	/**
-	 * Retrieves the used LLRPClient
-	 *
-	 * @return LLRPClient
-	 */
-	public LLRPClient getClient() {
-		return this.client;
-	}
-
-	/**
-	 * Sets the used LLRPClient
-	 *
-	 * @param client LLRPClient
-	 */
-	void setClient(LLRPClient client) {
-		this.client = client;
-	}
-
-	/**
-	 * Retrieves the LLRPService
-	 *
-	 * @return LLRPService
-	 */
-	public LLRPService getService() {
-		return this.service;
-	}
-
-	/**
-	 * Creates a new instance of LLRPMessageHandler
-	 *
-	 * @param service
-	 */
-	public LLRPMessageHandler (LLRPService service) {
-		this.service = service;
-	}
-
-	/**
-	 * @return Initialized waitingList
-	 */
-	private Map<Long, LLRPSyncObject> getWaitingList() {
-
-		if (this.waitingList == null)
-        {
-			this.waitingList = new HashMap<Long, LLRPSyncObject>();
-        }
-
-		return this.waitingList;
-	}
-
-	/**
-	 * Method to send a message with no response.
-	 *
-	 * @param message
-	 *            The messages to be send
-	 * @throws InvalidParameterTypeException
-	 * @throws InvalidMessageTypeException
-	 * @throws IOException
-	 */
-	public void sendMessage(Message message) throws IOException,
-			InvalidMessageTypeException, InvalidParameterTypeException {
-		if (this.client == null)
-			throw new IllegalStateException("Client not set");
-		this.client.sendMessage(message);
-	}
-
-	/**
-	 * Method to send a request and wait for the corresponding response.
-	 *
-	 * @param request
-	 *            The request message to be send
-	 * @param timeout
-	 *            The value after which no response lead to a timeout
-	 * @return True if response was received within timout, false otherwise
-	 * @throws InvalidParameterTypeException
-	 * @throws InvalidMessageTypeException
-	 * @throws IOException
-	 */
-	public LLRPReturnContainerUtil<Message> waitOnResponse(Message request, int timeout) throws IOException, InvalidMessageTypeException,
-			InvalidParameterTypeException {
-		if (this.client == null)
-			throw new IllegalStateException("Client not set");
-
-		LLRPSyncObject sync = new LLRPSyncObject(request, timeout);
-		LLRPReturnContainerUtil<Message> containerUtil;
-
-		sync.lock();
-		try {
-			synchronized (this.syncWaitingList) {
-				this.getWaitingList().put(Long.valueOf(request.getMessageHeader().getId()), sync);
-				this.client.sendMessage(request);
-			}
-
-			containerUtil = sync.await();
-			synchronized (this.syncWaitingList) {
-				this.getWaitingList().remove(Long.valueOf(request.getMessageHeader().getId()));
-			}
-		} finally {
-			sync.unlock();
-		}
-
-		return containerUtil;
-	}
-
-	/**
-	 * Method to notify a waiting object on the manager about a response
-	 * message.
-	 *
-	 * @param response
-	 *            The response message
-	 */
-	public void notifyResponse(Message response) {
-		LLRPSyncObject sync;
-		synchronized (this.syncWaitingList) {
-			sync = this.getWaitingList().get(Long.valueOf(response
-					.getMessageHeader().getId()));
-
-			if (sync == null) {
-				return;
-			}
-		}
-
-		sync.lock();
-		try {
-			sync.notify(response);
-		} finally {
-			sync.unlock();
-		}
-	}
-
-	@Override
-	public void run() {
-		try {
-			while (true) {
-				Message evt = this.eventPipe.dequeue();
-				if (evt == null) {
-					break; // pipeline was disposed
-				}
-				switch (evt.getMessageHeader().getMessageType()) {
-				case RO_ACCESS_REPORT:
-					this.service.onROAccessReportEvent(new LLRPEventArgs<ROAccessReport>((ROAccessReport) evt));
-					break;
-				case CLIENT_REQUEST_OP:
-					this.service.onClientRequestOpEvent(new LLRPEventArgs<ClientRequestOP>((ClientRequestOP) evt));
-					break;
-				case KEEPALIVE:
-					this.service.onKeepaliveEvent(new LLRPEventArgs<Keepalive>((Keepalive) evt));
-					break;
-				case READER_EVENT_NOTIFICATION:
-					this.service.onReaderNotificationEvent(new LLRPEventArgs<ReaderEventNotification>((ReaderEventNotification) evt));
-					break;
-				default:
-					break;
-				}
-			}
-		} catch (Exception e) {
-			e.printStackTrace();
-			this.eventThread = null;
-		}
-	}
-
-	/**
-	 * Method to notify the LLRPService asynchroniusly about an incomming event.
-	 *
-	 * @param evt
-	 *            The incomming event
-	 */
-	public void notifyEvent(Message evt) {
-		this.eventPipe.enqueue(evt);
-
-		if (this.eventThread == null) {
-			this.eventThread = new Thread(this, "LLRPMessageHandler run()"
-					+ (client != null && client.getLlrpConnection() != null ? (" for " + client.getLlrpConnection().getHost() + ":" + client
-							.getLlrpConnection().getPort()) : ""));
-			this.eventThread.start();
-		}
-	}
-
-	/**
-	 * Method to notify the LLRPService asynchroniusly about the no data
-	 * received event.
-	 */
-	public void notifyNoDataReceived() {
-		new Thread(new Runnable() {
-
-			@Override
-			public void run() {
-				if (LLRPMessageHandler.this.service != null) {
-					LLRPMessageHandler.this.service.onNoDataReceivedEvent(new EventObject(LLRPMessageHandler.this));
-				}
-			}
-		}).start();
-	}
-
-	/**
-	 * Disposes this instance.
-	 */
-	public void dispose() {
-		dispose(true);
-	}
-
-	/**
-	 * Disposes this instance. According to <paramref name="disposing"/> also
-	 * managed resources will be disposed.
-	 *
-	 * @param disposing
-	 *            Indicator if also managed resources should be disposed.
-	 */
-	protected void dispose(boolean disposing) {
-		if (!this.isDisposed) {
-			this.isDisposed = true;
-			if (disposing) {
-				this.eventPipe.dispose();
-			}
-		}
-
-		this.client = null;
-		this.service = null;
-		this.waitingList = null;
-		this.eventPipe = null;
-		this.eventPipe = new Pipeline<Message>();
-	}
-}
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.ClientRequestOP;
+import havis.llrpservice.data.message.ClientRequestOPResponse;
+import havis.llrpservice.data.message.Keepalive;
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.MessageTypes.MessageType;
+import havis.llrpservice.data.message.ROAccessReport;
+import havis.llrpservice.data.message.ReaderEventNotification;
+import havis.llrpservice.data.message.parameter.serializer.InvalidParameterTypeException;
+import havis.llrpservice.data.message.serializer.InvalidMessageTypeException;
+import havis.middleware.reader.llrp.client.LLRPClient;
+import havis.middleware.reader.llrp.client.MessageTemplate;
+import havis.middleware.reader.llrp.client.ReportFilter;
+import havis.middleware.reader.llrp.client.TagReportCursor;
+import havis.middleware.reader.llrp.service.event.IsolatedListener;
+import havis.middleware.reader.llrp.service.event.LLRPEventArgs;
+import havis.middleware.reader.llrp.service.event.LLRPEventHandler;
+import havis.middleware.reader.llrp.service.event.LazyMessage;
+import havis.middleware.reader.llrp.service.event.ListenerOverflowPolicy;
+import havis.middleware.reader.llrp.service.exception.LLRPTimeoutException;
+import havis.middleware.reader.llrp.util.ConcurrentLongTable;
+import havis.middleware.reader.llrp.util.HashedWheelTimer;
+import havis.middleware.reader.llrp.util.LLRPReturnContainerUtil;
+import havis.middleware.reader.llrp.util.ThreadMode;
+import havis.middleware.reader.llrp.util.WaitStrategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EventObject;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that provides mechanisms to handle all messages send to or
+ * received from a <see cref="LLRPClient"/>.
+ */
+public class LLRPMessageHandler {
+	/**
+	 * The maximum number of requests awaiting their response at the same time
+	 */
+	public static final int MAX_PENDING_REQUESTS = 256;
+
+	private final static Logger log = Logger.getLogger(LLRPMessageHandler.class.getName());
+
+	/**
+	 * The default maximum number of queued events
+	 */
+	public static final int DEFAULT_EVENT_QUEUE_CAPACITY = 1024;
+
+	/**
+	 * The maximum capacity of the event queue
+	 */
+	public static final int MAX_EVENT_QUEUE_CAPACITY = 65536;
+
+	/**
+	 * Timer expiring the requests of all handlers
+	 */
+	private final static HashedWheelTimer timeouts = new HashedWheelTimer("LLRPMessageHandler timeouts");
+
+	/**
+	 * Threads notifying the services of all handlers about the no data
+	 * received event, idle threads are reused
+	 */
+	private final static ExecutorService notifiers;
+
+	static {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable task) {
+						Thread thread = new Thread(task, "LLRPMessageHandler notifyNoDataReceived() " + count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		notifiers = executor;
+	}
+
+	/**
+	 * Table of all waiting objects by message ID, sized for a load factor of
+	 * at most 25%
+	 */
+	private final ConcurrentLongTable<LLRPSyncObject> waitingList = new ConcurrentLongTable<LLRPSyncObject>(4 * MAX_PENDING_REQUESTS);
+	private LLRPClient client;
+	private LLRPService service;
+	private final RequestWindow window = new RequestWindow();
+	private final ObjLongConsumer<Message> eventConsumer = new ObjLongConsumer<Message>() {
+		@Override
+		public void accept(Message evt, long sequence) {
+			dispatch(evt, sequence);
+		}
+	};
+	private volatile EventDispatcher dispatcher = new EventDispatcher(DEFAULT_EVENT_QUEUE_CAPACITY, WaitStrategy.PARK, eventConsumer);
+	private volatile boolean isDisposed = false;
+	private volatile ClientRequestOpHandler clientRequestOpHandler;
+	private volatile ThreadMode threadMode = ThreadMode.PLATFORM;
+	private volatile EventReplayBuffer replayBuffer;
+	private volatile ReportFlowControl reportFlowControl;
+	private final List<ReportSubscription> reportSubscriptions = new CopyOnWriteArrayList<ReportSubscription>();
+	private volatile TagReportListener[] tagReportListeners = new TagReportListener[0];
+	private final AtomicLong timeoutCount = new AtomicLong();
+	private final AtomicBoolean noDataPending = new AtomicBoolean();
+
+	/**
+	 * Retrieves the used LLRPClient
+	 *
+	 * @return LLRPClient
+	 */
+	public LLRPClient getClient() {
+		return this.client;
+	}
+
+	/**
+	 * Sets the used LLRPClient
+	 *
+	 * @param client LLRPClient
+	 */
+	void setClient(LLRPClient client) {
+		this.client = client;
+	}
+
+	/**
+	 * Retrieves the LLRPService
+	 *
+	 * @return LLRPService
+	 */
+	public LLRPService getService() {
+		return this.service;
+	}
+
+	/**
+	 * Creates a new instance of LLRPMessageHandler
+	 *
+	 * @param service
+	 */
+	public LLRPMessageHandler (LLRPService service) {
+		this.service = service;
+	}
+
+	/**
+	 * Sets the maximum number of requests awaiting their response at the same
+	 * time. Further requests are sent as soon as a response arrived.
+	 *
+	 * @param maxPendingRequests
+	 *            The size of the in-flight window, between one and <see
+	 *            cref="MAX_PENDING_REQUESTS"/>
+	 */
+	public void setMaxPendingRequests(int maxPendingRequests) {
+		this.window.setSize(Math.min(maxPendingRequests, MAX_PENDING_REQUESTS));
+	}
+
+	/**
+	 * @return the maximum number of requests awaiting their response
+	 */
+	public int getMaxPendingRequests() {
+		return this.window.getSize();
+	}
+
+	/**
+	 * Sets up the event queue. If the queue changes, events queued before are
+	 * discarded, so the queue should be set up before the connection is
+	 * opened.
+	 *
+	 * @param capacity
+	 *            The maximum number of queued events per <see
+	 *            cref="EventLane"/> between one and <see
+	 *            cref="MAX_EVENT_QUEUE_CAPACITY"/>, rounded up to a power of
+	 *            two
+	 * @param waitStrategy
+	 *            The strategy of the receiving and dispatching threads waiting
+	 *            for each other
+	 */
+	public void setEventQueue(int capacity, WaitStrategy waitStrategy) {
+		if (capacity < 1 || capacity > MAX_EVENT_QUEUE_CAPACITY)
+			throw new IllegalArgumentException("Invalid event queue capacity " + capacity);
+		EventDispatcher previous = this.dispatcher;
+		if (previous.getWaitStrategy() == waitStrategy && previous.getCapacity() >= capacity && previous.getCapacity() / 2 < capacity)
+			return;
+		this.dispatcher = createDispatcher(capacity, waitStrategy, previous);
+		previous.dispose();
+	}
+
+	/**
+	 * Sets the size of the buffer keeping the last dispatched RO_ACCESS_REPORT
+	 * and READER_EVENT_NOTIFICATION events for replay. The kept events are
+	 * discarded if the size changes.
+	 *
+	 * @param capacity
+	 *            The number of events kept per type, 0 to keep none
+	 * @param maxAge
+	 *            The maximum age of replayed events in milliseconds, 0 for
+	 *            any age
+	 */
+	public void setReplayBuffer(int capacity, long maxAge) {
+		if (capacity < 0 || capacity > MAX_EVENT_QUEUE_CAPACITY)
+			throw new IllegalArgumentException("Invalid replay capacity " + capacity);
+		EventReplayBuffer previous = this.replayBuffer;
+		if (capacity == 0)
+			this.replayBuffer = null;
+		else if (previous == null || previous.getCapacity() != capacity || previous.getMaxAge() != maxAge)
+			this.replayBuffer = new EventReplayBuffer(capacity, maxAge);
+	}
+
+	/**
+	 * @return the number of events kept per type for replay
+	 */
+	public int getReplayCapacity() {
+		EventReplayBuffer replayBuffer = this.replayBuffer;
+		return replayBuffer == null ? 0 : replayBuffer.getCapacity();
+	}
+
+	/**
+	 * Replays the kept events of <paramref name="type"/> from <paramref
+	 * name="fromSequence"/> on and runs <paramref name="attach"/> before the
+	 * next event is dispatched.
+	 *
+	 * @param type
+	 *            RO_ACCESS_REPORT or READER_EVENT_NOTIFICATION
+	 * @param fromSequence
+	 *            The sequence number of the first event to replay
+	 * @param consumer
+	 *            The consumer of the events and their sequence numbers, kept
+	 *            events received as <see cref="LazyMessage"/> are decoded
+	 *            before
+	 * @param attach
+	 *            The operation attaching the listener to the live events
+	 * @return The number of replayed events
+	 */
+	public int replay(MessageType type, long fromSequence, final ObjLongConsumer<Message> consumer, Runnable attach) {
+		EventReplayBuffer replayBuffer = this.replayBuffer;
+		if (replayBuffer == null) {
+			attach.run();
+			return 0;
+		}
+		return replayBuffer.replay(type, fromSequence, new ObjLongConsumer<Message>() {
+			@Override
+			public void accept(Message message, long sequence) {
+				if (message instanceof LazyMessage)
+					message = ((LazyMessage) message).decode();
+				consumer.accept(message, sequence);
+			}
+		}, attach);
+	}
+
+	/**
+	 * Enables the flow control of RO_ACCESS_REPORT events. If the queued
+	 * reports reach <paramref name="highWatermark"/>, <paramref
+	 * name="controller"/> switches the reader to keep its reports. The
+	 * reports are then requested with GET_REPORT whenever the queue drained to
+	 * <paramref name="lowWatermark"/>, until the reader has no more reports
+	 * buffered and <paramref name="controller"/> switches it back to push
+	 * reports.
+	 *
+	 * @param highWatermark
+	 *            The number of queued reports switching to pull mode, not
+	 *            more than the event queue capacity
+	 * @param lowWatermark
+	 *            The number of queued reports at which reports are pulled,
+	 *            less than <paramref name="highWatermark"/>
+	 * @param pullTimeout
+	 *            The time in milliseconds to wait for the reports of a
+	 *            GET_REPORT before switching back to push mode
+	 * @param controller
+	 *            The controller switching the reporting mode of the reader or
+	 *            null to disable the flow control
+	 */
+	public void setReportFlowControl(int highWatermark, int lowWatermark, long pullTimeout, ReportFlowController controller) {
+		if (controller == null) {
+			this.reportFlowControl = null;
+			return;
+		}
+		if (highWatermark > this.dispatcher.getCapacity())
+			throw new IllegalArgumentException("High watermark " + highWatermark + " exceeds the event queue capacity " + this.dispatcher.getCapacity());
+		this.reportFlowControl = new ReportFlowControl(highWatermark, lowWatermark, pullTimeout, controller, new Runnable() {
+			@Override
+			public void run() {
+				pullReports();
+			}
+		}, timeouts);
+	}
+
+	/**
+	 * @return Indicator if the reports are pulled from the reader
+	 */
+	public boolean isPullingReports() {
+		ReportFlowControl reportFlowControl = this.reportFlowControl;
+		return reportFlowControl != null && reportFlowControl.isPulling();
+	}
+
+	/**
+	 * @return the number of GET_REPORT messages sent by the flow control
+	 */
+	public long getReportPullCount() {
+		ReportFlowControl reportFlowControl = this.reportFlowControl;
+		return reportFlowControl == null ? 0 : reportFlowControl.getPullCount();
+	}
+
+	/**
+	 * @return the number of switches to pull mode
+	 */
+	public long getReportPullSwitchCount() {
+		ReportFlowControl reportFlowControl = this.reportFlowControl;
+		return reportFlowControl == null ? 0 : reportFlowControl.getSwitchCount();
+	}
+
+	private void pullReports() {
+		LLRPClient client = this.client;
+		if (client == null)
+			return;
+		client.sendGetReport().whenComplete(new BiConsumer<Void, Throwable>() {
+			@Override
+			public void accept(Void result, Throwable error) {
+				if (error != null) {
+					log.log(Level.FINE, "Failed to send GET_REPORT: " + error);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Sets the kind of threads dispatching the events, applied when the
+	 * dispatch thread is started next. The default is <see
+	 * cref="ThreadMode.PLATFORM"/>.
+	 *
+	 * @param threadMode
+	 *            The thread mode
+	 */
+	public void setThreadMode(ThreadMode threadMode) {
+		this.threadMode = threadMode;
+	}
+
+	/**
+	 * @return the kind of threads dispatching the events
+	 */
+	public ThreadMode getThreadMode() {
+		return this.threadMode;
+	}
+
+	/**
+	 * Sets the policy applied if the event queue is full. The default is <see
+	 * cref="EventOverflowPolicy.DROP_OLDEST_REPORT"/>, <see
+	 * cref="EventOverflowPolicy.BLOCK"/> stalls the connection while the
+	 * queue is full.
+	 *
+	 * @param overflowPolicy
+	 *            The policy
+	 */
+	public void setEventOverflowPolicy(EventOverflowPolicy overflowPolicy) {
+		this.dispatcher.setOverflowPolicy(overflowPolicy);
+	}
+
+	/**
+	 * @return the policy applied if the event queue is full
+	 */
+	public EventOverflowPolicy getEventOverflowPolicy() {
+		return this.dispatcher.getOverflowPolicy();
+	}
+
+	/**
+	 * Enables the coalescing of a KEEPALIVE or READER_EVENT_NOTIFICATION
+	 * while an equal event is still queued. Disabled by default.
+	 *
+	 * @param coalescing
+	 *            Indicator if redundant events are coalesced
+	 */
+	public void setEventCoalescing(boolean coalescing) {
+		this.dispatcher.setCoalescing(coalescing);
+	}
+
+	/**
+	 * @return Indicator if redundant events are coalesced
+	 */
+	public boolean isEventCoalescing() {
+		return this.dispatcher.isCoalescing();
+	}
+
+	/**
+	 * @return the number of events dropped because the event queue was full
+	 */
+	public long getDroppedEventCount() {
+		return this.dispatcher.getDroppedCount();
+	}
+
+	/**
+	 * @return the number of events dropped by coalescing
+	 */
+	public long getCoalescedEventCount() {
+		return this.dispatcher.getCoalescedCount();
+	}
+
+	/**
+	 * @return the maximum number of queued events per <see cref="EventLane"/>
+	 */
+	public int getEventQueueCapacity() {
+		return this.dispatcher.getCapacity();
+	}
+
+	/**
+	 * @return the sequence number of the next received event
+	 */
+	public long getEventSequence() {
+		return this.dispatcher.getPublishedSequence();
+	}
+
+	/**
+	 * @return the number of dispatched events
+	 */
+	public long getDispatchedEventCount() {
+		return this.dispatcher.getDispatchedCount();
+	}
+
+	/**
+	 * @param lane
+	 *            The lane
+	 * @return the number of queued events of <paramref name="lane"/>
+	 */
+	public int getQueuedEventCount(EventLane lane) {
+		return this.dispatcher.getQueued(lane);
+	}
+
+	/**
+	 * @param lane
+	 *            The lane
+	 * @return the time the last dispatched event of <paramref name="lane"/>
+	 *         was queued in nanoseconds
+	 */
+	public long getEventQueueDelay(EventLane lane) {
+		return this.dispatcher.getDelay(lane);
+	}
+
+	/**
+	 * @param lane
+	 *            The lane
+	 * @return the average time the events of <paramref name="lane"/> were
+	 *         queued in nanoseconds
+	 */
+	public long getAverageEventQueueDelay(EventLane lane) {
+		return this.dispatcher.getAverageDelay(lane);
+	}
+
+	/**
+	 * @param lane
+	 *            The lane
+	 * @return the maximum time an event of <paramref name="lane"/> was queued
+	 *         in nanoseconds
+	 */
+	public long getMaxEventQueueDelay(EventLane lane) {
+		return this.dispatcher.getMaxDelay(lane);
+	}
+
+	/**
+	 * @return the number of requests which timed out
+	 */
+	public long getTimeoutCount() {
+		return this.timeoutCount.get();
+	}
+
+	/**
+	 * Method to send a message with no response.
+	 *
+	 * @param message
+	 *            The messages to be send
+	 * @throws InvalidParameterTypeException
+	 * @throws InvalidMessageTypeException
+	 * @throws IOException
+	 */
+	public void sendMessage(Message message) throws IOException,
+			InvalidMessageTypeException, InvalidParameterTypeException {
+		if (this.client == null)
+			throw new IllegalStateException("Client not set");
+		this.client.sendMessage(message);
+	}
+
+	/**
+	 * Method to send a request and wait for the corresponding response.
+	 *
+	 * @param request
+	 *            The request message to be send
+	 * @param timeout
+	 *            The value after which no response lead to a timeout
+	 * @return True if response was received within timout, false otherwise
+	 * @throws InvalidParameterTypeException
+	 * @throws InvalidMessageTypeException
+	 * @throws IOException
+	 */
+	public LLRPReturnContainerUtil<Message> waitOnResponse(Message request, int timeout) throws IOException, InvalidMessageTypeException,
+			InvalidParameterTypeException {
+		if (this.client == null)
+			throw new IllegalStateException("Client not set");
+
+		LLRPSyncObject sync = new LLRPSyncObject(request, timeout);
+		LLRPReturnContainerUtil<Message> containerUtil;
+
+		try {
+			this.window.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			containerUtil = new LLRPReturnContainerUtil<>();
+			containerUtil.setTrue(false);
+			return containerUtil;
+		}
+		try {
+			long id = request.getMessageHeader().getId();
+			register(id, sync);
+			try {
+				startTimeout(sync);
+				try {
+					this.client.sendMessage(request);
+				} catch (IOException | InvalidMessageTypeException | InvalidParameterTypeException | RuntimeException e) {
+					// completing the object cancels the timeout
+					sync.fail(e);
+					throw e;
+				}
+
+				containerUtil = sync.await();
+			} finally {
+				this.waitingList.remove(id, sync);
+			}
+		} finally {
+			this.window.release();
+		}
+
+		return containerUtil;
+	}
+
+	/**
+	 * Method to send a request without waiting for the corresponding
+	 * response.
+	 *
+	 * @param request
+	 *            The request message to be send
+	 * @param timeout
+	 *            The value after which no response lead to a timeout
+	 * @return The future which is completed with the response message, or
+	 *         exceptionally with a <see cref="LLRPTimeoutException"/> if no
+	 *         response was received within timeout or the exception of the
+	 *         failed send operation
+	 */
+	public CompletableFuture<Message> sendRequest(Message request, int timeout) {
+		if (this.client == null)
+			throw new IllegalStateException("Client not set");
+
+		return submit(new LLRPSyncObject(request, timeout), request.getMessageHeader().getId());
+	}
+
+	/**
+	 * Method to send a request from a template without waiting for the
+	 * corresponding response.
+	 *
+	 * @param template
+	 *            The template of the request
+	 * @param id
+	 *            The message ID of the request
+	 * @param timeout
+	 *            The value after which no response lead to a timeout
+	 * @return The future which is completed with the response message, or
+	 *         exceptionally with a <see cref="LLRPTimeoutException"/> if no
+	 *         response was received within timeout or the exception of the
+	 *         failed send operation
+	 */
+	public CompletableFuture<Message> sendRequest(MessageTemplate template, long id, int timeout) {
+		if (this.client == null)
+			throw new IllegalStateException("Client not set");
+
+		return submit(new LLRPSyncObject(template, timeout), id);
+	}
+
+	private CompletableFuture<Message> submit(final LLRPSyncObject sync, final long id) {
+		final LLRPClient client = this.client;
+		this.window.submit(new Runnable() {
+			@Override
+			public void run() {
+				send(sync, id, client);
+			}
+		});
+
+		return sync.getFuture();
+	}
+
+	/**
+	 * Sends the request as soon as the window admits it, the timeout starts
+	 * with sending.
+	 */
+	private void send(final LLRPSyncObject sync, final long id, LLRPClient client) {
+		try {
+			if (this.isDisposed)
+				throw new IOException("Message handler disposed");
+			register(id, sync);
+		} catch (IOException e) {
+			sync.fail(e);
+			this.window.release();
+			return;
+		}
+
+		startTimeout(sync);
+		sync.getFuture().whenComplete(new BiConsumer<Message, Throwable>() {
+			@Override
+			public void accept(Message response, Throwable error) {
+				waitingList.remove(id, sync);
+				window.release();
+			}
+		});
+
+		try {
+			CompletableFuture<Void> sent = sync.getTemplate() != null ? client.sendTemplateAsync(sync.getTemplate(), id) : client
+					.sendMessageAsync(sync.getRequest());
+			sent.whenComplete(new BiConsumer<Void, Throwable>() {
+				@Override
+				public void accept(Void result, Throwable error) {
+					if (error instanceof CompletionException && error.getCause() != null) {
+						error = error.getCause();
+					}
+					if (error != null) {
+						sync.fail(error);
+					}
+				}
+			});
+		} catch (InvalidMessageTypeException | InvalidParameterTypeException | RuntimeException e) {
+			sync.fail(e);
+		}
+	}
+
+	/**
+	 * Method to notify a waiting object on the manager about a response
+	 * message.
+	 *
+	 * @param response
+	 *            The response message
+	 */
+	public void notifyResponse(Message response) {
+		LLRPSyncObject sync = this.waitingList.get(response.getMessageHeader().getId());
+		if (sync != null) {
+			sync.notify(response);
+		}
+	}
+
+	/**
+	 * Dispatches an event to the LLRPService, called on the consumer thread of
+	 * the <see cref="EventDispatcher"/>.
+	 */
+	private void dispatch(Message evt, long sequence) {
+		EventReplayBuffer replayBuffer = this.replayBuffer;
+		if (replayBuffer == null) {
+			deliver(evt, sequence);
+		} else {
+			replayBuffer.lock();
+			try {
+				replayBuffer.record(evt, sequence);
+				deliver(evt, sequence);
+			} finally {
+				replayBuffer.unlock();
+			}
+		}
+
+		ReportFlowControl reportFlowControl = this.reportFlowControl;
+		if (reportFlowControl != null && evt.getMessageHeader().getMessageType() == MessageType.RO_ACCESS_REPORT) {
+			reportFlowControl.reportDispatched(this.dispatcher.getQueued(EventLane.REPORT));
+		}
+	}
+
+	private void deliver(Message evt, long sequence) {
+		LLRPService service = this.service;
+		if (service == null)
+			return;
+		switch (evt.getMessageHeader().getMessageType()) {
+		case RO_ACCESS_REPORT:
+			service.onROAccessReportEvent(new LLRPEventArgs<ROAccessReport>((ROAccessReport) evt, sequence));
+			break;
+		case CLIENT_REQUEST_OP:
+			service.onClientRequestOpEvent(new LLRPEventArgs<ClientRequestOP>((ClientRequestOP) evt, sequence));
+			break;
+		case KEEPALIVE:
+			service.onKeepaliveEvent(new LLRPEventArgs<Keepalive>((Keepalive) evt, sequence));
+			break;
+		case READER_EVENT_NOTIFICATION:
+			service.onReaderNotificationEvent(new LLRPEventArgs<ReaderEventNotification>((ReaderEventNotification) evt, sequence));
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Adds a listener receiving only the TagReportData matching <paramref
+	 * name="filter"/>. The listener is called on its own thread with reports
+	 * containing the matching TagReportData, reports without a match are
+	 * not delivered. If the listener falls behind, the oldest queued report
+	 * is dropped and counted, the receiving thread never waits for it.
+	 *
+	 * @param filter
+	 *            The filter
+	 * @param listener
+	 *            The listener
+	 * @return The subscription
+	 */
+	public ReportSubscription subscribe(ReportFilter filter, LLRPEventHandler.LLRPEvent<LLRPEventArgs<ROAccessReport>> listener) {
+		return subscribe(filter, listener, ListenerOverflowPolicy.DROP_OLDEST);
+	}
+
+	/**
+	 * Adds a listener receiving only the TagReportData matching <paramref
+	 * name="filter"/>, see <see cref="subscribe(ReportFilter,
+	 * LLRPEventHandler.LLRPEvent)"/>. The listener is fired on the receiving
+	 * thread, so <see cref="ListenerOverflowPolicy.BLOCK"/> lets a slow
+	 * listener stall the connection including responses and keepalives.
+	 *
+	 * @param filter
+	 *            The filter
+	 * @param listener
+	 *            The listener
+	 * @param overflowPolicy
+	 *            The policy applied if the queue of the listener is full
+	 * @return The subscription
+	 */
+	public ReportSubscription subscribe(ReportFilter filter, LLRPEventHandler.LLRPEvent<LLRPEventArgs<ROAccessReport>> listener,
+			ListenerOverflowPolicy overflowPolicy) {
+		ReportSubscription subscription = new ReportSubscription(filter, new IsolatedListener<LLRPEventArgs<ROAccessReport>>(listener,
+				DEFAULT_EVENT_QUEUE_CAPACITY, overflowPolicy, 1));
+		this.reportSubscriptions.add(subscription);
+		return subscription;
+	}
+
+	/**
+	 * Removes the subscriptions of <paramref name="listener"/>.
+	 *
+	 * @param listener
+	 *            The listener
+	 */
+	public void unsubscribe(LLRPEventHandler.LLRPEvent<LLRPEventArgs<ROAccessReport>> listener) {
+		for (ReportSubscription subscription : this.reportSubscriptions) {
+			if (subscription.getListener().getListener() == listener && this.reportSubscriptions.remove(subscription)) {
+				subscription.getListener().close();
+			}
+		}
+	}
+
+	/**
+	 * @return the filtered report subscriptions
+	 */
+	public List<ReportSubscription> getReportSubscriptions() {
+		return this.reportSubscriptions;
+	}
+
+	/**
+	 * @return Indicator if any listener receives all RO_ACCESS_REPORT messages
+	 */
+	public boolean hasReportListeners() {
+		LLRPService service = this.service;
+		return service != null && !service.getROAccessReportEvent().getDelegates().isEmpty();
+	}
+
+	/**
+	 * Checks if a received message is consumed by a waiting request, a
+	 * listener, the replay buffer or the flow control. Messages nobody
+	 * consumes are discarded without decoding their body.
+	 *
+	 * @param type
+	 *            The message type of the header
+	 * @param id
+	 *            The message ID of the header
+	 * @return Indicator if the message has to be decoded
+	 */
+	public boolean isConsumed(MessageType type, long id) {
+		LLRPService service = this.service;
+		switch (type) {
+		case RO_ACCESS_REPORT:
+			return hasReportListeners() || this.replayBuffer != null || this.reportFlowControl != null;
+		case READER_EVENT_NOTIFICATION:
+			return this.replayBuffer != null || service != null && !service.getReaderNotificationEvent().getDelegates().isEmpty();
+		case KEEPALIVE:
+			return service != null && !service.getKeepaliveEvent().getDelegates().isEmpty();
+		case CLIENT_REQUEST_OP:
+			return this.clientRequestOpHandler != null || service != null && !service.getClientRequestOpEvent().getDelegates().isEmpty();
+		default:
+			return this.waitingList.get(id) != null;
+		}
+	}
+
+	/**
+	 * Adds a listener reading the TagReportData of each RO_ACCESS_REPORT with
+	 * a <see cref="TagReportCursor"/> on the receiving thread.
+	 *
+	 * @param listener
+	 *            The listener
+	 */
+	public synchronized void addTagReportListener(TagReportListener listener) {
+		TagReportListener[] listeners = Arrays.copyOf(this.tagReportListeners, this.tagReportListeners.length + 1);
+		listeners[listeners.length - 1] = listener;
+		this.tagReportListeners = listeners;
+	}
+
+	/**
+	 * Removes <paramref name="listener"/>.
+	 *
+	 * @param listener
+	 *            The listener
+	 */
+	public synchronized void removeTagReportListener(TagReportListener listener) {
+		TagReportListener[] listeners = this.tagReportListeners;
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == listener) {
+				TagReportListener[] remaining = new TagReportListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, remaining, 0, i);
+				System.arraycopy(listeners, i + 1, remaining, i, remaining.length - i);
+				this.tagReportListeners = remaining;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Passes the RO_ACCESS_REPORT in <paramref name="frame"/> to the tag
+	 * report listeners, called on the receiving thread.
+	 *
+	 * @param frame
+	 *            The frame of the report
+	 * @param cursor
+	 *            The cursor reset for each listener
+	 */
+	public void notifyTagReports(ByteBuffer frame, TagReportCursor cursor) {
+		for (TagReportListener listener : this.tagReportListeners) {
+			cursor.reset(frame);
+			try {
+				listener.tagsReported(cursor);
+			} catch (Exception e) {
+				log.log(Level.SEVERE, "Failed to notify tag report listener", e);
+			}
+		}
+	}
+
+	/**
+	 * Passes the number of TagReportData of the RO_ACCESS_REPORT in <paramref
+	 * name="frame"/> to the report flow control, called on the receiving
+	 * thread before the report is queued.
+	 *
+	 * @param frame
+	 *            The frame of the report
+	 * @param cursor
+	 *            The cursor used to count the TagReportData
+	 */
+	public void notifyReportReceived(ByteBuffer frame, TagReportCursor cursor) {
+		ReportFlowControl reportFlowControl = this.reportFlowControl;
+		if (reportFlowControl == null)
+			return;
+		int count = 0;
+		cursor.reset(frame);
+		while (cursor.next()) {
+			count++;
+		}
+		reportFlowControl.reportReceived(count);
+	}
+
+	/**
+	 * Delivers a report containing the TagReportData matching the filter of
+	 * <paramref name="subscription"/>.
+	 *
+	 * @param subscription
+	 *            The subscription
+	 * @param report
+	 *            The filtered report
+	 */
+	public void notifyReport(ReportSubscription subscription, ROAccessReport report) {
+		subscription.getListener().fire(this.service, new LLRPEventArgs<ROAccessReport>(report));
+	}
+
+	/**
+	 * Method to notify the LLRPService asynchroniusly about an incomming event.
+	 * If the event queue is full, the <see cref="EventOverflowPolicy"/>
+	 * applies.
+	 *
+	 * @param evt
+	 *            The incomming event
+	 */
+	public void notifyEvent(Message evt) {
+		notifyEvent(evt, 0);
+	}
+
+	/**
+	 * Method to notify the LLRPService asynchroniusly about an incomming event.
+	 * If the event queue is full, the <see cref="EventOverflowPolicy"/>
+	 * applies.
+	 *
+	 * @param evt
+	 *            The incomming event
+	 * @param contentKey
+	 *            The key of the event content, equal for READER_EVENT_NOTIFICATION
+	 *            messages differing in message ID and timestamp only, 0 if
+	 *            unknown
+	 */
+	public void notifyEvent(Message evt, long contentKey) {
+		ClientRequestOpHandler clientRequestOpHandler = this.clientRequestOpHandler;
+		if (clientRequestOpHandler != null && evt.getMessageHeader().getMessageType() == MessageType.CLIENT_REQUEST_OP
+				&& handleClientRequestOp(clientRequestOpHandler, (ClientRequestOP) evt)) {
+			return;
+		}
+
+		EventDispatcher dispatcher = this.dispatcher;
+		if (!dispatcher.isRunning()) {
+			dispatcher.start("LLRPMessageHandler run()"
+					+ (client != null && client.getLlrpConnection() != null ? (" for " + client.getLlrpConnection().getHost() + ":" + client
+							.getLlrpConnection().getPort()) : ""), this.threadMode);
+		}
+		dispatcher.publish(evt, contentKey);
+
+		ReportFlowControl reportFlowControl = this.reportFlowControl;
+		if (reportFlowControl != null && evt.getMessageHeader().getMessageType() == MessageType.RO_ACCESS_REPORT) {
+			reportFlowControl.reportQueued(dispatcher.getQueued(EventLane.REPORT));
+		}
+	}
+
+	/**
+	 * Sets the handler answering CLIENT_REQUEST_OP messages on the receiving
+	 * thread. Requests answered by the handler are not delivered as event.
+	 *
+	 * @param clientRequestOpHandler
+	 *            The handler or null to deliver all requests as event
+	 */
+	public void setClientRequestOpHandler(ClientRequestOpHandler clientRequestOpHandler) {
+		this.clientRequestOpHandler = clientRequestOpHandler;
+	}
+
+	/**
+	 * @return the handler answering CLIENT_REQUEST_OP messages on the
+	 *         receiving thread
+	 */
+	public ClientRequestOpHandler getClientRequestOpHandler() {
+		return this.clientRequestOpHandler;
+	}
+
+	/**
+	 * Answers the request with <paramref name="clientRequestOpHandler"/>.
+	 *
+	 * @return Indicator if the request was answered
+	 */
+	private boolean handleClientRequestOp(ClientRequestOpHandler clientRequestOpHandler, ClientRequestOP request) {
+		LLRPClient client = this.client;
+		if (client == null)
+			return false;
+		ClientRequestOPResponse response;
+		try {
+			response = clientRequestOpHandler.handle(request);
+		} catch (Exception e) {
+			log.log(Level.SEVERE, "Failed to handle CLIENT_REQUEST_OP", e);
+			return false;
+		}
+		if (response == null)
+			return false;
+
+		try {
+			client.sendMessageAsync(response).whenComplete(new BiConsumer<Void, Throwable>() {
+				@Override
+				public void accept(Void result, Throwable error) {
+					if (error != null) {
+						log.log(Level.SEVERE, "Failed to send CLIENT_REQUEST_OP_RESPONSE: " + error);
+					}
+				}
+			});
+		} catch (InvalidMessageTypeException | InvalidParameterTypeException | RuntimeException e) {
+			log.log(Level.SEVERE, "Failed to send CLIENT_REQUEST_OP_RESPONSE", e);
+		}
+		return true;
+	}
+
+	/**
+	 * Method to notify the LLRPService asynchroniusly about the no data
+	 * received event. The notification is run by a shared thread pool, it is
+	 * skipped if the previous notification of this handler is not finished.
+	 */
+	public void notifyNoDataReceived() {
+		// skipped while the previous notification is still handled
+		if (!this.noDataPending.compareAndSet(false, true))
+			return;
+		notifiers.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					if (LLRPMessageHandler.this.service != null) {
+						LLRPMessageHandler.this.service.onNoDataReceivedEvent(new EventObject(LLRPMessageHandler.this));
+					}
+				} finally {
+					noDataPending.set(false);
+				}
+			}
+		});
+	}
+
+	private EventDispatcher createDispatcher(int capacity, WaitStrategy waitStrategy, EventDispatcher previous) {
+		EventDispatcher dispatcher = new EventDispatcher(capacity, waitStrategy, this.eventConsumer);
+		// sequence numbers keep increasing across dispatchers
+		dispatcher.setPublishedSequence(previous.getPublishedSequence());
+		dispatcher.setOverflowPolicy(previous.getOverflowPolicy());
+		dispatcher.setCoalescing(previous.isCoalescing());
+		return dispatcher;
+	}
+
+	private void register(long id, LLRPSyncObject sync) throws IOException {
+		if (!this.waitingList.put(id, sync))
+			throw new IOException("A request with message ID " + id + " is already pending");
+	}
+
+	private void failPendingRequests(IOException cause) {
+		for (LLRPSyncObject sync : this.waitingList.values()) {
+			sync.fail(cause);
+		}
+		// queued requests fail as soon as they are admitted
+		for (Runnable send : this.window.drain()) {
+			send.run();
+		}
+	}
+
+	private void startTimeout(final LLRPSyncObject sync) {
+		sync.startTimeout(timeouts, new Runnable() {
+			@Override
+			public void run() {
+				if (sync.fail(new LLRPTimeoutException("No response received within " + sync.getTimeout() + "ms."))) {
+					timeoutCount.incrementAndGet();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Disposes this instance.
+	 */
+	public void dispose() {
+		dispose(true);
+	}
+
+	/**
+	 * Disposes this instance. According to <paramref name="disposing"/> also
+	 * managed resources will be disposed.
+	 *
+	 * @param disposing
+	 *            Indicator if also managed resources should be disposed.
+	 */
+	protected void dispose(boolean disposing) {
+		if (!this.isDisposed) {
+			this.isDisposed = true;
+			if (disposing) {
+				this.dispatcher.dispose();
+				failPendingRequests(new IOException("Message handler disposed"));
+			}
+		}
+
+		this.client = null;
+		this.service = null;
+		this.dispatcher = createDispatcher(this.dispatcher.getCapacity(), this.dispatcher.getWaitStrategy(), this.dispatcher);
+	}
+}
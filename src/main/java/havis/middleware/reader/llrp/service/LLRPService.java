@@ -1,586 +1,1239 @@
-package havis.middleware.reader.llrp.service;
-
-import havis.llrpservice.data.message.AddAccessSpec;
-import havis.llrpservice.data.message.AddAccessSpecResponse;
-import havis.llrpservice.data.message.AddROSpec;
-import havis.llrpservice.data.message.AddROSpecResponse;
-import havis.llrpservice.data.message.ClientRequestOP;
-import havis.llrpservice.data.message.ClientRequestOPResponse;
-import havis.llrpservice.data.message.CloseConnection;
-import havis.llrpservice.data.message.CloseConnectionResponse;
-import havis.llrpservice.data.message.DeleteAccessSpec;
-import havis.llrpservice.data.message.DeleteAccessSpecResponse;
-import havis.llrpservice.data.message.DeleteROSpec;
-import havis.llrpservice.data.message.DeleteROSpecResponse;
-import havis.llrpservice.data.message.DisableAccessSpec;
-import havis.llrpservice.data.message.DisableAccessSpecResponse;
-import havis.llrpservice.data.message.DisableROSpec;
-import havis.llrpservice.data.message.DisableROSpecResponse;
-import havis.llrpservice.data.message.EnableAccessSpec;
-import havis.llrpservice.data.message.EnableAccessSpecResponse;
-import havis.llrpservice.data.message.EnableEventsAndReports;
-import havis.llrpservice.data.message.EnableROSpec;
-import havis.llrpservice.data.message.EnableROSpecResponse;
-import havis.llrpservice.data.message.ErrorMessage;
-import havis.llrpservice.data.message.GetAccessSpecs;
-import havis.llrpservice.data.message.GetAccessSpecsResponse;
-import havis.llrpservice.data.message.GetROSpecs;
-import havis.llrpservice.data.message.GetROSpecsResponse;
-import havis.llrpservice.data.message.GetReaderCapabilities;
-import havis.llrpservice.data.message.GetReaderCapabilitiesResponse;
-import havis.llrpservice.data.message.GetReaderConfig;
-import havis.llrpservice.data.message.GetReaderConfigResponse;
-import havis.llrpservice.data.message.GetReport;
-import havis.llrpservice.data.message.GetSupportedVersion;
-import havis.llrpservice.data.message.GetSupportedVersionResponse;
-import havis.llrpservice.data.message.Keepalive;
-import havis.llrpservice.data.message.KeepaliveAck;
-import havis.llrpservice.data.message.Message;
-import havis.llrpservice.data.message.ROAccessReport;
-import havis.llrpservice.data.message.ReaderEventNotification;
-import havis.llrpservice.data.message.SetProtocolVersion;
-import havis.llrpservice.data.message.SetProtocolVersionResponse;
-import havis.llrpservice.data.message.SetReaderConfig;
-import havis.llrpservice.data.message.SetReaderConfigResponse;
-import havis.llrpservice.data.message.StartROSpec;
-import havis.llrpservice.data.message.StartROSpecResponse;
-import havis.llrpservice.data.message.StopROSpec;
-import havis.llrpservice.data.message.StopROSpecResponse;
-import havis.llrpservice.data.message.parameter.serializer.InvalidParameterTypeException;
-import havis.llrpservice.data.message.serializer.InvalidMessageTypeException;
-import havis.middleware.reader.llrp.client.LLRPClient;
-import havis.middleware.reader.llrp.client.LLRPConnection;
-import havis.middleware.reader.llrp.service.event.LLRPEventArgs;
-import havis.middleware.reader.llrp.service.event.LLRPEventHandler;
-import havis.middleware.reader.llrp.service.exception.LLRPErrorException;
-import havis.middleware.reader.llrp.service.exception.LLRPException;
-import havis.middleware.reader.llrp.service.exception.LLRPTimeoutException;
-import havis.middleware.reader.llrp.util.LLRPReturnContainerUtil;
-
-import java.io.IOException;
-import java.util.EventObject;
-
-/**
- * Class that abstracts the Request/Response <see cref="LLRPMessage"/> as
- * synchronous operations. The class also provides events for all <see
- * cref="LLRPMessage"/> received asynchroniously from the <see
- * cref="LLRPClient"/>
- */
-public class LLRPService {
-	private LLRPMessageHandler handler;
-	private LLRPClient client;
-	private int timeout;
-	private boolean isDisposed = false;
-
-	/**
-	 * Occurred when reader send RO_ACCESS_REPORT event.
-	 */
-	private LLRPEventHandler<LLRPEventArgs<ROAccessReport>> roAccessReportEvent = new LLRPEventHandler<LLRPEventArgs<ROAccessReport>>();
-
-	/**
-	 * Occurred when reader send CLIENT_REQUEST_OP event.
-	 */
-	public LLRPEventHandler<LLRPEventArgs<ClientRequestOP>> clientRequestOpEvent = new LLRPEventHandler<LLRPEventArgs<ClientRequestOP>>();
-
-	/**
-	 * Occurred when reader send KEEPALIVE event.
-	 */
-	private LLRPEventHandler<LLRPEventArgs<Keepalive>> keepaliveEvent = new LLRPEventHandler<LLRPEventArgs<Keepalive>>();
-
-	/**
-	 * The event will be raised if LLRPClient received no data within keepalive
-	 * timespan.
-	 */
-	private LLRPEventHandler<EventObject> noDataReceivedEvent = new LLRPEventHandler<EventObject>();
-
-	/**
-	 * Occurred when reader send READER_EVENT_NOTIFICATION event.
-	 */
-	private LLRPEventHandler<LLRPEventArgs<ReaderEventNotification>> readerNotificationEvent = new LLRPEventHandler<LLRPEventArgs<ReaderEventNotification>>();
-
-	/**
-	 * Retrieves the llrp client used by this service
-	 *
-	 * @return LLRPClient
-	 */
-	public LLRPClient getClient() {
-		return client;
-	}
-
-	/**
-	 * Initializes a new instance of the
-	 * havis.middleware.llrp.service.LLRPService class.
-	 */
-	public LLRPService() {
-		this.handler = new LLRPMessageHandler(this);
-		this.client = new LLRPClient(this.handler);
-		this.handler.setClient(this.client);
-	}
-
-	/**
-	 * Methode to handel async llrp request and wait for response.
-	 *
-	 * @param request
-	 *            The request message to be sent
-	 * @param methodName
-	 *            The name of the calling methode
-	 * @return The corresponding llrp response.
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	private synchronized <Response extends Message> Response handleAsyncLLRPMessage(Message request, String methodName) throws LLRPException,
-			LLRPTimeoutException {
-
-		LLRPReturnContainerUtil<Message> result;
-
-		try {
-			result = this.handler.waitOnResponse(request, this.timeout);
-		} catch (IOException | InvalidMessageTypeException | InvalidParameterTypeException e) {
-			throw new LLRPException(e.getMessage());
-		}
-
-		Message response = result.getValue();
-
-		if (result.isTrue()) {
-			if (response instanceof ErrorMessage) {
-				throw new LLRPErrorException((ErrorMessage) response);
-			} else if (response instanceof Message) {
-				@SuppressWarnings("unchecked")
-				Response res = (Response) response;
-				return res;
-			} else {
-				return null;
-			}
-		}
-
-		throw new LLRPTimeoutException("Timeout during '" + methodName + "' Occurred at LLRP Reader");
-	}
-
-	/**
-	 * Method to establish the connection to a LLRP reader.
-	 *
-	 * @param llrpConnection
-	 *            The object that provide all connection informations
-	 * @return Indicator if the connection was successfully established or not
-	 */
-	public boolean openConnection(LLRPConnection llrpConnection) {
-		this.timeout = llrpConnection.getTimeout();
-		return this.client.openConnection(llrpConnection);
-	}
-
-	/**
-	 * Method to inform the reader that the connection will be closed.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public CloseConnectionResponse closeConnection(CloseConnection request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "CloseConnection");
-	}
-
-	/**
-	 * Method to disconnect form the llrp reader.
-	 *
-	 * @throws IOException
-	 */
-	public void closeConnection() {
-		this.client.closeConnection();
-	}
-
-	/**
-	 * Method to request the highest supported LLRP version from the reader.
-	 *
-	 * <pre>
-	 * Message supported since version 1.1
-	 * </pre>
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with the highest supported version or
-	 *         LLRPErrorException "Unsupported-Version" if hightest version is
-	 *         1.0
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public GetSupportedVersionResponse getSupportedVersion(GetSupportedVersion request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "GetSupportedVersion");
-	}
-
-	/**
-	 * Method to set the protocol version for the current connection
-	 *
-	 * <pre>
-	 * Message supported since version 1.1
-	 * </pre>
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public SetProtocolVersionResponse setProtocolVersion(SetProtocolVersion request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "SetProtocolVersion");
-	}
-
-	/**
-	 * Method to request the reader capabilities.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with the requested capabilities
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public GetReaderCapabilitiesResponse getReaderCapabilities(GetReaderCapabilities request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "GetReaderCapabilities");
-	}
-
-	/**
-	 * Method to add a ROSpec to the LLRP reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public AddROSpecResponse addROSpec(AddROSpec request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "AddROSpec");
-	}
-
-	/**
-	 * Method to remove a ROSpec form the LLRP reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public DeleteROSpecResponse deleteROSpec(DeleteROSpec request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "DeleteROSpec");
-	}
-
-	/**
-	 * Method to start a ROSpec on the LLRP reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public StartROSpecResponse startROSpec(StartROSpec request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "StartROSpec");
-	}
-
-	/**
-	 * Method to stop a ROSpec on the LLRp reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response messsge with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public StopROSpecResponse stopROSpec(StopROSpec request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "StopROSpec");
-	}
-
-	/**
-	 * Method to enable a ROSpec on the reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public EnableROSpecResponse enableROSpec(EnableROSpec request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "EnableROSpec");
-	}
-
-	/**
-	 * Method to disable a ROSpec on the reader.
-	 *
-	 * @param request
-	 *            The request message<
-	 * @return Response message with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public DisableROSpecResponse disableROSpec(DisableROSpec request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "DisableROSpec");
-	}
-
-	/**
-	 * Method to request all ROSpecs from the reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with all ROSpecs
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public GetROSpecsResponse getROSpecs(GetROSpecs request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "GetROSpecs");
-	}
-
-	/**
-	 * Method to add a AccessSpec to the reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public AddAccessSpecResponse addAccessSpec(AddAccessSpec request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "AddAccessSpec");
-	}
-
-	/**
-	 * Method to remove a AccessSpec from the reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public DeleteAccessSpecResponse deleteAccessSpec(DeleteAccessSpec request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "DeleteAccessSpec");
-	}
-
-	/**
-	 * Method to enable a AccessSpec on the reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public EnableAccessSpecResponse enableAccessSpec(EnableAccessSpec request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "EnableAccessSpec");
-	}
-
-	/**
-	 * Method to disable a AccessSpec on the reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public DisableAccessSpecResponse disableAccessSpec(DisableAccessSpec request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "DisableAccessSpec");
-	}
-
-	/**
-	 * Method to request all AccessSpecs from the reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with all AccessSpecs
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public GetAccessSpecsResponse getAccessSpecs(GetAccessSpecs request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "GetAccessSpecs");
-	}
-
-	/**
-	 * Method to request all the configuration from the reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with the requested configuration
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public GetReaderConfigResponse getReaderConfig(GetReaderConfig request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "GetReaderConfig");
-	}
-
-	/**
-	 * Method to set a configuration on the reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @return Response message with LLRP status code
-	 * @throws LLRPErrorException
-	 * @throws LLRPTimeoutException
-	 */
-	public SetReaderConfigResponse setReaderConfig(SetReaderConfig request) throws LLRPException {
-		return handleAsyncLLRPMessage(request, "SetReaderConfig");
-	}
-
-	/**
-	 * Method to get the tag reports from the reader.
-	 *
-	 * @param request
-	 *            The request message
-	 * @throws InvalidParameterTypeException
-	 * @throws InvalidMessageTypeException
-	 * @throws IOException
-	 */
-	public void getReport(GetReport request) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
-		this.handler.sendMessage(request);
-	}
-
-	/**
-	 * Method to inform the reader that it can remove its hold on events and
-	 * report messages.
-	 *
-	 * @param request
-	 *            The request message
-	 * @throws InvalidParameterTypeException
-	 * @throws InvalidMessageTypeException
-	 * @throws IOException
-	 */
-	public void enableEventsAndReports(EnableEventsAndReports request) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
-		this.handler.sendMessage(request);
-	}
-
-	/**
-	 * Method to send the CLIENT_REQUEST_OP_RESPONSE to the reader.
-	 *
-	 * @param response
-	 *            The response message
-	 * @throws InvalidParameterTypeException
-	 * @throws InvalidMessageTypeException
-	 * @throws IOException
-	 */
-	public void clientRequestOpResponse(ClientRequestOPResponse response) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
-		this.handler.sendMessage(response);
-	}
-
-	/**
-	 * Method to send KEEPALIVE_ACK to the reader.
-	 *
-	 * @param response
-	 *            The response message
-	 * @throws InvalidParameterTypeException
-	 * @throws InvalidMessageTypeException
-	 * @throws IOException
-	 */
-	public void keepaliveAck(KeepaliveAck response) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
-		this.handler.sendMessage(response);
-	}
-
-	public LLRPEventHandler<LLRPEventArgs<ROAccessReport>> getROAccessReportEvent() {
-		return roAccessReportEvent;
-	}
-
-	/**
-	 * Method to inform LLRPService about ro access report event occurred.
-	 *
-	 * @param e
-	 *            event arguments
-	 */
-	public void onROAccessReportEvent(LLRPEventArgs<ROAccessReport> e) {
-		if (roAccessReportEvent != null) {
-			roAccessReportEvent.handleEvent(this, e);
-		}
-	}
-
-	public LLRPEventHandler<LLRPEventArgs<ClientRequestOP>> getClientRequestOpEvent() {
-		return clientRequestOpEvent;
-	}
-
-	/**
-	 * Method to inform LLRPService about client request op event occurred.
-	 *
-	 * @param e
-	 *            event arguments
-	 */
-	public void onClientRequestOpEvent(LLRPEventArgs<ClientRequestOP> e) {
-		if (clientRequestOpEvent != null)
-			clientRequestOpEvent.handleEvent(this, e);
-	}
-
-	public LLRPEventHandler<LLRPEventArgs<Keepalive>> getKeepaliveEvent() {
-		return keepaliveEvent;
-	}
-
-	/**
-	 * Method to inform LLRPService about keepalive event occurred.
-	 *
-	 * @param e
-	 *            event arguments
-	 */
-	public void onKeepaliveEvent(LLRPEventArgs<Keepalive> e) {
-		if (keepaliveEvent != null)
-			keepaliveEvent.handleEvent(this, e);
-	}
-
-	public LLRPEventHandler<LLRPEventArgs<ReaderEventNotification>> getReaderNotificationEvent() {
-		return readerNotificationEvent;
-	}
-
-	/**
-	 * Method to inform LLRPService about reader event notification event
-	 * occurred.
-	 *
-	 * @param e
-	 *            event arguments
-	 */
-	public void onReaderNotificationEvent(LLRPEventArgs<ReaderEventNotification> e) {
-		if (readerNotificationEvent != null) {
-			readerNotificationEvent.handleEvent(this, e);
-		}
-	}
-
-	public LLRPEventHandler<EventObject> getNoDataReceivedEvent() {
-		return noDataReceivedEvent;
-	}
-
-	/**
-	 * Method to inform LLRPService about no data received event occurred.
-	 *
-	 * @param e
-	 *            event arguments
-	 */
-	public void onNoDataReceivedEvent(EventObject e) {
-		if (noDataReceivedEvent != null) {
-			noDataReceivedEvent.handleEvent(this, e);
-		}
-	}
-
-	/**
-	 * Disposes this instance.
-	 *
-	 * @throws IOException
-	 */
-	public void dispose() throws IOException {
-		dispose(true);
-	}
-
-	/**
-	 * Disposes this instance. According to <paramref name="disposing"/> also
-	 * managed resources will be disposed.
-	 *
-	 * @param disposing
-	 *            Indicator if also managed resources should be disposed.
-	 * @throws IOException
-	 */
-	protected void dispose(boolean disposing) throws IOException {
-		if (!this.isDisposed) {
-			if (disposing) {
-				if (this.client != null)
-					this.client.dispose();
-				if (this.handler != null)
-					this.handler.dispose();
-			}
-			this.client = null;
-			this.handler = null;
-			this.isDisposed = true;
-		}
-	}
-}
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.AddAccessSpec;
+import havis.llrpservice.data.message.AddAccessSpecResponse;
+import havis.llrpservice.data.message.AddROSpec;
+import havis.llrpservice.data.message.AddROSpecResponse;
+import havis.llrpservice.data.message.ClientRequestOP;
+import havis.llrpservice.data.message.ClientRequestOPResponse;
+import havis.llrpservice.data.message.CloseConnection;
+import havis.llrpservice.data.message.CloseConnectionResponse;
+import havis.llrpservice.data.message.DeleteAccessSpec;
+import havis.llrpservice.data.message.DeleteAccessSpecResponse;
+import havis.llrpservice.data.message.DeleteROSpec;
+import havis.llrpservice.data.message.DeleteROSpecResponse;
+import havis.llrpservice.data.message.DisableAccessSpec;
+import havis.llrpservice.data.message.DisableAccessSpecResponse;
+import havis.llrpservice.data.message.DisableROSpec;
+import havis.llrpservice.data.message.DisableROSpecResponse;
+import havis.llrpservice.data.message.EnableAccessSpec;
+import havis.llrpservice.data.message.EnableAccessSpecResponse;
+import havis.llrpservice.data.message.EnableEventsAndReports;
+import havis.llrpservice.data.message.EnableROSpec;
+import havis.llrpservice.data.message.EnableROSpecResponse;
+import havis.llrpservice.data.message.ErrorMessage;
+import havis.llrpservice.data.message.GetAccessSpecs;
+import havis.llrpservice.data.message.GetAccessSpecsResponse;
+import havis.llrpservice.data.message.GetROSpecs;
+import havis.llrpservice.data.message.GetROSpecsResponse;
+import havis.llrpservice.data.message.GetReaderCapabilities;
+import havis.llrpservice.data.message.GetReaderCapabilitiesResponse;
+import havis.llrpservice.data.message.GetReaderConfig;
+import havis.llrpservice.data.message.GetReaderConfigResponse;
+import havis.llrpservice.data.message.GetReport;
+import havis.llrpservice.data.message.GetSupportedVersion;
+import havis.llrpservice.data.message.GetSupportedVersionResponse;
+import havis.llrpservice.data.message.Keepalive;
+import havis.llrpservice.data.message.KeepaliveAck;
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.MessageTypes.MessageType;
+import havis.llrpservice.data.message.ROAccessReport;
+import havis.llrpservice.data.message.ReaderEventNotification;
+import havis.llrpservice.data.message.SetProtocolVersion;
+import havis.llrpservice.data.message.SetProtocolVersionResponse;
+import havis.llrpservice.data.message.SetReaderConfig;
+import havis.llrpservice.data.message.SetReaderConfigResponse;
+import havis.llrpservice.data.message.StartROSpec;
+import havis.llrpservice.data.message.StartROSpecResponse;
+import havis.llrpservice.data.message.StopROSpec;
+import havis.llrpservice.data.message.StopROSpecResponse;
+import havis.llrpservice.data.message.parameter.serializer.InvalidParameterTypeException;
+import havis.llrpservice.data.message.serializer.InvalidMessageTypeException;
+import havis.middleware.reader.llrp.client.LLRPClient;
+import havis.middleware.reader.llrp.client.LLRPConnection;
+import havis.middleware.reader.llrp.client.LLRPProperties;
+import havis.middleware.reader.llrp.client.MessageTemplate;
+import havis.middleware.reader.llrp.client.ReportFilter;
+import havis.middleware.reader.llrp.service.event.LLRPBatchEventArgs;
+import havis.middleware.reader.llrp.service.event.LLRPEventArgs;
+import havis.middleware.reader.llrp.service.event.LLRPEventHandler;
+import havis.middleware.reader.llrp.service.event.ListenerOverflowPolicy;
+import havis.middleware.reader.llrp.service.exception.LLRPErrorException;
+import havis.middleware.reader.llrp.service.exception.LLRPException;
+import havis.middleware.reader.llrp.service.exception.LLRPTimeoutException;
+import havis.middleware.reader.llrp.util.LLRPReturnContainerUtil;
+
+import java.io.IOException;
+import java.util.EventObject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Class that abstracts the Request/Response <see cref="LLRPMessage"/> as
+ * synchronous operations. Each operation has an asynchronous counterpart which
+ * returns a <see cref="CompletableFuture"/> instead of blocking the calling
+ * thread. The class also provides events for all <see cref="LLRPMessage"/>
+ * received asynchroniously from the <see cref="LLRPClient"/>
+ */
+public class LLRPService {
+	private LLRPMessageHandler handler;
+	private LLRPClient client;
+	private RequestCoalescer coalescer = new RequestCoalescer();
+	private int timeout;
+	private boolean isDisposed = false;
+
+	/**
+	 * Occurred when reader send RO_ACCESS_REPORT event.
+	 */
+	private LLRPEventHandler<LLRPEventArgs<ROAccessReport>> roAccessReportEvent = new LLRPEventHandler<LLRPEventArgs<ROAccessReport>>();
+
+	/**
+	 * Occurred when reader send CLIENT_REQUEST_OP event.
+	 */
+	public LLRPEventHandler<LLRPEventArgs<ClientRequestOP>> clientRequestOpEvent = new LLRPEventHandler<LLRPEventArgs<ClientRequestOP>>();
+
+	/**
+	 * Occurred when reader send KEEPALIVE event.
+	 */
+	private LLRPEventHandler<LLRPEventArgs<Keepalive>> keepaliveEvent = new LLRPEventHandler<LLRPEventArgs<Keepalive>>();
+
+	/**
+	 * The event will be raised if LLRPClient received no data within keepalive
+	 * timespan.
+	 */
+	private LLRPEventHandler<EventObject> noDataReceivedEvent = new LLRPEventHandler<EventObject>();
+
+	/**
+	 * Occurred when reader send READER_EVENT_NOTIFICATION event.
+	 */
+	private LLRPEventHandler<LLRPEventArgs<ReaderEventNotification>> readerNotificationEvent = new LLRPEventHandler<LLRPEventArgs<ReaderEventNotification>>();
+
+	/**
+	 * Retrieves the llrp client used by this service
+	 *
+	 * @return LLRPClient
+	 */
+	public LLRPClient getClient() {
+		return client;
+	}
+
+	/**
+	 * Generates the ID of the next request sent by this service.
+	 *
+	 * @return the next message ID of the client connection
+	 */
+	public long getNextMessageID() {
+		return this.client.getNextMessageID();
+	}
+
+	/**
+	 * @return the number of read-only requests answered by the response of an
+	 *         identical request already pending
+	 */
+	public long getCoalescedRequestCount() {
+		return this.coalescer.getCoalescedCount();
+	}
+
+	/**
+	 * @return the number of requests of this service which timed out
+	 */
+	public long getTimeoutCount() {
+		return this.handler.getTimeoutCount();
+	}
+
+	/**
+	 * Sets the handler answering CLIENT_REQUEST_OP messages on the receiving
+	 * thread instead of raising the event. The handler must not block.
+	 *
+	 * @param clientRequestOpHandler
+	 *            The handler or null to raise the event for all requests
+	 */
+	public void setClientRequestOpHandler(ClientRequestOpHandler clientRequestOpHandler) {
+		this.handler.setClientRequestOpHandler(clientRequestOpHandler);
+	}
+
+	/**
+	 * Enables the flow control of RO_ACCESS_REPORT events. If <paramref
+	 * name="highWatermark"/> reports are queued, <paramref
+	 * name="controller"/> switches the reader to keep its reports, e.g. by
+	 * <see cref="setReaderConfigAsync"/> with ROReportTrigger None. The
+	 * reports are then requested with GET_REPORT as fast as the listeners
+	 * consume them until the reader has no more reports buffered and
+	 * <paramref name="controller"/> restores the reporting.
+	 *
+	 * @param highWatermark
+	 *            The number of queued reports switching to pull mode
+	 * @param lowWatermark
+	 *            The number of queued reports at which reports are pulled
+	 * @param pullTimeout
+	 *            The time in milliseconds to wait for pulled reports
+	 * @param controller
+	 *            The controller or null to disable the flow control
+	 */
+	public void setReportFlowControl(int highWatermark, int lowWatermark, long pullTimeout, ReportFlowController controller) {
+		this.handler.setReportFlowControl(highWatermark, lowWatermark, pullTimeout, controller);
+	}
+
+	/**
+	 * @return Indicator if the reports are pulled from the reader
+	 */
+	public boolean isPullingReports() {
+		return this.handler.isPullingReports();
+	}
+
+	/**
+	 * Initializes a new instance of the
+	 * havis.middleware.llrp.service.LLRPService class.
+	 */
+	public LLRPService() {
+		this.handler = new LLRPMessageHandler(this);
+		this.client = new LLRPClient(this.handler);
+		this.handler.setClient(this.client);
+	}
+
+	/**
+	 * Methode to handel async llrp request and wait for response.
+	 *
+	 * @param request
+	 *            The request message to be sent
+	 * @param methodName
+	 *            The name of the calling methode
+	 * @return The corresponding llrp response.
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	private <Response extends Message> Response handleAsyncLLRPMessage(Message request, String methodName) throws LLRPException,
+			LLRPTimeoutException {
+
+		LLRPReturnContainerUtil<Message> result;
+
+		try {
+			result = this.handler.waitOnResponse(request, this.timeout);
+		} catch (IOException | InvalidMessageTypeException | InvalidParameterTypeException e) {
+			throw new LLRPException(e.getMessage());
+		}
+
+		Message response = result.getValue();
+
+		if (result.isTrue()) {
+			if (response instanceof ErrorMessage) {
+				throw new LLRPErrorException((ErrorMessage) response);
+			} else if (response instanceof Message) {
+				@SuppressWarnings("unchecked")
+				Response res = (Response) response;
+				return res;
+			} else {
+				return null;
+			}
+		}
+
+		throw new LLRPTimeoutException("Timeout during '" + methodName + "' Occurred at LLRP Reader");
+	}
+
+	/**
+	 * Methode to handel async llrp request without waiting for the response.
+	 *
+	 * @param request
+	 *            The request message to be sent
+	 * @param methodName
+	 *            The name of the calling methode
+	 * @return The future which is completed with the corresponding llrp
+	 *         response, or exceptionally with a <see
+	 *         cref="LLRPErrorException"/>, <see cref="LLRPTimeoutException"/>
+	 *         or <see cref="LLRPException"/>
+	 */
+	private <Response extends Message> CompletableFuture<Response> sendAsyncLLRPMessage(Message request, final String methodName) {
+		CompletableFuture<Message> response;
+		try {
+			response = this.handler.sendRequest(request, this.timeout);
+		} catch (IllegalStateException e) {
+			CompletableFuture<Response> future = new CompletableFuture<Response>();
+			future.completeExceptionally(new LLRPException(e.getMessage()));
+			return future;
+		}
+		return toResponse(response, methodName);
+	}
+
+	/**
+	 * Methode to handel a read-only llrp request and wait for the response.
+	 * The caller is attached to the pending response of an identical request
+	 * instead of sending its own.
+	 *
+	 * @param request
+	 *            The request message to be sent
+	 * @param methodName
+	 *            The name of the calling methode
+	 * @return The corresponding llrp response.
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	private <Response extends Message> Response handleCoalescedLLRPMessage(final Message request, final String methodName) throws LLRPException,
+			LLRPTimeoutException {
+		CompletableFuture<Message> response = this.coalescer.coalesce(request, new Supplier<CompletableFuture<Message>>() {
+			@Override
+			public CompletableFuture<Message> get() {
+				CompletableFuture<Message> future = new CompletableFuture<Message>();
+				try {
+					LLRPReturnContainerUtil<Message> result = handler.waitOnResponse(request, timeout);
+					if (result.isTrue())
+						future.complete(result.getValue());
+					else
+						future.completeExceptionally(new LLRPTimeoutException("Timeout during '" + methodName + "' Occurred at LLRP Reader"));
+				} catch (IOException | InvalidMessageTypeException | InvalidParameterTypeException e) {
+					future.completeExceptionally(e);
+				}
+				return future;
+			}
+		});
+
+		try {
+			return this.<Response> toResponse(response, methodName).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LLRPTimeoutException("Timeout during '" + methodName + "' Occurred at LLRP Reader");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof LLRPException)
+				throw (LLRPException) e.getCause();
+			throw new LLRPException(e.getCause().getMessage());
+		}
+	}
+
+	/**
+	 * Methode to handel a read-only llrp request without waiting for the
+	 * response. The caller is attached to the pending response of an
+	 * identical request instead of sending its own.
+	 *
+	 * @param request
+	 *            The request message to be sent
+	 * @param methodName
+	 *            The name of the calling methode
+	 * @return The future which is completed with the corresponding llrp
+	 *         response, or exceptionally with a <see
+	 *         cref="LLRPErrorException"/>, <see cref="LLRPTimeoutException"/>
+	 *         or <see cref="LLRPException"/>
+	 */
+	private <Response extends Message> CompletableFuture<Response> sendCoalescedLLRPMessage(final Message request, String methodName) {
+		CompletableFuture<Message> response;
+		try {
+			response = this.coalescer.coalesce(request, new Supplier<CompletableFuture<Message>>() {
+				@Override
+				public CompletableFuture<Message> get() {
+					return handler.sendRequest(request, timeout);
+				}
+			});
+		} catch (IllegalStateException e) {
+			CompletableFuture<Response> future = new CompletableFuture<Response>();
+			future.completeExceptionally(new LLRPException(e.getMessage()));
+			return future;
+		}
+		return toResponse(response, methodName);
+	}
+
+	/**
+	 * Sends the request of <paramref name="template"/> with a new message ID
+	 * without waiting for the response. Hot requests sent repeatedly, e.g.
+	 * START_ROSPEC of a fixed ROSpecID, are serialized once by creating a
+	 * <see cref="MessageTemplate"/> and copied for each send.
+	 *
+	 * @param template
+	 *            The template of the request
+	 * @return The future which is completed with the corresponding llrp
+	 *         response, or exceptionally with a <see
+	 *         cref="LLRPErrorException"/>, <see cref="LLRPTimeoutException"/>
+	 *         or <see cref="LLRPException"/>
+	 */
+	public <Response extends Message> CompletableFuture<Response> sendTemplateAsync(MessageTemplate template) {
+		CompletableFuture<Message> response;
+		try {
+			response = this.handler.sendRequest(template, getNextMessageID(), this.timeout);
+		} catch (IllegalStateException e) {
+			CompletableFuture<Response> future = new CompletableFuture<Response>();
+			future.completeExceptionally(new LLRPException(e.getMessage()));
+			return future;
+		}
+		return toResponse(response, "SendTemplate");
+	}
+
+	/**
+	 * Converts the completion of <paramref name="response"/> to the
+	 * exceptions of the service.
+	 */
+	private <Response extends Message> CompletableFuture<Response> toResponse(CompletableFuture<Message> response, final String methodName) {
+		final CompletableFuture<Response> future = new CompletableFuture<Response>();
+		response.whenComplete(new BiConsumer<Message, Throwable>() {
+			@Override
+			public void accept(Message response, Throwable error) {
+				if (error instanceof CompletionException && error.getCause() != null) {
+					error = error.getCause();
+				}
+
+				if (error instanceof LLRPTimeoutException) {
+					future.completeExceptionally(new LLRPTimeoutException("Timeout during '" + methodName + "' Occurred at LLRP Reader"));
+				} else if (error != null) {
+					future.completeExceptionally(new LLRPException(error.getMessage()));
+				} else if (response instanceof ErrorMessage) {
+					future.completeExceptionally(new LLRPErrorException((ErrorMessage) response));
+				} else {
+					@SuppressWarnings("unchecked")
+					Response res = (Response) response;
+					future.complete(res);
+				}
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Method to establish the connection to a LLRP reader.
+	 *
+	 * @param llrpConnection
+	 *            The object that provide all connection informations
+	 * @return Indicator if the connection was successfully established or not
+	 */
+	public boolean openConnection(LLRPConnection llrpConnection) {
+		this.timeout = llrpConnection.getTimeout();
+		LLRPProperties properties = llrpConnection.getConnectionProperties();
+		if (properties != null) {
+			this.handler.setMaxPendingRequests(properties.getMaxPendingRequests());
+			this.handler.setEventQueue(properties.getEventQueueCapacity(), properties.getEventWaitStrategy());
+			this.handler.setEventOverflowPolicy(properties.getEventOverflowPolicy());
+			this.handler.setEventCoalescing(properties.isEventCoalescing());
+			this.handler.setReplayBuffer(properties.getReplayCapacity(), properties.getReplayMaxAge());
+			this.client.setKeepaliveAutoAck(properties.isKeepaliveAutoAck());
+			this.client.setParallelDecoding(properties.isParallelDecoding());
+			this.client.setThreadMode(properties.getThreadMode());
+			this.handler.setThreadMode(properties.getThreadMode());
+		}
+		return this.client.openConnection(llrpConnection);
+	}
+
+	/**
+	 * Method to inform the reader that the connection will be closed.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public CloseConnectionResponse closeConnection(CloseConnection request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "CloseConnection");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #closeConnection(CloseConnection)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<CloseConnectionResponse> closeConnectionAsync(CloseConnection request) {
+		return sendAsyncLLRPMessage(request, "CloseConnection");
+	}
+
+	/**
+	 * Method to disconnect form the llrp reader.
+	 *
+	 * @throws IOException
+	 */
+	public void closeConnection() {
+		this.client.closeConnection();
+	}
+
+	/**
+	 * Method to request the highest supported LLRP version from the reader.
+	 *
+	 * <pre>
+	 * Message supported since version 1.1
+	 * </pre>
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with the highest supported version or
+	 *         LLRPErrorException "Unsupported-Version" if hightest version is
+	 *         1.0
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public GetSupportedVersionResponse getSupportedVersion(GetSupportedVersion request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "GetSupportedVersion");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #getSupportedVersion(GetSupportedVersion)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<GetSupportedVersionResponse> getSupportedVersionAsync(GetSupportedVersion request) {
+		return sendAsyncLLRPMessage(request, "GetSupportedVersion");
+	}
+
+	/**
+	 * Method to set the protocol version for the current connection
+	 *
+	 * <pre>
+	 * Message supported since version 1.1
+	 * </pre>
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public SetProtocolVersionResponse setProtocolVersion(SetProtocolVersion request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "SetProtocolVersion");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #setProtocolVersion(SetProtocolVersion)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<SetProtocolVersionResponse> setProtocolVersionAsync(SetProtocolVersion request) {
+		return sendAsyncLLRPMessage(request, "SetProtocolVersion");
+	}
+
+	/**
+	 * Method to request the reader capabilities.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with the requested capabilities
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public GetReaderCapabilitiesResponse getReaderCapabilities(GetReaderCapabilities request) throws LLRPException {
+		return handleCoalescedLLRPMessage(request, "GetReaderCapabilities");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #getReaderCapabilities(GetReaderCapabilities)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<GetReaderCapabilitiesResponse> getReaderCapabilitiesAsync(GetReaderCapabilities request) {
+		return sendCoalescedLLRPMessage(request, "GetReaderCapabilities");
+	}
+
+	/**
+	 * Method to add a ROSpec to the LLRP reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public AddROSpecResponse addROSpec(AddROSpec request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "AddROSpec");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #addROSpec(AddROSpec)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<AddROSpecResponse> addROSpecAsync(AddROSpec request) {
+		return sendAsyncLLRPMessage(request, "AddROSpec");
+	}
+
+	/**
+	 * Method to remove a ROSpec form the LLRP reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public DeleteROSpecResponse deleteROSpec(DeleteROSpec request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "DeleteROSpec");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #deleteROSpec(DeleteROSpec)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<DeleteROSpecResponse> deleteROSpecAsync(DeleteROSpec request) {
+		return sendAsyncLLRPMessage(request, "DeleteROSpec");
+	}
+
+	/**
+	 * Method to start a ROSpec on the LLRP reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public StartROSpecResponse startROSpec(StartROSpec request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "StartROSpec");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #startROSpec(StartROSpec)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<StartROSpecResponse> startROSpecAsync(StartROSpec request) {
+		return sendAsyncLLRPMessage(request, "StartROSpec");
+	}
+
+	/**
+	 * Method to stop a ROSpec on the LLRp reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response messsge with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public StopROSpecResponse stopROSpec(StopROSpec request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "StopROSpec");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #stopROSpec(StopROSpec)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<StopROSpecResponse> stopROSpecAsync(StopROSpec request) {
+		return sendAsyncLLRPMessage(request, "StopROSpec");
+	}
+
+	/**
+	 * Method to enable a ROSpec on the reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public EnableROSpecResponse enableROSpec(EnableROSpec request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "EnableROSpec");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #enableROSpec(EnableROSpec)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<EnableROSpecResponse> enableROSpecAsync(EnableROSpec request) {
+		return sendAsyncLLRPMessage(request, "EnableROSpec");
+	}
+
+	/**
+	 * Method to disable a ROSpec on the reader.
+	 *
+	 * @param request
+	 *            The request message<
+	 * @return Response message with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public DisableROSpecResponse disableROSpec(DisableROSpec request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "DisableROSpec");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #disableROSpec(DisableROSpec)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<DisableROSpecResponse> disableROSpecAsync(DisableROSpec request) {
+		return sendAsyncLLRPMessage(request, "DisableROSpec");
+	}
+
+	/**
+	 * Method to request all ROSpecs from the reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with all ROSpecs
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public GetROSpecsResponse getROSpecs(GetROSpecs request) throws LLRPException {
+		return handleCoalescedLLRPMessage(request, "GetROSpecs");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #getROSpecs(GetROSpecs)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<GetROSpecsResponse> getROSpecsAsync(GetROSpecs request) {
+		return sendCoalescedLLRPMessage(request, "GetROSpecs");
+	}
+
+	/**
+	 * Method to add a AccessSpec to the reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public AddAccessSpecResponse addAccessSpec(AddAccessSpec request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "AddAccessSpec");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #addAccessSpec(AddAccessSpec)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<AddAccessSpecResponse> addAccessSpecAsync(AddAccessSpec request) {
+		return sendAsyncLLRPMessage(request, "AddAccessSpec");
+	}
+
+	/**
+	 * Method to remove a AccessSpec from the reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public DeleteAccessSpecResponse deleteAccessSpec(DeleteAccessSpec request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "DeleteAccessSpec");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #deleteAccessSpec(DeleteAccessSpec)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<DeleteAccessSpecResponse> deleteAccessSpecAsync(DeleteAccessSpec request) {
+		return sendAsyncLLRPMessage(request, "DeleteAccessSpec");
+	}
+
+	/**
+	 * Method to enable a AccessSpec on the reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public EnableAccessSpecResponse enableAccessSpec(EnableAccessSpec request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "EnableAccessSpec");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #enableAccessSpec(EnableAccessSpec)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<EnableAccessSpecResponse> enableAccessSpecAsync(EnableAccessSpec request) {
+		return sendAsyncLLRPMessage(request, "EnableAccessSpec");
+	}
+
+	/**
+	 * Method to disable a AccessSpec on the reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public DisableAccessSpecResponse disableAccessSpec(DisableAccessSpec request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "DisableAccessSpec");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #disableAccessSpec(DisableAccessSpec)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<DisableAccessSpecResponse> disableAccessSpecAsync(DisableAccessSpec request) {
+		return sendAsyncLLRPMessage(request, "DisableAccessSpec");
+	}
+
+	/**
+	 * Method to request all AccessSpecs from the reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with all AccessSpecs
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public GetAccessSpecsResponse getAccessSpecs(GetAccessSpecs request) throws LLRPException {
+		return handleCoalescedLLRPMessage(request, "GetAccessSpecs");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #getAccessSpecs(GetAccessSpecs)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<GetAccessSpecsResponse> getAccessSpecsAsync(GetAccessSpecs request) {
+		return sendCoalescedLLRPMessage(request, "GetAccessSpecs");
+	}
+
+	/**
+	 * Method to request all the configuration from the reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with the requested configuration
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public GetReaderConfigResponse getReaderConfig(GetReaderConfig request) throws LLRPException {
+		return handleCoalescedLLRPMessage(request, "GetReaderConfig");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #getReaderConfig(GetReaderConfig)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<GetReaderConfigResponse> getReaderConfigAsync(GetReaderConfig request) {
+		return sendCoalescedLLRPMessage(request, "GetReaderConfig");
+	}
+
+	/**
+	 * Method to set a configuration on the reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Response message with LLRP status code
+	 * @throws LLRPErrorException
+	 * @throws LLRPTimeoutException
+	 */
+	public SetReaderConfigResponse setReaderConfig(SetReaderConfig request) throws LLRPException {
+		return handleAsyncLLRPMessage(request, "SetReaderConfig");
+	}
+
+	/**
+	 * Asynchronous counterpart of {@link #setReaderConfig(SetReaderConfig)}.
+	 *
+	 * @param request
+	 *            The request message
+	 * @return Future of the response message, completed exceptionally with
+	 *         LLRPErrorException or LLRPTimeoutException
+	 */
+	public CompletableFuture<SetReaderConfigResponse> setReaderConfigAsync(SetReaderConfig request) {
+		return sendAsyncLLRPMessage(request, "SetReaderConfig");
+	}
+
+	/**
+	 * Method to get the tag reports from the reader.
+	 *
+	 * @param request
+	 *            The request message
+	 * @throws InvalidParameterTypeException
+	 * @throws InvalidMessageTypeException
+	 * @throws IOException
+	 */
+	public void getReport(GetReport request) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
+		this.handler.sendMessage(request);
+	}
+
+	/**
+	 * Method to inform the reader that it can remove its hold on events and
+	 * report messages.
+	 *
+	 * @param request
+	 *            The request message
+	 * @throws InvalidParameterTypeException
+	 * @throws InvalidMessageTypeException
+	 * @throws IOException
+	 */
+	public void enableEventsAndReports(EnableEventsAndReports request) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
+		this.handler.sendMessage(request);
+	}
+
+	/**
+	 * Method to send the CLIENT_REQUEST_OP_RESPONSE to the reader.
+	 *
+	 * @param response
+	 *            The response message
+	 * @throws InvalidParameterTypeException
+	 * @throws InvalidMessageTypeException
+	 * @throws IOException
+	 */
+	public void clientRequestOpResponse(ClientRequestOPResponse response) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
+		this.handler.sendMessage(response);
+	}
+
+	/**
+	 * Method to send KEEPALIVE_ACK to the reader. Does nothing if the client
+	 * acknowledges KEEPALIVE messages itself, see <see
+	 * cref="LLRPClient#setKeepaliveAutoAck(boolean)"/>.
+	 *
+	 * @param response
+	 *            The response message
+	 * @throws InvalidParameterTypeException
+	 * @throws InvalidMessageTypeException
+	 * @throws IOException
+	 */
+	public void keepaliveAck(KeepaliveAck response) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
+		if (this.client.isKeepaliveAutoAck())
+			return;
+		this.handler.sendMessage(response);
+	}
+
+	/**
+	 * Adds a listener receiving only the TagReportData matching <paramref
+	 * name="filter"/>. The filter is evaluated on the received data before
+	 * any report is created, reports without a match are not delivered to the
+	 * listener. If no listener of <see cref="getROAccessReportEvent()"/>
+	 * exists, those reports are not deserialized at all.
+	 *
+	 * @param filter
+	 *            The filter
+	 * @param listener
+	 *            The listener, called on its own thread, the oldest queued
+	 *            report is dropped if it falls behind
+	 * @return The subscription providing the lag and timing metrics of the
+	 *         listener
+	 */
+	public ReportSubscription addROAccessReportListener(ReportFilter filter, LLRPEventHandler.LLRPEvent<LLRPEventArgs<ROAccessReport>> listener) {
+		return this.handler.subscribe(filter, listener);
+	}
+
+	/**
+	 * Adds a listener receiving only the TagReportData matching <paramref
+	 * name="filter"/> with the given overflow policy. With <see
+	 * cref="ListenerOverflowPolicy.BLOCK"/> a slow listener stalls the
+	 * receiving of all messages of the connection.
+	 *
+	 * @param filter
+	 *            The filter
+	 * @param listener
+	 *            The listener, called on its own thread
+	 * @param overflowPolicy
+	 *            The policy applied if the queue of the listener is full
+	 * @return The subscription providing the lag and timing metrics of the
+	 *         listener
+	 */
+	public ReportSubscription addROAccessReportListener(ReportFilter filter, LLRPEventHandler.LLRPEvent<LLRPEventArgs<ROAccessReport>> listener,
+			ListenerOverflowPolicy overflowPolicy) {
+		return this.handler.subscribe(filter, listener, overflowPolicy);
+	}
+
+	/**
+	 * Removes a listener added with a filter.
+	 *
+	 * @param listener
+	 *            The listener
+	 */
+	public void removeROAccessReportListener(LLRPEventHandler.LLRPEvent<LLRPEventArgs<ROAccessReport>> listener) {
+		this.handler.unsubscribe(listener);
+	}
+
+	/**
+	 * Adds a listener receiving the RO_ACCESS_REPORT events in batches, see
+	 * <see cref="ReportBatcher"/>.
+	 *
+	 * @param maxSize
+	 *            The maximum number of reports per batch
+	 * @param maxLatency
+	 *            The maximum time in milliseconds the first report of a
+	 *            batch waits for delivery
+	 * @param listener
+	 *            The listener, called on its own thread
+	 * @return The batcher
+	 */
+	public ReportBatcher addROAccessReportBatchListener(int maxSize, long maxLatency,
+			LLRPEventHandler.LLRPEvent<LLRPBatchEventArgs<ROAccessReport>> listener) {
+		ReportBatcher batcher = new ReportBatcher(maxSize, maxLatency, listener);
+		this.roAccessReportEvent.add(batcher);
+		return batcher;
+	}
+
+	/**
+	 * Removes a batch listener, the current batch is delivered.
+	 *
+	 * @param listener
+	 *            The listener
+	 */
+	public void removeROAccessReportBatchListener(LLRPEventHandler.LLRPEvent<LLRPBatchEventArgs<ROAccessReport>> listener) {
+		for (LLRPEventHandler.LLRPEvent<LLRPEventArgs<ROAccessReport>> delegate : this.roAccessReportEvent.getDelegates()) {
+			if (delegate instanceof ReportBatcher && ((ReportBatcher) delegate).getListener().getListener() == listener) {
+				this.roAccessReportEvent.remove(delegate);
+				((ReportBatcher) delegate).close();
+			}
+		}
+	}
+
+	/**
+	 * Creates a publisher of the RO_ACCESS_REPORT events of this service
+	 * which honors the demand of its subscribers, see <see
+	 * cref="ReportPublisher"/>.
+	 *
+	 * @param bufferSize
+	 *            The maximum number of reports buffered per subscriber
+	 * @param overflowPolicy
+	 *            The policy if the buffer of a subscriber is full
+	 * @return The publisher
+	 */
+	public ReportPublisher createROAccessReportPublisher(int bufferSize, FlowOverflowPolicy overflowPolicy) {
+		ReportPublisher publisher = new ReportPublisher(bufferSize, overflowPolicy);
+		this.roAccessReportEvent.add(publisher);
+		return publisher;
+	}
+
+	/**
+	 * Removes a publisher, its subscriptions complete after the buffered
+	 * reports were delivered.
+	 *
+	 * @param publisher
+	 *            The publisher
+	 */
+	public void removeROAccessReportPublisher(ReportPublisher publisher) {
+		this.roAccessReportEvent.remove(publisher);
+		publisher.close();
+	}
+
+	/**
+	 * Adds a listener reading the TagReportData of each RO_ACCESS_REPORT
+	 * directly from the received bytes. Unlike the listeners of <see
+	 * cref="getROAccessReportEvent"/>, the listener is called on the
+	 * receiving thread with a reused <see cref="TagReportCursor"/> and no
+	 * objects are created per report or tag. The listener must not block.
+	 *
+	 * @param listener
+	 *            The listener
+	 */
+	public void addTagReportListener(TagReportListener listener) {
+		this.handler.addTagReportListener(listener);
+	}
+
+	/**
+	 * Removes a listener added by <see cref="addTagReportListener"/>.
+	 *
+	 * @param listener
+	 *            The listener
+	 */
+	public void removeTagReportListener(TagReportListener listener) {
+		this.handler.removeTagReportListener(listener);
+	}
+
+	/**
+	 * Adds a listener of <see cref="getROAccessReportEvent()"/> which first
+	 * receives the kept reports from <paramref name="fromSequence"/> on, see
+	 * <see cref="LLRPProperties.PropertyName.ReplayCapacity"/>. No report is
+	 * missed or received twice in between.
+	 *
+	 * @param listener
+	 *            The listener
+	 * @param fromSequence
+	 *            The sequence number of the first report to replay
+	 * @return The number of replayed reports
+	 */
+	public int addROAccessReportListener(final LLRPEventHandler.LLRPEvent<LLRPEventArgs<ROAccessReport>> listener, long fromSequence) {
+		return this.handler.replay(MessageType.RO_ACCESS_REPORT, fromSequence, new ObjLongConsumer<Message>() {
+			@Override
+			public void accept(Message message, long sequence) {
+				listener.fire(LLRPService.this, new LLRPEventArgs<ROAccessReport>((ROAccessReport) message, sequence));
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				roAccessReportEvent.add(listener);
+			}
+		});
+	}
+
+	/**
+	 * Adds a listener of <see cref="getReaderNotificationEvent()"/> which
+	 * first receives the kept notifications from <paramref
+	 * name="fromSequence"/> on, see <see
+	 * cref="LLRPProperties.PropertyName.ReplayCapacity"/>. No notification is
+	 * missed or received twice in between.
+	 *
+	 * @param listener
+	 *            The listener
+	 * @param fromSequence
+	 *            The sequence number of the first notification to replay
+	 * @return The number of replayed notifications
+	 */
+	public int addReaderNotificationListener(final LLRPEventHandler.LLRPEvent<LLRPEventArgs<ReaderEventNotification>> listener, long fromSequence) {
+		return this.handler.replay(MessageType.READER_EVENT_NOTIFICATION, fromSequence, new ObjLongConsumer<Message>() {
+			@Override
+			public void accept(Message message, long sequence) {
+				listener.fire(LLRPService.this, new LLRPEventArgs<ReaderEventNotification>((ReaderEventNotification) message, sequence));
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				readerNotificationEvent.add(listener);
+			}
+		});
+	}
+
+	public LLRPEventHandler<LLRPEventArgs<ROAccessReport>> getROAccessReportEvent() {
+		return roAccessReportEvent;
+	}
+
+	/**
+	 * Method to inform LLRPService about ro access report event occurred.
+	 *
+	 * @param e
+	 *            event arguments
+	 */
+	public void onROAccessReportEvent(LLRPEventArgs<ROAccessReport> e) {
+		if (roAccessReportEvent != null) {
+			roAccessReportEvent.handleEvent(this, e);
+		}
+	}
+
+	public LLRPEventHandler<LLRPEventArgs<ClientRequestOP>> getClientRequestOpEvent() {
+		return clientRequestOpEvent;
+	}
+
+	/**
+	 * Method to inform LLRPService about client request op event occurred.
+	 *
+	 * @param e
+	 *            event arguments
+	 */
+	public void onClientRequestOpEvent(LLRPEventArgs<ClientRequestOP> e) {
+		if (clientRequestOpEvent != null)
+			clientRequestOpEvent.handleEvent(this, e);
+	}
+
+	public LLRPEventHandler<LLRPEventArgs<Keepalive>> getKeepaliveEvent() {
+		return keepaliveEvent;
+	}
+
+	/**
+	 * Method to inform LLRPService about keepalive event occurred.
+	 *
+	 * @param e
+	 *            event arguments
+	 */
+	public void onKeepaliveEvent(LLRPEventArgs<Keepalive> e) {
+		if (keepaliveEvent != null)
+			keepaliveEvent.handleEvent(this, e);
+	}
+
+	public LLRPEventHandler<LLRPEventArgs<ReaderEventNotification>> getReaderNotificationEvent() {
+		return readerNotificationEvent;
+	}
+
+	/**
+	 * Method to inform LLRPService about reader event notification event
+	 * occurred.
+	 *
+	 * @param e
+	 *            event arguments
+	 */
+	public void onReaderNotificationEvent(LLRPEventArgs<ReaderEventNotification> e) {
+		if (readerNotificationEvent != null) {
+			readerNotificationEvent.handleEvent(this, e);
+		}
+	}
+
+	public LLRPEventHandler<EventObject> getNoDataReceivedEvent() {
+		return noDataReceivedEvent;
+	}
+
+	/**
+	 * Method to inform LLRPService about no data received event occurred.
+	 *
+	 * @param e
+	 *            event arguments
+	 */
+	public void onNoDataReceivedEvent(EventObject e) {
+		if (noDataReceivedEvent != null) {
+			noDataReceivedEvent.handleEvent(this, e);
+		}
+	}
+
+	/**
+	 * Disposes this instance.
+	 *
+	 * @throws IOException
+	 */
+	public void dispose() throws IOException {
+		dispose(true);
+	}
+
+	/**
+	 * Disposes this instance. According to <paramref name="disposing"/> also
+	 * managed resources will be disposed.
+	 *
+	 * @param disposing
+	 *            Indicator if also managed resources should be disposed.
+	 * @throws IOException
+	 */
+	protected void dispose(boolean disposing) throws IOException {
+		if (!this.isDisposed) {
+			if (disposing) {
+				if (this.client != null)
+					this.client.dispose();
+				if (this.handler != null)
+					this.handler.dispose();
+			}
+			this.client = null;
+			this.handler = null;
+			this.isDisposed = true;
+		}
+	}
+}
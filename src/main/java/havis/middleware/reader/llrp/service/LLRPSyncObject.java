@@ -1,120 +1,180 @@
-package havis.middleware.reader.llrp.service;
-
-import havis.llrpservice.data.message.Message;
-import havis.middleware.reader.llrp.util.LLRPReturnContainerUtil;
-
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
-
-/**
- * Class that represents an object to wait on a response after sending a request
- * in form of an <see cref="LLRPMessage"/> to the reader.
- */
-public class LLRPSyncObject {
-	private Message request;
-	private Message response;
-	private Lock monitor = new ReentrantLock();
-	private Condition condition = monitor.newCondition();
-	private int timeout;
-
-	/**
-	 * Initializes a new instance of the
-	 * havis.middleware.llrp.service.LLRPSyncObject class.
-	 * 
-	 * @param request
-	 *            The request message
-	 * @param timeout
-	 *            The timeout value in ms
-	 */
-	public LLRPSyncObject(Message request, int timeout) {
-		this.request = request;
-		this.timeout = timeout;
-	}
-
-	/**
-	 * Gets the request message.
-	 * 
-	 * @return Message
-	 */
-	public Message getRequest() {
-		return this.request;
-	}
-
-	/**
-	 * Gets the response message to wait for.
-	 * 
-	 * @return Message
-	 */
-	public Message getResponse() {
-		return this.response;
-	}
-
-	/**
-	 * Gets the timeout value in ms.
-	 * 
-	 * @return timeout
-	 */
-	public int getTimeout() {
-		return this.timeout;
-	}
-
-	/**
-	 * Method to lock the syncobject.
-	 */
-	public void lock() {
-		monitor.lock();
-	}
-
-	/**
-	 * Method to unlock the syncobject.
-	 */
-	public void unlock() {
-		monitor.unlock();
-	}
-
-	/**
-	 * Method to enter the wait for a response message.
-	 * 
-	 * @return {@link LLRPReturnContainerUtil} object that contains the response
-	 *         message set by this method and True property if response was
-	 *         received within timout, false otherwise
-	 */
-	public LLRPReturnContainerUtil<Message> await() {
-		LLRPReturnContainerUtil<Message> containerUtil = new LLRPReturnContainerUtil<>();
-		containerUtil.setTrue(true);
-
-		monitor.lock();
-
-		try {
-			if (!condition.await(this.timeout, TimeUnit.MILLISECONDS)) {
-				containerUtil.setTrue(false);
-			}
-		} catch (InterruptedException ie) {
-			// Empty
-		} finally {
-			monitor.unlock();
-		}
-
-		containerUtil.setValue(this.response);
-
-		return containerUtil;
-	}
-
-	/**
-	 * Method to notify the waiting thread that a response was send.
-	 * 
-	 * @param response
-	 *            The response that was send
-	 */
-	public void notify(Message response) {
-		monitor.lock();
-		try {
-			this.response = response;
-			condition.signal();
-		} finally {
-			monitor.unlock();
-		}
-	}
-}
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.Message;
+import havis.middleware.reader.llrp.client.MessageTemplate;
+import havis.middleware.reader.llrp.util.HashedWheelTimer;
+import havis.middleware.reader.llrp.util.LLRPReturnContainerUtil;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/**
+ * Class that represents an object to wait on a response after sending a request
+ * in form of an <see cref="LLRPMessage"/> to the reader. The object is a
+ * one-shot slot: the first response or failure completes its <see
+ * cref="CompletableFuture"/>, later ones are ignored. The caller can either
+ * block in {@link #await()} or continue asynchronously with
+ * {@link #getFuture()}.
+ */
+public class LLRPSyncObject {
+	private final Message request;
+	private final MessageTemplate template;
+	private volatile Message response;
+	private final CompletableFuture<Message> future = new CompletableFuture<Message>();
+	private int timeout;
+	private volatile HashedWheelTimer.Timeout expiration;
+
+	/**
+	 * Initializes a new instance of the
+	 * havis.middleware.llrp.service.LLRPSyncObject class.
+	 * 
+	 * @param request
+	 *            The request message
+	 * @param timeout
+	 *            The timeout value in ms
+	 */
+	public LLRPSyncObject(Message request, int timeout) {
+		this.request = request;
+		this.template = null;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Initializes a new instance of the
+	 * havis.middleware.llrp.service.LLRPSyncObject class for a request sent
+	 * from a template.
+	 * 
+	 * @param template
+	 *            The template of the request
+	 * @param timeout
+	 *            The timeout value in ms
+	 */
+	public LLRPSyncObject(MessageTemplate template, int timeout) {
+		this.request = null;
+		this.template = template;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Gets the request message.
+	 * 
+	 * @return Message
+	 */
+	public Message getRequest() {
+		return this.request;
+	}
+
+	/**
+	 * Gets the template of the request.
+	 * 
+	 * @return MessageTemplate or null if the request is a message
+	 */
+	public MessageTemplate getTemplate() {
+		return this.template;
+	}
+
+	/**
+	 * Gets the response message to wait for.
+	 * 
+	 * @return Message
+	 */
+	public Message getResponse() {
+		return this.response;
+	}
+
+	/**
+	 * Gets the timeout value in ms.
+	 * 
+	 * @return timeout
+	 */
+	public int getTimeout() {
+		return this.timeout;
+	}
+
+	/**
+	 * Gets the future which is completed with the response message, or
+	 * exceptionally if the request failed.
+	 * 
+	 * @return CompletableFuture
+	 */
+	public CompletableFuture<Message> getFuture() {
+		return this.future;
+	}
+
+	/**
+	 * Schedules the expiration of this object on <paramref name="timer"/>
+	 * after the timeout. The expiration is cancelled as soon as the object is
+	 * completed.
+	 * 
+	 * @param timer
+	 *            The timer
+	 * @param onTimeout
+	 *            The task failing this object on expiration
+	 */
+	void startTimeout(HashedWheelTimer timer, Runnable onTimeout) {
+		final HashedWheelTimer.Timeout expiration = timer.newTimeout(onTimeout, this.timeout, TimeUnit.MILLISECONDS);
+		this.expiration = expiration;
+		this.future.whenComplete(new BiConsumer<Message, Throwable>() {
+			@Override
+			public void accept(Message response, Throwable error) {
+				expiration.cancel();
+			}
+		});
+	}
+
+	/**
+	 * Method to enter the wait for a response message. If the expiration was
+	 * started, the wait ends with it, otherwise after the timeout.
+	 * 
+	 * @return {@link LLRPReturnContainerUtil} object that contains the response
+	 *         message set by this method and True property if response was
+	 *         received within timout, false otherwise
+	 */
+	public LLRPReturnContainerUtil<Message> await() {
+		LLRPReturnContainerUtil<Message> containerUtil = new LLRPReturnContainerUtil<>();
+		containerUtil.setTrue(true);
+
+		try {
+			if (this.expiration != null)
+				this.future.get();
+			else
+				this.future.get(this.timeout, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException | ExecutionException e) {
+			containerUtil.setTrue(false);
+		} catch (InterruptedException ie) {
+			// Empty
+		}
+
+		containerUtil.setValue(this.response);
+
+		return containerUtil;
+	}
+
+	/**
+	 * Method to notify the waiting thread that a response was send.
+	 * 
+	 * @param response
+	 *            The response that was send
+	 */
+	public void notify(Message response) {
+		if (!this.future.isDone()) {
+			this.response = response;
+			this.future.complete(response);
+		}
+	}
+
+	/**
+	 * Method to notify the waiting thread that the request failed.
+	 * 
+	 * @param cause
+	 *            The cause of the failure
+	 * @return Indicator if this call completed the object, false if it was
+	 *         already completed
+	 */
+	public boolean fail(Throwable cause) {
+		return this.future.completeExceptionally(cause);
+	}
+}
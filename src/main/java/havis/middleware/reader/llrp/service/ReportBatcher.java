@@ -0,0 +1,203 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.ROAccessReport;
+import havis.middleware.reader.llrp.service.event.IsolatedListener;
+import havis.middleware.reader.llrp.service.event.LLRPBatchEventArgs;
+import havis.middleware.reader.llrp.service.event.LLRPEventArgs;
+import havis.middleware.reader.llrp.service.event.LLRPEventHandler;
+import havis.middleware.reader.llrp.service.event.ListenerOverflowPolicy;
+import havis.middleware.reader.llrp.util.HashedWheelTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class that collects RO_ACCESS_REPORT events into batches. A batch is
+ * delivered as soon as it holds the maximum number of reports or its first
+ * report waited for the maximum latency, whichever comes first. Batches are
+ * handed to an <see cref="IsolatedListener"/> while the lock is held, so they
+ * are delivered in order on its thread. The timer thread is shared by all
+ * batchers and must not wait for a slow listener, if the queue of the listener
+ * is full the oldest batch is dropped.
+ */
+public class ReportBatcher implements LLRPEventHandler.LLRPEvent<LLRPEventArgs<ROAccessReport>> {
+	/**
+	 * Timer flushing the batches of all batchers
+	 */
+	private final static HashedWheelTimer timeouts = new HashedWheelTimer("ReportBatcher timeouts");
+
+	private final int maxSize;
+	private final long maxLatency;
+	private final IsolatedListener<LLRPBatchEventArgs<ROAccessReport>> listener;
+
+	private final Object lock = new Object();
+	private Batch batch;
+	private boolean closed = false;
+
+	private final AtomicLong batchCount = new AtomicLong();
+	private final AtomicLong sizeFlushCount = new AtomicLong();
+	private final AtomicLong latencyFlushCount = new AtomicLong();
+
+	/**
+	 * Creates a new batcher.
+	 *
+	 * @param maxSize
+	 *            The maximum number of reports per batch
+	 * @param maxLatency
+	 *            The maximum time in milliseconds the first report of a
+	 *            batch waits for delivery
+	 * @param listener
+	 *            The listener receiving the batches
+	 */
+	public ReportBatcher(int maxSize, long maxLatency, LLRPEventHandler.LLRPEvent<LLRPBatchEventArgs<ROAccessReport>> listener) {
+		if (maxSize < 1)
+			throw new IllegalArgumentException("Invalid batch size " + maxSize);
+		if (maxLatency < 1)
+			throw new IllegalArgumentException("Invalid batch latency " + maxLatency);
+		this.maxSize = maxSize;
+		this.maxLatency = maxLatency;
+		this.listener = new IsolatedListener<LLRPBatchEventArgs<ROAccessReport>>(listener, LLRPMessageHandler.DEFAULT_EVENT_QUEUE_CAPACITY,
+				ListenerOverflowPolicy.DROP_OLDEST, 1);
+	}
+
+	/**
+	 * @return the maximum number of reports per batch
+	 */
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * @return the maximum time in milliseconds the first report of a batch
+	 *         waits for delivery
+	 */
+	public long getMaxLatency() {
+		return this.maxLatency;
+	}
+
+	/**
+	 * @return the listener receiving the batches on its own thread
+	 */
+	public IsolatedListener<LLRPBatchEventArgs<ROAccessReport>> getListener() {
+		return this.listener;
+	}
+
+	/**
+	 * @return the number of delivered batches
+	 */
+	public long getBatchCount() {
+		return this.batchCount.get();
+	}
+
+	/**
+	 * @return the number of batches delivered because they were full
+	 */
+	public long getSizeFlushCount() {
+		return this.sizeFlushCount.get();
+	}
+
+	/**
+	 * @return the number of batches delivered because their latency expired
+	 */
+	public long getLatencyFlushCount() {
+		return this.latencyFlushCount.get();
+	}
+
+	/**
+	 * Adds the report to the current batch.
+	 */
+	@Override
+	public void fire(Object sender, LLRPEventArgs<ROAccessReport> eventArgs) {
+		synchronized (this.lock) {
+			if (this.closed)
+				return;
+			if (this.batch == null) {
+				final Batch batch = new Batch(sender, eventArgs.getSequence());
+				batch.timeout = timeouts.newTimeout(new Runnable() {
+					@Override
+					public void run() {
+						if (take(batch))
+							latencyFlushCount.incrementAndGet();
+					}
+				}, this.maxLatency, TimeUnit.MILLISECONDS);
+				this.batch = batch;
+			}
+			this.batch.reports.add(eventArgs.getMessage());
+			this.batch.lastSequence = eventArgs.getSequence();
+			if (this.batch.reports.size() >= this.maxSize) {
+				Batch full = this.batch;
+				this.batch = null;
+				full.timeout.cancel();
+				this.sizeFlushCount.incrementAndGet();
+				deliver(full);
+			}
+		}
+	}
+
+	/**
+	 * Delivers the current batch immediately.
+	 */
+	public void flush() {
+		Batch batch;
+		synchronized (this.lock) {
+			batch = this.batch;
+		}
+		if (batch != null && take(batch))
+			batch.timeout.cancel();
+	}
+
+	/**
+	 * Delivers the current batch and stops batching. The listener is closed
+	 * after the queued batches were delivered.
+	 */
+	public void close() {
+		synchronized (this.lock) {
+			this.closed = true;
+		}
+		flush();
+		this.listener.close(true);
+	}
+
+	/**
+	 * Takes and delivers <paramref name="batch"/> if it is still the current
+	 * batch.
+	 *
+	 * @return Indicator if the batch was taken
+	 */
+	private boolean take(Batch batch) {
+		synchronized (this.lock) {
+			if (this.batch != batch)
+				return false;
+			this.batch = null;
+			deliver(batch);
+			return true;
+		}
+	}
+
+	/**
+	 * Hands <paramref name="batch"/> to the listener, called with the lock
+	 * held. The listener drops instead of blocking if its queue is full.
+	 */
+	private void deliver(Batch batch) {
+		this.batchCount.incrementAndGet();
+		this.listener.fire(batch.sender, new LLRPBatchEventArgs<ROAccessReport>(this, batch.reports, batch.firstSequence, batch.lastSequence));
+	}
+
+	/**
+	 * Class that represents the reports collected for one delivery.
+	 */
+	private static final class Batch {
+		private final Object sender;
+		private final List<ROAccessReport> reports = new ArrayList<ROAccessReport>();
+		private final long firstSequence;
+		private long lastSequence;
+		private HashedWheelTimer.Timeout timeout;
+
+		private Batch(Object sender, long firstSequence) {
+			this.sender = sender;
+			this.firstSequence = firstSequence;
+		}
+	}
+}
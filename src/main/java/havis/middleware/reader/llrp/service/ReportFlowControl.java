@@ -0,0 +1,179 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.middleware.reader.llrp.util.HashedWheelTimer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class that controls the flow of RO_ACCESS_REPORT events by the number of
+ * queued reports. If the queued reports cross the high watermark, the reader
+ * is switched to pull mode. In pull mode, a GET_REPORT is sent each time the
+ * consumers drained the queue to the low watermark. A reader answers
+ * GET_REPORT with all reports it has buffered, often in a single message,
+ * or with a report without TagReportData if its buffer is empty. The reader
+ * is switched back to push mode on such an empty report or if a pull was
+ * not answered within the pull timeout.
+ */
+class ReportFlowControl {
+	private final int highWatermark;
+	private final int lowWatermark;
+	private final long pullTimeout;
+	private final ReportFlowController controller;
+	private final Runnable pull;
+	private final HashedWheelTimer timer;
+
+	private boolean pulling = false;
+	private boolean outstanding = false;
+	private boolean requested = false;
+	private HashedWheelTimer.Timeout timeout;
+	private final AtomicLong pullCount = new AtomicLong();
+	private final AtomicLong switchCount = new AtomicLong();
+
+	/**
+	 * Creates a new flow control.
+	 *
+	 * @param highWatermark
+	 *            The number of queued reports switching to pull mode
+	 * @param lowWatermark
+	 *            The number of queued reports at which reports are pulled
+	 * @param pullTimeout
+	 *            The time in milliseconds to wait for pulled reports
+	 * @param controller
+	 *            The controller switching the reporting mode of the reader
+	 * @param pull
+	 *            The operation sending a GET_REPORT
+	 * @param timer
+	 *            The timer of the pull timeouts
+	 */
+	ReportFlowControl(int highWatermark, int lowWatermark, long pullTimeout, ReportFlowController controller, Runnable pull, HashedWheelTimer timer) {
+		if (lowWatermark < 0 || highWatermark <= lowWatermark)
+			throw new IllegalArgumentException("Invalid watermarks " + lowWatermark + " and " + highWatermark);
+		if (pullTimeout < 1)
+			throw new IllegalArgumentException("Invalid pull timeout " + pullTimeout);
+		this.highWatermark = highWatermark;
+		this.lowWatermark = lowWatermark;
+		this.pullTimeout = pullTimeout;
+		this.controller = controller;
+		this.pull = pull;
+		this.timer = timer;
+	}
+
+	int getHighWatermark() {
+		return this.highWatermark;
+	}
+
+	int getLowWatermark() {
+		return this.lowWatermark;
+	}
+
+	synchronized boolean isPulling() {
+		return this.pulling;
+	}
+
+	/**
+	 * @return the number of sent GET_REPORT messages
+	 */
+	long getPullCount() {
+		return this.pullCount.get();
+	}
+
+	/**
+	 * @return the number of switches to pull mode
+	 */
+	long getSwitchCount() {
+		return this.switchCount.get();
+	}
+
+	/**
+	 * Called by the receiving thread for each received report, before it is
+	 * queued.
+	 *
+	 * @param tagReportCount
+	 *            The number of TagReportData of the report
+	 */
+	void reportReceived(int tagReportCount) {
+		synchronized (this) {
+			// the reports received before the first pull were pushed
+			if (!this.pulling || !this.requested)
+				return;
+			this.outstanding = false;
+			cancelTimeout();
+			if (tagReportCount > 0)
+				return;
+			// the buffer of the reader is empty
+			this.pulling = false;
+		}
+		this.controller.switchToPush();
+	}
+
+	/**
+	 * Called by the receiving thread after a report was queued.
+	 *
+	 * @param queued
+	 *            The number of queued reports
+	 */
+	void reportQueued(int queued) {
+		synchronized (this) {
+			if (this.pulling || queued < this.highWatermark)
+				return;
+			this.pulling = true;
+			this.requested = false;
+			this.outstanding = false;
+		}
+		this.switchCount.incrementAndGet();
+		this.controller.switchToPull();
+	}
+
+	/**
+	 * Called by the dispatching thread after a report was dispatched. Sends
+	 * the next GET_REPORT at the low watermark, unless a pull is still
+	 * unanswered.
+	 *
+	 * @param queued
+	 *            The number of queued reports
+	 */
+	void reportDispatched(int queued) {
+		if (queued > this.lowWatermark)
+			return;
+		synchronized (this) {
+			if (!this.pulling || this.outstanding)
+				return;
+			this.requested = true;
+			this.outstanding = true;
+			startTimeout();
+		}
+		this.pullCount.incrementAndGet();
+		this.pull.run();
+	}
+
+	/**
+	 * Switches to push mode if the outstanding pull returned no report.
+	 */
+	private void expired() {
+		synchronized (this) {
+			if (!this.pulling || !this.outstanding)
+				return;
+			this.outstanding = false;
+			this.pulling = false;
+			this.timeout = null;
+		}
+		this.controller.switchToPush();
+	}
+
+	private void startTimeout() {
+		this.timeout = this.timer.newTimeout(new Runnable() {
+			@Override
+			public void run() {
+				expired();
+			}
+		}, this.pullTimeout, TimeUnit.MILLISECONDS);
+	}
+
+	private void cancelTimeout() {
+		if (this.timeout != null) {
+			this.timeout.cancel();
+			this.timeout = null;
+		}
+	}
+}
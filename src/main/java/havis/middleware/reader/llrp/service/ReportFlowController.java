@@ -0,0 +1,23 @@
+package havis.middleware.reader.llrp.service;
+
+/**
+ * Interface for switching the reporting mode of the reader for the flow
+ * control of RO_ACCESS_REPORT events. The methods are called on the threads
+ * receiving and dispatching events and must not block, e.g. they use the
+ * asynchronous methods of <see cref="LLRPService"/> to reconfigure the
+ * ROReportSpec.
+ */
+public interface ReportFlowController {
+	/**
+	 * Called if the queued reports crossed the high watermark. The reader
+	 * should keep its reports until they are requested with GET_REPORT, e.g.
+	 * by setting the ROReportTrigger to None.
+	 */
+	void switchToPull();
+
+	/**
+	 * Called if the reader has no more reports buffered. The reader should
+	 * push its reports again, e.g. by restoring the ROReportSpec.
+	 */
+	void switchToPush();
+}
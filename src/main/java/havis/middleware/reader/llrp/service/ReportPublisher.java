@@ -0,0 +1,268 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.ROAccessReport;
+import havis.middleware.reader.llrp.service.event.LLRPEventArgs;
+import havis.middleware.reader.llrp.service.event.LLRPEventHandler;
+import havis.middleware.reader.llrp.util.Flow;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that publishes the RO_ACCESS_REPORT events of a connection to
+ * subscribers honoring their demand. Reports exceeding the demand of a
+ * subscriber are buffered up to the buffer size, then the <see
+ * cref="FlowOverflowPolicy"/> applies. Reports are delivered on the event
+ * thread or on the thread requesting more of them, never concurrently to the
+ * same subscriber.
+ */
+public class ReportPublisher implements Flow.Publisher<ROAccessReport>, LLRPEventHandler.LLRPEvent<LLRPEventArgs<ROAccessReport>> {
+	private final static Logger log = Logger.getLogger(ReportPublisher.class.getName());
+
+	private final int bufferSize;
+	private final FlowOverflowPolicy overflowPolicy;
+	private final List<Demand> subscriptions = new CopyOnWriteArrayList<Demand>();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates a new publisher.
+	 *
+	 * @param bufferSize
+	 *            The maximum number of reports buffered per subscriber
+	 * @param overflowPolicy
+	 *            The policy if the buffer of a subscriber is full
+	 */
+	public ReportPublisher(int bufferSize, FlowOverflowPolicy overflowPolicy) {
+		if (bufferSize < 1)
+			throw new IllegalArgumentException("Invalid buffer size " + bufferSize);
+		this.bufferSize = bufferSize;
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * @return the maximum number of reports buffered per subscriber
+	 */
+	public int getBufferSize() {
+		return this.bufferSize;
+	}
+
+	/**
+	 * @return the policy if the buffer of a subscriber is full
+	 */
+	public FlowOverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+	/**
+	 * @return the number of active subscribers
+	 */
+	public int getSubscriberCount() {
+		return this.subscriptions.size();
+	}
+
+	/**
+	 * @return the number of reports dropped because a buffer was full
+	 */
+	public long getDroppedCount() {
+		return this.droppedCount.get();
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super ROAccessReport> subscriber) {
+		if (subscriber == null)
+			throw new NullPointerException("subscriber");
+		Demand demand = new Demand(subscriber);
+		this.subscriptions.add(demand);
+		subscriber.onSubscribe(demand);
+		if (this.closed)
+			demand.complete();
+	}
+
+	/**
+	 * Publishes the report to all subscribers.
+	 */
+	@Override
+	public void fire(Object sender, LLRPEventArgs<ROAccessReport> eventArgs) {
+		for (Demand demand : this.subscriptions) {
+			demand.offer(eventArgs.getMessage());
+		}
+	}
+
+	/**
+	 * Completes all subscriptions once their buffered reports were delivered.
+	 */
+	public void close() {
+		this.closed = true;
+		for (Demand demand : this.subscriptions) {
+			demand.complete();
+		}
+	}
+
+	/**
+	 * Class that represents the subscription of a subscriber with its demand
+	 * and buffer.
+	 */
+	private final class Demand implements Flow.Subscription {
+		private final Flow.Subscriber<? super ROAccessReport> subscriber;
+		private final Queue<ROAccessReport> buffer = new ArrayDeque<ROAccessReport>();
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition space = this.lock.newCondition();
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private volatile boolean cancelled = false;
+		private volatile boolean completed = false;
+		private volatile Throwable error;
+
+		private Demand(Flow.Subscriber<? super ROAccessReport> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				fail(new IllegalArgumentException("Non-positive number of requested reports " + n));
+				return;
+			}
+			long current, next;
+			do {
+				current = this.requested.get();
+				next = current + n < 0 ? Long.MAX_VALUE : current + n;
+			} while (!this.requested.compareAndSet(current, next));
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			this.cancelled = true;
+			subscriptions.remove(this);
+			this.lock.lock();
+			try {
+				this.buffer.clear();
+				this.space.signalAll();
+			} finally {
+				this.lock.unlock();
+			}
+		}
+
+		private void offer(ROAccessReport report) {
+			this.lock.lock();
+			try {
+				while (this.buffer.size() >= bufferSize) {
+					if (this.cancelled || this.error != null)
+						return;
+					switch (overflowPolicy) {
+					case DROP_OLDEST:
+						this.buffer.poll();
+						droppedCount.incrementAndGet();
+						break;
+					case DROP_NEWEST:
+						droppedCount.incrementAndGet();
+						return;
+					case ERROR:
+						this.error = new IllegalStateException("Buffer of " + bufferSize + " reports exceeded");
+						break;
+					default:
+						try {
+							this.space.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							droppedCount.incrementAndGet();
+							return;
+						}
+						break;
+					}
+					if (this.error != null)
+						break;
+				}
+				if (this.error == null && !this.cancelled)
+					this.buffer.add(report);
+			} finally {
+				this.lock.unlock();
+			}
+			drain();
+		}
+
+		private void complete() {
+			this.completed = true;
+			drain();
+		}
+
+		private void fail(Throwable error) {
+			this.error = error;
+			drain();
+		}
+
+		private ROAccessReport poll() {
+			this.lock.lock();
+			try {
+				ROAccessReport report = this.buffer.poll();
+				if (report != null)
+					this.space.signal();
+				return report;
+			} finally {
+				this.lock.unlock();
+			}
+		}
+
+		private boolean isEmpty() {
+			this.lock.lock();
+			try {
+				return this.buffer.isEmpty();
+			} finally {
+				this.lock.unlock();
+			}
+		}
+
+		/**
+		 * Delivers buffered reports while demand exists. Only one thread
+		 * delivers at a time, calls during delivery are handled by that
+		 * thread.
+		 */
+		private void drain() {
+			if (this.wip.getAndIncrement() != 0)
+				return;
+			int missed = 1;
+			do {
+				while (!this.cancelled) {
+					Throwable error = this.error;
+					if (error != null) {
+						cancel();
+						this.subscriber.onError(error);
+						return;
+					}
+					if (this.requested.get() == 0)
+						break;
+					ROAccessReport report = poll();
+					if (report == null)
+						break;
+					if (this.requested.get() != Long.MAX_VALUE)
+						this.requested.decrementAndGet();
+					try {
+						this.subscriber.onNext(report);
+					} catch (Exception e) {
+						log.log(Level.SEVERE, "Subscriber failed to handle report, cancelling subscription", e);
+						cancel();
+						return;
+					}
+				}
+				if (this.cancelled)
+					return;
+				if (this.completed && isEmpty()) {
+					cancel();
+					this.subscriber.onComplete();
+					return;
+				}
+				missed = this.wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.ROAccessReport;
+import havis.middleware.reader.llrp.client.ReportFilter;
+import havis.middleware.reader.llrp.service.event.IsolatedListener;
+import havis.middleware.reader.llrp.service.event.LLRPEventArgs;
+
+/**
+ * Class that represents a listener receiving only the TagReportData of
+ * RO_ACCESS_REPORT messages which match a <see cref="ReportFilter"/>.
+ */
+public final class ReportSubscription {
+	private final ReportFilter filter;
+	private final IsolatedListener<LLRPEventArgs<ROAccessReport>> listener;
+
+	ReportSubscription(ReportFilter filter, IsolatedListener<LLRPEventArgs<ROAccessReport>> listener) {
+		this.filter = filter;
+		this.listener = listener;
+	}
+
+	/**
+	 * @return the filter
+	 */
+	public ReportFilter getFilter() {
+		return this.filter;
+	}
+
+	/**
+	 * @return the listener receiving the matching reports on its own thread
+	 */
+	public IsolatedListener<LLRPEventArgs<ROAccessReport>> getListener() {
+		return this.listener;
+	}
+}
@@ -0,0 +1,117 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.parameter.serializer.InvalidParameterTypeException;
+import havis.llrpservice.data.message.serializer.ByteBufferSerializer;
+import havis.llrpservice.data.message.serializer.InvalidMessageTypeException;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Class that merges identical read-only requests. A request is sent only if no
+ * request with the same content is awaiting its response, otherwise the caller
+ * is attached to the pending response. The content of a request is its
+ * serialized form without the message ID. All attached callers receive the
+ * same response message carrying the message ID of the request actually sent.
+ */
+class RequestCoalescer {
+	private final static int ID_OFFSET = 6;
+
+	private final ConcurrentMap<ByteBuffer, CompletableFuture<Message>> pending = new ConcurrentHashMap<ByteBuffer, CompletableFuture<Message>>();
+	private final AtomicLong coalescedCount = new AtomicLong();
+
+	/**
+	 * @return the number of requests attached to a pending response instead of
+	 *         being sent
+	 */
+	long getCoalescedCount() {
+		return this.coalescedCount.get();
+	}
+
+	/**
+	 * @return the number of distinct requests awaiting their response
+	 */
+	int getPending() {
+		return this.pending.size();
+	}
+
+	/**
+	 * Computes the content key of <paramref name="request"/>.
+	 *
+	 * @param request
+	 *            The request
+	 * @return The serialized request with a zero message ID
+	 * @throws InvalidMessageTypeException
+	 * @throws InvalidParameterTypeException
+	 */
+	static ByteBuffer key(Message request) throws InvalidMessageTypeException, InvalidParameterTypeException {
+		ByteBufferSerializer serializer = new ByteBufferSerializer();
+		ByteBuffer data = ByteBuffer.allocate((int) serializer.getLength(request));
+		serializer.serialize(request, data);
+		if (data.position() >= ByteBufferSerializer.MESSAGE_HEADER_LENGTH)
+			data.putInt(ID_OFFSET, 0);
+		data.flip();
+		return data;
+	}
+
+	/**
+	 * Sends <paramref name="request"/> by <paramref name="send"/> or attaches
+	 * the caller to the pending response of an identical request. Requests
+	 * which cannot be serialized are sent without coalescing.
+	 *
+	 * @param request
+	 *            The request
+	 * @param send
+	 *            The operation sending the request
+	 * @return The future of the response shared by all attached callers
+	 */
+	CompletableFuture<Message> coalesce(Message request, Supplier<CompletableFuture<Message>> send) {
+		ByteBuffer key;
+		try {
+			key = key(request);
+		} catch (InvalidMessageTypeException | InvalidParameterTypeException | RuntimeException e) {
+			return send.get();
+		}
+		return coalesce(key, send);
+	}
+
+	/**
+	 * Sends the request of <paramref name="key"/> by <paramref name="send"/>
+	 * or attaches the caller to its pending response.
+	 */
+	CompletableFuture<Message> coalesce(final ByteBuffer key, Supplier<CompletableFuture<Message>> send) {
+		final CompletableFuture<Message> shared = new CompletableFuture<Message>();
+		CompletableFuture<Message> existing = this.pending.putIfAbsent(key, shared);
+		if (existing != null) {
+			this.coalescedCount.incrementAndGet();
+			return existing;
+		}
+
+		CompletableFuture<Message> response;
+		try {
+			response = send.get();
+		} catch (RuntimeException e) {
+			this.pending.remove(key, shared);
+			shared.completeExceptionally(e);
+			throw e;
+		}
+		response.whenComplete(new BiConsumer<Message, Throwable>() {
+			@Override
+			public void accept(Message message, Throwable error) {
+				// callers arriving after the response send a new request
+				pending.remove(key, shared);
+				if (error != null)
+					shared.completeExceptionally(error);
+				else
+					shared.complete(message);
+			}
+		});
+		return shared;
+	}
+}
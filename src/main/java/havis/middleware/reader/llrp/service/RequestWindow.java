@@ -0,0 +1,152 @@
+package havis.middleware.reader.llrp.service;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class that limits the number of requests awaiting their response. Requests
+ * exceeding the window are queued in order and sent as soon as a response of
+ * an earlier request arrived. Waiting callers do not hold a monitor and
+ * therefore do not pin virtual threads to their carrier.
+ */
+class RequestWindow {
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition available = this.lock.newCondition();
+	private final Queue<Runnable> queued = new ArrayDeque<Runnable>();
+	private int size = 1;
+	private int pending = 0;
+
+	/**
+	 * Sets the maximum number of pending requests. Values less than one are
+	 * treated as one.
+	 *
+	 * @param size
+	 *            The window size
+	 */
+	void setSize(int size) {
+		Runnable[] ready;
+		this.lock.lock();
+		try {
+			this.size = Math.max(1, size);
+			ready = takeReady();
+			this.available.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+		for (Runnable send : ready) {
+			send.run();
+		}
+	}
+
+	/**
+	 * @return the maximum number of pending requests
+	 */
+	int getSize() {
+		this.lock.lock();
+		try {
+			return this.size;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the number of requests awaiting their response
+	 */
+	int getPending() {
+		this.lock.lock();
+		try {
+			return this.pending;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Runs <paramref name="send"/> immediately if the window is not full or
+	 * queues it otherwise. The send operation must call {@link #release()}
+	 * once the request is completed.
+	 *
+	 * @param send
+	 *            The operation sending the request
+	 */
+	void submit(Runnable send) {
+		this.lock.lock();
+		try {
+			if (this.pending >= this.size || !this.queued.isEmpty()) {
+				this.queued.add(send);
+				return;
+			}
+			this.pending++;
+		} finally {
+			this.lock.unlock();
+		}
+		send.run();
+	}
+
+	/**
+	 * Waits until the window is not full and takes a place.
+	 *
+	 * @throws InterruptedException
+	 */
+	void acquire() throws InterruptedException {
+		this.lock.lockInterruptibly();
+		try {
+			while (this.pending >= this.size || !this.queued.isEmpty()) {
+				this.available.await();
+			}
+			this.pending++;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Frees the place of a completed request and sends the next queued
+	 * request.
+	 */
+	void release() {
+		Runnable[] ready;
+		this.lock.lock();
+		try {
+			this.pending--;
+			ready = takeReady();
+			this.available.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+		for (Runnable send : ready) {
+			send.run();
+		}
+	}
+
+	/**
+	 * Removes all queued requests and takes a place for each of them. The
+	 * caller must run the returned operations.
+	 *
+	 * @return The queued send operations
+	 */
+	Runnable[] drain() {
+		this.lock.lock();
+		try {
+			Runnable[] queued = this.queued.toArray(new Runnable[this.queued.size()]);
+			this.queued.clear();
+			this.pending += queued.length;
+			return queued;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private Runnable[] takeReady() {
+		int count = Math.min(this.queued.size(), Math.max(0, this.size - this.pending));
+		Runnable[] ready = new Runnable[count];
+		for (int i = 0; i < count; i++) {
+			ready[i] = this.queued.poll();
+			this.pending++;
+		}
+		return ready;
+	}
+}
@@ -0,0 +1,20 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.middleware.reader.llrp.client.TagReportCursor;
+
+/**
+ * Interface for a listener reading the TagReportData of each RO_ACCESS_REPORT
+ * on the receiving thread without deserializing the report. The listener must
+ * not block, since no further messages of the connection are received while
+ * it runs.
+ */
+public interface TagReportListener {
+	/**
+	 * Called for each received RO_ACCESS_REPORT. The cursor is positioned
+	 * before the first TagReportData and is valid during the call only.
+	 *
+	 * @param tags
+	 *            The cursor over the TagReportData of the report
+	 */
+	void tagsReported(TagReportCursor tags);
+}
@@ -0,0 +1,266 @@
+package havis.middleware.reader.llrp.service.event;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that delivers events to a listener on its own threads. Fired events
+ * are put into a bounded queue and the calling thread returns immediately, a
+ * slow listener therefore does not delay other listeners. If the queue is
+ * full, the <see cref="ListenerOverflowPolicy"/> applies. With ordered
+ * delivery a single thread delivers the events in the order they were fired,
+ * otherwise several threads deliver them concurrently. Idle threads terminate
+ * after one minute.
+ *
+ * @param <T>
+ *            The type of the event arguments
+ */
+public class IsolatedListener<T> implements LLRPEventHandler.LLRPEvent<T> {
+	private final static Logger log = Logger.getLogger(IsolatedListener.class.getName());
+	private final static AtomicInteger instances = new AtomicInteger();
+
+	private final LLRPEventHandler.LLRPEvent<T> listener;
+	private final ListenerOverflowPolicy overflowPolicy;
+	private final boolean ordered;
+	private final ThreadPoolExecutor executor;
+	private final BlockingQueue<Runnable> queue;
+
+	private final AtomicLong firedCount = new AtomicLong();
+	private final AtomicLong deliveredCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+	private final AtomicLong totalDelay = new AtomicLong();
+	private final AtomicLong totalDuration = new AtomicLong();
+	private volatile long maxDelay;
+	private volatile long maxDuration;
+
+	/**
+	 * Creates a new isolated listener.
+	 *
+	 * @param listener
+	 *            The listener
+	 * @param capacity
+	 *            The maximum number of queued events
+	 * @param overflowPolicy
+	 *            The policy if the queue is full
+	 * @param threads
+	 *            The number of delivering threads, 1 for ordered delivery
+	 */
+	public IsolatedListener(LLRPEventHandler.LLRPEvent<T> listener, int capacity, ListenerOverflowPolicy overflowPolicy, int threads) {
+		if (listener == null)
+			throw new NullPointerException("listener");
+		if (capacity < 1)
+			throw new IllegalArgumentException("Invalid capacity " + capacity);
+		if (threads < 1)
+			throw new IllegalArgumentException("Invalid number of threads " + threads);
+
+		this.listener = listener;
+		this.overflowPolicy = overflowPolicy;
+		this.ordered = threads == 1;
+		this.queue = new ArrayBlockingQueue<Runnable>(capacity);
+		final String name = "IsolatedListener-" + instances.incrementAndGet();
+		this.executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES, this.queue, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, name + "-" + this.count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		}, new RejectedExecutionHandler() {
+			@Override
+			public void rejectedExecution(Runnable delivery, ThreadPoolExecutor executor) {
+				overflow(delivery, executor);
+			}
+		});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * @return the wrapped listener
+	 */
+	public LLRPEventHandler.LLRPEvent<T> getListener() {
+		return this.listener;
+	}
+
+	/**
+	 * @return the policy if the queue is full
+	 */
+	public ListenerOverflowPolicy getOverflowPolicy() {
+		return this.overflowPolicy;
+	}
+
+	/**
+	 * @return Indicator if events are delivered in the order they were fired
+	 */
+	public boolean isOrdered() {
+		return this.ordered;
+	}
+
+	/**
+	 * Queues the event for delivery to the listener.
+	 */
+	@Override
+	public void fire(final Object sender, final T eventArgs) {
+		if (this.executor.isShutdown())
+			return;
+		this.firedCount.incrementAndGet();
+		final long enqueued = System.nanoTime();
+		this.executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				deliver(sender, eventArgs, enqueued);
+			}
+		});
+	}
+
+	/**
+	 * Stops the delivering threads, queued events are dropped.
+	 */
+	public void close() {
+		close(false);
+	}
+
+	/**
+	 * Stops the delivering threads.
+	 *
+	 * @param drain
+	 *            Indicator if queued events are still delivered, otherwise
+	 *            they are dropped
+	 */
+	public void close(boolean drain) {
+		if (drain)
+			this.executor.shutdown();
+		else
+			this.executor.shutdownNow();
+	}
+
+	/**
+	 * @return Indicator if the listener was closed
+	 */
+	public boolean isClosed() {
+		return this.executor.isShutdown();
+	}
+
+	/**
+	 * @return the number of queued events, the lag of the listener
+	 */
+	public int getLag() {
+		return this.queue.size();
+	}
+
+	/**
+	 * @return the number of fired events
+	 */
+	public long getFiredCount() {
+		return this.firedCount.get();
+	}
+
+	/**
+	 * @return the number of events delivered to the listener
+	 */
+	public long getDeliveredCount() {
+		return this.deliveredCount.get();
+	}
+
+	/**
+	 * @return the number of events dropped because the queue was full
+	 */
+	public long getDroppedCount() {
+		return this.droppedCount.get();
+	}
+
+	/**
+	 * @return the number of events the listener failed on
+	 */
+	public long getFailedCount() {
+		return this.failedCount.get();
+	}
+
+	/**
+	 * @return the average time between firing and delivery of an event in
+	 *         nanoseconds
+	 */
+	public long getAverageDelay() {
+		long count = this.deliveredCount.get();
+		return count == 0 ? 0 : this.totalDelay.get() / count;
+	}
+
+	/**
+	 * @return the maximum time between firing and delivery of an event in
+	 *         nanoseconds
+	 */
+	public long getMaxDelay() {
+		return this.maxDelay;
+	}
+
+	/**
+	 * @return the average time the listener took for an event in nanoseconds
+	 */
+	public long getAverageDuration() {
+		long count = this.deliveredCount.get();
+		return count == 0 ? 0 : this.totalDuration.get() / count;
+	}
+
+	/**
+	 * @return the maximum time the listener took for an event in nanoseconds
+	 */
+	public long getMaxDuration() {
+		return this.maxDuration;
+	}
+
+	private void deliver(Object sender, T eventArgs, long enqueued) {
+		long start = System.nanoTime();
+		try {
+			this.listener.fire(sender, eventArgs);
+		} catch (Exception e) {
+			this.failedCount.incrementAndGet();
+			log.log(Level.SEVERE, "Listener failed to handle event", e);
+		}
+		long end = System.nanoTime();
+		record(start - enqueued, end - start);
+	}
+
+	private synchronized void record(long delay, long duration) {
+		this.totalDelay.addAndGet(delay);
+		this.totalDuration.addAndGet(duration);
+		if (delay > this.maxDelay)
+			this.maxDelay = delay;
+		if (duration > this.maxDuration)
+			this.maxDuration = duration;
+		this.deliveredCount.incrementAndGet();
+	}
+
+	private void overflow(Runnable delivery, ThreadPoolExecutor executor) {
+		if (executor.isShutdown())
+			return;
+		switch (this.overflowPolicy) {
+		case DROP_NEWEST:
+			this.droppedCount.incrementAndGet();
+			break;
+		case DROP_OLDEST:
+			while (!this.queue.offer(delivery)) {
+				if (this.queue.poll() != null)
+					this.droppedCount.incrementAndGet();
+			}
+			break;
+		default:
+			try {
+				this.queue.put(delivery);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				this.droppedCount.incrementAndGet();
+			}
+			break;
+		}
+	}
+}
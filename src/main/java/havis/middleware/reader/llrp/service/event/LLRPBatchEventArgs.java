@@ -0,0 +1,65 @@
+package havis.middleware.reader.llrp.service.event;
+
+import havis.llrpservice.data.message.Message;
+
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.List;
+
+/**
+ * Class that represents the arguments of an event delivering a batch of LLRP
+ * messages.
+ *
+ * @param <Msg>
+ */
+public class LLRPBatchEventArgs<Msg extends Message> extends EventObject {
+
+	private static final long serialVersionUID = 2870345601244981737L;
+
+	private final List<Msg> messages;
+	private final long firstSequence;
+	private final long lastSequence;
+
+	/**
+	 * Initializes a new instance of the
+	 * havis.middleware.llrp.service.event.LLRPBatchEventArgs class.
+	 *
+	 * @param source
+	 *            The object that collected the batch
+	 * @param messages
+	 *            The messages in the order they were received
+	 * @param firstSequence
+	 *            The sequence number of the first message, -1 if unknown
+	 * @param lastSequence
+	 *            The sequence number of the last message, -1 if unknown
+	 */
+	public LLRPBatchEventArgs(Object source, List<Msg> messages, long firstSequence, long lastSequence) {
+		super(source);
+		this.messages = Collections.unmodifiableList(messages);
+		this.firstSequence = firstSequence;
+		this.lastSequence = lastSequence;
+	}
+
+	/**
+	 * @return the messages in the order they were received
+	 */
+	public List<Msg> getMessages() {
+		return this.messages;
+	}
+
+	/**
+	 * @return the sequence number of the first message on its connection, -1
+	 *         if unknown
+	 */
+	public long getFirstSequence() {
+		return this.firstSequence;
+	}
+
+	/**
+	 * @return the sequence number of the last message on its connection, -1
+	 *         if unknown
+	 */
+	public long getLastSequence() {
+		return this.lastSequence;
+	}
+}
@@ -1,39 +1,81 @@
-package havis.middleware.reader.llrp.service.event;
-
-import havis.llrpservice.data.message.Message;
-
-import java.util.EventObject;
-
-/**
- * Abstract class to abstract all LLRP event arguments
- * 
- * @param <Msg>
- */
-public class LLRPEventArgs<Msg extends Message> extends EventObject {
-
-	private static final long serialVersionUID = -7042721007562610450L;
-
-	/**
-	 * Gets the RO and Access report message.
-	 * 
-	 * @return Msg
-	 */
-
-	public Msg getMessage() {
-		@SuppressWarnings("unchecked")
-		Msg msg = (Msg) getSource();
-
-		return msg;
-	}
-
-	/**
-	 * Initializes a new instance of the
-	 * havis.middleware.llrp.service.events.ROAccessReportEventArgs class.
-	 * 
-	 * @param message
-	 *            The reader message
-	 */
-	public LLRPEventArgs(Msg message) {
-		super(message);
-	}
-}
+package havis.middleware.reader.llrp.service.event;
+
+import havis.llrpservice.data.message.Message;
+
+import java.util.EventObject;
+
+/**
+ * Abstract class to abstract all LLRP event arguments
+ * 
+ * @param <Msg>
+ */
+public class LLRPEventArgs<Msg extends Message> extends EventObject {
+
+	private static final long serialVersionUID = -7042721007562610450L;
+
+	private final long sequence;
+
+	/**
+	 * Gets the RO and Access report message. Messages received as <see
+	 * cref="LazyMessage"/> are decoded on the first call.
+	 * 
+	 * @return Msg
+	 */
+
+	public Msg getMessage() {
+		Object source = this.source;
+		if (source instanceof LazyMessage) {
+			// decoded on first access, see LazyMessage
+			source = ((LazyMessage) source).decode();
+			this.source = source;
+		}
+		@SuppressWarnings("unchecked")
+		Msg msg = (Msg) source;
+
+		return msg;
+	}
+
+	/**
+	 * Gets the message like <see cref="getMessage()"/>, the encoded form of a
+	 * <see cref="LazyMessage"/> is never returned.
+	 */
+	@Override
+	public Object getSource() {
+		return getMessage();
+	}
+
+	/**
+	 * Initializes a new instance of the
+	 * havis.middleware.llrp.service.events.ROAccessReportEventArgs class.
+	 * 
+	 * @param message
+	 *            The reader message
+	 */
+	public LLRPEventArgs(Msg message) {
+		this(message, -1);
+	}
+
+	/**
+	 * Initializes a new instance of the
+	 * havis.middleware.llrp.service.events.ROAccessReportEventArgs class.
+	 * 
+	 * @param message
+	 *            The reader message
+	 * @param sequence
+	 *            The sequence number of the event on its connection
+	 */
+	public LLRPEventArgs(Msg message, long sequence) {
+		super(message);
+		this.sequence = sequence;
+	}
+
+	/**
+	 * Gets the sequence number of the event, events received on the same
+	 * connection are numbered consecutively from zero.
+	 * 
+	 * @return sequence or -1 if unknown
+	 */
+	public long getSequence() {
+		return this.sequence;
+	}
+}
@@ -1,33 +1,75 @@
-package havis.middleware.reader.llrp.service.event;
-
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-
-public class LLRPEventHandler<T> {
-
-	private List<LLRPEventHandler.LLRPEvent<T>> delegates = new CopyOnWriteArrayList<LLRPEventHandler.LLRPEvent<T>>();
-
-	public void add(LLRPEventHandler.LLRPEvent<T> e) {
-		delegates.add(e);
-	}
-
-	public void remove(LLRPEventHandler.LLRPEvent<T> e) {
-		delegates.remove(e);
-	}
-
-	public void handleEvent(Object sender, T eventArgs) {
-		for (LLRPEventHandler.LLRPEvent<T> e : delegates) {
-			e.fire(sender, eventArgs);
-		}
-	}
-
-	public Collection<LLRPEventHandler.LLRPEvent<T>> getDelegates() {
-		return Collections.unmodifiableCollection(delegates);
-	}
-
-	public static interface LLRPEvent<T> {
-		void fire(Object sender, T eventArgs);
-	}
+package havis.middleware.reader.llrp.service.event;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class LLRPEventHandler<T> {
+
+	private List<LLRPEventHandler.LLRPEvent<T>> delegates = new CopyOnWriteArrayList<LLRPEventHandler.LLRPEvent<T>>();
+
+	public void add(LLRPEventHandler.LLRPEvent<T> e) {
+		delegates.add(e);
+	}
+
+	/**
+	 * Adds a listener which is called on its own threads, see <see
+	 * cref="IsolatedListener"/>.
+	 *
+	 * @param e
+	 *            The listener
+	 * @param capacity
+	 *            The maximum number of events queued for the listener
+	 * @param overflowPolicy
+	 *            The policy if the queue of the listener is full
+	 * @param ordered
+	 *            Indicator if events are delivered one after another in the
+	 *            order they were fired, otherwise they are delivered
+	 *            concurrently on <paramref name="threads"/> threads
+	 * @param threads
+	 *            The number of delivering threads if not ordered
+	 * @return The isolated listener providing lag and timing metrics
+	 */
+	public IsolatedListener<T> add(LLRPEventHandler.LLRPEvent<T> e, int capacity, ListenerOverflowPolicy overflowPolicy, boolean ordered, int threads) {
+		IsolatedListener<T> listener = new IsolatedListener<T>(e, capacity, overflowPolicy, ordered ? 1 : threads);
+		delegates.add(listener);
+		return listener;
+	}
+
+	/**
+	 * Removes a listener, an isolated listener added for <paramref name="e"/>
+	 * is closed.
+	 *
+	 * @param e
+	 *            The listener or its isolated listener
+	 */
+	public void remove(LLRPEventHandler.LLRPEvent<T> e) {
+		if (delegates.remove(e)) {
+			if (e instanceof IsolatedListener)
+				((IsolatedListener<T>) e).close();
+			return;
+		}
+		for (LLRPEventHandler.LLRPEvent<T> delegate : delegates) {
+			if (delegate instanceof IsolatedListener && ((IsolatedListener<T>) delegate).getListener() == e) {
+				if (delegates.remove(delegate))
+					((IsolatedListener<T>) delegate).close();
+				return;
+			}
+		}
+	}
+
+	public void handleEvent(Object sender, T eventArgs) {
+		for (LLRPEventHandler.LLRPEvent<T> e : delegates) {
+			e.fire(sender, eventArgs);
+		}
+	}
+
+	public Collection<LLRPEventHandler.LLRPEvent<T>> getDelegates() {
+		return Collections.unmodifiableCollection(delegates);
+	}
+
+	public static interface LLRPEvent<T> {
+		void fire(Object sender, T eventArgs);
+	}
 }
\ No newline at end of file
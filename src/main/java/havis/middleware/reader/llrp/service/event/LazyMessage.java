@@ -0,0 +1,19 @@
+package havis.middleware.reader.llrp.service.event;
+
+import havis.llrpservice.data.message.Message;
+
+/**
+ * Interface of messages whose body is decoded on first access. The event
+ * arguments of such a message return the decoded message, the encoded message
+ * must not be passed to listeners otherwise.
+ */
+public interface LazyMessage {
+	/**
+	 * Decodes the message once, further calls return the same message.
+	 *
+	 * @return The decoded message
+	 * @throws IllegalStateException
+	 *             if the message could not be decoded
+	 */
+	Message decode();
+}
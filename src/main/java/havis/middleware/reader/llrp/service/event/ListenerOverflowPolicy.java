@@ -0,0 +1,20 @@
+package havis.middleware.reader.llrp.service.event;
+
+/**
+ * Enumeration of the policies applied to an event if the queue of an isolated
+ * listener is full.
+ */
+public enum ListenerOverflowPolicy {
+	/**
+	 * The dispatching thread waits until the listener took an event
+	 */
+	BLOCK,
+	/**
+	 * The oldest queued event is dropped
+	 */
+	DROP_OLDEST,
+	/**
+	 * The new event is dropped
+	 */
+	DROP_NEWEST
+}
@@ -0,0 +1,233 @@
+package havis.middleware.reader.llrp.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that provides pooled byte buffers in power-of-two size classes from 64
+ * bytes up to 1 MiB. Released buffers are kept in a small cache of the
+ * releasing thread first and in a bounded queue shared by all threads
+ * otherwise. Larger requests are served by plain allocations and are not
+ * pooled.
+ *
+ * The optional leak detector records where each outstanding buffer was
+ * acquired, reports buffers which are released twice and logs buffers which
+ * are held longer than expected, see {@link #checkLeaks(long)}.
+ */
+public class ByteBufferPool {
+	/**
+	 * System property to enable the leak detection of the shared pools
+	 */
+	public static final String LEAK_DETECTION_PROPERTY = "havis.middleware.reader.llrp.util.ByteBufferPool.leakDetection";
+
+	private static final int MIN_SHIFT = 6;
+	private static final int MAX_SHIFT = 20;
+	private static final int THREAD_CACHE_SIZE = 8;
+	private static final int SHARED_CACHE_SIZE = 64;
+
+	private final static Logger log = Logger.getLogger(ByteBufferPool.class.getName());
+
+	/**
+	 * Shared pool of heap buffers
+	 */
+	public static final ByteBufferPool HEAP = new ByteBufferPool(false, Boolean.getBoolean(LEAK_DETECTION_PROPERTY));
+
+	/**
+	 * Shared pool of direct buffers
+	 */
+	public static final ByteBufferPool DIRECT = new ByteBufferPool(true, Boolean.getBoolean(LEAK_DETECTION_PROPERTY));
+
+	private final boolean direct;
+	private final List<ArrayBlockingQueue<ByteBuffer>> shared = new ArrayList<>();
+	private final ThreadLocal<List<ArrayDeque<ByteBuffer>>> local = new ThreadLocal<List<ArrayDeque<ByteBuffer>>>() {
+		@Override
+		protected List<ArrayDeque<ByteBuffer>> initialValue() {
+			List<ArrayDeque<ByteBuffer>> caches = new ArrayList<>();
+			for (int shift = MIN_SHIFT; shift <= MAX_SHIFT; shift++) {
+				caches.add(new ArrayDeque<ByteBuffer>(THREAD_CACHE_SIZE));
+			}
+			return caches;
+		}
+	};
+	private final AtomicLong allocated = new AtomicLong();
+	private final AtomicLong reused = new AtomicLong();
+	private volatile Map<ByteBuffer, Acquisition> outstanding;
+
+	/**
+	 * Creates a new pool.
+	 *
+	 * @param direct
+	 *            Indicator if direct or heap buffers are pooled
+	 * @param leakDetection
+	 *            Indicator if the leak detection is enabled
+	 */
+	public ByteBufferPool(boolean direct, boolean leakDetection) {
+		this.direct = direct;
+		for (int shift = MIN_SHIFT; shift <= MAX_SHIFT; shift++) {
+			this.shared.add(new ArrayBlockingQueue<ByteBuffer>(SHARED_CACHE_SIZE));
+		}
+		setLeakDetection(leakDetection);
+	}
+
+	/**
+	 * @return Indicator if direct buffers are pooled
+	 */
+	public boolean isDirect() {
+		return this.direct;
+	}
+
+	/**
+	 * Enables or disables the leak detection. It should be enabled before the
+	 * first buffer is acquired, buffers acquired while the leak detection was
+	 * disabled are reported as unknown on release.
+	 *
+	 * @param enabled
+	 *            Indicator if the leak detection is enabled
+	 */
+	public void setLeakDetection(boolean enabled) {
+		this.outstanding = enabled ? new IdentityHashMap<ByteBuffer, Acquisition>() : null;
+	}
+
+	/**
+	 * @return the number of buffers allocated by this pool
+	 */
+	public long getAllocatedCount() {
+		return this.allocated.get();
+	}
+
+	/**
+	 * @return the number of acquisitions served by a pooled buffer
+	 */
+	public long getReusedCount() {
+		return this.reused.get();
+	}
+
+	/**
+	 * Acquires a buffer with at least <paramref name="size"/> bytes. The buffer
+	 * is cleared and its limit is set to <paramref name="size"/>.
+	 *
+	 * @param size
+	 *            The requested size
+	 * @return The buffer
+	 */
+	public ByteBuffer acquire(int size) {
+		int index = sizeClass(size);
+		ByteBuffer buffer = null;
+		if (index >= 0) {
+			buffer = this.local.get().get(index).poll();
+			if (buffer == null) {
+				buffer = this.shared.get(index).poll();
+			}
+		}
+
+		if (buffer == null) {
+			int capacity = index >= 0 ? 1 << (index + MIN_SHIFT) : size;
+			buffer = this.direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+			this.allocated.incrementAndGet();
+		} else {
+			this.reused.incrementAndGet();
+		}
+
+		Map<ByteBuffer, Acquisition> outstanding = this.outstanding;
+		if (outstanding != null) {
+			synchronized (outstanding) {
+				outstanding.put(buffer, new Acquisition());
+			}
+		}
+
+		buffer.clear();
+		buffer.limit(size);
+		return buffer;
+	}
+
+	/**
+	 * Returns a buffer to the pool. The buffer must not be used afterwards.
+	 * Buffers which do not belong to a size class of this pool are ignored.
+	 *
+	 * @param buffer
+	 *            The buffer to release, may be null
+	 */
+	public void release(ByteBuffer buffer) {
+		if (buffer == null)
+			return;
+
+		Map<ByteBuffer, Acquisition> outstanding = this.outstanding;
+		if (outstanding != null) {
+			Acquisition acquisition;
+			synchronized (outstanding) {
+				acquisition = outstanding.remove(buffer);
+			}
+			if (acquisition == null) {
+				log.log(Level.WARNING, "Buffer released twice or not acquired from this pool", new IllegalStateException());
+				return;
+			}
+		}
+
+		int capacity = buffer.capacity();
+		if (buffer.isDirect() != this.direct || Integer.bitCount(capacity) != 1 || buffer.isReadOnly())
+			return;
+		int index = sizeClass(capacity);
+		if (index < 0)
+			return;
+
+		ArrayDeque<ByteBuffer> cache = this.local.get().get(index);
+		if (cache.size() < THREAD_CACHE_SIZE) {
+			cache.push(buffer);
+		} else {
+			this.shared.get(index).offer(buffer);
+		}
+	}
+
+	/**
+	 * Logs all buffers held longer than <paramref name="maxAge"/> together
+	 * with the stack trace of their acquisition. Requires the leak detection
+	 * to be enabled.
+	 *
+	 * @param maxAge
+	 *            The maximum expected time in milliseconds a buffer is held
+	 * @return The number of buffers held longer than expected
+	 */
+	public int checkLeaks(long maxAge) {
+		Map<ByteBuffer, Acquisition> outstanding = this.outstanding;
+		if (outstanding == null)
+			return 0;
+
+		List<Acquisition> leaks = new ArrayList<>();
+		long now = System.currentTimeMillis();
+		synchronized (outstanding) {
+			for (Acquisition acquisition : outstanding.values()) {
+				if (now - acquisition.time > maxAge) {
+					leaks.add(acquisition);
+				}
+			}
+		}
+		for (Acquisition acquisition : leaks) {
+			log.log(Level.WARNING, "Buffer not released for " + (now - acquisition.time) + "ms", acquisition.trace);
+		}
+		return leaks.size();
+	}
+
+	/**
+	 * @return the index of the size class for <paramref name="size"/> or -1 if
+	 *         the size exceeds the largest class
+	 */
+	private static int sizeClass(int size) {
+		if (size <= 1 << MIN_SHIFT)
+			return 0;
+		int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+		return shift > MAX_SHIFT ? -1 : shift - MIN_SHIFT;
+	}
+
+	private static class Acquisition {
+		private final long time = System.currentTimeMillis();
+		private final Throwable trace = new Throwable("Buffer acquired here");
+	}
+}
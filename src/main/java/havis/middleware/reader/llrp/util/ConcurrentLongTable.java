@@ -0,0 +1,272 @@
+package havis.middleware.reader.llrp.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Class that represents a lock-free hash table with primitive long keys in the
+ * range of unsigned 32-bit LLRP message IDs. Slots are probed linearly, keys
+ * are claimed with compare-and-set and removed entries leave a tombstone which
+ * is reused by later insertions. A run of tombstones followed by an empty slot
+ * is cleared again, so the probe sequences stay as short as the number of
+ * present entries allows. While a tombstone is cleared, the empty slot
+ * following it is reserved, an insertion checks its probe sequence for slots
+ * cleared meanwhile and retries if necessary. The capacity is fixed, the table
+ * must be sized for the maximum number of entries present at the same time.
+ *
+ * @param <V>
+ *            The type of the values
+ */
+public class ConcurrentLongTable<V> {
+	private static final long EMPTY = -1;
+	private static final long TOMBSTONE = -2;
+	private static final long RESERVED = -3;
+	private static final long MAX_KEY = 0xFFFFFFFFL;
+
+	private final AtomicLongArray keys;
+	private final AtomicReferenceArray<V> values;
+	private final int mask;
+
+	/**
+	 * Creates a new table.
+	 *
+	 * @param capacity
+	 *            The minimum number of slots, rounded up to a power of two
+	 */
+	public ConcurrentLongTable(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("Invalid capacity " + capacity);
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		this.keys = new AtomicLongArray(size);
+		this.values = new AtomicReferenceArray<V>(size);
+		this.mask = size - 1;
+		for (int i = 0; i < size; i++) {
+			this.keys.set(i, EMPTY);
+		}
+	}
+
+	/**
+	 * @return the number of slots
+	 */
+	public int getCapacity() {
+		return this.mask + 1;
+	}
+
+	/**
+	 * Inserts <paramref name="value"/> with <paramref name="key"/>. Keys must
+	 * be unique among the entries present at the same time.
+	 *
+	 * @param key
+	 *            The key between 0 and 2^32-1
+	 * @param value
+	 *            The value, not null
+	 * @return Indicator if the entry was inserted, false if the table is full
+	 *         or the key is present
+	 */
+	public boolean put(long key, V value) {
+		checkKey(key);
+		if (value == null)
+			throw new NullPointerException("value");
+
+		int start = index(key);
+		retry: while (true) {
+			int tombstone = -1;
+			for (int n = 0; n <= this.mask; n++) {
+				int i = (start + n) & this.mask;
+				long current = this.keys.get(i);
+				if (current == EMPTY) {
+					// end of the probe sequence, the key is not present
+					int slot = tombstone >= 0 ? tombstone : i;
+					if (!claim(slot, tombstone >= 0 ? TOMBSTONE : EMPTY, key, value))
+						// claimed or cleared concurrently
+						continue retry;
+					if (verify(start, slot))
+						return true;
+					release(slot);
+					continue retry;
+				} else if (current == RESERVED) {
+					// a tombstone in front of the slot is being cleared
+					continue retry;
+				} else if (current == TOMBSTONE) {
+					if (tombstone < 0)
+						tombstone = i;
+				} else if (current == key && this.values.get(i) != null) {
+					return false;
+				}
+			}
+
+			// no empty slot left, reuse any tombstone
+			for (int n = 0; n <= this.mask; n++) {
+				int i = (start + n) & this.mask;
+				if (claim(i, TOMBSTONE, key, value)) {
+					if (verify(start, i))
+						return true;
+					release(i);
+					continue retry;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the value of <paramref name="key"/>.
+	 *
+	 * @param key
+	 *            The key
+	 * @return The value or null if no entry exists
+	 */
+	public V get(long key) {
+		if (key < 0 || key > MAX_KEY)
+			return null;
+		int start = index(key);
+		for (int n = 0; n <= this.mask; n++) {
+			int i = (start + n) & this.mask;
+			long current = this.keys.get(i);
+			if (current == key) {
+				V value = this.values.get(i);
+				if (value != null)
+					return value;
+			} else if (current == EMPTY || current == RESERVED) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the entry of <paramref name="key"/> if it maps to <paramref
+	 * name="value"/>.
+	 *
+	 * @param key
+	 *            The key
+	 * @param value
+	 *            The expected value
+	 * @return Indicator if the entry was removed
+	 */
+	public boolean remove(long key, V value) {
+		if (key < 0 || key > MAX_KEY)
+			return false;
+		int start = index(key);
+		for (int n = 0; n <= this.mask; n++) {
+			int i = (start + n) & this.mask;
+			long current = this.keys.get(i);
+			if (current == key) {
+				if (this.values.compareAndSet(i, value, null)) {
+					this.keys.set(i, TOMBSTONE);
+					clear(i);
+					return true;
+				}
+			} else if (current == EMPTY || current == RESERVED) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return a snapshot of all values
+	 */
+	public List<V> values() {
+		List<V> result = new ArrayList<V>();
+		for (int i = 0; i <= this.mask; i++) {
+			V value = this.values.get(i);
+			if (value != null)
+				result.add(value);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of entries, might be inaccurate during concurrent
+	 *         modifications
+	 */
+	public int size() {
+		int size = 0;
+		for (int i = 0; i <= this.mask; i++) {
+			if (this.values.get(i) != null)
+				size++;
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the number of slots a lookup of <paramref name="key"/> probes.
+	 */
+	int probes(long key) {
+		int start = index(key);
+		for (int n = 0; n <= this.mask; n++) {
+			long current = this.keys.get((start + n) & this.mask);
+			if (current == key || current == EMPTY || current == RESERVED)
+				return n + 1;
+		}
+		return this.mask + 1;
+	}
+
+	/**
+	 * Clears the run of tombstones ending at <paramref name="index"/> if an
+	 * empty slot follows. The empty slot is reserved while the tombstone in
+	 * front of it is cleared, so no insertion can claim it meanwhile.
+	 */
+	private void clear(int index) {
+		for (int n = 0; n <= this.mask; n++) {
+			int next = (index + 1) & this.mask;
+			if (!this.keys.compareAndSet(next, EMPTY, RESERVED))
+				return;
+			boolean cleared = this.keys.compareAndSet(index, TOMBSTONE, EMPTY);
+			this.keys.set(next, EMPTY);
+			if (!cleared)
+				return;
+			index = (index - 1) & this.mask;
+			if (this.keys.get(index) != TOMBSTONE)
+				return;
+		}
+	}
+
+	/**
+	 * Checks whether the probe sequence from <paramref name="start"/> to the
+	 * claimed slot <paramref name="index"/> is still free of empty slots. The
+	 * slots are checked backwards, a slot checked once cannot be cleared
+	 * afterwards as long as the claimed slot is occupied.
+	 */
+	private boolean verify(int start, int index) {
+		for (int i = index; i != start;) {
+			i = (i - 1) & this.mask;
+			long current = this.keys.get(i);
+			if (current == EMPTY || current == RESERVED)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gives up a claimed slot whose probe sequence was cleared concurrently,
+	 * the tombstone keeps the probe sequences passing the slot intact.
+	 */
+	private void release(int index) {
+		this.values.set(index, null);
+		this.keys.set(index, TOMBSTONE);
+	}
+
+	private boolean claim(int index, long expected, long key, V value) {
+		if (this.keys.compareAndSet(index, expected, key)) {
+			this.values.set(index, value);
+			return true;
+		}
+		return false;
+	}
+
+	private int index(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash >>> 32) & this.mask;
+	}
+
+	private static void checkKey(long key) {
+		if (key < 0 || key > MAX_KEY)
+			throw new IllegalArgumentException("Key " + key + " exceeds the range of message IDs");
+	}
+}
@@ -0,0 +1,80 @@
+package havis.middleware.reader.llrp.util;
+
+/**
+ * Interfaces of reactive streams with demand-driven backpressure. They
+ * correspond to those of java.util.concurrent.Flow of Java 9 and later, which
+ * is not available with the targeted Java release, so adapting them is a
+ * matter of delegation.
+ */
+public final class Flow {
+
+	private Flow() {
+	}
+
+	/**
+	 * Interface of a producer of items received by subscribers.
+	 *
+	 * @param <T>
+	 *            The type of the items
+	 */
+	public static interface Publisher<T> {
+		/**
+		 * Adds <paramref name="subscriber"/>, which is notified by <see
+		 * cref="Subscriber.onSubscribe"/> first.
+		 *
+		 * @param subscriber
+		 *            The subscriber
+		 */
+		void subscribe(Subscriber<? super T> subscriber);
+	}
+
+	/**
+	 * Interface of a receiver of items.
+	 *
+	 * @param <T>
+	 *            The type of the items
+	 */
+	public static interface Subscriber<T> {
+		/**
+		 * Called before any other method with the subscription requesting the
+		 * items.
+		 */
+		void onSubscribe(Subscription subscription);
+
+		/**
+		 * Called with the next item, never more often than requested.
+		 */
+		void onNext(T item);
+
+		/**
+		 * Called once if the subscription failed, no other method is called
+		 * afterwards.
+		 */
+		void onError(Throwable throwable);
+
+		/**
+		 * Called once if no more items are published, no other method is
+		 * called afterwards.
+		 */
+		void onComplete();
+	}
+
+	/**
+	 * Interface of the link between a publisher and a subscriber.
+	 */
+	public static interface Subscription {
+		/**
+		 * Adds <paramref name="n"/> items to the demand of the subscriber.
+		 *
+		 * @param n
+		 *            The number of items, a non-positive number fails the
+		 *            subscription
+		 */
+		void request(long n);
+
+		/**
+		 * Stops publishing items to the subscriber.
+		 */
+		void cancel();
+	}
+}
@@ -0,0 +1,363 @@
+package havis.middleware.reader.llrp.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class that represents a hashed timing wheel. Timeouts are hashed into the
+ * bucket of their deadline tick, a single worker thread advances the wheel
+ * tick by tick and runs the tasks of the expired timeouts. Scheduling and
+ * cancelling cost O(1) and no thread per timeout. The worker is started with
+ * the first timeout and parks while no timeout is pending.
+ *
+ * Tasks run on the worker thread and must not block.
+ */
+public class HashedWheelTimer {
+	private final static Logger log = Logger.getLogger(HashedWheelTimer.class.getName());
+
+	private final String name;
+	private final long tickNanos;
+	private final Bucket[] wheel;
+	private final int mask;
+
+	private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<Timeout>();
+	private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<Timeout>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicLong scheduledCount = new AtomicLong();
+	private final AtomicLong expiredCount = new AtomicLong();
+	private final AtomicLong cancelledCount = new AtomicLong();
+
+	// number of timeouts in the buckets, accessed by the worker only
+	private int wheelCount = 0;
+
+	private final Object startLock = new Object();
+	private volatile Thread worker;
+	private volatile boolean stopped = false;
+	private volatile boolean idle = false;
+	private volatile long startTime;
+
+	/**
+	 * Creates a new timer with a tick of one millisecond and 512 buckets.
+	 *
+	 * @param name
+	 *            The name of the worker thread
+	 */
+	public HashedWheelTimer(String name) {
+		this(name, 1, TimeUnit.MILLISECONDS, 512);
+	}
+
+	/**
+	 * Creates a new timer.
+	 *
+	 * @param name
+	 *            The name of the worker thread
+	 * @param tickDuration
+	 *            The duration of a tick, the granularity of the timer
+	 * @param unit
+	 *            The unit of <paramref name="tickDuration"/>
+	 * @param ticksPerWheel
+	 *            The number of buckets, rounded up to a power of two
+	 */
+	public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+		if (tickDuration <= 0)
+			throw new IllegalArgumentException("Invalid tick duration " + tickDuration);
+		if (ticksPerWheel < 1 || ticksPerWheel > 1 << 20)
+			throw new IllegalArgumentException("Invalid ticks per wheel " + ticksPerWheel);
+		int size = Integer.highestOneBit(ticksPerWheel);
+		if (size < ticksPerWheel)
+			size <<= 1;
+
+		this.name = name;
+		this.tickNanos = unit.toNanos(tickDuration);
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			this.wheel[i] = new Bucket();
+		}
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Schedules <paramref name="task"/> to run once after <paramref
+	 * name="delay"/>.
+	 *
+	 * @param task
+	 *            The task to run on expiration
+	 * @param delay
+	 *            The delay
+	 * @param unit
+	 *            The unit of <paramref name="delay"/>
+	 * @return The timeout which can be cancelled
+	 */
+	public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+		if (task == null)
+			throw new NullPointerException("task");
+		if (this.stopped)
+			throw new IllegalStateException("Timer stopped");
+		start();
+
+		Timeout timeout = new Timeout(this, task, System.nanoTime() - this.startTime + unit.toNanos(Math.max(0, delay)));
+		this.pending.incrementAndGet();
+		this.scheduledCount.incrementAndGet();
+		this.scheduled.add(timeout);
+		if (this.idle) {
+			LockSupport.unpark(this.worker);
+		}
+		return timeout;
+	}
+
+	/**
+	 * Stops the worker thread. Pending timeouts will not expire.
+	 */
+	public void stop() {
+		this.stopped = true;
+		Thread worker = this.worker;
+		if (worker != null) {
+			LockSupport.unpark(worker);
+		}
+	}
+
+	/**
+	 * @return the number of timeouts neither expired nor cancelled
+	 */
+	public int getPendingCount() {
+		return this.pending.get();
+	}
+
+	/**
+	 * @return the number of all scheduled timeouts
+	 */
+	public long getScheduledCount() {
+		return this.scheduledCount.get();
+	}
+
+	/**
+	 * @return the number of expired timeouts
+	 */
+	public long getExpiredCount() {
+		return this.expiredCount.get();
+	}
+
+	/**
+	 * @return the number of cancelled timeouts
+	 */
+	public long getCancelledCount() {
+		return this.cancelledCount.get();
+	}
+
+	private void start() {
+		if (this.worker == null) {
+			synchronized (this.startLock) {
+				if (this.worker == null) {
+					this.startTime = System.nanoTime();
+					Thread worker = new Thread(new Runnable() {
+						@Override
+						public void run() {
+							work();
+						}
+					}, this.name);
+					worker.setDaemon(true);
+					worker.start();
+					this.worker = worker;
+				}
+			}
+		}
+	}
+
+	private void work() {
+		long tick = 0;
+		while (!this.stopped) {
+			long now = waitForTick(tick);
+			if (now < 0)
+				break;
+			removeCancelled();
+			if (this.wheelCount == 0) {
+				// e.g. resumed from idle, no timeout refers to the skipped ticks
+				tick = Math.max(tick, now / this.tickNanos);
+			}
+			transferScheduled(tick);
+			this.wheelCount -= this.wheel[(int) (tick & this.mask)].expire(now);
+			tick++;
+		}
+	}
+
+	/**
+	 * Waits until the end of <paramref name="tick"/> or, while no timeout is
+	 * pending, until a timeout is scheduled.
+	 *
+	 * @return the current time relative to the start or -1 if stopped
+	 */
+	private long waitForTick(long tick) {
+		long deadline = (tick + 1) * this.tickNanos;
+		while (!this.stopped) {
+			if (this.pending.get() == 0 && this.cancelled.isEmpty()) {
+				this.idle = true;
+				if (this.pending.get() == 0) {
+					LockSupport.park(this);
+				}
+				this.idle = false;
+				continue;
+			}
+
+			long now = System.nanoTime() - this.startTime;
+			if (now >= deadline)
+				return now;
+			LockSupport.parkNanos(this, deadline - now);
+		}
+		return -1;
+	}
+
+	private void transferScheduled(long tick) {
+		Timeout timeout;
+		while ((timeout = this.scheduled.poll()) != null) {
+			if (timeout.state.get() != Timeout.INIT)
+				continue;
+			long deadlineTick = Math.max(tick, timeout.deadline / this.tickNanos);
+			timeout.rounds = (deadlineTick - tick) / this.wheel.length;
+			this.wheel[(int) (deadlineTick & this.mask)].add(timeout);
+			this.wheelCount++;
+		}
+	}
+
+	private void removeCancelled() {
+		Timeout timeout;
+		while ((timeout = this.cancelled.poll()) != null) {
+			if (timeout.bucket != null) {
+				timeout.bucket.remove(timeout);
+				this.wheelCount--;
+			}
+		}
+	}
+
+	/**
+	 * Class that represents a scheduled task.
+	 */
+	public static final class Timeout {
+		private static final int INIT = 0;
+		private static final int CANCELLED = 1;
+		private static final int EXPIRED = 2;
+
+		private final HashedWheelTimer timer;
+		private final Runnable task;
+		private final long deadline;
+		private final AtomicInteger state = new AtomicInteger(INIT);
+
+		// accessed by the worker only
+		private long rounds;
+		private Bucket bucket;
+		private Timeout next;
+		private Timeout prev;
+
+		private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+			this.timer = timer;
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Cancels the timeout, the task will not run.
+		 *
+		 * @return Indicator if the timeout was cancelled, false if it expired
+		 *         or was cancelled before
+		 */
+		public boolean cancel() {
+			if (!this.state.compareAndSet(INIT, CANCELLED))
+				return false;
+			this.timer.pending.decrementAndGet();
+			this.timer.cancelledCount.incrementAndGet();
+			this.timer.cancelled.add(this);
+			return true;
+		}
+
+		/**
+		 * @return Indicator if the timeout was cancelled
+		 */
+		public boolean isCancelled() {
+			return this.state.get() == CANCELLED;
+		}
+
+		/**
+		 * @return Indicator if the timeout expired
+		 */
+		public boolean isExpired() {
+			return this.state.get() == EXPIRED;
+		}
+
+		private void expire() {
+			if (!this.state.compareAndSet(INIT, EXPIRED))
+				return;
+			this.timer.pending.decrementAndGet();
+			this.timer.expiredCount.incrementAndGet();
+			try {
+				this.task.run();
+			} catch (Throwable t) {
+				log.log(Level.WARNING, "Timeout task failed", t);
+			}
+		}
+	}
+
+	/**
+	 * Class that represents the doubly linked list of timeouts within a tick,
+	 * accessed by the worker only.
+	 */
+	private static final class Bucket {
+		private Timeout head;
+		private Timeout tail;
+
+		private void add(Timeout timeout) {
+			timeout.bucket = this;
+			if (this.head == null) {
+				this.head = this.tail = timeout;
+			} else {
+				this.tail.next = timeout;
+				timeout.prev = this.tail;
+				this.tail = timeout;
+			}
+		}
+
+		/**
+		 * Expires the timeouts of the current round and removes cancelled
+		 * ones.
+		 *
+		 * @return the number of removed timeouts
+		 */
+		private int expire(long now) {
+			int removed = 0;
+			Timeout timeout = this.head;
+			while (timeout != null) {
+				Timeout next = timeout.next;
+				if (timeout.rounds <= 0 && timeout.deadline <= now) {
+					remove(timeout);
+					removed++;
+					timeout.expire();
+				} else if (timeout.isCancelled()) {
+					remove(timeout);
+					removed++;
+				} else {
+					timeout.rounds--;
+				}
+				timeout = next;
+			}
+			return removed;
+		}
+
+		private void remove(Timeout timeout) {
+			if (timeout.prev != null)
+				timeout.prev.next = timeout.next;
+			else
+				this.head = timeout.next;
+			if (timeout.next != null)
+				timeout.next.prev = timeout.prev;
+			else
+				this.tail = timeout.prev;
+			timeout.next = null;
+			timeout.prev = null;
+			timeout.bucket = null;
+		}
+	}
+}
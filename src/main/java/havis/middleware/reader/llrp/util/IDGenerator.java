@@ -1,13 +1,35 @@
-package havis.middleware.reader.llrp.util;
-
-public class IDGenerator {
-
-	private static long uniqueMessageID = 0;
-
-	private IDGenerator() {
-	}
-
-	public static synchronized long getUniqueMessageID() {
-		return ++uniqueMessageID;
-	}
+package havis.middleware.reader.llrp.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class that generates LLRP message IDs. Each instance is a lock-free counter
+ * which wraps within the unsigned 32-bit ID space, connections should use
+ * their own instance. The static method serves the IDs of a shared instance.
+ */
+public class IDGenerator {
+
+	private static final IDGenerator shared = new IDGenerator();
+
+	private final AtomicInteger counter = new AtomicInteger();
+
+	/**
+	 * Creates a new generator starting with ID 1.
+	 */
+	public IDGenerator() {
+	}
+
+	/**
+	 * @return the next message ID of the shared generator
+	 */
+	public static long getUniqueMessageID() {
+		return shared.nextID();
+	}
+
+	/**
+	 * @return the next message ID between 0 and 2^32-1
+	 */
+	public long nextID() {
+		return this.counter.incrementAndGet() & 0xFFFFFFFFL;
+	}
 }
\ No newline at end of file
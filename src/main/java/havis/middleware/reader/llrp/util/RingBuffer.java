@@ -0,0 +1,134 @@
+package havis.middleware.reader.llrp.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class that represents a bounded ring buffer for one producer and one
+ * consumer thread. The slots are preallocated, producer and consumer
+ * coordinate through their sequence numbers only. Each item gets the sequence
+ * number of its position, starting with zero. Items are removed by advancing
+ * the consumer sequence with compare-and-set, so the producer may remove the
+ * oldest item as well, e.g. to make room.
+ *
+ * @param <T>
+ *            The type of the items
+ */
+public class RingBuffer<T> {
+	private final Object[] slots;
+	private final int mask;
+
+	// sequence of the next item to consume
+	private final AtomicLong head = new AtomicLong();
+	// sequence of the next item to publish
+	private final AtomicLong tail = new AtomicLong();
+	// last head seen by the producer
+	private long cachedHead = 0;
+
+	/**
+	 * Creates a new ring buffer.
+	 *
+	 * @param capacity
+	 *            The minimum number of slots, rounded up to a power of two
+	 */
+	public RingBuffer(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("Invalid capacity " + capacity);
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		this.slots = new Object[size];
+		this.mask = size - 1;
+	}
+
+	/**
+	 * @return the number of slots
+	 */
+	public int getCapacity() {
+		return this.slots.length;
+	}
+
+	/**
+	 * Publishes <paramref name="item"/> if a slot is free. Must be called by
+	 * the producer only.
+	 *
+	 * @param item
+	 *            The item, not null
+	 * @return the sequence of the item or -1 if the buffer is full
+	 */
+	public long offer(T item) {
+		if (item == null)
+			throw new NullPointerException("item");
+		long sequence = this.tail.get();
+		if (sequence - this.cachedHead >= this.slots.length) {
+			this.cachedHead = this.head.get();
+			if (sequence - this.cachedHead >= this.slots.length)
+				return -1;
+		}
+		this.slots[(int) sequence & this.mask] = item;
+		this.tail.set(sequence + 1);
+		return sequence;
+	}
+
+	/**
+	 * Removes the next item.
+	 *
+	 * @return the item or null if the buffer is empty
+	 */
+	public T poll() {
+		while (true) {
+			long sequence = this.head.get();
+			if (sequence >= this.tail.get())
+				return null;
+			T item = poll(sequence);
+			if (item != null)
+				return item;
+		}
+	}
+
+	/**
+	 * Removes the item with <paramref name="sequence"/> if it is the next
+	 * item. The slot keeps its reference until it is reused.
+	 *
+	 * @param sequence
+	 *            The sequence of the next item, see
+	 *            {@link #getConsumedSequence()}
+	 * @return the item or null if the buffer is empty or the item was removed
+	 *         by another thread
+	 */
+	public T poll(long sequence) {
+		if (sequence >= this.tail.get())
+			return null;
+		@SuppressWarnings("unchecked")
+		T item = (T) this.slots[(int) sequence & this.mask];
+		// the item must be read before the slot can be reused
+		return this.head.compareAndSet(sequence, sequence + 1) ? item : null;
+	}
+
+	/**
+	 * @return the sequence of the next item to publish
+	 */
+	public long getPublishedSequence() {
+		return this.tail.get();
+	}
+
+	/**
+	 * @return the sequence of the next item to consume
+	 */
+	public long getConsumedSequence() {
+		return this.head.get();
+	}
+
+	/**
+	 * @return the number of items in the buffer
+	 */
+	public int size() {
+		return (int) (this.tail.get() - this.head.get());
+	}
+
+	/**
+	 * @return Indicator if the buffer is empty
+	 */
+	public boolean isEmpty() {
+		return this.head.get() >= this.tail.get();
+	}
+}
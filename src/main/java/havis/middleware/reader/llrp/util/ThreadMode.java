@@ -0,0 +1,17 @@
+package havis.middleware.reader.llrp.util;
+
+/**
+ * Enumeration of the kinds of threads running the receive loop and the event
+ * dispatch of a connection.
+ */
+public enum ThreadMode {
+	/**
+	 * Platform threads
+	 */
+	PLATFORM,
+	/**
+	 * Virtual threads if supported by the runtime, see <see
+	 * cref="Threads.isVirtualSupported()"/>, platform threads otherwise
+	 */
+	VIRTUAL
+}
@@ -0,0 +1,35 @@
+package havis.middleware.reader.llrp.util;
+
+/**
+ * Class that creates the threads of a <see cref="ThreadMode"/>. This version
+ * is used on runtimes without virtual threads and always creates platform
+ * threads, the JAR contains a version for Java 21 and later creating virtual
+ * threads.
+ */
+public final class Threads {
+
+	private Threads() {
+	}
+
+	/**
+	 * @return Indicator if the runtime supports virtual threads
+	 */
+	public static boolean isVirtualSupported() {
+		return false;
+	}
+
+	/**
+	 * Creates an unstarted thread.
+	 *
+	 * @param mode
+	 *            The kind of thread
+	 * @param name
+	 *            The name of the thread
+	 * @param task
+	 *            The task run by the thread
+	 * @return The thread
+	 */
+	public static Thread newThread(ThreadMode mode, String name, Runnable task) {
+		return new Thread(task, name);
+	}
+}
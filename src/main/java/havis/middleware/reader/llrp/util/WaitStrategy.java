@@ -0,0 +1,76 @@
+package havis.middleware.reader.llrp.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Enumeration that provides the strategies of a thread waiting for another
+ * thread without a lock, e.g. for the next event of a <see cref="RingBuffer"/>.
+ */
+public enum WaitStrategy {
+	/**
+	 * Spins on the processor, lowest latency at the cost of a busy core
+	 */
+	BUSY_SPIN,
+	/**
+	 * Spins shortly, then yields the processor to other threads
+	 */
+	YIELD,
+	/**
+	 * Spins and yields shortly, then parks until woken up by <see
+	 * cref="wakeUp"/>
+	 */
+	PARK;
+
+	private static final int SPIN_TRIES = 100;
+	private static final int YIELD_TRIES = 100;
+	private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/**
+	 * Waits once. The caller checks its condition again afterwards.
+	 *
+	 * @param counter
+	 *            The number of previous calls while the condition did not hold
+	 * @return the counter for the next call
+	 */
+	public int idle(int counter) {
+		switch (this) {
+		case YIELD:
+			if (counter >= SPIN_TRIES)
+				Thread.yield();
+			break;
+		case PARK:
+			if (counter >= SPIN_TRIES + YIELD_TRIES)
+				LockSupport.parkNanos(this, PARK_NANOS);
+			else if (counter >= SPIN_TRIES)
+				Thread.yield();
+			break;
+		default:
+			break;
+		}
+		return counter == Integer.MAX_VALUE ? counter : counter + 1;
+	}
+
+	/**
+	 * Indicates if the next call of {@link #idle(int)} with <paramref
+	 * name="counter"/> parks the thread, so that it needs to be woken up.
+	 *
+	 * @param counter
+	 *            The counter passed to the next call
+	 * @return Indicator if the thread parks
+	 */
+	public boolean parks(int counter) {
+		return this == PARK && counter >= SPIN_TRIES + YIELD_TRIES;
+	}
+
+	/**
+	 * Wakes up <paramref name="thread"/> parked by this strategy.
+	 *
+	 * @param thread
+	 *            The parked thread, might be null
+	 */
+	public void wakeUp(Thread thread) {
+		if (this == PARK && thread != null)
+			LockSupport.unpark(thread);
+	}
+}
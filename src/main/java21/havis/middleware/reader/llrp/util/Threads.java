@@ -0,0 +1,36 @@
+package havis.middleware.reader.llrp.util;
+
+/**
+ * Class that creates the threads of a <see cref="ThreadMode"/>. This version
+ * is used on Java 21 and later and creates virtual threads for <see
+ * cref="ThreadMode.VIRTUAL"/>.
+ */
+public final class Threads {
+
+	private Threads() {
+	}
+
+	/**
+	 * @return Indicator if the runtime supports virtual threads
+	 */
+	public static boolean isVirtualSupported() {
+		return true;
+	}
+
+	/**
+	 * Creates an unstarted thread.
+	 *
+	 * @param mode
+	 *            The kind of thread
+	 * @param name
+	 *            The name of the thread
+	 * @param task
+	 *            The task run by the thread
+	 * @return The thread
+	 */
+	public static Thread newThread(ThreadMode mode, String name, Runnable task) {
+		if (mode == ThreadMode.VIRTUAL)
+			return Thread.ofVirtual().name(name).unstarted(task);
+		return new Thread(task, name);
+	}
+}
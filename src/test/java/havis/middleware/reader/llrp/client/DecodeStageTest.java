@@ -0,0 +1,149 @@
+package havis.middleware.reader.llrp.client;
+
+import havis.llrpservice.data.message.Keepalive;
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.MessageHeader;
+import havis.llrpservice.data.message.ProtocolVersion;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DecodeStageTest {
+
+	private static class Recorder implements DecodeStage.Decoder {
+		private final List<Long> delivered = new ArrayList<Long>();
+		private final CountDownLatch done;
+		private volatile Thread deliverer;
+		private volatile boolean concurrent = false;
+
+		private Recorder(int count) {
+			this.done = new CountDownLatch(count);
+		}
+
+		@Override
+		public Message decode(ByteBuffer frame) throws Exception {
+			long id = frame.getInt(frame.position());
+			// every fourth frame completes after its successors
+			Thread.sleep(id % 4 == 0 ? 5 : 0);
+			if (id % 10 == 9)
+				throw new Exception("Frame " + id);
+			return new Keepalive(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, id));
+		}
+
+		@Override
+		public long contentKey(Message message, ByteBuffer frame) {
+			return message.getMessageHeader().getId();
+		}
+
+		@Override
+		public void deliver(Message message, long contentKey) {
+			enter();
+			Assert.assertEquals(message.getMessageHeader().getId(), contentKey);
+			record(contentKey);
+		}
+
+		@Override
+		public void failed(Exception cause) {
+			enter();
+			record(-Long.parseLong(cause.getMessage().substring(6)));
+		}
+
+		private void enter() {
+			if (this.deliverer != null)
+				this.concurrent = true;
+			this.deliverer = Thread.currentThread();
+		}
+
+		private void record(long value) {
+			synchronized (this.delivered) {
+				this.delivered.add(value);
+			}
+			this.deliverer = null;
+			this.done.countDown();
+		}
+	}
+
+	@Test
+	public void checkOrder() throws InterruptedException {
+		int count = 200;
+		Recorder recorder = new Recorder(count);
+		DecodeStage stage = new DecodeStage(recorder, 16);
+
+		ByteBuffer frame = ByteBuffer.allocate(4);
+		for (int i = 0; i < count; i++) {
+			frame.clear();
+			frame.putInt(0, i);
+			stage.submit(frame);
+			Assert.assertTrue(stage.getPending() <= 16);
+		}
+
+		Assert.assertTrue(recorder.done.await(10, TimeUnit.SECONDS));
+		Assert.assertFalse(recorder.concurrent);
+		Assert.assertEquals(0, stage.getPending());
+		synchronized (recorder.delivered) {
+			Assert.assertEquals(count, recorder.delivered.size());
+			for (int i = 0; i < count; i++) {
+				Assert.assertEquals(i % 10 == 9 ? -i : i, recorder.delivered.get(i).longValue());
+			}
+		}
+	}
+
+	@Test
+	public void checkBlockedDeliveryKeepsWorkers() throws InterruptedException {
+		// more blocked connections than decoding workers
+		int stages = Runtime.getRuntime().availableProcessors() + 1;
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch blocked = new CountDownLatch(stages);
+		DecodeStage.Decoder decoder = new DecodeStage.Decoder() {
+			@Override
+			public Message decode(ByteBuffer frame) throws Exception {
+				return new Keepalive(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 1));
+			}
+
+			@Override
+			public long contentKey(Message message, ByteBuffer frame) {
+				return 0;
+			}
+
+			@Override
+			public void deliver(Message message, long contentKey) {
+				blocked.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			@Override
+			public void failed(Exception cause) {
+			}
+		};
+
+		ByteBuffer frame = ByteBuffer.allocate(4);
+		try {
+			for (int i = 0; i < stages; i++) {
+				new DecodeStage(decoder, 4).submit(frame);
+			}
+			Assert.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+			// frames of other connections are still decoded and delivered
+			Recorder recorder = new Recorder(1);
+			new DecodeStage(recorder, 4).submit(frame);
+			Assert.assertTrue(recorder.done.await(5, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void checkInvalidCapacity() {
+		new DecodeStage(new Recorder(0), 0);
+	}
+}
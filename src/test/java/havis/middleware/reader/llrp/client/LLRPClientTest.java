@@ -1,196 +1,370 @@
-package havis.middleware.reader.llrp.client;
-
-import havis.llrpservice.data.message.GetSupportedVersion;
-import havis.llrpservice.data.message.Message;
-import havis.llrpservice.data.message.MessageHeader;
-import havis.llrpservice.data.message.MessageTypes.MessageType;
-import havis.llrpservice.data.message.ProtocolVersion;
-import havis.llrpservice.data.message.parameter.serializer.InvalidParameterTypeException;
-import havis.llrpservice.data.message.serializer.ByteBufferSerializer;
-import havis.llrpservice.data.message.serializer.InvalidMessageTypeException;
-import havis.llrpservice.data.message.serializer.InvalidProtocolVersionException;
-import havis.middleware.reader.llrp.connection.TCPConnection;
-import havis.middleware.reader.llrp.service.LLRPMessageHandler;
-
-import java.io.IOException;
-import java.nio.ByteBuffer;
-
-import mockit.Mocked;
-import mockit.NonStrictExpectations;
-import mockit.Verifications;
-
-import org.junit.Test;
-
-public class LLRPClientTest {
-	@Test
-	public void checkOpenConnectionNotifyResponse(final @Mocked LLRPConnection llrpConnection, final @Mocked Message message,
-			final @Mocked MessageHeader messageHeader, final @Mocked LLRPMessageHandler llrpMessageHandler, final @Mocked TCPConnection tcpConnection,
-			final @Mocked ByteBufferSerializer bufferSerializer) throws InterruptedException, InvalidProtocolVersionException, InvalidMessageTypeException,
-			IOException, InvalidParameterTypeException {
-
-		LLRPClient llrpClient = new LLRPClient(llrpMessageHandler);
-
-		new NonStrictExpectations() {
-			{
-				tcpConnection.isConnected();
-				result = true;
-
-				llrpConnection.getConnectionType();
-				result = LLRPConnectionType.TCP;
-
-				tcpConnection.openConnection();
-				result = true;
-
-				bufferSerializer.deserializeMessageHeader(null);
-
-				messageHeader.getMessageLength();
-				result = 11;
-
-				tcpConnection.retrieveMessage(11 - ByteBufferSerializer.MESSAGE_HEADER_LENGTH, anyInt);
-				result = ByteBuffer.allocate(11);
-
-				bufferSerializer.deserializeMessage(null, null);
-
-				result = message;
-
-				messageHeader.getMessageType();
-
-				result = MessageType.ERROR_MESSAGE;
-			}
-		};
-
-		llrpClient.openConnection(llrpConnection);
-
-		Thread.sleep(20);
-		llrpClient.closeConnection();
-
-		new Verifications() {
-			{
-				tcpConnection.retrieveMessage(11 - ByteBufferSerializer.MESSAGE_HEADER_LENGTH, anyInt);
-				minTimes = 1;
-
-				llrpMessageHandler.notifyResponse(message);
-				minTimes = 1;
-			}
-		};
-	}
-
-	@Test
-	public void checkOpenConnectionNotifyEvent(final @Mocked LLRPConnection llrpConnection, final @Mocked Message message,
-			final @Mocked MessageHeader messageHeader, final @Mocked LLRPMessageHandler llrpMessageHandler, final @Mocked TCPConnection tcpConnection,
-			final @Mocked ByteBufferSerializer bufferSerializer) throws InterruptedException, InvalidProtocolVersionException, InvalidMessageTypeException,
-			IOException, InvalidParameterTypeException {
-
-		LLRPClient llrpClient = new LLRPClient(llrpMessageHandler);
-
-		new NonStrictExpectations() {
-			{
-				tcpConnection.isConnected();
-				result = true;
-
-				llrpConnection.getConnectionType();
-				result = LLRPConnectionType.TCP;
-
-				tcpConnection.openConnection();
-				result = true;
-
-				bufferSerializer.deserializeMessageHeader(null);
-
-				messageHeader.getMessageLength();
-				result = 11;
-
-				tcpConnection.retrieveMessage(11 - ByteBufferSerializer.MESSAGE_HEADER_LENGTH, anyInt);
-
-				result = ByteBuffer.allocate(11);
-
-				bufferSerializer.deserializeMessage(null, null);
-
-				result = message;
-
-				messageHeader.getMessageType();
-
-				result = MessageType.KEEPALIVE;
-			}
-		};
-
-		llrpClient.openConnection(llrpConnection);
-
-		Thread.sleep(20);
-		llrpClient.closeConnection();
-
-		new Verifications() {
-			{
-				tcpConnection.retrieveMessage(11 - ByteBufferSerializer.MESSAGE_HEADER_LENGTH, anyInt);
-				minTimes = 1;
-
-				llrpMessageHandler.notifyEvent(message);
-				minTimes = 1;
-			}
-		};
-
-		llrpClient.dispose();
-	}
-
-	@Test
-	public void checkOpenConnectionExceptionThrown(final @Mocked LLRPConnection llrpConnection, final @Mocked Message message,
-			final @Mocked MessageHeader messageHeader, final @Mocked LLRPMessageHandler llrpMessageHandler, final @Mocked TCPConnection tcpConnection,
-			final @Mocked ByteBufferSerializer bufferSerializer) throws InterruptedException, InvalidProtocolVersionException, InvalidMessageTypeException,
-			IOException, InvalidParameterTypeException {
-
-		LLRPClient llrpClient = new LLRPClient(llrpMessageHandler);
-
-		new NonStrictExpectations() {
-			{
-				tcpConnection.isConnected();
-				result = true;
-
-				llrpConnection.getConnectionType();
-				result = LLRPConnectionType.TCP;
-
-				tcpConnection.openConnection();
-				result = true;
-
-				bufferSerializer.deserializeMessageHeader(null);
-
-				messageHeader.getMessageLength();
-				result = 11;
-
-				tcpConnection.retrieveMessage(11 - ByteBufferSerializer.MESSAGE_HEADER_LENGTH, anyInt);
-
-				result = new Exception("This is a test!");
-			}
-		};
-
-		llrpClient.openConnection(llrpConnection);
-
-		Thread.sleep(50);
-		llrpClient.closeConnection();
-
-		new Verifications() {
-			{
-				llrpMessageHandler.notifyNoDataReceived();
-				times = 1;
-			}
-		};
-
-		llrpClient.dispose();
-	}
-
-	@Test
-	public void checkSendMessage(final @Mocked TCPConnection tcpConnection, final @Mocked LLRPMessageHandler llrpMessageHandler, final @Mocked ByteBufferSerializer serializer) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
-		LLRPClient llrpClient = new LLRPClient(llrpMessageHandler);
-
-		MessageHeader header = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 7654);
-		final GetSupportedVersion message = new GetSupportedVersion(header);
-		llrpClient.connection = tcpConnection;
-
-		llrpClient.sendMessage(message);
-
-		new Verifications() {
-			{
-				tcpConnection.sendMessage(this.<ByteBuffer>withNotNull());
-				minTimes = 1;
-			}
-		};
-	}
+package havis.middleware.reader.llrp.client;
+
+import havis.llrpservice.data.message.GetSupportedVersion;
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.MessageHeader;
+import havis.llrpservice.data.message.MessageTypes.MessageType;
+import havis.llrpservice.data.message.ProtocolVersion;
+import havis.llrpservice.data.message.parameter.serializer.InvalidParameterTypeException;
+import havis.llrpservice.data.message.serializer.ByteBufferSerializer;
+import havis.llrpservice.data.message.serializer.InvalidMessageTypeException;
+import havis.llrpservice.data.message.serializer.InvalidProtocolVersionException;
+import havis.middleware.ale.base.exception.ValidationException;
+import havis.middleware.ale.reader.Property.Connector;
+import havis.middleware.reader.llrp.connection.LLRPFrameDecoder;
+import havis.middleware.reader.llrp.connection.TCPConnection;
+import havis.middleware.reader.llrp.service.LLRPMessageHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import mockit.Delegate;
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+import mockit.Verifications;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LLRPClientTest {
+	private static final byte[] FRAME = new byte[] { 0x04, 0x64, 0, 0, 0, 11, 0, 0, 0, 1, 0 };
+
+	private static Delegate<Integer> retrieveFrame() {
+		return new Delegate<Integer>() {
+			@SuppressWarnings("unused")
+			int retrieveFrames(LLRPFrameDecoder decoder, int timeout) throws IOException {
+				return decoder.read(Channels.newChannel(new ByteArrayInputStream(FRAME)));
+			}
+		};
+	}
+
+	@Test
+	public void checkOpenConnectionNotifyResponse(final @Mocked LLRPConnection llrpConnection, final @Mocked Message message,
+			final @Mocked MessageHeader messageHeader, final @Mocked LLRPMessageHandler llrpMessageHandler, final @Mocked TCPConnection tcpConnection,
+			final @Mocked ByteBufferSerializer bufferSerializer) throws InterruptedException, InvalidProtocolVersionException, InvalidMessageTypeException,
+			IOException, InvalidParameterTypeException {
+
+		LLRPClient llrpClient = new LLRPClient(llrpMessageHandler);
+
+		new NonStrictExpectations() {
+			{
+				tcpConnection.isConnected();
+				result = true;
+
+				llrpConnection.getConnectionType();
+				result = LLRPConnectionType.TCP;
+
+				tcpConnection.openConnection();
+				result = true;
+
+				bufferSerializer.deserializeMessageHeader(null);
+
+				tcpConnection.retrieveFrames((LLRPFrameDecoder) any, anyInt);
+				result = retrieveFrame();
+
+				bufferSerializer.deserializeMessage(null, null);
+
+				result = message;
+
+				messageHeader.getMessageType();
+
+				result = MessageType.ERROR_MESSAGE;
+
+				llrpMessageHandler.isConsumed((MessageType) any, anyLong);
+				result = true;
+			}
+		};
+
+		llrpClient.openConnection(llrpConnection);
+
+		Thread.sleep(20);
+		llrpClient.closeConnection();
+
+		new Verifications() {
+			{
+				tcpConnection.retrieveFrames((LLRPFrameDecoder) any, anyInt);
+				minTimes = 1;
+
+				llrpMessageHandler.notifyResponse(message);
+				minTimes = 1;
+			}
+		};
+	}
+
+	@Test
+	public void checkOpenConnectionNotifyEvent(final @Mocked LLRPConnection llrpConnection, final @Mocked Message message,
+			final @Mocked MessageHeader messageHeader, final @Mocked LLRPMessageHandler llrpMessageHandler, final @Mocked TCPConnection tcpConnection,
+			final @Mocked ByteBufferSerializer bufferSerializer) throws InterruptedException, InvalidProtocolVersionException, InvalidMessageTypeException,
+			IOException, InvalidParameterTypeException {
+
+		LLRPClient llrpClient = new LLRPClient(llrpMessageHandler);
+
+		new NonStrictExpectations() {
+			{
+				tcpConnection.isConnected();
+				result = true;
+
+				llrpConnection.getConnectionType();
+				result = LLRPConnectionType.TCP;
+
+				tcpConnection.openConnection();
+				result = true;
+
+				bufferSerializer.deserializeMessageHeader(null);
+
+				tcpConnection.retrieveFrames((LLRPFrameDecoder) any, anyInt);
+				result = retrieveFrame();
+
+				bufferSerializer.deserializeMessage(null, null);
+
+				result = message;
+
+				messageHeader.getMessageType();
+
+				result = MessageType.KEEPALIVE;
+
+				llrpMessageHandler.isConsumed((MessageType) any, anyLong);
+				result = true;
+			}
+		};
+
+		llrpClient.openConnection(llrpConnection);
+
+		Thread.sleep(20);
+		llrpClient.closeConnection();
+
+		new Verifications() {
+			{
+				tcpConnection.retrieveFrames((LLRPFrameDecoder) any, anyInt);
+				minTimes = 1;
+
+				llrpMessageHandler.notifyEvent(message, anyLong);
+				minTimes = 1;
+			}
+		};
+
+		llrpClient.dispose();
+	}
+
+	@Test
+	public void checkOpenConnectionExceptionThrown(final @Mocked LLRPConnection llrpConnection, final @Mocked Message message,
+			final @Mocked MessageHeader messageHeader, final @Mocked LLRPMessageHandler llrpMessageHandler, final @Mocked TCPConnection tcpConnection,
+			final @Mocked ByteBufferSerializer bufferSerializer) throws InterruptedException, InvalidProtocolVersionException, InvalidMessageTypeException,
+			IOException, InvalidParameterTypeException {
+
+		LLRPClient llrpClient = new LLRPClient(llrpMessageHandler);
+
+		new NonStrictExpectations() {
+			{
+				tcpConnection.isConnected();
+				result = true;
+
+				llrpConnection.getConnectionType();
+				result = LLRPConnectionType.TCP;
+
+				tcpConnection.openConnection();
+				result = true;
+
+				bufferSerializer.deserializeMessageHeader(null);
+
+				tcpConnection.retrieveFrames((LLRPFrameDecoder) any, anyInt);
+				result = new Exception("This is a test!");
+			}
+		};
+
+		llrpClient.openConnection(llrpConnection);
+
+		Thread.sleep(50);
+		llrpClient.closeConnection();
+
+		new Verifications() {
+			{
+				llrpMessageHandler.notifyNoDataReceived();
+				times = 1;
+			}
+		};
+
+		llrpClient.dispose();
+	}
+
+	@Test
+	public void checkSendMessage(final @Mocked TCPConnection tcpConnection, final @Mocked LLRPMessageHandler llrpMessageHandler, final @Mocked ByteBufferSerializer serializer) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
+		LLRPClient llrpClient = new LLRPClient(llrpMessageHandler);
+
+		MessageHeader header = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 7654);
+		final GetSupportedVersion message = new GetSupportedVersion(header);
+		llrpClient.connection = tcpConnection;
+
+		llrpClient.sendMessage(message);
+
+		new Verifications() {
+			{
+				tcpConnection.sendMessage(this.<ByteBuffer>withNotNull());
+				minTimes = 1;
+			}
+		};
+	}
+
+	@Test
+	public void checkNotificationKey() {
+		// ReaderEventNotificationData with UTCTimestamp and AntennaEvent
+		byte[] first = new byte[] { 0x00, (byte) 0xF6, 0x00, 0x19, 0x00, (byte) 0x80, 0x00, 0x0C, 0, 0, 0, 0, 0, 0, 0, 1, 0x00, (byte) 0xFF,
+				0x00, 0x09, 0x01, 0x00, 0x01, 0x00, 0x00 };
+		byte[] second = first.clone();
+		second[15] = 2;
+		byte[] third = first.clone();
+		third[22] = 2;
+
+		long key = LLRPClient.notificationKey(ByteBuffer.wrap(first));
+		Assert.assertEquals(key, LLRPClient.notificationKey(ByteBuffer.wrap(second)));
+		Assert.assertFalse(key == LLRPClient.notificationKey(ByteBuffer.wrap(third)));
+		Assert.assertFalse(key == 0);
+	}
+
+	@Test
+	public void checkKeepaliveAck() {
+		// KEEPALIVE of version 1 with message ID 0x01020304
+		byte[] keepalive = new byte[] { 0x04, 0x3E, 0x00, 0x00, 0x00, 0x0A, 0x01, 0x02, 0x03, 0x04 };
+		ByteBuffer ack = ByteBuffer.allocate(10);
+
+		LLRPClient.putKeepaliveAck(ByteBuffer.wrap(keepalive), ack);
+		Assert.assertEquals(10, ack.position());
+		Assert.assertArrayEquals(new byte[] { 0x04, 0x48, 0x00, 0x00, 0x00, 0x0A, 0x01, 0x02, 0x03, 0x04 }, ack.array());
+	}
+
+	@Test
+	public void checkKeepaliveAckSent() throws Exception {
+		try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			LLRPClient llrpClient = new LLRPClient(null);
+			llrpClient.setKeepaliveAutoAck(true);
+			Assert.assertTrue(llrpClient.openConnection(connection(server)));
+			try (Socket peer = server.accept()) {
+				peer.setSoTimeout(1000);
+				// KEEPALIVE of version 1 with message ID 0x01020304
+				peer.getOutputStream().write(new byte[] { 0x04, 0x3E, 0x00, 0x00, 0x00, 0x0A, 0x01, 0x02, 0x03, 0x04 });
+
+				Assert.assertArrayEquals(new byte[] { 0x04, 0x48, 0x00, 0x00, 0x00, 0x0A, 0x01, 0x02, 0x03, 0x04 }, receive(peer, 10));
+			} finally {
+				llrpClient.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void checkTemplateSent() throws Exception {
+		// GET_SUPPORTED_VERSION of version 1
+		MessageTemplate template = new MessageTemplate(new byte[] { 0x04, 0x2E, 0x00, 0x00, 0x00, 0x0A, 0x00, 0x00, 0x00, 0x00 });
+		try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			LLRPClient llrpClient = new LLRPClient(null);
+			Assert.assertTrue(llrpClient.openConnection(connection(server)));
+			try (Socket peer = server.accept()) {
+				peer.setSoTimeout(1000);
+				llrpClient.sendTemplateAsync(template, 0x01020304).get(1, TimeUnit.SECONDS);
+				llrpClient.sendTemplateAsync(template, 0x05060708).get(1, TimeUnit.SECONDS);
+
+				Assert.assertArrayEquals(new byte[] { 0x04, 0x2E, 0x00, 0x00, 0x00, 0x0A, 0x01, 0x02, 0x03, 0x04, 0x04, 0x2E, 0x00, 0x00, 0x00, 0x0A,
+						0x05, 0x06, 0x07, 0x08 }, receive(peer, 20));
+			} finally {
+				llrpClient.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void checkGetReportSent() throws Exception {
+		try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			LLRPClient llrpClient = new LLRPClient(null);
+			Assert.assertTrue(llrpClient.openConnection(connection(server)));
+			try (Socket peer = server.accept()) {
+				peer.setSoTimeout(1000);
+				llrpClient.sendGetReport().get(1, TimeUnit.SECONDS);
+
+				byte[] request = receive(peer, 10);
+				// GET_REPORT of version 2 until a message was received
+				Assert.assertEquals(0x08, request[0]);
+				Assert.assertEquals(0x3C, request[1]);
+				Assert.assertEquals(10, ByteBuffer.wrap(request).getInt(2));
+			} finally {
+				llrpClient.dispose();
+			}
+		}
+	}
+
+	private static LLRPConnection connection(ServerSocket server) throws ValidationException {
+		Map<String, String> properties = new HashMap<>();
+		properties.put(Connector.Host, "127.0.0.1");
+		properties.put(Connector.Port, Integer.toString(server.getLocalPort()));
+		properties.put(Connector.Timeout, "1000");
+		return LLRPConnection.validateConnectorProperties(properties);
+	}
+
+	private static byte[] receive(Socket peer, int length) throws IOException {
+		byte[] data = new byte[length];
+		new DataInputStream(peer.getInputStream()).readFully(data);
+		return data;
+	}
+
+	@Test
+	public void checkGetReport() {
+		ByteBuffer request = ByteBuffer.allocate(10);
+
+		LLRPClient.putGetReport((byte) 0x08, 0xFFFFFFFEL, request);
+		Assert.assertEquals(10, request.position());
+		Assert.assertArrayEquals(new byte[] { 0x08, 0x3C, 0x00, 0x00, 0x00, 0x0A, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFE }, request.array());
+	}
+
+	@Test
+	public void checkSkipUnconsumed(final @Mocked LLRPConnection llrpConnection, final @Mocked LLRPMessageHandler llrpMessageHandler,
+			final @Mocked TCPConnection tcpConnection, final @Mocked ByteBufferSerializer bufferSerializer) throws Exception {
+
+		LLRPClient llrpClient = new LLRPClient(llrpMessageHandler);
+
+		new NonStrictExpectations() {
+			{
+				tcpConnection.isConnected();
+				result = true;
+
+				llrpConnection.getConnectionType();
+				result = LLRPConnectionType.TCP;
+
+				tcpConnection.openConnection();
+				result = true;
+
+				tcpConnection.retrieveFrames((LLRPFrameDecoder) any, anyInt);
+				result = retrieveFrame();
+
+				llrpMessageHandler.isConsumed(MessageType.ERROR_MESSAGE, 1);
+				result = false;
+			}
+		};
+
+		llrpClient.openConnection(llrpConnection);
+
+		Thread.sleep(20);
+		llrpClient.closeConnection();
+
+		new Verifications() {
+			{
+				llrpMessageHandler.isConsumed(MessageType.ERROR_MESSAGE, 1);
+				minTimes = 1;
+
+				bufferSerializer.deserializeMessage((MessageHeader) any, (ByteBuffer) any);
+				times = 0;
+
+				llrpMessageHandler.notifyResponse((Message) any);
+				times = 0;
+			}
+		};
+
+		llrpClient.dispose();
+	}
 }
\ No newline at end of file
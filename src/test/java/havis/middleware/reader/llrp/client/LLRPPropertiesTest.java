@@ -1,26 +1,45 @@
-package havis.middleware.reader.llrp.client;
-
-import org.junit.Assert;
-import org.junit.Test;
-
-public class LLRPPropertiesTest {
-	@Test
-	public  void checkLLRPProperties() {
-		LLRPProperties llrpProperties = new LLRPProperties();
-		
-		llrpProperties.setInventoryAttempts(2000);
-		llrpProperties.setKeepalive(60000);
-		
-		Assert.assertEquals(2000, llrpProperties.getInventoryAttempts());
-		Assert.assertEquals(60000, llrpProperties.getKeepalive());
-	}
-	
-	@Test
-	public  void checkLLRPPropertyName() {
-		String inventoryAttempts = LLRPProperties.PropertyName.InventoryAttempts;
-		String keepalive = LLRPProperties.PropertyName.Keepalive;
-		
-		Assert.assertEquals(LLRPProperties.PropertyName.InventoryAttempts, inventoryAttempts);
-		Assert.assertEquals(LLRPProperties.PropertyName.Keepalive, keepalive);
-	}
-}
+package havis.middleware.reader.llrp.client;
+
+import havis.middleware.reader.llrp.util.ThreadMode;
+import havis.middleware.reader.llrp.util.WaitStrategy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LLRPPropertiesTest {
+	@Test
+	public  void checkLLRPProperties() {
+		LLRPProperties llrpProperties = new LLRPProperties();
+		
+		llrpProperties.setInventoryAttempts(2000);
+		llrpProperties.setKeepalive(60000);
+		llrpProperties.setMaxPendingRequests(4);
+		llrpProperties.setEventQueueCapacity(256);
+		llrpProperties.setEventWaitStrategy(WaitStrategy.BUSY_SPIN);
+		llrpProperties.setKeepaliveAutoAck(true);
+		llrpProperties.setThreadMode(ThreadMode.VIRTUAL);
+		llrpProperties.setReplayCapacity(100);
+		llrpProperties.setReplayMaxAge(60000);
+		llrpProperties.setParallelDecoding(true);
+		
+		Assert.assertEquals(2000, llrpProperties.getInventoryAttempts());
+		Assert.assertEquals(60000, llrpProperties.getKeepalive());
+		Assert.assertEquals(4, llrpProperties.getMaxPendingRequests());
+		Assert.assertEquals(256, llrpProperties.getEventQueueCapacity());
+		Assert.assertEquals(WaitStrategy.BUSY_SPIN, llrpProperties.getEventWaitStrategy());
+		Assert.assertTrue(llrpProperties.isKeepaliveAutoAck());
+		Assert.assertEquals(ThreadMode.VIRTUAL, llrpProperties.getThreadMode());
+		Assert.assertEquals(100, llrpProperties.getReplayCapacity());
+		Assert.assertEquals(60000, llrpProperties.getReplayMaxAge());
+		Assert.assertTrue(llrpProperties.isParallelDecoding());
+	}
+	
+	@Test
+	public  void checkLLRPPropertyName() {
+		String inventoryAttempts = LLRPProperties.PropertyName.InventoryAttempts;
+		String keepalive = LLRPProperties.PropertyName.Keepalive;
+		
+		Assert.assertEquals(LLRPProperties.PropertyName.InventoryAttempts, inventoryAttempts);
+		Assert.assertEquals(LLRPProperties.PropertyName.Keepalive, keepalive);
+	}
+}
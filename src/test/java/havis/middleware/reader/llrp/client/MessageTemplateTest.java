@@ -0,0 +1,51 @@
+package havis.middleware.reader.llrp.client;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MessageTemplateTest {
+
+	// START_ROSPEC of version 1 with ROSpecID 5 and message ID 1
+	private static final byte[] START_ROSPEC = new byte[] { 0x04, 0x16, 0x00, 0x00, 0x00, 0x0E, 0x00, 0x00, 0x00, 0x01, 0x00, 0x00, 0x00, 0x05 };
+
+	@Test
+	public void checkPut() {
+		MessageTemplate template = new MessageTemplate(START_ROSPEC);
+		Assert.assertEquals(14, template.getLength());
+		Assert.assertEquals(22, template.getMessageType());
+
+		ByteBuffer buffer = ByteBuffer.allocate(30);
+		buffer.position(2);
+		template.put(buffer, 0x0A0B0C0DL);
+		Assert.assertEquals(16, buffer.position());
+		Assert.assertEquals(0x0416, buffer.getShort(2));
+		Assert.assertEquals(14, buffer.getInt(4));
+		Assert.assertEquals(0x0A0B0C0D, buffer.getInt(8));
+		Assert.assertEquals(5, buffer.getInt(12));
+
+		// the template is not changed by sending
+		template.put(buffer, 0xFFFFFFFFL);
+		Assert.assertEquals(0xFFFFFFFF, buffer.getInt(22));
+		Assert.assertEquals(0x0A0B0C0D, buffer.getInt(8));
+		Assert.assertEquals(1, START_ROSPEC[9]);
+	}
+
+	@Test
+	public void checkPutVersion() {
+		MessageTemplate template = new MessageTemplate(START_ROSPEC);
+		ByteBuffer buffer = ByteBuffer.allocate(14);
+
+		// version 2, message type bits are kept
+		template.put(buffer, (byte) 0x0B, 7);
+		Assert.assertEquals(0x08, buffer.get(0));
+		Assert.assertEquals(0x16, buffer.get(1));
+		Assert.assertEquals(7, buffer.getInt(6));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void checkInvalidLength() {
+		new MessageTemplate(new byte[] { 0x04, 0x16, 0x00 });
+	}
+}
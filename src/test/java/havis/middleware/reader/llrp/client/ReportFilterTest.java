@@ -0,0 +1,93 @@
+package havis.middleware.reader.llrp.client;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReportFilterTest {
+
+	// TagReportData body with EPC-96, ROSpecID 5, AntennaID 2 and
+	// AccessSpecID 7
+	private static final byte[] EPC_96 = new byte[] { (byte) 0x8D, 0x30, 0x08, 0x33, (byte) 0xB2, (byte) 0xDD, (byte) 0xD9, 0x01, 0x40, 0x00, 0x00, 0x00,
+			0x01, (byte) 0x89, 0x00, 0x00, 0x00, 0x05, (byte) 0x81, 0x00, 0x02, (byte) 0x90, 0x00, 0x00, 0x00, 0x07 };
+
+	// TagReportData body with a 32 bit EPCData, AntennaID 1 and an unknown
+	// TLV parameter
+	private static final byte[] EPC_DATA = new byte[] { 0x00, (byte) 0xF1, 0x00, 0x0A, 0x00, 0x20, (byte) 0xE2, 0x00, 0x12, 0x34, (byte) 0x81, 0x00, 0x01,
+			0x01, 0x4A, 0x00, 0x05, 0x00 };
+
+	@Test
+	public void checkFields() {
+		TagReportCursor tag = new TagReportCursor();
+
+		Assert.assertTrue(tag.read(ByteBuffer.wrap(EPC_96), 0, EPC_96.length));
+		Assert.assertEquals(5, tag.roSpecID);
+		Assert.assertEquals(7, tag.accessSpecID);
+		Assert.assertEquals(2, tag.antennaID);
+		Assert.assertEquals(1, tag.epcOffset);
+		Assert.assertEquals(12, tag.epcLength);
+
+		Assert.assertTrue(tag.read(ByteBuffer.wrap(EPC_DATA), 0, EPC_DATA.length));
+		Assert.assertEquals(-1, tag.roSpecID);
+		Assert.assertEquals(-1, tag.accessSpecID);
+		Assert.assertEquals(1, tag.antennaID);
+		Assert.assertEquals(6, tag.epcOffset);
+		Assert.assertEquals(4, tag.epcLength);
+
+		Assert.assertFalse(tag.read(ByteBuffer.wrap(EPC_96), 0, EPC_96.length - 1));
+		Assert.assertFalse(tag.read(ByteBuffer.wrap(new byte[] { (byte) 0xFF, 0x00 }), 0, 2));
+	}
+
+	@Test
+	public void checkMatches() {
+		TagReportCursor tag = new TagReportCursor();
+		ByteBuffer buffer = ByteBuffer.wrap(EPC_96);
+		tag.read(buffer, 0, EPC_96.length);
+
+		ReportFilter filter = new ReportFilter();
+		Assert.assertTrue(filter.matches(tag, buffer));
+
+		filter.setRoSpecID(5);
+		filter.setAccessSpecID(7);
+		filter.setAntennaID(2);
+		Assert.assertTrue(filter.matches(tag, buffer));
+
+		filter.setAntennaID(1);
+		Assert.assertFalse(filter.matches(tag, buffer));
+		filter.setAntennaID(-1);
+
+		filter.setRoSpecID(6);
+		Assert.assertFalse(filter.matches(tag, buffer));
+		filter.setRoSpecID(-1);
+
+		filter.setAccessSpecID(8);
+		Assert.assertFalse(filter.matches(tag, buffer));
+		filter.setAccessSpecID(-1);
+
+		// EPC header 0x30 and filter value 0x08 in the upper nibble
+		filter.setEpc(new byte[] { 0x30, 0x00 }, new byte[] { (byte) 0xFF, (byte) 0xF0 });
+		Assert.assertTrue(filter.matches(tag, buffer));
+		filter.setEpc(new byte[] { 0x30, 0x10 }, new byte[] { (byte) 0xFF, (byte) 0xF0 });
+		Assert.assertFalse(filter.matches(tag, buffer));
+		filter.setEpc(new byte[] { 0x30, 0x08 }, null);
+		Assert.assertTrue(filter.matches(tag, buffer));
+
+		// the EPC is shorter than the filter value
+		buffer = ByteBuffer.wrap(EPC_DATA);
+		tag.read(buffer, 0, EPC_DATA.length);
+		filter.setEpc(new byte[] { (byte) 0xE2, 0x00, 0x12, 0x34, 0x00 }, null);
+		Assert.assertFalse(filter.matches(tag, buffer));
+		filter.setEpc(new byte[] { (byte) 0xE2 }, null);
+		Assert.assertTrue(filter.matches(tag, buffer));
+
+		// the reader does not report the ROSpecID
+		filter.setRoSpecID(5);
+		Assert.assertFalse(filter.matches(tag, buffer));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void checkInvalidEpcMask() {
+		new ReportFilter().setEpc(new byte[] { 0x30 }, new byte[] { 0x01, 0x02 });
+	}
+}
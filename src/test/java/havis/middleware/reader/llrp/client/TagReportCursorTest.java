@@ -0,0 +1,83 @@
+package havis.middleware.reader.llrp.client;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TagReportCursorTest {
+
+	// RO_ACCESS_REPORT with a TagReportData of EPC-96, PeakRSSI -60,
+	// ChannelIndex 3 and FirstSeenTimestampUTC 0x0102030405060708, an unknown
+	// parameter and a TagReportData of a 16 bit EPCData, AntennaID 4,
+	// TagSeenCount 2 and LastSeenTimestampUptime 9
+	private static final byte[] REPORT = new byte[] { 0x04, 0x3D, 0x00, 0x00, 0x00, 0x49, 0x00, 0x00, 0x00, 0x01,
+			// TagReportData
+			0x00, (byte) 0xF0, 0x00, 0x1F, (byte) 0x8D, 0x30, 0x08, 0x33, (byte) 0xB2, (byte) 0xDD, (byte) 0xD9, 0x01, 0x40, 0x00, 0x00, 0x00, 0x01,
+			(byte) 0x86, (byte) 0xC4, (byte) 0x87, 0x00, 0x03, (byte) 0x82, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08,
+			// unknown parameter
+			0x00, (byte) 0xFF, 0x00, 0x05, 0x00,
+			// TagReportData
+			0x00, (byte) 0xF0, 0x00, 0x1B, 0x00, (byte) 0xF1, 0x00, 0x08, 0x00, 0x10, (byte) 0xAB, (byte) 0xCD, (byte) 0x81, 0x00, 0x04, (byte) 0x88,
+			0x00, 0x02, (byte) 0x85, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x09 };
+
+	@Test
+	public void checkCursor() {
+		Assert.assertEquals(REPORT.length, REPORT[5]);
+		TagReportCursor cursor = new TagReportCursor();
+		cursor.reset(ByteBuffer.wrap(REPORT));
+
+		Assert.assertTrue(cursor.next());
+		Assert.assertEquals(12, cursor.getEpcLength());
+		Assert.assertEquals(0x30, cursor.getEpcByte(0));
+		Assert.assertEquals(0x01, cursor.getEpcByte(11));
+		byte[] epc = new byte[14];
+		Assert.assertEquals(12, cursor.getEpc(epc, 2));
+		Assert.assertEquals(0x30, epc[2]);
+		Assert.assertEquals(0x01, epc[13]);
+		Assert.assertEquals(-60, cursor.getPeakRSSI());
+		Assert.assertEquals(3, cursor.getChannelIndex());
+		Assert.assertEquals(0x0102030405060708L, cursor.getFirstSeenTimestamp());
+		Assert.assertFalse(cursor.isFirstSeenUptime());
+		Assert.assertEquals(-1, cursor.getLastSeenTimestamp());
+		Assert.assertEquals(-1, cursor.getAntennaID());
+		Assert.assertEquals(-1, cursor.getRoSpecID());
+
+		Assert.assertTrue(cursor.next());
+		Assert.assertEquals(2, cursor.getEpcLength());
+		Assert.assertEquals((byte) 0xAB, cursor.getEpcByte(0));
+		Assert.assertEquals(4, cursor.getAntennaID());
+		Assert.assertEquals(2, cursor.getTagSeenCount());
+		Assert.assertEquals(9, cursor.getLastSeenTimestamp());
+		Assert.assertTrue(cursor.isLastSeenUptime());
+		Assert.assertEquals(TagReportCursor.NO_RSSI, cursor.getPeakRSSI());
+		Assert.assertEquals(-1, cursor.getFirstSeenTimestamp());
+
+		Assert.assertFalse(cursor.next());
+		Assert.assertFalse(cursor.next());
+
+		// the cursor is reused for the next report
+		cursor.reset(ByteBuffer.wrap(REPORT));
+		Assert.assertTrue(cursor.next());
+		Assert.assertEquals(12, cursor.getEpcLength());
+	}
+
+	@Test
+	public void checkTruncated() {
+		ByteBuffer buffer = ByteBuffer.wrap(REPORT);
+		buffer.limit(REPORT.length - 1);
+		TagReportCursor cursor = new TagReportCursor();
+		cursor.reset(buffer);
+
+		Assert.assertTrue(cursor.next());
+		Assert.assertFalse(cursor.next());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void checkEpcIndex() {
+		TagReportCursor cursor = new TagReportCursor();
+		cursor.reset(ByteBuffer.wrap(REPORT));
+		cursor.next();
+		cursor.getEpcByte(12);
+	}
+}
@@ -0,0 +1,113 @@
+package havis.middleware.reader.llrp.connection;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LLRPFrameDecoderTest {
+
+	private final List<ByteBuffer> frames = new ArrayList<>();
+
+	private final FrameHandler handler = new FrameHandler() {
+		@Override
+		public void frameReceived(ByteBuffer frame) {
+			ByteBuffer copy = ByteBuffer.allocate(frame.remaining());
+			copy.put(frame);
+			copy.flip();
+			frames.add(copy);
+		}
+
+		@Override
+		public void receiveFailed(IOException cause) {
+		}
+	};
+
+	private static byte[] frame(int id, int bodyLength) {
+		ByteBuffer data = ByteBuffer.allocate(LLRPFrameDecoder.HEADER_LENGTH + bodyLength);
+		data.putShort((short) 0x043D).putInt(data.capacity()).putInt(id);
+		while (data.hasRemaining()) {
+			data.put((byte) id);
+		}
+		return data.array();
+	}
+
+	private static ReadableByteChannel channel(byte[]... chunks) {
+		int length = 0;
+		for (byte[] chunk : chunks) {
+			length += chunk.length;
+		}
+		ByteBuffer data = ByteBuffer.allocate(length);
+		for (byte[] chunk : chunks) {
+			data.put(chunk);
+		}
+		return Channels.newChannel(new ByteArrayInputStream(data.array()));
+	}
+
+	@Test
+	public void checkSeveralFramesInOneRead() throws IOException {
+		LLRPFrameDecoder decoder = new LLRPFrameDecoder(handler, 64);
+
+		Assert.assertEquals(35, decoder.read(channel(frame(1, 5), frame(2, 0), frame(3, 0))));
+
+		Assert.assertEquals(3, frames.size());
+		Assert.assertEquals(15, frames.get(0).remaining());
+		Assert.assertEquals(1, frames.get(0).getInt(6));
+		Assert.assertEquals(2, frames.get(1).getInt(6));
+		Assert.assertEquals(3, frames.get(2).getInt(6));
+	}
+
+	@Test
+	public void checkPartialFrameCarriedOver() throws IOException {
+		LLRPFrameDecoder decoder = new LLRPFrameDecoder(handler, 64);
+		byte[] second = frame(2, 20);
+
+		decoder.read(channel(frame(1, 0), Arrays.copyOf(second, 4)));
+		Assert.assertEquals(1, frames.size());
+
+		decoder.read(channel(Arrays.copyOfRange(second, 4, second.length)));
+		Assert.assertEquals(2, frames.size());
+		Assert.assertEquals(30, frames.get(1).remaining());
+		Assert.assertEquals(2, frames.get(1).getInt(6));
+		Assert.assertEquals(2, frames.get(1).get(29));
+	}
+
+	@Test
+	public void checkFrameLargerThanBuffer() throws IOException {
+		LLRPFrameDecoder decoder = new LLRPFrameDecoder(handler, 16);
+		ReadableByteChannel channel = channel(frame(1, 40), frame(2, 0));
+
+		while (decoder.read(channel) > 0) {
+			// read until end of stream
+		}
+
+		Assert.assertEquals(2, frames.size());
+		Assert.assertEquals(50, frames.get(0).remaining());
+		Assert.assertEquals(1, frames.get(0).get(49));
+		Assert.assertEquals(2, frames.get(1).getInt(6));
+	}
+
+	@Test(expected = IOException.class)
+	public void checkInvalidLength() throws IOException {
+		LLRPFrameDecoder decoder = new LLRPFrameDecoder(handler, 64);
+		ByteBuffer data = ByteBuffer.allocate(10);
+		data.putShort((short) 0x043D).putInt(4).putInt(1);
+
+		decoder.read(channel(data.array()));
+	}
+
+	@Test
+	public void checkEndOfStream() throws IOException {
+		LLRPFrameDecoder decoder = new LLRPFrameDecoder(handler, 64);
+
+		Assert.assertEquals(-1, decoder.read(channel()));
+		Assert.assertEquals(0, frames.size());
+	}
+}
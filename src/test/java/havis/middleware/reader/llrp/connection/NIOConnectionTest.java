@@ -0,0 +1,350 @@
+package havis.middleware.reader.llrp.connection;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NIOConnectionTest {
+
+	private final BlockingQueue<ByteBuffer> frames = new LinkedBlockingQueue<>();
+	private final BlockingQueue<IOException> failures = new LinkedBlockingQueue<>();
+
+	private final FrameHandler handler = new FrameHandler() {
+		@Override
+		public void frameReceived(ByteBuffer frame) {
+			ByteBuffer copy = ByteBuffer.allocate(frame.remaining());
+			copy.put(frame);
+			copy.flip();
+			frames.add(copy);
+		}
+
+		@Override
+		public void receiveFailed(IOException cause) {
+			failures.add(cause);
+		}
+	};
+
+	@Test
+	public void checkFramesReceived() throws Exception {
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress("127.0.0.1", 0));
+			int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+
+			NIOConnection connection = new NIOConnection("127.0.0.1", port, 1000, 60000, handler);
+			Assert.assertTrue(connection.openConnection());
+
+			try (SocketChannel peer = server.accept()) {
+				ByteBuffer data = ByteBuffer.allocate(25);
+				data.putShort((short) 0x043D).putInt(15).putInt(1).put(new byte[] { 1, 2, 3, 4, 5 });
+				data.putShort((short) 0x043E).putInt(10).putInt(2);
+				data.flip();
+
+				// split the first frame within its header
+				ByteBuffer part = data.duplicate();
+				part.limit(7);
+				peer.write(part);
+				Thread.sleep(20);
+				data.position(7);
+				peer.write(data);
+
+				ByteBuffer first = frames.poll(1, TimeUnit.SECONDS);
+				Assert.assertNotNull(first);
+				Assert.assertEquals(15, first.remaining());
+				Assert.assertEquals(1, first.getInt(6));
+				Assert.assertEquals(5, first.get(14));
+
+				ByteBuffer second = frames.poll(1, TimeUnit.SECONDS);
+				Assert.assertNotNull(second);
+				Assert.assertEquals(10, second.remaining());
+				Assert.assertEquals(2, second.getInt(6));
+			} finally {
+				connection.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void checkBlockedHandlerIsolated() throws Exception {
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress("127.0.0.1", 0));
+			int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+
+			// one blocked connection on each reactor of the pool
+			int count = Runtime.getRuntime().availableProcessors();
+			final CountDownLatch entered = new CountDownLatch(count);
+			final CountDownLatch release = new CountDownLatch(1);
+			FrameHandler blocking = new FrameHandler() {
+				@Override
+				public void frameReceived(ByteBuffer frame) {
+					entered.countDown();
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+
+				@Override
+				public void receiveFailed(IOException cause) {
+				}
+			};
+			List<NIOConnection> connections = new ArrayList<>();
+			List<SocketChannel> peers = new ArrayList<>();
+			try {
+				for (int i = 0; i < count; i++) {
+					NIOConnection connection = new NIOConnection("127.0.0.1", port, 1000, 60000, blocking);
+					connections.add(connection);
+					Assert.assertTrue(connection.openConnection());
+					peers.add(server.accept());
+				}
+				NIOConnection connection = new NIOConnection("127.0.0.1", port, 1000, 60000, handler);
+				connections.add(connection);
+				Assert.assertTrue(connection.openConnection());
+				peers.add(server.accept());
+
+				for (SocketChannel peer : peers.subList(0, count)) {
+					peer.write(keepalive(1));
+				}
+				Assert.assertTrue(entered.await(1, TimeUnit.SECONDS));
+
+				peers.get(count).write(keepalive(2));
+				ByteBuffer frame = frames.poll(1, TimeUnit.SECONDS);
+				Assert.assertNotNull(frame);
+				Assert.assertEquals(2, frame.getInt(6));
+			} finally {
+				release.countDown();
+				for (NIOConnection connection : connections) {
+					connection.dispose();
+				}
+				for (SocketChannel peer : peers) {
+					peer.close();
+				}
+			}
+		}
+	}
+
+	@Test
+	public void checkReadSuspendedWhileHandlerBlocked() throws Exception {
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress("127.0.0.1", 0));
+			int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+
+			final BlockingQueue<Integer> ids = new LinkedBlockingQueue<>();
+			final CountDownLatch release = new CountDownLatch(1);
+			FrameHandler blocking = new FrameHandler() {
+				@Override
+				public void frameReceived(ByteBuffer frame) {
+					try {
+						release.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					ids.add(Integer.valueOf(frame.getInt(frame.position() + 6)));
+				}
+
+				@Override
+				public void receiveFailed(IOException cause) {
+				}
+			};
+
+			NIOConnection connection = new NIOConnection("127.0.0.1", port, 1000, 60000, blocking);
+			Assert.assertTrue(connection.openConnection());
+			try (SocketChannel peer = server.accept()) {
+				peer.configureBlocking(false);
+				// the reactor stops reading, the socket buffers of both sides
+				// fill up until the peer cannot write anymore
+				int written = 0;
+				ByteBuffer frame = report(written);
+				long stalled = 0;
+				while (stalled == 0 || System.currentTimeMillis() - stalled < 500) {
+					Assert.assertTrue("Reading not suspended", written < 64 * 1024);
+					if (peer.write(frame) > 0) {
+						stalled = 0;
+					} else if (stalled == 0) {
+						stalled = System.currentTimeMillis();
+					} else {
+						Thread.sleep(10);
+					}
+					if (!frame.hasRemaining()) {
+						frame = report(++written);
+					}
+				}
+				// at most the frames of one more receive buffer were queued
+				Assert.assertTrue(connection.getPending() <= InboundStage.DEFAULT_CAPACITY + 32 * 1024 / 1024);
+
+				release.countDown();
+				peer.configureBlocking(true);
+				while (frame.hasRemaining()) {
+					peer.write(frame);
+				}
+				for (int i = 0; i <= written; i++) {
+					Assert.assertEquals(Integer.valueOf(i), ids.poll(5, TimeUnit.SECONDS));
+				}
+			} finally {
+				release.countDown();
+				connection.dispose();
+			}
+		}
+	}
+
+	private static ByteBuffer report(int id) {
+		ByteBuffer data = ByteBuffer.allocate(1024);
+		data.putShort((short) 0x043D).putInt(1024).putInt(id);
+		data.position(data.capacity());
+		data.flip();
+		return data;
+	}
+
+	private static ByteBuffer keepalive(int id) {
+		ByteBuffer data = ByteBuffer.allocate(10);
+		data.putShort((short) 0x043E).putInt(10).putInt(id);
+		data.flip();
+		return data;
+	}
+
+	@Test
+	public void checkReceiveFailedOnPeerClose() throws Exception {
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress("127.0.0.1", 0));
+			int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+
+			NIOConnection connection = new NIOConnection("127.0.0.1", port, 1000, 60000, handler);
+			Assert.assertTrue(connection.openConnection());
+			try {
+				server.accept().close();
+
+				Assert.assertNotNull(failures.poll(1, TimeUnit.SECONDS));
+				Assert.assertTrue(frames.isEmpty());
+				// the channel is closed by the reactor, messages cannot be queued
+				Assert.assertFalse(connection.getChannel().isOpen());
+				ByteBuffer data = ByteBuffer.allocate(10);
+				data.position(10);
+				try {
+					connection.enqueueMessage(data).get(1, TimeUnit.SECONDS);
+					Assert.fail("Expected ExecutionException");
+				} catch (ExecutionException e) {
+					Assert.assertTrue(e.getCause() instanceof IOException);
+				}
+			} finally {
+				connection.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void checkMessagesWritten() throws Exception {
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress("127.0.0.1", 0));
+			int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+
+			NIOConnection connection = new NIOConnection("127.0.0.1", port, 1000, 60000, handler);
+			Assert.assertTrue(connection.openConnection());
+			try (SocketChannel peer = server.accept()) {
+				// exceeds the socket buffers, the reactor has to wait for write readiness
+				int count = 64;
+				int length = 64 * 1024;
+				CompletableFuture<?>[] futures = new CompletableFuture<?>[count];
+				for (int i = 0; i < count; i++) {
+					ByteBuffer data = ByteBuffer.allocate(length);
+					while (data.hasRemaining()) {
+						data.put((byte) i);
+					}
+					futures[i] = connection.enqueueMessage(data);
+				}
+				Assert.assertFalse(futures[count - 1].isDone());
+
+				ByteBuffer received = ByteBuffer.allocate(count * length);
+				while (received.hasRemaining()) {
+					peer.read(received);
+				}
+				CompletableFuture.allOf(futures).get(1, TimeUnit.SECONDS);
+				for (int i = 0; i < count; i++) {
+					Assert.assertEquals((byte) i, received.get(i * length));
+					Assert.assertEquals((byte) i, received.get((i + 1) * length - 1));
+				}
+			} finally {
+				connection.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void checkQueuedMessagesFailedOnClose() throws Exception {
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress("127.0.0.1", 0));
+			int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+
+			NIOConnection connection = new NIOConnection("127.0.0.1", port, 1000, 60000, handler);
+			Assert.assertTrue(connection.openConnection());
+			try (SocketChannel peer = server.accept()) {
+				CompletableFuture<Void> future = null;
+				for (int i = 0; i < 64; i++) {
+					ByteBuffer data = ByteBuffer.allocate(64 * 1024);
+					data.position(data.capacity());
+					future = connection.enqueueMessage(data);
+				}
+				connection.closeConnection();
+
+				try {
+					future.get(1, TimeUnit.SECONDS);
+					Assert.fail("Expected ExecutionException");
+				} catch (ExecutionException e) {
+					Assert.assertTrue(e.getCause() instanceof IOException);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void checkWriteDeadline() throws Exception {
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress("127.0.0.1", 0));
+			int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+
+			NIOConnection connection = new NIOConnection("127.0.0.1", port, 200, 60000, handler);
+			Assert.assertTrue(connection.openConnection());
+			// the peer never reads, the socket buffers fill up
+			try (SocketChannel peer = server.accept()) {
+				CompletableFuture<Void> future = null;
+				for (int i = 0; i < 64; i++) {
+					ByteBuffer data = ByteBuffer.allocate(64 * 1024);
+					data.position(data.capacity());
+					future = connection.enqueueMessage(data);
+				}
+
+				IOException failure = failures.poll(2, TimeUnit.SECONDS);
+				Assert.assertNotNull(failure);
+				Assert.assertEquals("Unable to write data to stream within 200ms.", failure.getMessage());
+				Assert.assertFalse(connection.getChannel().isOpen());
+				try {
+					future.get(1, TimeUnit.SECONDS);
+					Assert.fail("Expected ExecutionException");
+				} catch (ExecutionException e) {
+					Assert.assertTrue(e.getCause() instanceof IOException);
+				}
+			} finally {
+				connection.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void checkFramesPushed() {
+		// received frames are passed to the handler, they cannot be pulled
+		Assert.assertFalse(PullConnection.class.isAssignableFrom(NIOConnection.class));
+		Assert.assertTrue(PullConnection.class.isAssignableFrom(TCPConnection.class));
+	}
+}
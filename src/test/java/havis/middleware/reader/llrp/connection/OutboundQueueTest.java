@@ -0,0 +1,180 @@
+package havis.middleware.reader.llrp.connection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OutboundQueueTest {
+
+	/**
+	 * Channel accepting a limited number of bytes per write
+	 */
+	private static class LimitedChannel implements GatheringByteChannel {
+		private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+		private int limit;
+		private int writes;
+		private int gatheringWrites;
+
+		private LimitedChannel(int limit) {
+			this.limit = limit;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			writes++;
+			int count = 0;
+			while (src.hasRemaining() && count < limit) {
+				written.write(src.get());
+				count++;
+			}
+			return count;
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			gatheringWrites++;
+			long count = 0;
+			for (int i = offset; i < offset + length && count < limit; i++) {
+				while (srcs[i].hasRemaining() && count < limit) {
+					written.write(srcs[i].get());
+					count++;
+				}
+			}
+			return count;
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs) throws IOException {
+			return write(srcs, 0, srcs.length);
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+		}
+	}
+
+	private static ByteBuffer message(int value, int length) {
+		ByteBuffer data = ByteBuffer.allocate(length);
+		while (data.hasRemaining()) {
+			data.put((byte) value);
+		}
+		data.flip();
+		return data;
+	}
+
+	@Test
+	public void checkGatheringWrite() throws IOException {
+		OutboundQueue queue = new OutboundQueue();
+		LimitedChannel channel = new LimitedChannel(Integer.MAX_VALUE);
+		CompletableFuture<Void> first = queue.add(message(1, 10));
+		CompletableFuture<Void> second = queue.add(message(2, 20));
+		CompletableFuture<Void> third = queue.add(message(3, 5));
+
+		Assert.assertTrue(queue.startFlush());
+		Assert.assertTrue(queue.flush(channel));
+		Assert.assertFalse(queue.endFlush());
+
+		Assert.assertTrue(first.isDone() && second.isDone() && third.isDone());
+		Assert.assertEquals(1, channel.gatheringWrites);
+		Assert.assertEquals(0, channel.writes);
+		byte[] data = channel.written.toByteArray();
+		Assert.assertEquals(35, data.length);
+		Assert.assertEquals(1, data[9]);
+		Assert.assertEquals(2, data[10]);
+		Assert.assertEquals(3, data[34]);
+	}
+
+	@Test
+	public void checkPartialWrites() throws IOException {
+		OutboundQueue queue = new OutboundQueue();
+		LimitedChannel channel = new LimitedChannel(0);
+		CompletableFuture<Void> first = queue.add(message(1, 10));
+		CompletableFuture<Void> second = queue.add(message(2, 20));
+
+		Assert.assertTrue(queue.startFlush());
+		Assert.assertFalse(queue.flush(channel));
+		Assert.assertFalse(first.isDone());
+
+		channel.limit = 15;
+		Assert.assertTrue(queue.flush(channel));
+		Assert.assertTrue(first.isDone());
+		Assert.assertTrue(second.isDone());
+		Assert.assertEquals(30, channel.written.size());
+	}
+
+	@Test
+	public void checkSingleMessageWrite() throws IOException {
+		OutboundQueue queue = new OutboundQueue();
+		LimitedChannel channel = new LimitedChannel(Integer.MAX_VALUE);
+		queue.add(message(1, 10));
+
+		Assert.assertTrue(queue.startFlush());
+		Assert.assertTrue(queue.flush(channel));
+
+		Assert.assertEquals(1, channel.writes);
+		Assert.assertEquals(0, channel.gatheringWrites);
+	}
+
+	@Test
+	public void checkManyMessages() throws IOException {
+		OutboundQueue queue = new OutboundQueue();
+		LimitedChannel channel = new LimitedChannel(7);
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[200];
+		for (int i = 0; i < futures.length; i++) {
+			futures[i] = queue.add(message(i, 3));
+		}
+
+		Assert.assertTrue(queue.startFlush());
+		Assert.assertTrue(queue.flush(channel));
+
+		byte[] data = channel.written.toByteArray();
+		Assert.assertEquals(600, data.length);
+		for (int i = 0; i < futures.length; i++) {
+			Assert.assertTrue(futures[i].isDone());
+			Assert.assertEquals((byte) i, data[i * 3 + 2]);
+		}
+	}
+
+	@Test
+	public void checkFlushOwnership() {
+		OutboundQueue queue = new OutboundQueue();
+
+		Assert.assertTrue(queue.startFlush());
+		Assert.assertFalse(queue.startFlush());
+		queue.add(message(1, 1));
+		// added meanwhile, the owner keeps the flush
+		Assert.assertTrue(queue.endFlush());
+		Assert.assertFalse(queue.startFlush());
+	}
+
+	@Test
+	public void checkFail() throws Exception {
+		OutboundQueue queue = new OutboundQueue();
+		CompletableFuture<Void> first = queue.add(message(1, 10));
+		CompletableFuture<Void> second = queue.add(message(2, 10));
+		Assert.assertTrue(queue.startFlush());
+		queue.flush(new LimitedChannel(0));
+
+		queue.fail(new ClosedChannelException());
+
+		try {
+			first.get();
+			Assert.fail("Expected ExecutionException");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof ClosedChannelException);
+		}
+		Assert.assertTrue(second.isCompletedExceptionally());
+	}
+}
@@ -1,363 +1,528 @@
-package havis.middleware.reader.llrp.connection;
-
-import java.io.IOException;
-import java.net.ConnectException;
-import java.net.InetSocketAddress;
-import java.net.Socket;
-import java.nio.ByteBuffer;
-import java.nio.channels.SocketChannel;
-
-import mockit.Mocked;
-import mockit.NonStrictExpectations;
-import mockit.StrictExpectations;
-import mockit.Verifications;
-
-import org.junit.Assert;
-import org.junit.Test;
-
-public class TCPConnectionTest {
-	@Test
-	public void checkContructor() {
-		String host = "10.10.10.10";
-		int port = 8080;
-		int timeout = 10000;
-		int keepalive = 60000;
-
-		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
-
-		Assert.assertEquals(timeout, connection.getTimeout());
-		Assert.assertEquals(keepalive, connection.getKeepalive());
-	}
-
-	@Test
-	public void checkConnectionSuccess(@Mocked final SocketChannel socketChannel, @Mocked final Socket socket) throws Exception {
-
-		final String host = "10.10.10.10";
-		final int port = 9090;
-		final int timeout = 10000;
-		int keepalive = 60000;
-
-		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
-
-		new NonStrictExpectations() {
-			{
-				SocketChannel.open();
-				result = socketChannel;
-
-				socketChannel.socket();
-
-				result = socket;
-			}
-		};
-
-		connection.openConnection();
-
-		new Verifications() {
-			{
-				socket.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
-				times = 1;
-			}
-		};
-
-		Assert.assertEquals(true, connection.isConnected());
-
-		connection.dispose();
-
-		Assert.assertEquals(false, connection.isConnected());
-	}
-
-	@Test
-	public void checkConnectionRetryOnce(@Mocked final SocketChannel socketChannel1, @Mocked final SocketChannel socketChannel2, @Mocked final Socket socket1, @Mocked final Socket socket2) throws Exception {
-
-		final String host = "10.10.10.10";
-		final int port = 9090;
-		final int timeout = 10000;
-		int keepalive = 60000;
-
-		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
-
-		new StrictExpectations() {
-			{
-				SocketChannel.open();
-				times = 1;
-				result  = socketChannel1;
-
-				socketChannel1.socket();
-				times = 1;
-				result = socket1;
-				
-				socket1.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
-				times = 1;
-				result = new ConnectException("Connection refused");
-				
-				SocketChannel.open();
-				times = 1;
-				result  = socketChannel2;
-				
-				socketChannel2.socket();
-				times = 1;
-				result = socket2;
-				
-				socket2.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
-				times = 1;
-				
-				socketChannel2.close();
-				times = 1;
-			}
-		};
-
-		connection.openConnection();
-
-		Assert.assertEquals(true, connection.isConnected());
-
-		connection.dispose();
-
-		Assert.assertEquals(false, connection.isConnected());
-	}
-
-	@Test
-	public void checkConnectionRetryTwice(@Mocked final SocketChannel socketChannel1, @Mocked final SocketChannel socketChannel2, @Mocked final Socket socket1, @Mocked final Socket socket2) throws Exception {
-
-		final String host = "10.10.10.10";
-		final int port = 9090;
-		final int timeout = 10000;
-		int keepalive = 60000;
-
-		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
-
-		new StrictExpectations() {
-			{
-				SocketChannel.open();
-				times = 1;
-				result  = socketChannel1;
-
-				socketChannel1.socket();
-				times = 1;
-				result = socket1;
-				
-				socket1.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
-				times = 1;
-				result = new ConnectException("Connection refused");
-				
-				SocketChannel.open();
-				times = 1;
-				result  = socketChannel1;
-
-				socketChannel1.socket();
-				times = 1;
-				result = socket1;
-				
-				socket1.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
-				times = 1;
-				result = new ConnectException("Connection refused");
-				
-				SocketChannel.open();
-				times = 1;
-				result  = socketChannel2;
-				
-				socketChannel2.socket();
-				times = 1;
-				result = socket2;
-				
-				socket2.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
-				times = 1;
-				
-				socketChannel2.close();
-				times = 1;
-			}
-		};
-
-		connection.openConnection();
-
-		Assert.assertEquals(true, connection.isConnected());
-
-		connection.dispose();
-
-		Assert.assertEquals(false, connection.isConnected());
-	}
-
-	@Test
-	public void checkConnectionRetryFail(@Mocked final SocketChannel socketChannel1, @Mocked final SocketChannel socketChannel2, @Mocked final Socket socket1, @Mocked final Socket socket2) throws Exception {
-
-		final String host = "10.10.10.10";
-		final int port = 9090;
-		final int timeout = 10000;
-		int keepalive = 60000;
-
-		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
-
-		new StrictExpectations() {
-			{
-				SocketChannel.open();
-				times = 1;
-				result  = socketChannel1;
-
-				socketChannel1.socket();
-				times = 1;
-				result = socket1;
-				
-				socket1.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
-				times = 1;
-				result = new ConnectException("Connection refused");
-				
-				SocketChannel.open();
-				times = 1;
-				result  = socketChannel1;
-
-				socketChannel1.socket();
-				times = 1;
-				result = socket1;
-				
-				socket1.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
-				times = 1;
-				result = new ConnectException("Connection refused");
-				
-				SocketChannel.open();
-				times = 1;
-				result  = socketChannel1;
-
-				socketChannel1.socket();
-				times = 1;
-				result = socket1;
-				
-				socket1.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
-				times = 1;
-				result = new ConnectException("Connection refused");
-			}
-		};
-
-		connection.openConnection();
-
-		Assert.assertEquals(false, connection.isConnected());
-
-		connection.dispose();
-
-		Assert.assertEquals(false, connection.isConnected());
-	}
-
-	@Test
-	public void checkOpenConnectionFail(@Mocked final SocketChannel socketChannel, @Mocked final Socket socket) throws Exception {
-
-		final String host = "10.10.10.10";
-		final int port = 8080;
-		final int timeout = 10000;
-		int keepalive = 60000;
-
-		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
-
-		new NonStrictExpectations() {
-			{
-				SocketChannel.open();
-				result = new IOException();
-			}
-		};
-
-		connection.openConnection();
-
-		Assert.assertEquals(false, connection.isConnected());
-	}
-
-	@Test
-	public void checkRetrievingMessage(final @Mocked SocketChannel socketChannel, @Mocked final Socket socket, final @Mocked ByteBuffer dst) throws Exception {
-		final String host = "10.10.10.10";
-		final int port = 8080;
-		final int timeout = 10000;
-		final int size = 10;
-
-		int keepalive = 60000;
-
-		new NonStrictExpectations() {
-			{
-				SocketChannel.open();
-				result = socketChannel;
-
-				socketChannel.socket();
-				result = socket;
-
-				socketChannel.read(dst);
-				result = 10;
-			}
-		};
-
-		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
-		connection.openConnection();
-		connection.retrieveMessage(size, keepalive);
-
-		new Verifications() {
-			{
-				dst.flip();
-				times = 1;
-			}
-		};
-	}
-
-	@Test
-	public void checkRetrievingMessageFail(final @Mocked SocketChannel socketChannel, @Mocked final Socket socket, final @Mocked ByteBuffer dst)
-			throws Exception {
-		final String host = "10.10.10.10";
-		final int port = 8080;
-		final int timeout = 10000;
-		final int size = 10;
-
-		int keepalive = 60000;
-
-		new NonStrictExpectations() {
-			{
-				SocketChannel.open();
-				result = socketChannel;
-
-				socketChannel.socket();
-				result = socket;
-
-				socketChannel.read(dst);
-				result = -1;
-			}
-		};
-
-		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
-		connection.openConnection();
-		boolean exception = false;
-
-		try {
-			connection.retrieveMessage(size, keepalive);
-		} catch (IOException exc) {
-			exception = true;
-		}
-
-		Assert.assertTrue(exception);
-
-	}
-
-	@Test
-	public void checkSendMessage(final @Mocked SocketChannel socketChannel, @Mocked final Socket socket, final @Mocked ByteBuffer dst) throws Exception {
-		final String host = "10.10.10.10";
-		final int port = 8080;
-		final int timeout = 10000;
-
-		int keepalive = 60000;
-
-		new NonStrictExpectations() {
-			{
-				SocketChannel.open();
-				result = socketChannel;
-
-				socketChannel.socket();
-				result = socket;
-
-				dst.flip();
-				socketChannel.write(dst);
-			}
-		};
-
-		final TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
-		connection.openConnection();
-
-		connection.sendMessage(dst);
-		
-		new Verifications() {
-			{
-				socketChannel.write(this.<ByteBuffer>withSameInstance(dst));
-			}
-		};
-	}
-}
+package havis.middleware.reader.llrp.connection;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+import mockit.StrictExpectations;
+import mockit.Verifications;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TCPConnectionTest {
+	@Test
+	public void checkContructor() {
+		String host = "10.10.10.10";
+		int port = 8080;
+		int timeout = 10000;
+		int keepalive = 60000;
+
+		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
+
+		Assert.assertEquals(timeout, connection.getTimeout());
+		Assert.assertEquals(keepalive, connection.getKeepalive());
+	}
+
+	@Test
+	public void checkConnectionSuccess(@Mocked final SocketChannel socketChannel, @Mocked final Socket socket) throws Exception {
+
+		final String host = "10.10.10.10";
+		final int port = 9090;
+		final int timeout = 10000;
+		int keepalive = 60000;
+
+		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
+
+		new NonStrictExpectations() {
+			{
+				SocketChannel.open();
+				result = socketChannel;
+
+				socketChannel.socket();
+
+				result = socket;
+			}
+		};
+
+		connection.openConnection();
+
+		new Verifications() {
+			{
+				socket.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
+				times = 1;
+			}
+		};
+
+		Assert.assertEquals(true, connection.isConnected());
+
+		connection.dispose();
+
+		Assert.assertEquals(false, connection.isConnected());
+	}
+
+	@Test
+	public void checkConnectionRetryOnce(@Mocked final SocketChannel socketChannel1, @Mocked final SocketChannel socketChannel2, @Mocked final Socket socket1, @Mocked final Socket socket2) throws Exception {
+
+		final String host = "10.10.10.10";
+		final int port = 9090;
+		final int timeout = 10000;
+		int keepalive = 60000;
+
+		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
+
+		new StrictExpectations() {
+			{
+				SocketChannel.open();
+				times = 1;
+				result  = socketChannel1;
+
+				socketChannel1.socket();
+				times = 1;
+				result = socket1;
+				
+				socket1.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
+				times = 1;
+				result = new ConnectException("Connection refused");
+				
+				SocketChannel.open();
+				times = 1;
+				result  = socketChannel2;
+				
+				socketChannel2.socket();
+				times = 1;
+				result = socket2;
+				
+				socket2.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
+				times = 1;
+
+				socketChannel2.configureBlocking(false);
+				times = 1;
+
+				socketChannel2.register(this.<Selector> withNotNull(), SelectionKey.OP_READ);
+				times = 1;
+				
+				socketChannel2.close();
+				times = 1;
+			}
+		};
+
+		connection.openConnection();
+
+		Assert.assertEquals(true, connection.isConnected());
+
+		connection.dispose();
+
+		Assert.assertEquals(false, connection.isConnected());
+	}
+
+	@Test
+	public void checkConnectionRetryTwice(@Mocked final SocketChannel socketChannel1, @Mocked final SocketChannel socketChannel2, @Mocked final Socket socket1, @Mocked final Socket socket2) throws Exception {
+
+		final String host = "10.10.10.10";
+		final int port = 9090;
+		final int timeout = 10000;
+		int keepalive = 60000;
+
+		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
+
+		new StrictExpectations() {
+			{
+				SocketChannel.open();
+				times = 1;
+				result  = socketChannel1;
+
+				socketChannel1.socket();
+				times = 1;
+				result = socket1;
+				
+				socket1.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
+				times = 1;
+				result = new ConnectException("Connection refused");
+				
+				SocketChannel.open();
+				times = 1;
+				result  = socketChannel1;
+
+				socketChannel1.socket();
+				times = 1;
+				result = socket1;
+				
+				socket1.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
+				times = 1;
+				result = new ConnectException("Connection refused");
+				
+				SocketChannel.open();
+				times = 1;
+				result  = socketChannel2;
+				
+				socketChannel2.socket();
+				times = 1;
+				result = socket2;
+				
+				socket2.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
+				times = 1;
+
+				socketChannel2.configureBlocking(false);
+				times = 1;
+
+				socketChannel2.register(this.<Selector> withNotNull(), SelectionKey.OP_READ);
+				times = 1;
+				
+				socketChannel2.close();
+				times = 1;
+			}
+		};
+
+		connection.openConnection();
+
+		Assert.assertEquals(true, connection.isConnected());
+
+		connection.dispose();
+
+		Assert.assertEquals(false, connection.isConnected());
+	}
+
+	@Test
+	public void checkConnectionRetryFail(@Mocked final SocketChannel socketChannel1, @Mocked final SocketChannel socketChannel2, @Mocked final Socket socket1, @Mocked final Socket socket2) throws Exception {
+
+		final String host = "10.10.10.10";
+		final int port = 9090;
+		final int timeout = 10000;
+		int keepalive = 60000;
+
+		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
+
+		new StrictExpectations() {
+			{
+				SocketChannel.open();
+				times = 1;
+				result  = socketChannel1;
+
+				socketChannel1.socket();
+				times = 1;
+				result = socket1;
+				
+				socket1.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
+				times = 1;
+				result = new ConnectException("Connection refused");
+				
+				SocketChannel.open();
+				times = 1;
+				result  = socketChannel1;
+
+				socketChannel1.socket();
+				times = 1;
+				result = socket1;
+				
+				socket1.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
+				times = 1;
+				result = new ConnectException("Connection refused");
+				
+				SocketChannel.open();
+				times = 1;
+				result  = socketChannel1;
+
+				socketChannel1.socket();
+				times = 1;
+				result = socket1;
+				
+				socket1.connect(this.<InetSocketAddress> withEqual(new InetSocketAddress(host, port)), timeout);
+				times = 1;
+				result = new ConnectException("Connection refused");
+			}
+		};
+
+		connection.openConnection();
+
+		Assert.assertEquals(false, connection.isConnected());
+
+		connection.dispose();
+
+		Assert.assertEquals(false, connection.isConnected());
+	}
+
+	@Test
+	public void checkOpenConnectionFail(@Mocked final SocketChannel socketChannel, @Mocked final Socket socket) throws Exception {
+
+		final String host = "10.10.10.10";
+		final int port = 8080;
+		final int timeout = 10000;
+		int keepalive = 60000;
+
+		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
+
+		new NonStrictExpectations() {
+			{
+				SocketChannel.open();
+				result = new IOException();
+			}
+		};
+
+		connection.openConnection();
+
+		Assert.assertEquals(false, connection.isConnected());
+	}
+
+	@Test
+	public void checkRetrievingMessage(final @Mocked SocketChannel socketChannel, @Mocked final Socket socket, final @Mocked ByteBuffer dst) throws Exception {
+		final String host = "10.10.10.10";
+		final int port = 8080;
+		final int timeout = 10000;
+		final int size = 10;
+
+		int keepalive = 60000;
+
+		new NonStrictExpectations() {
+			{
+				SocketChannel.open();
+				result = socketChannel;
+
+				socketChannel.socket();
+				result = socket;
+
+				socketChannel.read(dst);
+				result = 10;
+			}
+		};
+
+		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
+		connection.openConnection();
+		connection.retrieveMessage(size, keepalive);
+
+		new Verifications() {
+			{
+				dst.flip();
+				times = 1;
+			}
+		};
+	}
+
+	@Test
+	public void checkRetrievingMessageFail(final @Mocked SocketChannel socketChannel, @Mocked final Socket socket, final @Mocked ByteBuffer dst)
+			throws Exception {
+		final String host = "10.10.10.10";
+		final int port = 8080;
+		final int timeout = 10000;
+		final int size = 10;
+
+		int keepalive = 60000;
+
+		new NonStrictExpectations() {
+			{
+				SocketChannel.open();
+				result = socketChannel;
+
+				socketChannel.socket();
+				result = socket;
+
+				socketChannel.read(dst);
+				result = -1;
+			}
+		};
+
+		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
+		connection.openConnection();
+		boolean exception = false;
+
+		try {
+			connection.retrieveMessage(size, keepalive);
+		} catch (IOException exc) {
+			exception = true;
+		}
+
+		Assert.assertTrue(exception);
+
+	}
+
+	@Test
+	public void checkRetrievingMessageTimeout(final @Mocked SocketChannel socketChannel, @Mocked final Socket socket, final @Mocked ByteBuffer dst)
+			throws Exception {
+		final String host = "10.10.10.10";
+		final int port = 8080;
+		final int timeout = 10000;
+		final int size = 10;
+
+		int keepalive = 60000;
+
+		new NonStrictExpectations() {
+			{
+				SocketChannel.open();
+				result = socketChannel;
+
+				socketChannel.socket();
+				result = socket;
+
+				socketChannel.read(dst);
+				result = 0;
+			}
+		};
+
+		TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
+		connection.openConnection();
+
+		boolean exception = false;
+		try {
+			connection.retrieveMessage(size, 50);
+		} catch (IOException exc) {
+			exception = true;
+		}
+
+		Assert.assertTrue(exception);
+	}
+
+	@Test
+	public void checkRetrievingFramesPeerClosed() throws Exception {
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress("127.0.0.1", 0));
+			int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+
+			TCPConnection connection = new TCPConnection("127.0.0.1", port, 1000, 60000);
+			Assert.assertTrue(connection.openConnection());
+			try {
+				server.accept().close();
+
+				LLRPFrameDecoder decoder = new LLRPFrameDecoder(new FrameHandler() {
+					@Override
+					public void frameReceived(ByteBuffer frame) {
+					}
+
+					@Override
+					public void receiveFailed(IOException cause) {
+					}
+				});
+
+				long start = System.currentTimeMillis();
+				try {
+					connection.retrieveFrames(decoder, 60000);
+					Assert.fail("EOFException expected");
+				} catch (EOFException e) {
+					// the disconnect is reported without waiting for the keepalive
+					Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+				}
+			} finally {
+				connection.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void checkQueuedMessagesWritten() throws Exception {
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress("127.0.0.1", 0));
+			int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+
+			final TCPConnection connection = new TCPConnection("127.0.0.1", port, 1000, 60000);
+			Assert.assertTrue(connection.openConnection());
+			try (SocketChannel peer = server.accept()) {
+				final int count = 64;
+				final int length = 64 * 1024;
+				final CompletableFuture<?>[] futures = new CompletableFuture<?>[count];
+				Thread sender = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						for (int i = 0; i < count; i++) {
+							ByteBuffer data = ByteBuffer.allocate(length);
+							while (data.hasRemaining()) {
+								data.put((byte) i);
+							}
+							futures[i] = connection.enqueueMessage(data);
+						}
+					}
+				});
+				sender.start();
+
+				ByteBuffer received = ByteBuffer.allocate(count * length);
+				while (received.hasRemaining()) {
+					peer.read(received);
+				}
+				sender.join();
+				CompletableFuture.allOf(futures).get(1, TimeUnit.SECONDS);
+				for (int i = 0; i < count; i++) {
+					Assert.assertEquals((byte) i, received.get(i * length));
+					Assert.assertEquals((byte) i, received.get((i + 1) * length - 1));
+				}
+			} finally {
+				connection.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void checkSendMessageTimeout() throws Exception {
+		try (ServerSocketChannel server = ServerSocketChannel.open()) {
+			server.bind(new InetSocketAddress("127.0.0.1", 0));
+			int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+
+			final TCPConnection connection = new TCPConnection("127.0.0.1", port, 100, 60000) {
+				@Override
+				protected void flush() {
+					// the queue is not written until the connection is closed
+					if (!isConnected())
+						super.flush();
+				}
+			};
+			Assert.assertTrue(connection.openConnection());
+			try (SocketChannel peer = server.accept()) {
+				ByteBuffer data = ByteBuffer.allocate(10);
+				data.position(10);
+				long start = System.currentTimeMillis();
+				try {
+					connection.sendMessage(data);
+					Assert.fail("Expected IOException");
+				} catch (IOException e) {
+					Assert.assertEquals("Unable to write data to stream within 100ms.", e.getMessage());
+				}
+				Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+				Assert.assertFalse(connection.isConnected());
+			} finally {
+				connection.dispose();
+			}
+		}
+	}
+
+	@Test
+	public void checkSendMessage(final @Mocked SocketChannel socketChannel, @Mocked final Socket socket, final @Mocked ByteBuffer dst) throws Exception {
+		final String host = "10.10.10.10";
+		final int port = 8080;
+		final int timeout = 10000;
+
+		int keepalive = 60000;
+
+		new NonStrictExpectations() {
+			{
+				SocketChannel.open();
+				result = socketChannel;
+
+				socketChannel.socket();
+				result = socket;
+
+				dst.flip();
+				socketChannel.write(dst);
+				result = 10;
+			}
+		};
+
+		final TCPConnection connection = new TCPConnection(host, port, timeout, keepalive);
+		connection.openConnection();
+
+		connection.sendMessage(dst);
+		
+		new Verifications() {
+			{
+				socketChannel.write(this.<ByteBuffer>withSameInstance(dst));
+			}
+		};
+	}
+}
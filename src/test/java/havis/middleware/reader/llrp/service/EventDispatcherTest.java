@@ -0,0 +1,212 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.Keepalive;
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.MessageHeader;
+import havis.llrpservice.data.message.ProtocolVersion;
+import havis.llrpservice.data.message.ROAccessReport;
+import havis.llrpservice.data.message.ReaderEventNotification;
+import havis.llrpservice.data.message.parameter.ReaderEventNotificationData;
+import havis.middleware.reader.llrp.util.ThreadMode;
+import havis.middleware.reader.llrp.util.WaitStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+
+import mockit.Mocked;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EventDispatcherTest {
+
+	private static Message keepalive(long id) {
+		return new Keepalive(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, id));
+	}
+
+	private static Message report(long id) {
+		return new ROAccessReport(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, id));
+	}
+
+	private static EventDispatcher dispatcher(int capacity, final List<Long> sequences) {
+		return new EventDispatcher(capacity, WaitStrategy.PARK, new ObjLongConsumer<Message>() {
+			@Override
+			public void accept(Message event, long sequence) {
+				synchronized (sequences) {
+					sequences.add(Long.valueOf(sequence));
+					sequences.notifyAll();
+				}
+			}
+		});
+	}
+
+	private static void awaitDispatched(List<Long> sequences, int count) throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000;
+		synchronized (sequences) {
+			while (sequences.size() < count && System.currentTimeMillis() < end) {
+				sequences.wait(100);
+			}
+		}
+	}
+
+	private void checkDispatch(WaitStrategy waitStrategy) throws InterruptedException {
+		final int count = 1000;
+		final List<Long> sequences = new ArrayList<>();
+		final CountDownLatch dispatched = new CountDownLatch(count);
+		EventDispatcher dispatcher = new EventDispatcher(8, waitStrategy, new ObjLongConsumer<Message>() {
+			@Override
+			public void accept(Message event, long sequence) {
+				sequences.add(Long.valueOf(sequence));
+				dispatched.countDown();
+			}
+		});
+		try {
+			dispatcher.start("test", ThreadMode.PLATFORM);
+			for (int i = 0; i < count; i++) {
+				Assert.assertEquals(i, dispatcher.publish(keepalive(i), 0));
+			}
+
+			Assert.assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+			for (int i = 0; i < count; i++) {
+				Assert.assertEquals(Long.valueOf(i), sequences.get(i));
+			}
+			Assert.assertEquals(count, dispatcher.getPublishedSequence());
+		} finally {
+			dispatcher.dispose();
+		}
+	}
+
+	@Test
+	public void checkBusySpin() throws InterruptedException {
+		checkDispatch(WaitStrategy.BUSY_SPIN);
+	}
+
+	@Test
+	public void checkYield() throws InterruptedException {
+		checkDispatch(WaitStrategy.YIELD);
+	}
+
+	@Test
+	public void checkPark() throws InterruptedException {
+		checkDispatch(WaitStrategy.PARK);
+	}
+
+	@Test
+	public void checkConsumerFailure() throws InterruptedException {
+		final CountDownLatch dispatched = new CountDownLatch(3);
+		EventDispatcher dispatcher = new EventDispatcher(8, WaitStrategy.PARK, new ObjLongConsumer<Message>() {
+			@Override
+			public void accept(Message event, long sequence) {
+				dispatched.countDown();
+				if (sequence == 0)
+					throw new IllegalStateException("failure");
+				if (sequence == 1)
+					throw new AssertionError("error");
+			}
+		});
+		try {
+			dispatcher.start("test", ThreadMode.PLATFORM);
+			dispatcher.publish(keepalive(1), 0);
+			dispatcher.publish(keepalive(2), 0);
+			dispatcher.publish(keepalive(3), 0);
+
+			Assert.assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+			Assert.assertEquals(3, dispatcher.getDispatchedCount());
+		} finally {
+			dispatcher.dispose();
+		}
+	}
+
+	@Test
+	public void checkDisposeReleasesProducer() {
+		EventDispatcher dispatcher = new EventDispatcher(1, WaitStrategy.PARK, new ObjLongConsumer<Message>() {
+			@Override
+			public void accept(Message event, long sequence) {
+			}
+		});
+		Assert.assertEquals(0, dispatcher.publish(keepalive(1), 0));
+		dispatcher.dispose();
+		Assert.assertEquals(-1, dispatcher.publish(keepalive(2), 0));
+	}
+
+	@Test
+	public void checkDropOldestReport() throws InterruptedException {
+		List<Long> sequences = new ArrayList<>();
+		EventDispatcher dispatcher = dispatcher(2, sequences);
+		Assert.assertEquals(EventOverflowPolicy.DROP_OLDEST_REPORT, dispatcher.getOverflowPolicy());
+		try {
+			Assert.assertEquals(0, dispatcher.publish(report(1), 0));
+			Assert.assertEquals(1, dispatcher.publish(report(2), 0));
+			Assert.assertEquals(2, dispatcher.publish(report(3), 0));
+			Assert.assertEquals(1, dispatcher.getDroppedCount());
+
+			dispatcher.start("test", ThreadMode.PLATFORM);
+			awaitDispatched(sequences, 2);
+			Assert.assertEquals(Arrays.asList(Long.valueOf(1), Long.valueOf(2)), sequences);
+		} finally {
+			dispatcher.dispose();
+		}
+	}
+
+	@Test
+	public void checkCoalescing(final @Mocked ReaderEventNotificationData data) throws InterruptedException {
+		List<Long> sequences = new ArrayList<>();
+		EventDispatcher dispatcher = dispatcher(16, sequences);
+		dispatcher.setCoalescing(true);
+		try {
+			Assert.assertEquals(0, dispatcher.publish(keepalive(1), 0));
+			Assert.assertEquals(-1, dispatcher.publish(keepalive(2), 0));
+
+			Assert.assertEquals(1, dispatcher.publish(notification(3, data), 5));
+			Assert.assertEquals(-1, dispatcher.publish(notification(4, data), 5));
+			Assert.assertEquals(2, dispatcher.publish(notification(5, data), 6));
+			Assert.assertEquals(3, dispatcher.publish(notification(6, data), 0));
+			Assert.assertEquals(4, dispatcher.publish(notification(7, data), 0));
+			Assert.assertEquals(2, dispatcher.getCoalescedCount());
+
+			dispatcher.start("test", ThreadMode.PLATFORM);
+			awaitDispatched(sequences, 5);
+
+			// nothing queued anymore
+			Assert.assertEquals(5, dispatcher.publish(keepalive(8), 0));
+			Assert.assertEquals(6, dispatcher.publish(notification(9, data), 6));
+			Assert.assertEquals(2, dispatcher.getCoalescedCount());
+		} finally {
+			dispatcher.dispose();
+		}
+	}
+
+	@Test
+	public void checkControlAheadOfReports() throws InterruptedException {
+		List<Long> sequences = new ArrayList<>();
+		EventDispatcher dispatcher = dispatcher(16, sequences);
+		try {
+			dispatcher.publish(report(1), 0);
+			dispatcher.publish(report(2), 0);
+			dispatcher.publish(report(3), 0);
+			dispatcher.publish(keepalive(4), 0);
+			Assert.assertEquals(3, dispatcher.getQueued(EventLane.REPORT));
+			Assert.assertEquals(1, dispatcher.getQueued(EventLane.CONTROL));
+
+			Thread.sleep(10);
+			dispatcher.start("test", ThreadMode.PLATFORM);
+			awaitDispatched(sequences, 4);
+
+			Assert.assertEquals(Arrays.asList(Long.valueOf(3), Long.valueOf(0), Long.valueOf(1), Long.valueOf(2)), sequences);
+			Assert.assertEquals(4, dispatcher.getDispatchedCount());
+			Assert.assertTrue(dispatcher.getDelay(EventLane.CONTROL) >= TimeUnit.MILLISECONDS.toNanos(10));
+			Assert.assertTrue(dispatcher.getMaxDelay(EventLane.REPORT) >= dispatcher.getAverageDelay(EventLane.REPORT));
+			Assert.assertTrue(dispatcher.getAverageDelay(EventLane.REPORT) >= TimeUnit.MILLISECONDS.toNanos(10));
+		} finally {
+			dispatcher.dispose();
+		}
+	}
+
+	private static Message notification(long id, ReaderEventNotificationData data) {
+		return new ReaderEventNotification(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, id), data);
+	}
+}
@@ -0,0 +1,107 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.Keepalive;
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.MessageHeader;
+import havis.llrpservice.data.message.MessageTypes.MessageType;
+import havis.llrpservice.data.message.ProtocolVersion;
+import havis.llrpservice.data.message.ROAccessReport;
+import havis.llrpservice.data.message.ReaderEventNotification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EventReplayBufferTest {
+
+	@Test
+	public void checkReplay() {
+		EventReplayBuffer buffer = new EventReplayBuffer(3, 0);
+		Assert.assertEquals(3, buffer.getCapacity());
+
+		ROAccessReport[] reports = new ROAccessReport[5];
+		buffer.lock();
+		try {
+			for (int i = 0; i < reports.length; i++) {
+				reports[i] = new ROAccessReport(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, i));
+				buffer.record(reports[i], i * 2);
+				buffer.record(new Keepalive(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, i)), i * 2 + 1);
+			}
+		} finally {
+			buffer.unlock();
+		}
+
+		final List<Message> replayed = new ArrayList<Message>();
+		final List<Long> sequences = new ArrayList<Long>();
+		final List<String> order = new ArrayList<String>();
+		ObjLongConsumer<Message> consumer = new ObjLongConsumer<Message>() {
+			@Override
+			public void accept(Message message, long sequence) {
+				replayed.add(message);
+				sequences.add(Long.valueOf(sequence));
+				order.add("replay");
+			}
+		};
+		Runnable attach = new Runnable() {
+			@Override
+			public void run() {
+				order.add("attach");
+			}
+		};
+
+		// the oldest two reports were overwritten
+		Assert.assertEquals(3, buffer.replay(MessageType.RO_ACCESS_REPORT, 0, consumer, attach));
+		Assert.assertSame(reports[2], replayed.get(0));
+		Assert.assertSame(reports[4], replayed.get(2));
+		Assert.assertEquals(Long.valueOf(4), sequences.get(0));
+		Assert.assertEquals("attach", order.get(3));
+
+		replayed.clear();
+		Assert.assertEquals(1, buffer.replay(MessageType.RO_ACCESS_REPORT, 7, consumer, attach));
+		Assert.assertSame(reports[4], replayed.get(0));
+
+		replayed.clear();
+		Assert.assertEquals(0, buffer.replay(MessageType.READER_EVENT_NOTIFICATION, 0, consumer, attach));
+	}
+
+	@Test
+	public void checkMaxAge() throws InterruptedException {
+		EventReplayBuffer buffer = new EventReplayBuffer(10, 20);
+		ReaderEventNotification old = new ReaderEventNotification(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 1), null);
+		buffer.lock();
+		try {
+			buffer.record(old, 0);
+		} finally {
+			buffer.unlock();
+		}
+		Thread.sleep(50);
+		ReaderEventNotification recent = new ReaderEventNotification(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 2), null);
+		buffer.lock();
+		try {
+			buffer.record(recent, 1);
+		} finally {
+			buffer.unlock();
+		}
+
+		final List<Message> replayed = new ArrayList<Message>();
+		Assert.assertEquals(1, buffer.replay(MessageType.READER_EVENT_NOTIFICATION, 0, new ObjLongConsumer<Message>() {
+			@Override
+			public void accept(Message message, long sequence) {
+				replayed.add(message);
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+			}
+		}));
+		Assert.assertSame(recent, replayed.get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void checkUnsupportedType() {
+		new EventReplayBuffer(1, 0).replay(MessageType.KEEPALIVE, 0, null, null);
+	}
+}
@@ -1,191 +1,603 @@
-package havis.middleware.reader.llrp.service;
-
-import havis.llrpservice.data.message.ClientRequestOP;
-import havis.llrpservice.data.message.GetSupportedVersion;
-import havis.llrpservice.data.message.GetSupportedVersionResponse;
-import havis.llrpservice.data.message.Keepalive;
-import havis.llrpservice.data.message.Message;
-import havis.llrpservice.data.message.MessageHeader;
-import havis.llrpservice.data.message.ProtocolVersion;
-import havis.llrpservice.data.message.ROAccessReport;
-import havis.llrpservice.data.message.ReaderEventNotification;
-import havis.llrpservice.data.message.parameter.LLRPStatus;
-import havis.llrpservice.data.message.parameter.LLRPStatusCode;
-import havis.llrpservice.data.message.parameter.ReaderEventNotificationData;
-import havis.llrpservice.data.message.parameter.TLVParameterHeader;
-import havis.llrpservice.data.message.parameter.TagReportData;
-import havis.llrpservice.data.message.parameter.serializer.InvalidParameterTypeException;
-import havis.llrpservice.data.message.serializer.InvalidMessageTypeException;
-import havis.middleware.reader.llrp.client.LLRPClient;
-import havis.middleware.reader.llrp.service.event.LLRPEventArgs;
-import havis.middleware.reader.llrp.util.LLRPReturnContainerUtil;
-
-import java.io.IOException;
-import java.util.EventObject;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
-
-import mockit.Mocked;
-import mockit.NonStrictExpectations;
-import mockit.Verifications;
-
-import org.junit.Assert;
-import org.junit.Test;
-
-public class LLRPMessageHandlerTest {
-
-	@Test
-	public void checkSendMessage(final @Mocked LLRPService service, final @Mocked Message message, final @Mocked LLRPClient client) throws IOException,
-			InvalidMessageTypeException, InvalidParameterTypeException {
-		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
-		llrpMessageHandler.setClient(client);
-
-		new NonStrictExpectations() {
-			{
-				client.sendMessage(message);
-			}
-		};
-
-		llrpMessageHandler.sendMessage(message);
-
-		new Verifications() {
-			{
-				client.sendMessage(this.<Message> withEqual(message));
-			}
-		};
-	}
-
-	@Test
-	public void checkWaitOnResponse(final @Mocked LLRPService service, final @Mocked GetSupportedVersion message, final @Mocked LLRPClient client,
-			final @Mocked LLRPSyncObject llrpSyncObject) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
-		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
-		llrpMessageHandler.setClient(client);
-
-		LLRPStatus llrpStatus = new LLRPStatus(new TLVParameterHeader(), LLRPStatusCode.M_SUCCESS, "");
-		MessageHeader messageHeader = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
-		GetSupportedVersionResponse response = new GetSupportedVersionResponse(messageHeader, ProtocolVersion.LLRP_V1_1, ProtocolVersion.LLRP_V1_1, llrpStatus);
-		final LLRPReturnContainerUtil<Message> res = new LLRPReturnContainerUtil<>();
-
-		res.setValue(response);
-		res.setTrue(true);
-
-		new NonStrictExpectations() {
-			{
-				client.sendMessage(message);
-
-				llrpSyncObject.await();
-				result = res;
-			}
-		};
-
-		final LLRPReturnContainerUtil<Message> containerUtil = llrpMessageHandler.waitOnResponse(message, 1000);
-
-		Assert.assertNotNull(containerUtil);
-		Assert.assertEquals(true, containerUtil.isTrue());
-		Assert.assertTrue(containerUtil.getValue() instanceof GetSupportedVersionResponse);
-		Assert.assertSame(containerUtil, res);
-	}
-
-	@Test
-	public void checkNotifyResponse(final @Mocked LLRPService service, final @Mocked LLRPClient client) throws IOException, InvalidMessageTypeException,
-			InvalidParameterTypeException, InterruptedException {
-		final LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
-		llrpMessageHandler.setClient(client);
-
-		LLRPStatus llrpStatus = new LLRPStatus(new TLVParameterHeader(), LLRPStatusCode.M_SUCCESS, "");
-		MessageHeader messageHeader = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
-		GetSupportedVersionResponse response = new GetSupportedVersionResponse(messageHeader, ProtocolVersion.LLRP_V1_1, ProtocolVersion.LLRP_V1_1, llrpStatus);
-		final GetSupportedVersion request = new GetSupportedVersion(messageHeader);
-		final LLRPReturnContainerUtil<Message> testResponse = new LLRPReturnContainerUtil<>();
-		final CountDownLatch ready = new CountDownLatch(1);
-
-		Thread waitingThread = new Thread(new Runnable() {
-			@Override
-			public void run() {
-				ready.countDown();
-
-				try {
-					LLRPReturnContainerUtil<Message> tmpResponse = llrpMessageHandler.waitOnResponse(request, 5000);
-					testResponse.setTrue(tmpResponse.isTrue());
-					testResponse.setValue(tmpResponse.getValue());
-
-				} catch (IOException | InvalidMessageTypeException | InvalidParameterTypeException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
-				}
-			}
-		});
-		waitingThread.start();
-
-		boolean success = false;
-
-		try {
-			Assert.assertTrue("Thread is ready", ready.await(100, TimeUnit.MILLISECONDS));
-
-			// thread is waiting now, let it do that for some time
-			Thread.sleep(50);
-			Assert.assertTrue("Thread is waiting", waitingThread.isAlive());
-
-			llrpMessageHandler.notifyResponse(response);
-
-			// wait for thread to finish
-			waitingThread.join(100);
-
-			Assert.assertFalse("Thread is not waiting", waitingThread.isAlive());
-
-			success = true;
-
-			Assert.assertEquals(testResponse.getValue(), response);
-
-		} finally {
-			if (!success) {
-				// make sure the thread is stopped in case of error
-				waitingThread.interrupt();
-			}
-		}
-	}
-
-	@Test
-	public void checkNotifyEvent(final @Mocked LLRPService service, final @Mocked LLRPClient client, final @Mocked TagReportData tagReportData,
-			final @Mocked ReaderEventNotificationData readerEventNotificationData) throws IOException, InvalidMessageTypeException,
-			InvalidParameterTypeException, InterruptedException {
-		final LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
-		llrpMessageHandler.setClient(client);
-
-		MessageHeader messageHeaderROAccessReport = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
-		MessageHeader messageHeaderClientRequestOP = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
-		MessageHeader messageHeaderKeepalive = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
-		MessageHeader messageHeaderReaderEventNotification = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
-
-		final ROAccessReport requestROAccessReport = new ROAccessReport(messageHeaderROAccessReport);
-		final ClientRequestOP requestClientRequestOP = new ClientRequestOP(messageHeaderClientRequestOP, tagReportData);
-		final Keepalive requestKeepalive = new Keepalive(messageHeaderKeepalive);
-		final ReaderEventNotification requestReaderEventNotification = new ReaderEventNotification(messageHeaderReaderEventNotification, readerEventNotificationData);
-
-		llrpMessageHandler.notifyEvent(requestROAccessReport);
-		llrpMessageHandler.notifyEvent(requestClientRequestOP);
-		llrpMessageHandler.notifyEvent(requestKeepalive);
-		llrpMessageHandler.notifyEvent(requestReaderEventNotification);
-
-		llrpMessageHandler.notifyNoDataReceived();
-
-		new Verifications() {
-			{
-				service.onROAccessReportEvent(withAny(new LLRPEventArgs<ROAccessReport>(requestROAccessReport)));
-				times = 1;
-
-				service.onClientRequestOpEvent(withAny(new LLRPEventArgs<ClientRequestOP>(requestClientRequestOP)));
-				times = 1;
-
-				service.onKeepaliveEvent(withAny(new LLRPEventArgs<Keepalive>(requestKeepalive)));
-				times = 1;
-
-				service.onReaderNotificationEvent(withAny(new LLRPEventArgs<ReaderEventNotification>(requestReaderEventNotification)));
-				times = 1;
-
-				service.onNoDataReceivedEvent(withAny(new EventObject(llrpMessageHandler)));
-				times = 1;
-			}
-		};
-	}
-}
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.ClientRequestOP;
+import havis.llrpservice.data.message.ClientRequestOPResponse;
+import havis.llrpservice.data.message.GetSupportedVersion;
+import havis.llrpservice.data.message.GetSupportedVersionResponse;
+import havis.llrpservice.data.message.Keepalive;
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.MessageHeader;
+import havis.llrpservice.data.message.MessageTypes.MessageType;
+import havis.llrpservice.data.message.ProtocolVersion;
+import havis.llrpservice.data.message.ROAccessReport;
+import havis.llrpservice.data.message.ReaderEventNotification;
+import havis.llrpservice.data.message.parameter.LLRPStatus;
+import havis.llrpservice.data.message.parameter.LLRPStatusCode;
+import havis.llrpservice.data.message.parameter.ReaderEventNotificationData;
+import havis.llrpservice.data.message.parameter.TLVParameterHeader;
+import havis.llrpservice.data.message.parameter.TagReportData;
+import havis.llrpservice.data.message.parameter.serializer.InvalidParameterTypeException;
+import havis.llrpservice.data.message.serializer.InvalidMessageTypeException;
+import havis.middleware.reader.llrp.client.LLRPClient;
+import havis.middleware.reader.llrp.client.MessageTemplate;
+import havis.middleware.reader.llrp.client.ReportFilter;
+import havis.middleware.reader.llrp.client.TagReportCursor;
+import havis.middleware.reader.llrp.service.event.LLRPEventArgs;
+import havis.middleware.reader.llrp.service.event.LLRPEventHandler;
+import havis.middleware.reader.llrp.service.event.LazyMessage;
+import havis.middleware.reader.llrp.service.event.ListenerOverflowPolicy;
+import havis.middleware.reader.llrp.service.exception.LLRPTimeoutException;
+import havis.middleware.reader.llrp.util.LLRPReturnContainerUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EventObject;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjLongConsumer;
+
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+import mockit.Verifications;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LLRPMessageHandlerTest {
+
+	@Test
+	public void checkSendMessage(final @Mocked LLRPService service, final @Mocked Message message, final @Mocked LLRPClient client) throws IOException,
+			InvalidMessageTypeException, InvalidParameterTypeException {
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+
+		new NonStrictExpectations() {
+			{
+				client.sendMessage(message);
+			}
+		};
+
+		llrpMessageHandler.sendMessage(message);
+
+		new Verifications() {
+			{
+				client.sendMessage(this.<Message> withEqual(message));
+			}
+		};
+	}
+
+	@Test
+	public void checkWaitOnResponse(final @Mocked LLRPService service, final @Mocked GetSupportedVersion message, final @Mocked LLRPClient client,
+			final @Mocked LLRPSyncObject llrpSyncObject) throws IOException, InvalidMessageTypeException, InvalidParameterTypeException {
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+
+		LLRPStatus llrpStatus = new LLRPStatus(new TLVParameterHeader(), LLRPStatusCode.M_SUCCESS, "");
+		MessageHeader messageHeader = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
+		GetSupportedVersionResponse response = new GetSupportedVersionResponse(messageHeader, ProtocolVersion.LLRP_V1_1, ProtocolVersion.LLRP_V1_1, llrpStatus);
+		final LLRPReturnContainerUtil<Message> res = new LLRPReturnContainerUtil<>();
+
+		res.setValue(response);
+		res.setTrue(true);
+
+		new NonStrictExpectations() {
+			{
+				client.sendMessage(message);
+
+				llrpSyncObject.await();
+				result = res;
+			}
+		};
+
+		final LLRPReturnContainerUtil<Message> containerUtil = llrpMessageHandler.waitOnResponse(message, 1000);
+
+		Assert.assertNotNull(containerUtil);
+		Assert.assertEquals(true, containerUtil.isTrue());
+		Assert.assertTrue(containerUtil.getValue() instanceof GetSupportedVersionResponse);
+		Assert.assertSame(containerUtil, res);
+	}
+
+	@Test
+	public void checkNotifyResponse(final @Mocked LLRPService service, final @Mocked LLRPClient client) throws IOException, InvalidMessageTypeException,
+			InvalidParameterTypeException, InterruptedException {
+		final LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+
+		LLRPStatus llrpStatus = new LLRPStatus(new TLVParameterHeader(), LLRPStatusCode.M_SUCCESS, "");
+		MessageHeader messageHeader = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
+		GetSupportedVersionResponse response = new GetSupportedVersionResponse(messageHeader, ProtocolVersion.LLRP_V1_1, ProtocolVersion.LLRP_V1_1, llrpStatus);
+		final GetSupportedVersion request = new GetSupportedVersion(messageHeader);
+		final LLRPReturnContainerUtil<Message> testResponse = new LLRPReturnContainerUtil<>();
+		final CountDownLatch ready = new CountDownLatch(1);
+
+		Thread waitingThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				ready.countDown();
+
+				try {
+					LLRPReturnContainerUtil<Message> tmpResponse = llrpMessageHandler.waitOnResponse(request, 5000);
+					testResponse.setTrue(tmpResponse.isTrue());
+					testResponse.setValue(tmpResponse.getValue());
+
+				} catch (IOException | InvalidMessageTypeException | InvalidParameterTypeException e) {
+					// TODO Auto-generated catch block
+					e.printStackTrace();
+				}
+			}
+		});
+		waitingThread.start();
+
+		boolean success = false;
+
+		try {
+			Assert.assertTrue("Thread is ready", ready.await(100, TimeUnit.MILLISECONDS));
+
+			// thread is waiting now, let it do that for some time
+			Thread.sleep(50);
+			Assert.assertTrue("Thread is waiting", waitingThread.isAlive());
+
+			llrpMessageHandler.notifyResponse(response);
+
+			// wait for thread to finish
+			waitingThread.join(100);
+
+			Assert.assertFalse("Thread is not waiting", waitingThread.isAlive());
+
+			success = true;
+
+			Assert.assertEquals(testResponse.getValue(), response);
+
+		} finally {
+			if (!success) {
+				// make sure the thread is stopped in case of error
+				waitingThread.interrupt();
+			}
+		}
+	}
+
+	@Test
+	public void checkSendRequest(final @Mocked LLRPService service, final @Mocked LLRPClient client) throws Exception {
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+
+		LLRPStatus llrpStatus = new LLRPStatus(new TLVParameterHeader(), LLRPStatusCode.M_SUCCESS, "");
+		MessageHeader messageHeader = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
+		GetSupportedVersionResponse response = new GetSupportedVersionResponse(messageHeader, ProtocolVersion.LLRP_V1_1, ProtocolVersion.LLRP_V1_1, llrpStatus);
+		final GetSupportedVersion request = new GetSupportedVersion(messageHeader);
+
+		new NonStrictExpectations() {
+			{
+				client.sendMessageAsync(request);
+				result = CompletableFuture.completedFuture(null);
+			}
+		};
+
+		CompletableFuture<Message> future = llrpMessageHandler.sendRequest(request, 5000);
+		Assert.assertFalse(future.isDone());
+
+		llrpMessageHandler.notifyResponse(response);
+
+		Assert.assertSame(response, future.get(100, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void checkSendTemplateRequest(final @Mocked LLRPService service, final @Mocked LLRPClient client, final @Mocked MessageTemplate template)
+			throws Exception {
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+
+		LLRPStatus llrpStatus = new LLRPStatus(new TLVParameterHeader(), LLRPStatusCode.M_SUCCESS, "");
+		MessageHeader messageHeader = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
+		GetSupportedVersionResponse response = new GetSupportedVersionResponse(messageHeader, ProtocolVersion.LLRP_V1_1, ProtocolVersion.LLRP_V1_1, llrpStatus);
+
+		new NonStrictExpectations() {
+			{
+				client.sendTemplateAsync(template, 4321);
+				result = CompletableFuture.completedFuture(null);
+			}
+		};
+
+		CompletableFuture<Message> future = llrpMessageHandler.sendRequest(template, 4321, 5000);
+		Assert.assertFalse(future.isDone());
+
+		llrpMessageHandler.notifyResponse(response);
+
+		Assert.assertSame(response, future.get(100, TimeUnit.MILLISECONDS));
+
+		new Verifications() {
+			{
+				client.sendTemplateAsync(template, 4321);
+				times = 1;
+
+				client.sendMessageAsync((Message) any);
+				times = 0;
+			}
+		};
+	}
+
+	@Test
+	public void checkSendRequestTimeout(final @Mocked LLRPService service, final @Mocked LLRPClient client) throws Exception {
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+
+		MessageHeader messageHeader = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
+		final GetSupportedVersion request = new GetSupportedVersion(messageHeader);
+
+		new NonStrictExpectations() {
+			{
+				client.sendMessageAsync(request);
+				result = CompletableFuture.completedFuture(null);
+			}
+		};
+
+		try {
+			llrpMessageHandler.sendRequest(request, 50).get(1000, TimeUnit.MILLISECONDS);
+			Assert.fail("Expected ExecutionException");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof LLRPTimeoutException);
+		}
+		Assert.assertEquals(1, llrpMessageHandler.getTimeoutCount());
+	}
+
+	@Test
+	public void checkSendRequestFailed(final @Mocked LLRPService service, final @Mocked LLRPClient client) throws Exception {
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+
+		MessageHeader messageHeader = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
+		final GetSupportedVersion request = new GetSupportedVersion(messageHeader);
+		final CompletableFuture<Void> sent = new CompletableFuture<>();
+		sent.completeExceptionally(new IOException("closed"));
+
+		new NonStrictExpectations() {
+			{
+				client.sendMessageAsync(request);
+				result = sent;
+			}
+		};
+
+		try {
+			llrpMessageHandler.sendRequest(request, 5000).get(1000, TimeUnit.MILLISECONDS);
+			Assert.fail("Expected ExecutionException");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof IOException);
+		}
+	}
+
+	@Test
+	public void checkWaitOnResponseSendFailed(final @Mocked LLRPService service, final @Mocked LLRPClient client) throws Exception {
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+
+		MessageHeader messageHeader = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
+		final GetSupportedVersion request = new GetSupportedVersion(messageHeader);
+
+		new NonStrictExpectations() {
+			{
+				client.sendMessage(request);
+				result = new IOException("closed");
+			}
+		};
+
+		try {
+			llrpMessageHandler.waitOnResponse(request, 50);
+			Assert.fail("Expected IOException");
+		} catch (IOException e) {
+			Assert.assertEquals("closed", e.getMessage());
+		}
+		// the timeout must not expire after the failed send
+		Thread.sleep(200);
+		Assert.assertEquals(0, llrpMessageHandler.getTimeoutCount());
+	}
+
+	@Test
+	public void checkPipelinedRequests(final @Mocked LLRPService service, final @Mocked LLRPClient client) throws Exception {
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+		llrpMessageHandler.setMaxPendingRequests(2);
+
+		LLRPStatus llrpStatus = new LLRPStatus(new TLVParameterHeader(), LLRPStatusCode.M_SUCCESS, "");
+		final GetSupportedVersion first = new GetSupportedVersion(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 1));
+		final GetSupportedVersion second = new GetSupportedVersion(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 2));
+		final GetSupportedVersion third = new GetSupportedVersion(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 3));
+
+		new NonStrictExpectations() {
+			{
+				client.sendMessageAsync((Message) any);
+				result = CompletableFuture.completedFuture(null);
+			}
+		};
+
+		CompletableFuture<Message> firstFuture = llrpMessageHandler.sendRequest(first, 5000);
+		CompletableFuture<Message> secondFuture = llrpMessageHandler.sendRequest(second, 5000);
+		llrpMessageHandler.sendRequest(third, 5000);
+
+		new Verifications() {
+			{
+				client.sendMessageAsync(first);
+				times = 1;
+				client.sendMessageAsync(second);
+				times = 1;
+				client.sendMessageAsync(third);
+				times = 0;
+			}
+		};
+
+		// responses are matched by their id in any order
+		llrpMessageHandler.notifyResponse(new GetSupportedVersionResponse(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 2), ProtocolVersion.LLRP_V1_1,
+				ProtocolVersion.LLRP_V1_1, llrpStatus));
+		Assert.assertTrue(secondFuture.isDone());
+		Assert.assertFalse(firstFuture.isDone());
+
+		new Verifications() {
+			{
+				client.sendMessageAsync(third);
+				times = 1;
+			}
+		};
+	}
+
+	@Test
+	public void checkNotifyEvent(final @Mocked LLRPService service, final @Mocked LLRPClient client, final @Mocked TagReportData tagReportData,
+			final @Mocked ReaderEventNotificationData readerEventNotificationData) throws IOException, InvalidMessageTypeException,
+			InvalidParameterTypeException, InterruptedException {
+		final LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+
+		MessageHeader messageHeaderROAccessReport = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
+		MessageHeader messageHeaderClientRequestOP = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
+		MessageHeader messageHeaderKeepalive = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
+		MessageHeader messageHeaderReaderEventNotification = new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 4321);
+
+		final ROAccessReport requestROAccessReport = new ROAccessReport(messageHeaderROAccessReport);
+		final ClientRequestOP requestClientRequestOP = new ClientRequestOP(messageHeaderClientRequestOP, tagReportData);
+		final Keepalive requestKeepalive = new Keepalive(messageHeaderKeepalive);
+		final ReaderEventNotification requestReaderEventNotification = new ReaderEventNotification(messageHeaderReaderEventNotification, readerEventNotificationData);
+
+		llrpMessageHandler.notifyEvent(requestROAccessReport);
+		llrpMessageHandler.notifyEvent(requestClientRequestOP);
+		llrpMessageHandler.notifyEvent(requestKeepalive);
+		llrpMessageHandler.notifyEvent(requestReaderEventNotification);
+
+		llrpMessageHandler.notifyNoDataReceived();
+
+		new Verifications() {
+			{
+				service.onROAccessReportEvent(withAny(new LLRPEventArgs<ROAccessReport>(requestROAccessReport)));
+				times = 1;
+
+				service.onClientRequestOpEvent(withAny(new LLRPEventArgs<ClientRequestOP>(requestClientRequestOP)));
+				times = 1;
+
+				service.onKeepaliveEvent(withAny(new LLRPEventArgs<Keepalive>(requestKeepalive)));
+				times = 1;
+
+				service.onReaderNotificationEvent(withAny(new LLRPEventArgs<ReaderEventNotification>(requestReaderEventNotification)));
+				times = 1;
+
+				service.onNoDataReceivedEvent(withAny(new EventObject(llrpMessageHandler)));
+				times = 1;
+			}
+		};
+	}
+
+	@Test
+	public void checkNoDataReceivedCoalesced() throws Exception {
+		LLRPService service = new LLRPService();
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+
+		final AtomicInteger notified = new AtomicInteger();
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		service.getNoDataReceivedEvent().add(new LLRPEventHandler.LLRPEvent<EventObject>() {
+			@Override
+			public void fire(Object sender, EventObject eventArgs) {
+				notified.incrementAndGet();
+				entered.countDown();
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+
+		llrpMessageHandler.notifyNoDataReceived();
+		Assert.assertTrue(entered.await(1, TimeUnit.SECONDS));
+		for (int i = 0; i < 100; i++) {
+			llrpMessageHandler.notifyNoDataReceived();
+		}
+		release.countDown();
+		Thread.sleep(100);
+		Assert.assertEquals(1, notified.get());
+
+		llrpMessageHandler.notifyNoDataReceived();
+		Thread.sleep(100);
+		Assert.assertEquals(2, notified.get());
+	}
+
+	@Test
+	public void checkClientRequestOpHandler(final @Mocked LLRPService service, final @Mocked LLRPClient client, final @Mocked TagReportData tagReportData,
+			final @Mocked ClientRequestOPResponse response) throws Exception {
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+
+		final ClientRequestOP answered = new ClientRequestOP(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 1), tagReportData);
+		final ClientRequestOP unanswered = new ClientRequestOP(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 2), tagReportData);
+		llrpMessageHandler.setClientRequestOpHandler(new ClientRequestOpHandler() {
+			@Override
+			public ClientRequestOPResponse handle(ClientRequestOP request) {
+				return request == answered ? response : null;
+			}
+		});
+
+		new NonStrictExpectations() {
+			{
+				client.sendMessageAsync(response);
+				result = CompletableFuture.completedFuture(null);
+			}
+		};
+
+		llrpMessageHandler.notifyEvent(answered);
+		llrpMessageHandler.notifyEvent(unanswered);
+		llrpMessageHandler.notifyNoDataReceived();
+
+		new Verifications() {
+			{
+				client.sendMessageAsync(response);
+				times = 1;
+
+				service.onClientRequestOpEvent(withAny(new LLRPEventArgs<ClientRequestOP>(unanswered)));
+				times = 1;
+			}
+		};
+	}
+
+	@Test
+	public void checkReportSubscription(final @Mocked LLRPService service, final @Mocked LLRPClient client) throws Exception {
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+
+		final CountDownLatch received = new CountDownLatch(1);
+		LLRPEventHandler.LLRPEvent<LLRPEventArgs<ROAccessReport>> listener = new LLRPEventHandler.LLRPEvent<LLRPEventArgs<ROAccessReport>>() {
+			@Override
+			public void fire(Object sender, LLRPEventArgs<ROAccessReport> eventArgs) {
+				received.countDown();
+			}
+		};
+		ReportFilter filter = new ReportFilter();
+		filter.setAntennaID(1);
+		ReportSubscription subscription = llrpMessageHandler.subscribe(filter, listener);
+		Assert.assertSame(filter, subscription.getFilter());
+		Assert.assertEquals(ListenerOverflowPolicy.DROP_OLDEST, subscription.getListener().getOverflowPolicy());
+		Assert.assertEquals(1, llrpMessageHandler.getReportSubscriptions().size());
+
+		llrpMessageHandler.notifyReport(subscription, new ROAccessReport(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 1)));
+		Assert.assertTrue(received.await(1, TimeUnit.SECONDS));
+
+		llrpMessageHandler.unsubscribe(listener);
+		Assert.assertTrue(llrpMessageHandler.getReportSubscriptions().isEmpty());
+		Assert.assertTrue(subscription.getListener().isClosed());
+	}
+
+	@Test
+	public void checkIsConsumed(final @Mocked LLRPClient client) throws Exception {
+		LLRPService service = new LLRPService();
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(service);
+		llrpMessageHandler.setClient(client);
+
+		Assert.assertFalse(llrpMessageHandler.isConsumed(MessageType.RO_ACCESS_REPORT, 1));
+		Assert.assertFalse(llrpMessageHandler.isConsumed(MessageType.READER_EVENT_NOTIFICATION, 1));
+		Assert.assertFalse(llrpMessageHandler.isConsumed(MessageType.KEEPALIVE, 1));
+		Assert.assertFalse(llrpMessageHandler.isConsumed(MessageType.CLIENT_REQUEST_OP, 1));
+		Assert.assertFalse(llrpMessageHandler.isConsumed(MessageType.GET_READER_CONFIG_RESPONSE, 1));
+
+		service.getKeepaliveEvent().add(new LLRPEventHandler.LLRPEvent<LLRPEventArgs<Keepalive>>() {
+			@Override
+			public void fire(Object sender, LLRPEventArgs<Keepalive> eventArgs) {
+			}
+		});
+		Assert.assertTrue(llrpMessageHandler.isConsumed(MessageType.KEEPALIVE, 1));
+		Assert.assertFalse(llrpMessageHandler.isConsumed(MessageType.RO_ACCESS_REPORT, 1));
+
+		// replayed events are kept without listeners
+		llrpMessageHandler.setReplayBuffer(4, 0);
+		Assert.assertTrue(llrpMessageHandler.isConsumed(MessageType.RO_ACCESS_REPORT, 1));
+		Assert.assertTrue(llrpMessageHandler.isConsumed(MessageType.READER_EVENT_NOTIFICATION, 1));
+
+		// responses are consumed while their request is waiting
+		final GetSupportedVersion request = new GetSupportedVersion(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 7));
+		new NonStrictExpectations() {
+			{
+				client.sendMessageAsync(request);
+				result = CompletableFuture.completedFuture(null);
+			}
+		};
+		CompletableFuture<Message> future = llrpMessageHandler.sendRequest(request, 10000);
+		Assert.assertTrue(llrpMessageHandler.isConsumed(MessageType.GET_SUPPORTED_VERSION_RESPONSE, 7));
+		Assert.assertFalse(llrpMessageHandler.isConsumed(MessageType.GET_SUPPORTED_VERSION_RESPONSE, 8));
+		future.cancel(false);
+	}
+
+	@Test
+	public void checkTagReportListener() {
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(new LLRPService());
+		// RO_ACCESS_REPORT with a TagReportData of AntennaID 3
+		final ByteBuffer frame = ByteBuffer.wrap(new byte[] { 0x04, 0x3D, 0x00, 0x00, 0x00, 0x11, 0x00, 0x00, 0x00, 0x01, 0x00, (byte) 0xF0, 0x00,
+				0x07, (byte) 0x81, 0x00, 0x03 });
+		final List<Integer> antennas = new ArrayList<Integer>();
+		TagReportListener listener = new TagReportListener() {
+			@Override
+			public void tagsReported(TagReportCursor tags) {
+				while (tags.next()) {
+					antennas.add(tags.getAntennaID());
+				}
+			}
+		};
+		TagReportListener failing = new TagReportListener() {
+			@Override
+			public void tagsReported(TagReportCursor tags) {
+				throw new IllegalStateException("This is a test!");
+			}
+		};
+
+		llrpMessageHandler.addTagReportListener(failing);
+		llrpMessageHandler.addTagReportListener(listener);
+		TagReportCursor cursor = new TagReportCursor();
+		llrpMessageHandler.notifyTagReports(frame, cursor);
+		llrpMessageHandler.notifyTagReports(frame, cursor);
+		Assert.assertEquals(Arrays.asList(3, 3), antennas);
+
+		llrpMessageHandler.removeTagReportListener(listener);
+		llrpMessageHandler.notifyTagReports(frame, cursor);
+		Assert.assertEquals(2, antennas.size());
+	}
+
+	@Test
+	public void checkReplayDecodesLazyMessage() throws InterruptedException {
+		LLRPMessageHandler llrpMessageHandler = new LLRPMessageHandler(new LLRPService());
+		llrpMessageHandler.setReplayBuffer(4, 0);
+		final ROAccessReport decoded = new ROAccessReport(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 1));
+		llrpMessageHandler.notifyEvent(new LazyReport(decoded));
+
+		final List<Message> replayed = new ArrayList<Message>();
+		ObjLongConsumer<Message> consumer = new ObjLongConsumer<Message>() {
+			@Override
+			public void accept(Message message, long sequence) {
+				replayed.add(message);
+			}
+		};
+		Runnable attach = new Runnable() {
+			@Override
+			public void run() {
+			}
+		};
+		// the event is kept as soon as it was dispatched
+		for (int i = 0; i < 100 && llrpMessageHandler.replay(MessageType.RO_ACCESS_REPORT, 0, consumer, attach) == 0; i++) {
+			Thread.sleep(10);
+		}
+		Assert.assertEquals(1, replayed.size());
+		Assert.assertSame(decoded, replayed.get(0));
+	}
+
+	private static class LazyReport extends ROAccessReport implements LazyMessage {
+		private final ROAccessReport decoded;
+
+		private LazyReport(ROAccessReport decoded) {
+			super(decoded.getMessageHeader());
+			this.decoded = decoded;
+		}
+
+		@Override
+		public ROAccessReport decode() {
+			return this.decoded;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.MessageHeader;
+import havis.llrpservice.data.message.ProtocolVersion;
+import havis.llrpservice.data.message.ROAccessReport;
+import havis.middleware.reader.llrp.service.event.LLRPBatchEventArgs;
+import havis.middleware.reader.llrp.service.event.LLRPEventArgs;
+import havis.middleware.reader.llrp.service.event.LLRPEventHandler;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReportBatcherTest {
+
+	@Test
+	public void checkSizeFlush() throws InterruptedException {
+		final BlockingQueue<LLRPBatchEventArgs<ROAccessReport>> batches = new LinkedBlockingQueue<LLRPBatchEventArgs<ROAccessReport>>();
+		ReportBatcher batcher = new ReportBatcher(3, 60000, listener(batches));
+
+		ROAccessReport[] reports = new ROAccessReport[7];
+		for (int i = 0; i < reports.length; i++) {
+			reports[i] = report(i);
+			batcher.fire(this, new LLRPEventArgs<ROAccessReport>(reports[i], i));
+		}
+
+		LLRPBatchEventArgs<ROAccessReport> batch = batches.poll(1, TimeUnit.SECONDS);
+		Assert.assertEquals(3, batch.getMessages().size());
+		Assert.assertSame(reports[0], batch.getMessages().get(0));
+		Assert.assertSame(reports[2], batch.getMessages().get(2));
+		Assert.assertEquals(0, batch.getFirstSequence());
+		Assert.assertEquals(2, batch.getLastSequence());
+
+		batch = batches.poll(1, TimeUnit.SECONDS);
+		Assert.assertEquals(3, batch.getFirstSequence());
+		Assert.assertEquals(5, batch.getLastSequence());
+		Assert.assertEquals(2, batcher.getSizeFlushCount());
+
+		batcher.close();
+		batch = batches.poll(1, TimeUnit.SECONDS);
+		Assert.assertEquals(1, batch.getMessages().size());
+		Assert.assertSame(reports[6], batch.getMessages().get(0));
+		Assert.assertEquals(3, batcher.getBatchCount());
+		Assert.assertEquals(0, batcher.getLatencyFlushCount());
+
+		// reports after closing are ignored
+		batcher.fire(this, new LLRPEventArgs<ROAccessReport>(report(7), 7));
+		batcher.flush();
+		Assert.assertNull(batches.poll(50, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void checkLatencyFlush() throws InterruptedException {
+		final BlockingQueue<LLRPBatchEventArgs<ROAccessReport>> batches = new LinkedBlockingQueue<LLRPBatchEventArgs<ROAccessReport>>();
+		ReportBatcher batcher = new ReportBatcher(100, 20, listener(batches));
+
+		long start = System.nanoTime();
+		batcher.fire(this, new LLRPEventArgs<ROAccessReport>(report(1), 1));
+		batcher.fire(this, new LLRPEventArgs<ROAccessReport>(report(2), 2));
+
+		LLRPBatchEventArgs<ROAccessReport> batch = batches.poll(1, TimeUnit.SECONDS);
+		Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+		Assert.assertEquals(2, batch.getMessages().size());
+		Assert.assertEquals(1, batcher.getLatencyFlushCount());
+		Assert.assertEquals(0, batcher.getSizeFlushCount());
+		batcher.close();
+	}
+
+	@Test
+	public void checkSlowListenerDoesNotBlock() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		ReportBatcher slow = new ReportBatcher(2, 20, new LLRPEventHandler.LLRPEvent<LLRPBatchEventArgs<ROAccessReport>>() {
+			@Override
+			public void fire(Object sender, LLRPBatchEventArgs<ROAccessReport> eventArgs) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		try {
+			// fills the queue of the listener with full batches, the latency
+			// flush of the last report finds the queue full
+			int count = 2 * (LLRPMessageHandler.DEFAULT_EVENT_QUEUE_CAPACITY + 1) + 1;
+			for (int i = 0; i < count; i++) {
+				slow.fire(this, new LLRPEventArgs<ROAccessReport>(report(i), i));
+			}
+
+			// the shared timer still flushes the batches of another batcher
+			final BlockingQueue<LLRPBatchEventArgs<ROAccessReport>> batches = new LinkedBlockingQueue<LLRPBatchEventArgs<ROAccessReport>>();
+			ReportBatcher batcher = new ReportBatcher(100, 20, listener(batches));
+			batcher.fire(this, new LLRPEventArgs<ROAccessReport>(report(1), 1));
+			Assert.assertNotNull(batches.poll(1, TimeUnit.SECONDS));
+			Assert.assertEquals(1, slow.getLatencyFlushCount());
+			Assert.assertEquals(1, slow.getListener().getDroppedCount());
+			batcher.close();
+		} finally {
+			release.countDown();
+			slow.close();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void checkInvalidSize() {
+		new ReportBatcher(0, 10, listener(null));
+	}
+
+	private static ROAccessReport report(int id) {
+		return new ROAccessReport(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, id));
+	}
+
+	private static LLRPEventHandler.LLRPEvent<LLRPBatchEventArgs<ROAccessReport>> listener(final BlockingQueue<LLRPBatchEventArgs<ROAccessReport>> batches) {
+		return new LLRPEventHandler.LLRPEvent<LLRPBatchEventArgs<ROAccessReport>>() {
+			@Override
+			public void fire(Object sender, LLRPBatchEventArgs<ROAccessReport> eventArgs) {
+				batches.add(eventArgs);
+			}
+		};
+	}
+}
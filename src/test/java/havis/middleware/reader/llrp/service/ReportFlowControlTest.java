@@ -0,0 +1,156 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.middleware.reader.llrp.util.HashedWheelTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReportFlowControlTest {
+
+	private final static HashedWheelTimer timer = new HashedWheelTimer("ReportFlowControlTest");
+
+	private static class Recorder implements ReportFlowController {
+		private final List<String> calls = new ArrayList<String>();
+
+		@Override
+		public synchronized void switchToPull() {
+			this.calls.add("pull mode");
+		}
+
+		@Override
+		public synchronized void switchToPush() {
+			this.calls.add("push mode");
+		}
+
+		synchronized void getReport() {
+			this.calls.add("get");
+		}
+
+		synchronized List<String> getCalls() {
+			return new ArrayList<String>(this.calls);
+		}
+	}
+
+	private static ReportFlowControl create(final Recorder recorder, long pullTimeout) {
+		return new ReportFlowControl(8, 2, pullTimeout, recorder, new Runnable() {
+			@Override
+			public void run() {
+				recorder.getReport();
+			}
+		}, timer);
+	}
+
+	@Test
+	public void checkPull() {
+		Recorder recorder = new Recorder();
+		ReportFlowControl control = create(recorder, 10000);
+
+		for (int i = 1; i < 8; i++) {
+			control.reportReceived(1);
+			control.reportQueued(i);
+		}
+		Assert.assertFalse(control.isPulling());
+		control.reportQueued(8);
+		Assert.assertTrue(control.isPulling());
+		Assert.assertEquals(1, control.getSwitchCount());
+		// reports pushed before the first pull do not end the pull mode
+		control.reportReceived(0);
+		control.reportQueued(9);
+		Assert.assertTrue(control.isPulling());
+
+		// pull at the low watermark only
+		control.reportDispatched(5);
+		Assert.assertEquals(0, control.getPullCount());
+		control.reportDispatched(2);
+		Assert.assertEquals(1, control.getPullCount());
+		// a single pull is outstanding
+		control.reportDispatched(1);
+		Assert.assertEquals(1, control.getPullCount());
+
+		// a single report holding all buffered tags is followed by the next pull
+		control.reportReceived(500);
+		control.reportQueued(1);
+		control.reportDispatched(0);
+		Assert.assertEquals(2, control.getPullCount());
+		Assert.assertTrue(control.isPulling());
+
+		// an empty report switches back
+		control.reportReceived(0);
+		Assert.assertFalse(control.isPulling());
+		control.reportQueued(1);
+		control.reportDispatched(0);
+		Assert.assertEquals(2, control.getPullCount());
+
+		List<String> expected = new ArrayList<String>();
+		expected.add("pull mode");
+		expected.add("get");
+		expected.add("get");
+		expected.add("push mode");
+		Assert.assertEquals(expected, recorder.getCalls());
+
+		// no pull while pushing
+		control.reportReceived(0);
+		control.reportDispatched(0);
+		Assert.assertEquals(expected, recorder.getCalls());
+	}
+
+	@Test
+	public void checkAnsweredPullDoesNotExpire() throws InterruptedException {
+		Recorder recorder = new Recorder();
+		ReportFlowControl control = create(recorder, 50);
+
+		control.reportQueued(8);
+		control.reportDispatched(2);
+		control.reportReceived(3);
+		control.reportQueued(3);
+
+		// the answered pull does not expire
+		Thread.sleep(150);
+		Assert.assertTrue(control.isPulling());
+	}
+
+	@Test
+	public void checkPullTimeout() throws InterruptedException {
+		Recorder recorder = new Recorder();
+		ReportFlowControl control = create(recorder, 50);
+
+		control.reportQueued(8);
+		control.reportDispatched(2);
+		Assert.assertTrue(control.isPulling());
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (control.isPulling() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		Assert.assertFalse(control.isPulling());
+
+		List<String> expected = new ArrayList<String>();
+		expected.add("pull mode");
+		expected.add("get");
+		expected.add("push mode");
+		Assert.assertEquals(expected, recorder.getCalls());
+	}
+
+	@Test
+	public void checkInvalidWatermarks() {
+		Recorder recorder = new Recorder();
+		try {
+			new ReportFlowControl(2, 2, 100, recorder, null, timer);
+			Assert.fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			new ReportFlowControl(2, -1, 100, recorder, null, timer);
+			Assert.fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			new ReportFlowControl(4, 2, 0, recorder, null, timer);
+			Assert.fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.MessageHeader;
+import havis.llrpservice.data.message.ProtocolVersion;
+import havis.llrpservice.data.message.ROAccessReport;
+import havis.middleware.reader.llrp.service.event.LLRPEventArgs;
+import havis.middleware.reader.llrp.util.Flow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReportPublisherTest {
+
+	@Test
+	public void checkDemand() {
+		ReportPublisher publisher = new ReportPublisher(10, FlowOverflowPolicy.BLOCK);
+		TestSubscriber subscriber = new TestSubscriber();
+		publisher.subscribe(subscriber);
+		Assert.assertNotNull(subscriber.subscription);
+		Assert.assertEquals(1, publisher.getSubscriberCount());
+
+		ROAccessReport[] reports = publish(publisher, 5);
+		Assert.assertEquals(0, subscriber.received.size());
+
+		subscriber.subscription.request(2);
+		Assert.assertEquals(2, subscriber.received.size());
+		Assert.assertSame(reports[0], subscriber.received.get(0));
+		Assert.assertSame(reports[1], subscriber.received.get(1));
+
+		subscriber.subscription.request(Long.MAX_VALUE);
+		Assert.assertEquals(5, subscriber.received.size());
+		publish(publisher, 2);
+		Assert.assertEquals(7, subscriber.received.size());
+
+		publisher.close();
+		Assert.assertTrue(subscriber.completed);
+		Assert.assertEquals(0, publisher.getSubscriberCount());
+	}
+
+	@Test
+	public void checkCompleteAfterBuffered() {
+		ReportPublisher publisher = new ReportPublisher(10, FlowOverflowPolicy.BLOCK);
+		TestSubscriber subscriber = new TestSubscriber();
+		publisher.subscribe(subscriber);
+		publish(publisher, 3);
+
+		publisher.close();
+		Assert.assertFalse(subscriber.completed);
+		subscriber.subscription.request(3);
+		Assert.assertEquals(3, subscriber.received.size());
+		Assert.assertTrue(subscriber.completed);
+	}
+
+	@Test
+	public void checkDropOldest() {
+		ReportPublisher publisher = new ReportPublisher(2, FlowOverflowPolicy.DROP_OLDEST);
+		TestSubscriber subscriber = new TestSubscriber();
+		publisher.subscribe(subscriber);
+
+		ROAccessReport[] reports = publish(publisher, 5);
+		Assert.assertEquals(3, publisher.getDroppedCount());
+		subscriber.subscription.request(10);
+		Assert.assertEquals(2, subscriber.received.size());
+		Assert.assertSame(reports[3], subscriber.received.get(0));
+		Assert.assertSame(reports[4], subscriber.received.get(1));
+	}
+
+	@Test
+	public void checkDropNewest() {
+		ReportPublisher publisher = new ReportPublisher(2, FlowOverflowPolicy.DROP_NEWEST);
+		TestSubscriber subscriber = new TestSubscriber();
+		publisher.subscribe(subscriber);
+
+		ROAccessReport[] reports = publish(publisher, 5);
+		Assert.assertEquals(3, publisher.getDroppedCount());
+		subscriber.subscription.request(10);
+		Assert.assertEquals(2, subscriber.received.size());
+		Assert.assertSame(reports[0], subscriber.received.get(0));
+		Assert.assertSame(reports[1], subscriber.received.get(1));
+	}
+
+	@Test
+	public void checkError() {
+		ReportPublisher publisher = new ReportPublisher(2, FlowOverflowPolicy.ERROR);
+		TestSubscriber subscriber = new TestSubscriber();
+		publisher.subscribe(subscriber);
+
+		publish(publisher, 3);
+		Assert.assertTrue(subscriber.error instanceof IllegalStateException);
+		Assert.assertEquals(0, publisher.getSubscriberCount());
+
+		subscriber = new TestSubscriber();
+		publisher.subscribe(subscriber);
+		subscriber.subscription.request(0);
+		Assert.assertTrue(subscriber.error instanceof IllegalArgumentException);
+	}
+
+	@Test
+	public void checkBlock() throws InterruptedException {
+		final ReportPublisher publisher = new ReportPublisher(1, FlowOverflowPolicy.BLOCK);
+		TestSubscriber subscriber = new TestSubscriber();
+		publisher.subscribe(subscriber);
+		publish(publisher, 1);
+
+		final CountDownLatch published = new CountDownLatch(1);
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				publish(publisher, 1);
+				published.countDown();
+			}
+		});
+		thread.start();
+		Assert.assertFalse(published.await(50, TimeUnit.MILLISECONDS));
+
+		subscriber.subscription.request(1);
+		Assert.assertTrue(published.await(1, TimeUnit.SECONDS));
+		subscriber.subscription.request(1);
+		Assert.assertEquals(2, subscriber.received.size());
+		Assert.assertEquals(0, publisher.getDroppedCount());
+	}
+
+	@Test
+	public void checkCancel() {
+		ReportPublisher publisher = new ReportPublisher(10, FlowOverflowPolicy.BLOCK);
+		TestSubscriber subscriber = new TestSubscriber();
+		publisher.subscribe(subscriber);
+		subscriber.subscription.request(10);
+		publish(publisher, 1);
+
+		subscriber.subscription.cancel();
+		Assert.assertEquals(0, publisher.getSubscriberCount());
+		publish(publisher, 1);
+		Assert.assertEquals(1, subscriber.received.size());
+	}
+
+	private static ROAccessReport[] publish(ReportPublisher publisher, int count) {
+		ROAccessReport[] reports = new ROAccessReport[count];
+		for (int i = 0; i < count; i++) {
+			reports[i] = new ROAccessReport(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, i));
+			publisher.fire(publisher, new LLRPEventArgs<ROAccessReport>(reports[i], i));
+		}
+		return reports;
+	}
+
+	private static class TestSubscriber implements Flow.Subscriber<ROAccessReport> {
+		private final List<ROAccessReport> received = new ArrayList<ROAccessReport>();
+		private Flow.Subscription subscription;
+		private volatile Throwable error;
+		private volatile boolean completed;
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(ROAccessReport item) {
+			this.received.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			this.error = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			this.completed = true;
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package havis.middleware.reader.llrp.service;
+
+import havis.llrpservice.data.message.GetROSpecs;
+import havis.llrpservice.data.message.Message;
+import havis.llrpservice.data.message.MessageHeader;
+import havis.llrpservice.data.message.ProtocolVersion;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RequestCoalescerTest {
+
+	private static Supplier<CompletableFuture<Message>> sender(final AtomicInteger sent, final CompletableFuture<Message> response) {
+		return new Supplier<CompletableFuture<Message>>() {
+			@Override
+			public CompletableFuture<Message> get() {
+				sent.incrementAndGet();
+				return response;
+			}
+		};
+	}
+
+	@Test
+	public void checkCoalesce() throws Exception {
+		RequestCoalescer coalescer = new RequestCoalescer();
+		AtomicInteger sent = new AtomicInteger();
+		CompletableFuture<Message> response = new CompletableFuture<Message>();
+		Message message = new GetROSpecs(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 1));
+
+		CompletableFuture<Message> first = coalescer.coalesce(ByteBuffer.wrap(new byte[] { 1, 2 }), sender(sent, response));
+		CompletableFuture<Message> second = coalescer.coalesce(ByteBuffer.wrap(new byte[] { 1, 2 }), sender(sent, response));
+		CompletableFuture<Message> other = coalescer.coalesce(ByteBuffer.wrap(new byte[] { 1, 3 }), sender(sent, new CompletableFuture<Message>()));
+
+		Assert.assertEquals(2, sent.get());
+		Assert.assertSame(first, second);
+		Assert.assertNotSame(first, other);
+		Assert.assertEquals(1, coalescer.getCoalescedCount());
+		Assert.assertEquals(2, coalescer.getPending());
+		Assert.assertFalse(first.isDone());
+
+		response.complete(message);
+
+		Assert.assertSame(message, first.get());
+		Assert.assertSame(message, second.get());
+		Assert.assertEquals(1, coalescer.getPending());
+
+		// a request after the response is sent again
+		coalescer.coalesce(ByteBuffer.wrap(new byte[] { 1, 2 }), sender(sent, new CompletableFuture<Message>()));
+		Assert.assertEquals(3, sent.get());
+		Assert.assertEquals(1, coalescer.getCoalescedCount());
+	}
+
+	@Test
+	public void checkFailure() throws Exception {
+		RequestCoalescer coalescer = new RequestCoalescer();
+		AtomicInteger sent = new AtomicInteger();
+		CompletableFuture<Message> response = new CompletableFuture<Message>();
+
+		CompletableFuture<Message> first = coalescer.coalesce(ByteBuffer.wrap(new byte[] { 1 }), sender(sent, response));
+		CompletableFuture<Message> second = coalescer.coalesce(ByteBuffer.wrap(new byte[] { 1 }), sender(sent, response));
+
+		response.completeExceptionally(new IllegalStateException("failed"));
+
+		try {
+			second.get();
+			Assert.fail("Expected ExecutionException");
+		} catch (ExecutionException e) {
+			Assert.assertEquals("failed", e.getCause().getMessage());
+		}
+		Assert.assertTrue(first.isCompletedExceptionally());
+		Assert.assertEquals(0, coalescer.getPending());
+	}
+
+	@Test
+	public void checkSendThrows() {
+		RequestCoalescer coalescer = new RequestCoalescer();
+		try {
+			coalescer.coalesce(ByteBuffer.wrap(new byte[] { 1 }), new Supplier<CompletableFuture<Message>>() {
+				@Override
+				public CompletableFuture<Message> get() {
+					throw new IllegalStateException("Client not set");
+				}
+			});
+			Assert.fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("Client not set", e.getMessage());
+		}
+		Assert.assertEquals(0, coalescer.getPending());
+	}
+
+	@Test
+	public void checkKey() throws Exception {
+		ByteBuffer first = RequestCoalescer.key(new GetROSpecs(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 1)));
+		ByteBuffer second = RequestCoalescer.key(new GetROSpecs(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 2)));
+
+		Assert.assertEquals(first, second);
+		Assert.assertEquals(first.hashCode(), second.hashCode());
+	}
+}
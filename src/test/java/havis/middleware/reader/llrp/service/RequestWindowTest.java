@@ -0,0 +1,111 @@
+package havis.middleware.reader.llrp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RequestWindowTest {
+
+	private final List<Integer> sent = new ArrayList<>();
+
+	private Runnable send(final int id) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				sent.add(id);
+			}
+		};
+	}
+
+	@Test
+	public void checkWindowLimitsPendingRequests() {
+		RequestWindow window = new RequestWindow();
+		window.setSize(2);
+
+		for (int i = 1; i <= 5; i++) {
+			window.submit(send(i));
+		}
+		Assert.assertEquals(2, sent.size());
+		Assert.assertEquals(2, window.getPending());
+
+		window.release();
+		Assert.assertEquals(3, sent.size());
+		Assert.assertEquals(Integer.valueOf(3), sent.get(2));
+
+		window.release();
+		window.release();
+		window.release();
+		Assert.assertEquals(5, sent.size());
+		Assert.assertEquals(1, window.getPending());
+	}
+
+	@Test
+	public void checkDefaultSizeIsOne() {
+		RequestWindow window = new RequestWindow();
+		window.submit(send(1));
+		window.submit(send(2));
+
+		Assert.assertEquals(1, sent.size());
+		Assert.assertEquals(1, window.getSize());
+	}
+
+	@Test
+	public void checkGrowingWindowSendsQueued() {
+		RequestWindow window = new RequestWindow();
+		window.setSize(0);
+		window.submit(send(1));
+		window.submit(send(2));
+		window.submit(send(3));
+
+		window.setSize(3);
+
+		Assert.assertEquals(3, sent.size());
+		Assert.assertEquals(3, window.getPending());
+	}
+
+	@Test
+	public void checkAcquireWaitsForRelease() throws InterruptedException {
+		final RequestWindow window = new RequestWindow();
+		window.acquire();
+		final CountDownLatch acquired = new CountDownLatch(1);
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					window.acquire();
+					acquired.countDown();
+				} catch (InterruptedException e) {
+				}
+			}
+		});
+		thread.start();
+
+		Assert.assertFalse(acquired.await(50, TimeUnit.MILLISECONDS));
+		window.release();
+		Assert.assertTrue(acquired.await(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void checkDrain() {
+		RequestWindow window = new RequestWindow();
+		window.submit(send(1));
+		window.submit(send(2));
+		window.submit(send(3));
+
+		Runnable[] queued = window.drain();
+		Assert.assertEquals(2, queued.length);
+		Assert.assertEquals(3, window.getPending());
+
+		for (Runnable send : queued) {
+			send.run();
+			window.release();
+		}
+		window.release();
+		Assert.assertEquals(3, sent.size());
+		Assert.assertEquals(0, window.getPending());
+	}
+}
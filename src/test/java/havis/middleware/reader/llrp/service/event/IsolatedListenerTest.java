@@ -0,0 +1,155 @@
+package havis.middleware.reader.llrp.service.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IsolatedListenerTest {
+
+	@Test
+	public void checkSlowListener() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch fast = new CountDownLatch(3);
+		LLRPEventHandler<Integer> eventHandler = new LLRPEventHandler<Integer>();
+
+		IsolatedListener<Integer> slow = eventHandler.add(new LLRPEventHandler.LLRPEvent<Integer>() {
+			@Override
+			public void fire(Object sender, Integer eventArgs) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+				}
+			}
+		}, 16, ListenerOverflowPolicy.BLOCK, true, 1);
+		eventHandler.add(new LLRPEventHandler.LLRPEvent<Integer>() {
+			@Override
+			public void fire(Object sender, Integer eventArgs) {
+				fast.countDown();
+			}
+		});
+
+		for (int i = 0; i < 3; i++) {
+			eventHandler.handleEvent(this, Integer.valueOf(i));
+		}
+		Assert.assertTrue(fast.await(100, TimeUnit.MILLISECONDS));
+		Assert.assertEquals(3, slow.getFiredCount());
+		Assert.assertEquals(0, slow.getDeliveredCount());
+
+		release.countDown();
+		waitForDelivery(slow, 3);
+		Assert.assertEquals(0, slow.getLag());
+		Assert.assertTrue(slow.getMaxDelay() >= slow.getAverageDelay());
+		Assert.assertTrue(slow.getMaxDuration() > 0);
+
+		eventHandler.remove(slow.getListener());
+		Assert.assertTrue(slow.isClosed());
+		Assert.assertEquals(1, eventHandler.getDelegates().size());
+	}
+
+	@Test
+	public void checkOrdered() throws InterruptedException {
+		final List<Integer> received = new ArrayList<Integer>();
+		IsolatedListener<Integer> listener = new IsolatedListener<Integer>(new LLRPEventHandler.LLRPEvent<Integer>() {
+			@Override
+			public void fire(Object sender, Integer eventArgs) {
+				received.add(eventArgs);
+			}
+		}, 4, ListenerOverflowPolicy.BLOCK, 1);
+		Assert.assertTrue(listener.isOrdered());
+
+		for (int i = 0; i < 100; i++) {
+			listener.fire(this, Integer.valueOf(i));
+		}
+		waitForDelivery(listener, 100);
+		Assert.assertEquals(0, listener.getDroppedCount());
+		for (int i = 0; i < 100; i++) {
+			Assert.assertEquals(Integer.valueOf(i), received.get(i));
+		}
+		listener.close();
+	}
+
+	@Test
+	public void checkDropNewest() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<Integer> received = new ArrayList<Integer>();
+		IsolatedListener<Integer> listener = blocked(release, received, ListenerOverflowPolicy.DROP_NEWEST);
+
+		for (int i = 1; i < 6; i++) {
+			listener.fire(this, Integer.valueOf(i));
+		}
+		Assert.assertEquals(3, listener.getDroppedCount());
+		release.countDown();
+		waitForDelivery(listener, 3);
+		Assert.assertEquals(Integer.valueOf(1), received.get(1));
+		Assert.assertEquals(Integer.valueOf(2), received.get(2));
+		listener.close();
+	}
+
+	@Test
+	public void checkDropOldest() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<Integer> received = new ArrayList<Integer>();
+		IsolatedListener<Integer> listener = blocked(release, received, ListenerOverflowPolicy.DROP_OLDEST);
+
+		for (int i = 1; i < 6; i++) {
+			listener.fire(this, Integer.valueOf(i));
+		}
+		Assert.assertEquals(3, listener.getDroppedCount());
+		release.countDown();
+		waitForDelivery(listener, 3);
+		Assert.assertEquals(Integer.valueOf(4), received.get(1));
+		Assert.assertEquals(Integer.valueOf(5), received.get(2));
+		listener.close();
+	}
+
+	@Test
+	public void checkFailingListener() throws InterruptedException {
+		IsolatedListener<Integer> listener = new IsolatedListener<Integer>(new LLRPEventHandler.LLRPEvent<Integer>() {
+			@Override
+			public void fire(Object sender, Integer eventArgs) {
+				throw new IllegalStateException();
+			}
+		}, 4, ListenerOverflowPolicy.BLOCK, 2);
+		Assert.assertFalse(listener.isOrdered());
+
+		listener.fire(this, Integer.valueOf(1));
+		listener.fire(this, Integer.valueOf(2));
+		waitForDelivery(listener, 2);
+		Assert.assertEquals(2, listener.getFailedCount());
+		listener.close();
+	}
+
+	/**
+	 * Creates a listener with a queue of two events which blocks on the first
+	 * event until <paramref name="release"/> is counted down.
+	 */
+	private IsolatedListener<Integer> blocked(final CountDownLatch release, final List<Integer> received, ListenerOverflowPolicy overflowPolicy)
+			throws InterruptedException {
+		final CountDownLatch started = new CountDownLatch(1);
+		IsolatedListener<Integer> listener = new IsolatedListener<Integer>(new LLRPEventHandler.LLRPEvent<Integer>() {
+			@Override
+			public void fire(Object sender, Integer eventArgs) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+				}
+				received.add(eventArgs);
+			}
+		}, 2, overflowPolicy, 1);
+		listener.fire(this, Integer.valueOf(0));
+		Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+		return listener;
+	}
+
+	private static void waitForDelivery(IsolatedListener<Integer> listener, long count) throws InterruptedException {
+		for (int i = 0; i < 100 && listener.getDeliveredCount() < count; i++) {
+			Thread.sleep(10);
+		}
+		Assert.assertEquals(count, listener.getDeliveredCount());
+	}
+}
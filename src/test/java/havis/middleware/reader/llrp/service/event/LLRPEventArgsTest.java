@@ -1,19 +1,52 @@
-package havis.middleware.reader.llrp.service.event;
-
-import havis.llrpservice.data.message.MessageHeader;
-import havis.llrpservice.data.message.ROAccessReport;
-
-import org.junit.Assert;
-import org.junit.Test;
-
-public class LLRPEventArgsTest {
-
-	@Test
-	public void checkLLRPEventArgs() {
-		ROAccessReport message = new ROAccessReport(new MessageHeader());
-
-		LLRPEventArgs<ROAccessReport> args = new LLRPEventArgs<ROAccessReport>(message);
-
-		Assert.assertEquals(message, args.getMessage());
-	}
+package havis.middleware.reader.llrp.service.event;
+
+import havis.llrpservice.data.message.MessageHeader;
+import havis.llrpservice.data.message.ProtocolVersion;
+import havis.llrpservice.data.message.ROAccessReport;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LLRPEventArgsTest {
+
+	@Test
+	public void checkLLRPEventArgs() {
+		ROAccessReport message = new ROAccessReport(new MessageHeader());
+
+		LLRPEventArgs<ROAccessReport> args = new LLRPEventArgs<ROAccessReport>(message);
+
+		Assert.assertEquals(message, args.getMessage());
+	}
+
+	@Test
+	public void checkLazyMessage() {
+		final ROAccessReport decoded = new ROAccessReport(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 1));
+		final int[] decodeCount = new int[1];
+		ROAccessReport message = new LazyReport(decoded, decodeCount);
+
+		LLRPEventArgs<ROAccessReport> args = new LLRPEventArgs<ROAccessReport>(message);
+		Assert.assertEquals(0, decodeCount[0]);
+
+		// the encoded message is not passed on as source
+		Assert.assertSame(decoded, args.getSource());
+		Assert.assertSame(decoded, args.getMessage());
+		Assert.assertEquals(1, decodeCount[0]);
+	}
+
+	private static class LazyReport extends ROAccessReport implements LazyMessage {
+		private final ROAccessReport decoded;
+		private final int[] decodeCount;
+
+		private LazyReport(ROAccessReport decoded, int[] decodeCount) {
+			super(new MessageHeader((byte) 0, ProtocolVersion.LLRP_V1_1, 1));
+			this.decoded = decoded;
+			this.decodeCount = decodeCount;
+		}
+
+		@Override
+		public ROAccessReport decode() {
+			this.decodeCount[0]++;
+			return this.decoded;
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package havis.middleware.reader.llrp.util;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ByteBufferPoolTest {
+
+	@Test
+	public void checkSizeClasses() {
+		ByteBufferPool pool = new ByteBufferPool(false, false);
+
+		Assert.assertEquals(64, pool.acquire(1).capacity());
+		Assert.assertEquals(64, pool.acquire(64).capacity());
+		Assert.assertEquals(128, pool.acquire(65).capacity());
+		Assert.assertEquals(1 << 20, pool.acquire(1 << 20).capacity());
+		Assert.assertEquals((1 << 20) + 1, pool.acquire((1 << 20) + 1).capacity());
+	}
+
+	@Test
+	public void checkAcquiredBufferIsCleared() {
+		ByteBufferPool pool = new ByteBufferPool(false, false);
+		ByteBuffer buffer = pool.acquire(100);
+		buffer.putInt(1);
+		pool.release(buffer);
+
+		ByteBuffer reused = pool.acquire(70);
+		Assert.assertSame(buffer, reused);
+		Assert.assertEquals(0, reused.position());
+		Assert.assertEquals(70, reused.limit());
+	}
+
+	@Test
+	public void checkReuse() {
+		ByteBufferPool pool = new ByteBufferPool(true, false);
+		for (int i = 0; i < 100; i++) {
+			ByteBuffer buffer = pool.acquire(1000);
+			Assert.assertTrue(buffer.isDirect());
+			pool.release(buffer);
+		}
+
+		Assert.assertEquals(1, pool.getAllocatedCount());
+		Assert.assertEquals(99, pool.getReusedCount());
+	}
+
+	@Test
+	public void checkForeignBuffersIgnored() {
+		ByteBufferPool pool = new ByteBufferPool(false, false);
+		ByteBuffer foreign = ByteBuffer.allocate(100);
+		pool.release(foreign);
+		pool.release(ByteBuffer.allocateDirect(128));
+
+		Assert.assertNotSame(foreign, pool.acquire(100));
+		Assert.assertEquals(0, pool.getReusedCount());
+	}
+
+	@Test
+	public void checkSharedBetweenThreads() throws InterruptedException {
+		final ByteBufferPool pool = new ByteBufferPool(false, false);
+		final ByteBuffer[] buffers = new ByteBuffer[20];
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < buffers.length; i++) {
+					pool.release(buffers[i]);
+				}
+			}
+		});
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = pool.acquire(256);
+		}
+		thread.start();
+		thread.join();
+
+		// the cache of the releasing thread holds the first buffers only
+		for (int i = 0; i < 12; i++) {
+			pool.acquire(256);
+		}
+		Assert.assertEquals(12, pool.getReusedCount());
+	}
+
+	@Test
+	public void checkLeakDetection() throws InterruptedException {
+		ByteBufferPool pool = new ByteBufferPool(false, true);
+		ByteBuffer leaked = pool.acquire(10);
+		ByteBuffer released = pool.acquire(10);
+		pool.release(released);
+		Thread.sleep(20);
+
+		Assert.assertEquals(1, pool.checkLeaks(10));
+		Assert.assertEquals(0, pool.checkLeaks(10000));
+
+		pool.release(leaked);
+		Assert.assertEquals(0, pool.checkLeaks(0));
+	}
+
+	@Test
+	public void checkDoubleReleaseIgnored() {
+		ByteBufferPool pool = new ByteBufferPool(false, true);
+		ByteBuffer buffer = pool.acquire(10);
+		pool.release(buffer);
+		pool.release(buffer);
+
+		Assert.assertSame(buffer, pool.acquire(10));
+		Assert.assertNotSame(buffer, pool.acquire(10));
+	}
+}
@@ -0,0 +1,110 @@
+package havis.middleware.reader.llrp.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentLongTableTest {
+
+	@Test
+	public void checkPutGetRemove() {
+		ConcurrentLongTable<String> table = new ConcurrentLongTable<>(8);
+		Assert.assertEquals(8, table.getCapacity());
+
+		Assert.assertTrue(table.put(1, "a"));
+		Assert.assertTrue(table.put(0xFFFFFFFFL, "b"));
+		Assert.assertFalse(table.put(1, "c"));
+		Assert.assertEquals("a", table.get(1));
+		Assert.assertEquals("b", table.get(0xFFFFFFFFL));
+		Assert.assertNull(table.get(2));
+		Assert.assertEquals(2, table.size());
+
+		Assert.assertFalse(table.remove(1, "c"));
+		Assert.assertTrue(table.remove(1, "a"));
+		Assert.assertNull(table.get(1));
+		Assert.assertFalse(table.remove(1, "a"));
+		Assert.assertEquals(1, table.size());
+		Assert.assertEquals("b", table.values().get(0));
+	}
+
+	@Test
+	public void checkCapacityRoundedUp() {
+		Assert.assertEquals(16, new ConcurrentLongTable<String>(9).getCapacity());
+		Assert.assertEquals(1, new ConcurrentLongTable<String>(1).getCapacity());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void checkInvalidKey() {
+		new ConcurrentLongTable<String>(8).put(0x100000000L, "a");
+	}
+
+	@Test
+	public void checkFullTableReusesTombstones() {
+		ConcurrentLongTable<Long> table = new ConcurrentLongTable<>(4);
+		for (long id = 1; id <= 4; id++) {
+			Assert.assertTrue(table.put(id, Long.valueOf(id)));
+		}
+		Assert.assertFalse(table.put(5, Long.valueOf(5)));
+
+		// keep the table full of tombstones and live entries
+		for (long id = 5; id < 1000; id++) {
+			Long previous = table.get(id - 4);
+			Assert.assertTrue(table.remove(id - 4, previous));
+			Assert.assertTrue(table.put(id, Long.valueOf(id)));
+			Assert.assertEquals(Long.valueOf(id), table.get(id));
+		}
+		Assert.assertEquals(4, table.size());
+	}
+
+	@Test
+	public void checkTombstonesCleared() {
+		ConcurrentLongTable<Long> table = new ConcurrentLongTable<>(64);
+		// many more unique keys than slots, only a few present at the same time
+		for (long id = 0; id < 64 * 100; id++) {
+			Assert.assertTrue(table.put(id, Long.valueOf(id)));
+			if (id >= 4) {
+				Assert.assertTrue(table.remove(id - 4, table.get(id - 4)));
+			}
+		}
+		Assert.assertEquals(4, table.size());
+
+		// a missed lookup stops at the first empty slot
+		int probes = 0;
+		for (long id = 100000; id < 100000 + 64; id++) {
+			probes = Math.max(probes, table.probes(id));
+		}
+		Assert.assertTrue("Missed lookup probed " + probes + " slots", probes <= 8);
+		for (long id = 64 * 100 - 4; id < 64 * 100; id++) {
+			Assert.assertEquals(Long.valueOf(id), table.get(id));
+		}
+	}
+
+	@Test
+	public void checkConcurrentAccess() throws InterruptedException {
+		final ConcurrentLongTable<Long> table = new ConcurrentLongTable<>(64);
+		final AtomicInteger failures = new AtomicInteger();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final long offset = t * 1000000L;
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (long id = offset; id < offset + 10000; id++) {
+						Long value = Long.valueOf(id);
+						if (!table.put(id, value) || table.get(id) != value || !table.remove(id, value)) {
+							failures.incrementAndGet();
+						}
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		Assert.assertEquals(0, failures.get());
+		Assert.assertEquals(0, table.size());
+	}
+}
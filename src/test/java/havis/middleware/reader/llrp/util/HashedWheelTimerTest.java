@@ -0,0 +1,120 @@
+package havis.middleware.reader.llrp.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HashedWheelTimerTest {
+
+	private static Runnable countDown(final CountDownLatch latch) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				latch.countDown();
+			}
+		};
+	}
+
+	@Test
+	public void checkExpiration() throws InterruptedException {
+		HashedWheelTimer timer = new HashedWheelTimer("test");
+		try {
+			CountDownLatch expired = new CountDownLatch(1);
+			long start = System.nanoTime();
+			HashedWheelTimer.Timeout timeout = timer.newTimeout(countDown(expired), 20, TimeUnit.MILLISECONDS);
+
+			Assert.assertTrue(expired.await(1000, TimeUnit.MILLISECONDS));
+			Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+			Assert.assertTrue(timeout.isExpired());
+			Assert.assertFalse(timeout.cancel());
+			Assert.assertEquals(1, timer.getExpiredCount());
+			Assert.assertEquals(0, timer.getPendingCount());
+		} finally {
+			timer.stop();
+		}
+	}
+
+	@Test
+	public void checkCancel() throws InterruptedException {
+		HashedWheelTimer timer = new HashedWheelTimer("test");
+		try {
+			CountDownLatch expired = new CountDownLatch(1);
+			HashedWheelTimer.Timeout timeout = timer.newTimeout(countDown(expired), 20, TimeUnit.MILLISECONDS);
+
+			Assert.assertTrue(timeout.cancel());
+			Assert.assertTrue(timeout.isCancelled());
+			Assert.assertFalse(expired.await(100, TimeUnit.MILLISECONDS));
+			Assert.assertEquals(1, timer.getCancelledCount());
+			Assert.assertEquals(0, timer.getExpiredCount());
+			Assert.assertEquals(0, timer.getPendingCount());
+		} finally {
+			timer.stop();
+		}
+	}
+
+	@Test
+	public void checkDelayBeyondOneRound() throws InterruptedException {
+		// a round of the wheel lasts 4ms
+		HashedWheelTimer timer = new HashedWheelTimer("test", 1, TimeUnit.MILLISECONDS, 4);
+		try {
+			CountDownLatch early = new CountDownLatch(1);
+			CountDownLatch late = new CountDownLatch(1);
+			long start = System.nanoTime();
+			timer.newTimeout(countDown(late), 50, TimeUnit.MILLISECONDS);
+			timer.newTimeout(countDown(early), 2, TimeUnit.MILLISECONDS);
+
+			Assert.assertTrue(early.await(1000, TimeUnit.MILLISECONDS));
+			Assert.assertEquals(1, late.getCount());
+			Assert.assertTrue(late.await(1000, TimeUnit.MILLISECONDS));
+			Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+		} finally {
+			timer.stop();
+		}
+	}
+
+	@Test
+	public void checkResumeFromIdle() throws InterruptedException {
+		HashedWheelTimer timer = new HashedWheelTimer("test", 1, TimeUnit.MILLISECONDS, 4);
+		try {
+			CountDownLatch first = new CountDownLatch(1);
+			timer.newTimeout(countDown(first), 1, TimeUnit.MILLISECONDS);
+			Assert.assertTrue(first.await(1000, TimeUnit.MILLISECONDS));
+
+			Thread.sleep(50);
+
+			CountDownLatch second = new CountDownLatch(1);
+			long start = System.nanoTime();
+			timer.newTimeout(countDown(second), 10, TimeUnit.MILLISECONDS);
+			Assert.assertTrue(second.await(1000, TimeUnit.MILLISECONDS));
+			Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(10));
+		} finally {
+			timer.stop();
+		}
+	}
+
+	@Test
+	public void checkManyTimeouts() throws InterruptedException {
+		HashedWheelTimer timer = new HashedWheelTimer("test");
+		try {
+			final AtomicInteger count = new AtomicInteger();
+			CountDownLatch expired = new CountDownLatch(500);
+			for (int i = 0; i < 1000; i++) {
+				HashedWheelTimer.Timeout timeout = timer.newTimeout(countDown(expired), i % 30, TimeUnit.MILLISECONDS);
+				if (i % 2 == 0 && timeout.cancel()) {
+					count.incrementAndGet();
+				}
+			}
+
+			Assert.assertTrue(expired.await(1000, TimeUnit.MILLISECONDS));
+			Assert.assertEquals(500, count.get());
+			Assert.assertEquals(1000, timer.getScheduledCount());
+			Assert.assertEquals(500, timer.getExpiredCount());
+			Assert.assertEquals(500, timer.getCancelledCount());
+		} finally {
+			timer.stop();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package havis.middleware.reader.llrp.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RingBufferTest {
+
+	@Test
+	public void checkOfferPoll() {
+		RingBuffer<String> buffer = new RingBuffer<>(3);
+		Assert.assertEquals(4, buffer.getCapacity());
+		Assert.assertTrue(buffer.isEmpty());
+		Assert.assertNull(buffer.poll());
+
+		Assert.assertEquals(0, buffer.offer("a"));
+		Assert.assertEquals(1, buffer.offer("b"));
+		Assert.assertEquals(2, buffer.size());
+		Assert.assertEquals("a", buffer.poll());
+		Assert.assertEquals("b", buffer.poll());
+		Assert.assertNull(buffer.poll());
+		Assert.assertEquals(2, buffer.getPublishedSequence());
+		Assert.assertEquals(2, buffer.getConsumedSequence());
+	}
+
+	@Test
+	public void checkFull() {
+		RingBuffer<Integer> buffer = new RingBuffer<>(4);
+		for (int i = 0; i < 4; i++) {
+			Assert.assertEquals(i, buffer.offer(Integer.valueOf(i)));
+		}
+		Assert.assertEquals(-1, buffer.offer(Integer.valueOf(4)));
+
+		Assert.assertEquals(Integer.valueOf(0), buffer.poll());
+		Assert.assertEquals(4, buffer.offer(Integer.valueOf(4)));
+		for (int i = 1; i <= 4; i++) {
+			Assert.assertEquals(Integer.valueOf(i), buffer.poll());
+		}
+		Assert.assertTrue(buffer.isEmpty());
+	}
+
+	@Test
+	public void checkProducerConsumer() throws InterruptedException {
+		final RingBuffer<Long> buffer = new RingBuffer<>(16);
+		final int count = 100000;
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				int counter = 0;
+				for (long i = 0; i < count; i++) {
+					while (buffer.offer(Long.valueOf(i)) < 0) {
+						counter = WaitStrategy.YIELD.idle(counter);
+					}
+				}
+			}
+		});
+		producer.start();
+
+		int counter = 0;
+		for (long i = 0; i < count;) {
+			Long item = buffer.poll();
+			if (item == null) {
+				counter = WaitStrategy.YIELD.idle(counter);
+				continue;
+			}
+			Assert.assertEquals(i++, item.longValue());
+		}
+		producer.join();
+		Assert.assertTrue(buffer.isEmpty());
+	}
+
+	@Test
+	public void checkPollSequence() {
+		RingBuffer<Integer> buffer = new RingBuffer<>(4);
+		buffer.offer(Integer.valueOf(1));
+		buffer.offer(Integer.valueOf(2));
+
+		Assert.assertEquals(Integer.valueOf(1), buffer.poll());
+		Assert.assertEquals(1, buffer.size());
+
+		long sequence = buffer.getConsumedSequence();
+		Assert.assertNull(buffer.poll(sequence + 1));
+		Assert.assertEquals(Integer.valueOf(2), buffer.poll(sequence));
+		Assert.assertNull(buffer.poll(sequence + 1));
+	}
+}
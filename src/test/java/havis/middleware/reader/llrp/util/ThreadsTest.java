@@ -0,0 +1,29 @@
+package havis.middleware.reader.llrp.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ThreadsTest {
+
+	@Test
+	public void checkNewThread() throws InterruptedException {
+		for (ThreadMode mode : ThreadMode.values()) {
+			final CountDownLatch run = new CountDownLatch(1);
+			Thread thread = Threads.newThread(mode, "test " + mode, new Runnable() {
+				@Override
+				public void run() {
+					run.countDown();
+				}
+			});
+			Assert.assertEquals("test " + mode, thread.getName());
+			Assert.assertEquals(Thread.State.NEW, thread.getState());
+
+			thread.start();
+			Assert.assertTrue(run.await(1, TimeUnit.SECONDS));
+			thread.join(1000);
+		}
+	}
+}